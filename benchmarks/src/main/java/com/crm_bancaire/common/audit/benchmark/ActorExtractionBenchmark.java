@@ -0,0 +1,61 @@
+package com.crm_bancaire.common.audit.benchmark;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.extractor.ActorInfoExtractor;
+import com.crm_bancaire.common.audit.extractor.ActorProvider;
+import com.crm_bancaire.common.audit.extractor.UserContextActorProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ActorInfoExtractor.fillActorInfo avec et sans UserContext.
+ *
+ * "with": le stub UserContext de ce module est visible; "without": le provider est
+ * construit avec un ClassLoader qui ne voit pas common-security.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ActorExtractionBenchmark {
+
+    private ActorProvider withUserContext;
+    private ActorProvider withoutUserContext;
+
+    @Setup
+    public void setUp() {
+        UserContextActorProvider available = new UserContextActorProvider();
+        if (!available.isAvailable()) {
+            throw new IllegalStateException("UserContext stub not found on the benchmark classpath");
+        }
+        withUserContext = available;
+        withoutUserContext = new UserContextActorProvider(new ClassLoader(null) {
+        });
+    }
+
+    @Benchmark
+    public AuditEvent withUserContext() {
+        AuditEvent.AuditEventBuilder builder = AuditEvent.builder();
+        ActorInfoExtractor.fillActorInfo(builder, withUserContext);
+        return builder.build();
+    }
+
+    @Benchmark
+    public AuditEvent withoutUserContext() {
+        AuditEvent.AuditEventBuilder builder = AuditEvent.builder();
+        ActorInfoExtractor.fillActorInfo(builder, withoutUserContext);
+        return builder.build();
+    }
+}
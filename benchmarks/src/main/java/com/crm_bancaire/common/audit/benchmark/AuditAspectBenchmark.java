@@ -0,0 +1,67 @@
+package com.crm_bancaire.common.audit.benchmark;
+
+import com.crm_bancaire.common.audit.aspect.AuditAspect;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.Customer;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.CustomerOperations;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.CustomerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de l'aspect @Auditable à travers un vrai proxy Spring AOP, comparé à un appel
+ * direct et à une méthode non annotée du même proxy.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuditAspectBenchmark {
+
+    private CustomerOperations direct;
+    private CustomerOperations proxy;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        direct = new CustomerService();
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new CustomerService());
+        factory.addAspect(new AuditAspect(new NoOpStreamAuditPublisher()));
+        proxy = factory.getProxy();
+
+        customer = new Customer("c-42", "Jean Dupont");
+    }
+
+    @Benchmark
+    public Customer baselineDirectCall() {
+        return direct.createCustomer(customer);
+    }
+
+    @Benchmark
+    public Customer baselineProxyUnannotated() {
+        return proxy.createCustomerUnaudited(customer);
+    }
+
+    @Benchmark
+    public Customer auditedAccessorId() {
+        return proxy.createCustomer(customer);
+    }
+
+    @Benchmark
+    public String auditedExpressionIdWithMetadata() {
+        return proxy.updateCustomer("c-42", customer);
+    }
+}
@@ -0,0 +1,66 @@
+package com.crm_bancaire.common.audit.benchmark;
+
+import com.crm_bancaire.common.audit.benchmark.Fixtures.Account;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.Customer;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.Document;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.Receipt;
+import com.crm_bancaire.common.audit.extractor.EntityInfoExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EntityInfoExtractor.extract selon la stratégie qui aboutit.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityIdExtractionBenchmark {
+
+    private final EntityInfoExtractor extractor = new EntityInfoExtractor();
+
+    private Customer getterEntity;
+    private Account annotatedEntity;
+    private Document fieldEntity;
+    private Receipt missEntity;
+
+    @Setup
+    public void setUp() {
+        getterEntity = new Customer("c-42", "Jean Dupont");
+        annotatedEntity = new Account("FR76-3000-4000");
+        fieldEntity = new Document("d-7");
+        missEntity = new Receipt("r-1");
+    }
+
+    @Benchmark
+    public String hitGetter() {
+        return extractor.extract(getterEntity);
+    }
+
+    @Benchmark
+    public String hitAuditIdField() {
+        return extractor.extract(annotatedEntity);
+    }
+
+    @Benchmark
+    public String hitConventionField() {
+        return extractor.extract(fieldEntity);
+    }
+
+    @Benchmark
+    public String missToStringFallback() {
+        return extractor.extract(missEntity);
+    }
+}
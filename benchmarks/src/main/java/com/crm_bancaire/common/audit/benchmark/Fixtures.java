@@ -0,0 +1,129 @@
+package com.crm_bancaire.common.audit.benchmark;
+
+import com.crm_bancaire.common.audit.annotation.AuditId;
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Types et données partagés par les benchmarks.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * Entité avec getId() (cas nominal)
+     */
+    public static class Customer {
+        private final String id;
+        private final String name;
+
+        public Customer(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Entité dont l'ID est désigné par @AuditId
+     */
+    public static class Account {
+        @AuditId
+        private final String accountNumber;
+
+        public Account(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+    }
+
+    /**
+     * Entité sans accesseur public: lecture du champ id
+     */
+    public static class Document {
+        private final String id;
+
+        public Document(String id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Objet sans ID: fallback toString()
+     */
+    public static class Receipt {
+        private final String label;
+
+        public Receipt(String label) {
+            this.label = label;
+        }
+
+        @Override
+        public String toString() {
+            return "Receipt(" + label + ")";
+        }
+    }
+
+    /**
+     * Service métier proxifié par AuditAspect
+     */
+    public interface CustomerOperations {
+        Customer createCustomer(Customer customer);
+
+        Customer createCustomerUnaudited(Customer customer);
+
+        String updateCustomer(String id, Customer customer);
+    }
+
+    public static class CustomerService implements CustomerOperations {
+
+        @Override
+        @Auditable(action = "CREATED", entity = "Customer")
+        public Customer createCustomer(Customer customer) {
+            return customer;
+        }
+
+        @Override
+        public Customer createCustomerUnaudited(Customer customer) {
+            return customer;
+        }
+
+        @Override
+        @Auditable(action = "UPDATED", entity = "Customer", entityIdExpression = "#p0",
+            metadata = "{\"channel\": \"web\", \"version\": 2}")
+        public String updateCustomer(String id, Customer customer) {
+            return "ok";
+        }
+    }
+
+    public static AuditEvent sampleEvent() {
+        return AuditEvent.builder()
+            .eventId("01890a5d-ac96-774b-bcce-b302099a8057")
+            .action("UPDATED")
+            .entity("Customer")
+            .entityId("c-42")
+            .actorSub("kc-123")
+            .actorEmail("jean.dupont@bank.fr")
+            .actorUsername("jdupont")
+            .actorFirstName("Jean")
+            .actorLastName("Dupont")
+            .actorRole("ADMIN")
+            .status(AuditStatus.SUCCESS)
+            .timestamp(Instant.parse("2025-01-01T10:00:00.123456Z"))
+            .source("customer-service")
+            .metadata(Map.of("channel", "web", "version", 2))
+            .build();
+    }
+}
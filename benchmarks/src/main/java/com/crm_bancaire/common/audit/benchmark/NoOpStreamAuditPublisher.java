@@ -0,0 +1,33 @@
+package com.crm_bancaire.common.audit.benchmark;
+
+import com.crm_bancaire.common.audit.async.AuditDispatcher;
+import com.crm_bancaire.common.audit.batch.AuditEventBatcher;
+import com.crm_bancaire.common.audit.publisher.StreamAuditPublisher;
+
+/**
+ * StreamAuditPublisher dont le binder accepte tous les messages sans les envoyer:
+ * isole le coût de la librairie de celui du broker. StreamBridge étant final et
+ * lié à un contexte Spring complet, c'est l'appel au binder qui est remplacé.
+ */
+public class NoOpStreamAuditPublisher extends StreamAuditPublisher {
+
+    private volatile Object lastPayload;
+
+    public NoOpStreamAuditPublisher() {
+        this(null, null);
+    }
+
+    public NoOpStreamAuditPublisher(AuditDispatcher dispatcher, AuditEventBatcher batcher) {
+        super(null, dispatcher, batcher, null, null, null, null, null, null, 0, 0, false, null);
+    }
+
+    @Override
+    protected boolean sendToBinder(String destination, Object payload) {
+        lastPayload = payload;
+        return true;
+    }
+
+    public Object getLastPayload() {
+        return lastPayload;
+    }
+}
@@ -0,0 +1,98 @@
+package com.crm_bancaire.common.audit.benchmark;
+
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.crm_bancaire.common.audit.aspect.AuditPlan;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.Customer;
+import com.crm_bancaire.common.audit.benchmark.Fixtures.CustomerService;
+import com.crm_bancaire.common.audit.codec.AuditBinaryCodec;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction d'un AuditPlan (parsing SpEL et métadonnées), évaluation SpEL
+ * interprétée/compilée et sérialisation d'un AuditEvent (JSON et binaire).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlanAndSerializationBenchmark {
+
+    private Method method;
+    private Auditable auditable;
+    private ExpressionParser interpretedParser;
+    private AuditPlan interpretedPlan;
+    private AuditPlan compiledPlan;
+    private Object[] args;
+    private ObjectMapper objectMapper;
+    private AuditBinaryCodec binaryCodec;
+    private AuditEvent event;
+
+    @Setup
+    public void setUp() throws Exception {
+        method = CustomerService.class.getMethod("updateCustomer", String.class, Customer.class);
+        auditable = method.getAnnotation(Auditable.class);
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        interpretedParser = new SpelExpressionParser();
+        ExpressionParser compiledParser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader()));
+        interpretedPlan = AuditPlan.compile(method, auditable, interpretedParser, objectMapper);
+        compiledPlan = AuditPlan.compile(method, auditable, compiledParser, objectMapper);
+
+        args = new Object[]{"c-42", new Customer("c-42", "Jean Dupont")};
+        binaryCodec = new AuditBinaryCodec(objectMapper);
+        event = Fixtures.sampleEvent();
+    }
+
+    /**
+     * Coût payé une fois par méthode (parsing de l'expression et des métadonnées JSON)
+     */
+    @Benchmark
+    public AuditPlan compilePlanWithMetadata() {
+        return AuditPlan.compile(method, auditable, interpretedParser, objectMapper);
+    }
+
+    @Benchmark
+    public Object evaluateSpelInterpreted() {
+        return interpretedPlan.getEntityIdExpression().getValue(interpretedPlan.evaluationContext("ok", args));
+    }
+
+    @Benchmark
+    public Object evaluateSpelCompiled() {
+        return compiledPlan.getEntityIdExpression().getValue(compiledPlan.evaluationContext("ok", args));
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binaryCodec.encode(event);
+    }
+}
@@ -0,0 +1,66 @@
+package com.crm_bancaire.common.audit.benchmark;
+
+import com.crm_bancaire.common.audit.async.OverflowPolicy;
+import com.crm_bancaire.common.audit.async.ShardedAuditDispatcher;
+import com.crm_bancaire.common.audit.batch.AuditEventBatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publication de bout en bout (construction de l'événement, acteur, pipeline, envoi)
+ * vers un binder sans effet, du point de vue du thread appelant.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PublishBenchmark {
+
+    @Param({"sync", "async", "batch"})
+    private String pipeline;
+
+    private NoOpStreamAuditPublisher publisher;
+    private Map<String, Object> metadata;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        publisher = switch (pipeline) {
+            case "async" -> new NoOpStreamAuditPublisher(
+                new ShardedAuditDispatcher(10_000, 0, OverflowPolicy.BLOCK, Duration.ofSeconds(10), false), null);
+            case "batch" -> new NoOpStreamAuditPublisher(
+                null, new AuditEventBatcher(100, 256 * 1024, Duration.ofMillis(50)));
+            default -> new NoOpStreamAuditPublisher();
+        };
+        publisher.afterPropertiesSet();
+        metadata = Map.of("channel", "web");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        publisher.destroy();
+    }
+
+    @Benchmark
+    public void publishSuccess() {
+        publisher.success("Customer", "c-42", "UPDATED", metadata);
+    }
+}
@@ -0,0 +1,60 @@
+package com.crm_bancaire.common.security.context;
+
+/**
+ * Stub minimal du UserContext de common-security, pour mesurer l'extraction de l'acteur
+ * quand la classe est présente. Même nom et mêmes accesseurs que l'original.
+ */
+public final class UserContext {
+
+    private static final ThreadLocal<ActorInfo> CURRENT = ThreadLocal.withInitial(() ->
+        new ActorInfo("kc-123", "jean.dupont@bank.fr", "jdupont", "Jean", "Dupont", "ADMIN"));
+
+    private UserContext() {
+    }
+
+    public static ActorInfo getCurrentActor() {
+        return CURRENT.get();
+    }
+
+    public static final class ActorInfo {
+        private final String sub;
+        private final String email;
+        private final String username;
+        private final String firstName;
+        private final String lastName;
+        private final String role;
+
+        public ActorInfo(String sub, String email, String username, String firstName, String lastName, String role) {
+            this.sub = sub;
+            this.email = email;
+            this.username = username;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.role = role;
+        }
+
+        public String getSub() {
+            return sub;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public String getRole() {
+            return role;
+        }
+    }
+}
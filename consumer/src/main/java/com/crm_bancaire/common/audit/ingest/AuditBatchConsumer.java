@@ -0,0 +1,210 @@
+package com.crm_bancaire.common.audit.ingest;
+
+import com.crm_bancaire.common.audit.consumer.AuditEventDeserializer;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Consumer Spring Cloud Stream en mode batch pour audit-service.
+ *
+ * Pour chaque lot de messages reçu du binder:
+ * - les payloads (événement seul, AuditEventBatch, JSON ou binaire) sont désérialisés
+ * - les doublons sont écartés par eventId: dans le lot, puis parmi les derniers événements écrits
+ * - les événements restants sont découpés en chunks écrits en parallèle par
+ *   {@link JdbcAuditEventWriter} (un INSERT batch et une transaction par chunk)
+ *
+ * Acquittement: la méthode ne retourne normalement que lorsque tous les chunks sont écrits.
+ * Si un chunk échoue, une {@link AuditIngestException} est levée après la fin des autres chunks,
+ * le binder relivre le lot, et les événements déjà écrits sont ignorés (eventId = clé primaire).
+ * Aucun événement n'est donc perdu ni écrit deux fois.
+ *
+ * Un payload illisible est journalisé et écarté, pour ne pas bloquer la partition.
+ */
+@Slf4j
+public class AuditBatchConsumer implements Consumer<List<byte[]>>, DisposableBean {
+
+    private final AuditEventDeserializer deserializer;
+    private final JdbcAuditEventWriter writer;
+    private final int chunkSize;
+    private final Duration writeTimeout;
+    private final RecentEventIds recentEventIds;
+    private final ExecutorService writers;
+
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong insertedEvents = new AtomicLong();
+    private final AtomicLong duplicateEvents = new AtomicLong();
+    private final AtomicLong rejectedPayloads = new AtomicLong();
+
+    /**
+     * @param chunkSize Nombre maximum d'événements par INSERT batch
+     * @param writerThreads Nombre de chunks écrits en parallèle (1 = sur le thread du binder)
+     * @param writeTimeout Temps maximum d'écriture d'un lot
+     * @param dedupeCapacity Nombre d'eventIds récents mémorisés
+     */
+    public AuditBatchConsumer(AuditEventDeserializer deserializer, JdbcAuditEventWriter writer,
+                              int chunkSize, int writerThreads, Duration writeTimeout, int dedupeCapacity) {
+        this.deserializer = deserializer;
+        this.writer = writer;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.writeTimeout = writeTimeout;
+        this.recentEventIds = new RecentEventIds(Math.max(1, dedupeCapacity));
+        this.writers = writerThreads > 1 ? newWriterPool(writerThreads) : null;
+    }
+
+    @Override
+    public void accept(List<byte[]> payloads) {
+        List<AuditEvent> events = uniqueEvents(payloads);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<List<AuditEvent>> chunks = new ArrayList<>();
+        for (int from = 0; from < events.size(); from += chunkSize) {
+            chunks.add(events.subList(from, Math.min(from + chunkSize, events.size())));
+        }
+
+        if (writers == null || chunks.size() == 1) {
+            chunks.forEach(this::writeChunk);
+        } else {
+            writeInParallel(chunks);
+        }
+        log.debug("✅ Audit batch ingested: {} messages, {} events", payloads.size(), events.size());
+    }
+
+    /**
+     * Désérialise les payloads et retire les doublons, dans l'ordre de réception.
+     */
+    private List<AuditEvent> uniqueEvents(List<byte[]> payloads) {
+        Map<String, AuditEvent> unique = new LinkedHashMap<>(payloads.size() * 2);
+        int duplicates = 0;
+        for (byte[] payload : payloads) {
+            List<AuditEvent> events;
+            try {
+                events = deserializer.deserialize(payload);
+            } catch (RuntimeException e) {
+                rejectedPayloads.incrementAndGet();
+                log.error("💥 Unreadable audit payload skipped ({} bytes): {}", payload.length, e.getMessage());
+                continue;
+            }
+            receivedEvents.addAndGet(events.size());
+            for (AuditEvent event : events) {
+                String eventId = JdbcAuditEventWriter.idOf(event);
+                event.setEventId(eventId);
+                if (recentEventIds.contains(eventId) || unique.putIfAbsent(eventId, event) != null) {
+                    duplicates++;
+                }
+            }
+        }
+        if (duplicates > 0) {
+            duplicateEvents.addAndGet(duplicates);
+            log.debug("🔁 {} duplicate audit events skipped", duplicates);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private void writeChunk(List<AuditEvent> chunk) {
+        try {
+            WriteResult result = writer.write(chunk);
+            insertedEvents.addAndGet(result.inserted());
+            duplicateEvents.addAndGet(result.duplicates());
+            recentEventIds.addAll(chunk.stream().map(AuditEvent::getEventId).toList());
+        } catch (RuntimeException e) {
+            log.error("❌ Failed to write {} audit events: {}", chunk.size(), e.getMessage());
+            throw new AuditIngestException("Failed to write " + chunk.size() + " audit events", e);
+        }
+    }
+
+    /**
+     * Écrit les chunks en parallèle et attend la fin de tous avant de signaler un éventuel échec,
+     * pour que les chunks réussis soient mémorisés avant la relivraison.
+     */
+    private void writeInParallel(List<List<AuditEvent>> chunks) {
+        List<Future<?>> futures = new ArrayList<>(chunks.size());
+        for (List<AuditEvent> chunk : chunks) {
+            futures.add(writers.submit(() -> writeChunk(chunk)));
+        }
+
+        long deadline = System.nanoTime() + writeTimeout.toNanos();
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException runtime
+                        ? runtime
+                        : new AuditIngestException("Audit chunk write failed", e.getCause());
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                if (failure == null) {
+                    failure = new AuditIngestException("Audit chunk write timed out after " + writeTimeout, e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new AuditIngestException("Interrupted while writing audit events", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return Nombre d'événements reçus (doublons compris)
+     */
+    public long getReceivedEvents() {
+        return receivedEvents.get();
+    }
+
+    public long getInsertedEvents() {
+        return insertedEvents.get();
+    }
+
+    /**
+     * @return Nombre d'événements écartés car déjà reçus ou déjà en base
+     */
+    public long getDuplicateEvents() {
+        return duplicateEvents.get();
+    }
+
+    /**
+     * @return Nombre de payloads illisibles écartés
+     */
+    public long getRejectedPayloads() {
+        return rejectedPayloads.get();
+    }
+
+    @Override
+    public void destroy() {
+        if (writers != null) {
+            writers.shutdown();
+        }
+    }
+
+    private static ExecutorService newWriterPool(int threads) {
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "audit-writer-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.crm_bancaire.common.audit.ingest;
+
+/**
+ * Échec d'écriture d'un lot d'événements: le binder ne doit pas acquitter les messages,
+ * ils seront relivrés (les événements déjà écrits sont alors ignorés grâce à leur eventId).
+ */
+public class AuditIngestException extends RuntimeException {
+
+    public AuditIngestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
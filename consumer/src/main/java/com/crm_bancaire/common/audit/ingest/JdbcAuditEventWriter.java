@@ -0,0 +1,159 @@
+package com.crm_bancaire.common.audit.ingest;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Écrit des événements d'audit par INSERT JDBC en lot (batchUpdate), un chunk par transaction.
+ *
+ * La clé primaire est l'eventId: écrire deux fois le même événement (relivraison après un échec
+ * partiel) est sans effet. Quand le lot rencontre une clé déjà présente, la transaction est annulée,
+ * les eventIds existants sont lus en une requête et le lot est rejoué sans eux.
+ */
+@Slf4j
+public class JdbcAuditEventWriter {
+
+    public static final String DEFAULT_TABLE = "audit_logs";
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.]*");
+    private static final String COLUMNS = "id, actor_sub, actor_email, actor_username, actor_first_name, "
+        + "actor_last_name, actor_role, action, entity, entity_id, status, error_message, timestamp, source, "
+        + "correlation_id, error_fingerprint, occurrences, metadata, chain_id, chain_sequence, previous_hash, hash";
+    private static final int COLUMN_COUNT = 22;
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 4096;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String table;
+    private final String insertSql;
+
+    public JdbcAuditEventWriter(DataSource dataSource, String table, ObjectMapper objectMapper) {
+        if (!TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid audit table name: " + table);
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.objectMapper = objectMapper;
+        this.table = table;
+        this.insertSql = "INSERT INTO " + table + " (" + COLUMNS + ") VALUES ("
+            + String.join(", ", Collections.nCopies(COLUMN_COUNT, "?")) + ")";
+    }
+
+    /**
+     * Insère un chunk d'événements (eventIds uniques et non null) dans une transaction.
+     *
+     * @throws org.springframework.dao.DataAccessException si le chunk n'a pas pu être écrit
+     */
+    public WriteResult write(List<AuditEvent> events) {
+        List<AuditEvent> pending = events;
+        int duplicates = 0;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                List<AuditEvent> batch = pending;
+                transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(insertSql, batch, batch.size(), this::bind));
+                return new WriteResult(pending.size(), duplicates);
+            } catch (DuplicateKeyException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                Set<String> existing = existingIds(pending);
+                List<AuditEvent> remaining = pending.stream()
+                    .filter(event -> !existing.contains(event.getEventId()))
+                    .toList();
+                duplicates += pending.size() - remaining.size();
+                log.debug("🔁 {} audit events already stored, retrying chunk with {}",
+                    pending.size() - remaining.size(), remaining.size());
+                if (remaining.isEmpty()) {
+                    return new WriteResult(0, duplicates);
+                }
+                pending = remaining;
+            }
+        }
+    }
+
+    /**
+     * eventId de l'événement; pour un événement sans eventId (anciens publishers), un UUID
+     * dérivé de son contenu, identique à chaque relivraison.
+     */
+    public static String idOf(AuditEvent event) {
+        if (event.getEventId() != null) {
+            return event.getEventId();
+        }
+        String content = event.getSource() + '|' + event.getEntity() + '|' + event.getEntityId() + '|'
+            + event.getAction() + '|' + event.getStatus() + '|' + event.getTimestamp() + '|' + event.getActorSub();
+        return UUID.nameUUIDFromBytes(content.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private Set<String> existingIds(List<AuditEvent> events) {
+        String placeholders = events.stream().map(event -> "?").collect(Collectors.joining(", "));
+        Object[] ids = events.stream().map(AuditEvent::getEventId).toArray();
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT id FROM " + table + " WHERE id IN (" + placeholders + ")", String.class, ids));
+    }
+
+    private void bind(PreparedStatement statement, AuditEvent event) throws SQLException {
+        statement.setString(1, event.getEventId());
+        statement.setString(2, event.getActorSub());
+        statement.setString(3, event.getActorEmail());
+        statement.setString(4, event.getActorUsername());
+        statement.setString(5, event.getActorFirstName());
+        statement.setString(6, event.getActorLastName());
+        statement.setString(7, event.getActorRole());
+        statement.setString(8, event.getAction());
+        statement.setString(9, event.getEntity());
+        statement.setString(10, event.getEntityId());
+        statement.setString(11, event.getStatus() != null ? event.getStatus().name() : null);
+        statement.setString(12, truncate(event.getErrorMessage()));
+        statement.setTimestamp(13, event.getTimestamp() != null ? Timestamp.from(event.getTimestamp()) : null);
+        statement.setString(14, event.getSource());
+        statement.setString(15, event.getCorrelationId());
+        statement.setString(16, event.getErrorFingerprint());
+        statement.setObject(17, event.getOccurrences(), Types.INTEGER);
+        statement.setString(18, metadataJson(event));
+        statement.setString(19, event.getChainId());
+        statement.setObject(20, event.getSequence(), Types.BIGINT);
+        statement.setString(21, event.getPreviousHash());
+        statement.setString(22, event.getHash());
+    }
+
+    private String metadataJson(AuditEvent event) {
+        if (event.getMetadata() == null || event.getMetadata().isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(event.getMetadata());
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize metadata of audit event {}: {}", event.getEventId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_ERROR_MESSAGE_LENGTH
+            ? value.substring(0, MAX_ERROR_MESSAGE_LENGTH)
+            : value;
+    }
+}
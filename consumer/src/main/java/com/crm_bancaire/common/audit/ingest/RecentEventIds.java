@@ -0,0 +1,33 @@
+package com.crm_bancaire.common.audit.ingest;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Identifiants des derniers événements écrits (LRU borné), pour écarter les relivraisons
+ * sans interroger la base.
+ */
+class RecentEventIds {
+
+    private final Map<String, Boolean> ids;
+
+    RecentEventIds(int capacity) {
+        this.ids = new LinkedHashMap<>(Math.min(capacity, 1 << 16), 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized boolean contains(String eventId) {
+        return ids.containsKey(eventId);
+    }
+
+    synchronized void addAll(Collection<String> eventIds) {
+        for (String eventId : eventIds) {
+            ids.put(eventId, Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.crm_bancaire.common.audit.ingest;
+
+/**
+ * Résultat de l'écriture d'un chunk.
+ *
+ * @param inserted Événements insérés
+ * @param duplicates Événements déjà présents en base (relivraison)
+ */
+public record WriteResult(int inserted, int duplicates) {
+
+    WriteResult plus(WriteResult other) {
+        return new WriteResult(inserted + other.inserted, duplicates + other.duplicates);
+    }
+}
@@ -0,0 +1,72 @@
+package com.crm_bancaire.common.audit.ingest.config;
+
+import com.crm_bancaire.common.audit.consumer.AuditEventDeserializer;
+import com.crm_bancaire.common.audit.ingest.AuditBatchConsumer;
+import com.crm_bancaire.common.audit.ingest.JdbcAuditEventWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+/**
+ * Auto-configuration de l'ingestion par lots côté audit-service.
+ *
+ * Déclare le consumer {@code auditBatchConsumer} dès qu'une DataSource est disponible;
+ * son binding doit être en mode batch (voir docs/AUDIT_SERVICE_GUIDE.md).
+ */
+@AutoConfiguration(afterName = "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration")
+@EnableConfigurationProperties(AuditIngestProperties.class)
+@ConditionalOnClass(JdbcTemplate.class)
+@ConditionalOnBean(DataSource.class)
+@ConditionalOnProperty(name = "common.audit.ingest.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AuditIngestAutoConfiguration {
+
+    public static final String SCHEMA_SCRIPT = "common-audit-consumer/schema.sql";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditEventDeserializer auditEventDeserializer() {
+        return new AuditEventDeserializer();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JdbcAuditEventWriter jdbcAuditEventWriter(DataSource dataSource, AuditIngestProperties properties) {
+        if (properties.isInitializeSchema()) {
+            if (JdbcAuditEventWriter.DEFAULT_TABLE.equals(properties.getTable())) {
+                log.info("🔧 Initializing audit table {}", properties.getTable());
+                new ResourceDatabasePopulator(new ClassPathResource(SCHEMA_SCRIPT)).execute(dataSource);
+            } else {
+                log.warn("⚠️ common.audit.ingest.initialize-schema ignored: table {} is not {}",
+                    properties.getTable(), JdbcAuditEventWriter.DEFAULT_TABLE);
+            }
+        }
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new JdbcAuditEventWriter(dataSource, properties.getTable(), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditBatchConsumer auditBatchConsumer(AuditEventDeserializer deserializer, JdbcAuditEventWriter writer,
+                                                 AuditIngestProperties properties) {
+        log.info("🔧 Configuring auditBatchConsumer (table {}, chunks of {}, {} writer threads)",
+            properties.getTable(), properties.getChunkSize(), properties.getWriterThreads());
+        return new AuditBatchConsumer(deserializer, writer, properties.getChunkSize(),
+            properties.getWriterThreads(), properties.getWriteTimeout(), properties.getDedupeCapacity());
+    }
+}
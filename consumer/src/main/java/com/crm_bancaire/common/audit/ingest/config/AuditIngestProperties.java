@@ -0,0 +1,50 @@
+package com.crm_bancaire.common.audit.ingest.config;
+
+import com.crm_bancaire.common.audit.ingest.JdbcAuditEventWriter;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Propriétés de l'ingestion par lots (préfixe {@code common.audit.ingest}).
+ */
+@Data
+@ConfigurationProperties(prefix = "common.audit.ingest")
+public class AuditIngestProperties {
+
+    /**
+     * Déclare le consumer auditBatchConsumer (nécessite une DataSource).
+     */
+    private boolean enabled = true;
+
+    /**
+     * Table des événements.
+     */
+    private String table = JdbcAuditEventWriter.DEFAULT_TABLE;
+
+    /**
+     * Crée la table au démarrage (script common-audit-consumer/schema.sql, table par défaut uniquement).
+     */
+    private boolean initializeSchema = false;
+
+    /**
+     * Nombre maximum d'événements par INSERT batch (et par transaction).
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Nombre de chunks écrits en parallèle (1 = sur le thread du binder).
+     */
+    private int writerThreads = 4;
+
+    /**
+     * Temps maximum d'écriture d'un lot de messages; au-delà, le lot est relivré.
+     */
+    private Duration writeTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Nombre d'eventIds récents mémorisés pour écarter les relivraisons sans requête.
+     */
+    private int dedupeCapacity = 100_000;
+}
@@ -0,0 +1,31 @@
+-- Table des événements d'audit (H2, PostgreSQL)
+-- Colonnes compatibles avec l'entité AuditLog de docs/AUDIT_SERVICE_GUIDE.md (id = eventId)
+CREATE TABLE IF NOT EXISTS audit_logs (
+    id                VARCHAR(64)   NOT NULL PRIMARY KEY,
+    actor_sub         VARCHAR(255),
+    actor_email       VARCHAR(255),
+    actor_username    VARCHAR(255),
+    actor_first_name  VARCHAR(255),
+    actor_last_name   VARCHAR(255),
+    actor_role        VARCHAR(255),
+    action            VARCHAR(100),
+    entity            VARCHAR(100),
+    entity_id         VARCHAR(255),
+    status            VARCHAR(16),
+    error_message     VARCHAR(4096),
+    timestamp         TIMESTAMP,
+    source            VARCHAR(255),
+    correlation_id    VARCHAR(64),
+    error_fingerprint VARCHAR(32),
+    occurrences       INTEGER,
+    metadata          VARCHAR(65535),
+    chain_id          VARCHAR(255),
+    chain_sequence    BIGINT,
+    previous_hash     VARCHAR(64),
+    hash              VARCHAR(64)
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_timestamp ON audit_logs (timestamp);
+CREATE INDEX IF NOT EXISTS idx_audit_entity ON audit_logs (entity, entity_id);
+CREATE INDEX IF NOT EXISTS idx_audit_actor ON audit_logs (actor_sub);
+CREATE INDEX IF NOT EXISTS idx_audit_chain ON audit_logs (chain_id, chain_sequence);
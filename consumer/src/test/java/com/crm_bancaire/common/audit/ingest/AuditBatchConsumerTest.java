@@ -0,0 +1,187 @@
+package com.crm_bancaire.common.audit.ingest;
+
+import com.crm_bancaire.common.audit.consumer.AuditEventDeserializer;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.crm_bancaire.common.audit.ingest.JdbcAuditEventWriterTest.events;
+import static com.crm_bancaire.common.audit.ingest.JdbcAuditEventWriterTest.ids;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditBatchConsumerTest {
+
+    private final ObjectMapper json = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private RecordingWriter writer;
+    private AuditBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = JdbcAuditEventWriterTest.dataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = new RecordingWriter(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (consumer != null) {
+            consumer.destroy();
+        }
+    }
+
+    @Test
+    void writesEventsInChunks() throws Exception {
+        consumer = consumer(1, 1000);
+
+        consumer.accept(payloads(events(1, 25)));
+
+        assertThat(writer.chunkSizes).containsExactly(10, 10, 5);
+        assertThat(storedIds()).containsExactlyInAnyOrderElementsOf(ids(1, 25));
+        assertThat(consumer.getInsertedEvents()).isEqualTo(25);
+    }
+
+    @Test
+    void unpacksBatchPayloadsAndDropsDuplicatesWithinTheBatch() throws Exception {
+        consumer = consumer(1, 1000);
+        List<byte[]> payloads = new ArrayList<>(payloads(events(1, 5)));
+        payloads.add(json.writeValueAsBytes(AuditEventBatch.builder()
+            .batchId("batch-1")
+            .size(4)
+            .timestamp(Instant.now())
+            .events(events(4, 7))
+            .build()));
+        payloads.add(json.writeValueAsBytes(events(2, 2).get(0)));
+
+        consumer.accept(payloads);
+
+        assertThat(storedIds()).containsExactlyInAnyOrderElementsOf(ids(1, 7));
+        assertThat(consumer.getReceivedEvents()).isEqualTo(10);
+        assertThat(consumer.getDuplicateEvents()).isEqualTo(3);
+        assertThat(writer.chunkSizes).containsExactly(7);
+    }
+
+    @Test
+    void skipsRedeliveredEventsWithoutQueryingTheDatabase() throws Exception {
+        consumer = consumer(1, 1000);
+        consumer.accept(payloads(events(1, 10)));
+        writer.chunkSizes.clear();
+
+        consumer.accept(payloads(events(1, 12)));
+
+        assertThat(writer.chunkSizes).containsExactly(2);
+        assertThat(storedIds()).hasSize(12);
+        assertThat(consumer.getDuplicateEvents()).isEqualTo(10);
+    }
+
+    @Test
+    void skipsRedeliveredEventsAlreadyInTheDatabase() throws Exception {
+        // Mémoire des eventIds récents trop petite: la base écarte les doublons
+        consumer = consumer(1, 1);
+        consumer.accept(payloads(events(1, 10)));
+
+        consumer.accept(payloads(events(1, 12)));
+
+        assertThat(storedIds()).containsExactlyInAnyOrderElementsOf(ids(1, 12));
+        assertThat(consumer.getInsertedEvents()).isEqualTo(12);
+    }
+
+    @Test
+    void failedChunkFailsTheBatchAndRedeliveryOnlyWritesMissingRows() throws Exception {
+        consumer = consumer(4, 1000);
+        writer.failOnce("event-15");
+        List<byte[]> payloads = payloads(events(1, 40));
+
+        assertThatThrownBy(() -> consumer.accept(payloads))
+            .isInstanceOf(AuditIngestException.class)
+            .hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+        // Les autres chunks sont écrits avant que l'échec ne soit signalé
+        assertThat(storedIds()).hasSize(30).doesNotContainAnyElementsOf(ids(11, 20));
+
+        writer.chunkSizes.clear();
+        consumer.accept(payloads);
+
+        assertThat(writer.chunkSizes).containsExactly(10);
+        assertThat(storedIds()).containsExactlyInAnyOrderElementsOf(ids(1, 40));
+        assertThat(consumer.getInsertedEvents()).isEqualTo(40);
+    }
+
+    @Test
+    void skipsUnreadablePayloads() throws Exception {
+        consumer = consumer(1, 1000);
+        List<byte[]> payloads = new ArrayList<>(payloads(events(1, 2)));
+        payloads.add(1, "{not json".getBytes());
+
+        consumer.accept(payloads);
+
+        assertThat(storedIds()).containsExactlyInAnyOrderElementsOf(ids(1, 2));
+        assertThat(consumer.getRejectedPayloads()).isEqualTo(1);
+    }
+
+    private AuditBatchConsumer consumer(int writerThreads, int dedupeCapacity) {
+        return new AuditBatchConsumer(new AuditEventDeserializer(), writer, 10, writerThreads,
+            Duration.ofSeconds(10), dedupeCapacity);
+    }
+
+    private List<byte[]> payloads(List<AuditEvent> events) throws Exception {
+        List<byte[]> payloads = new ArrayList<>();
+        for (AuditEvent event : events) {
+            payloads.add(json.writeValueAsBytes(event));
+        }
+        return payloads;
+    }
+
+    private List<String> storedIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM audit_logs", String.class);
+    }
+
+    /**
+     * Writer qui enregistre la taille des chunks écrits et peut échouer une fois sur un chunk donné
+     */
+    private static class RecordingWriter extends JdbcAuditEventWriter {
+
+        final List<Integer> chunkSizes = new CopyOnWriteArrayList<>();
+        private final Set<String> failOnce = ConcurrentHashMap.newKeySet();
+
+        RecordingWriter(DataSource dataSource) {
+            super(dataSource, DEFAULT_TABLE, new ObjectMapper());
+        }
+
+        void failOnce(String eventId) {
+            failOnce.add(eventId);
+        }
+
+        @Override
+        public WriteResult write(List<AuditEvent> events) {
+            for (AuditEvent event : events) {
+                if (failOnce.remove(event.getEventId())) {
+                    throw new DataAccessResourceFailureException("Connection reset");
+                }
+            }
+            WriteResult result = super.write(events);
+            chunkSizes.add(events.size());
+            return result;
+        }
+    }
+}
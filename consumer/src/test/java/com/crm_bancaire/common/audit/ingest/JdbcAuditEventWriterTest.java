@@ -0,0 +1,151 @@
+package com.crm_bancaire.common.audit.ingest;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.crm_bancaire.common.audit.ingest.config.AuditIngestAutoConfiguration;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcAuditEventWriterTest {
+
+    static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcAuditEventWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = dataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = writer(dataSource);
+    }
+
+    @Test
+    void insertsEveryColumn() {
+        AuditEvent event = event(1);
+        event.setMetadata(Map.of("amount", 1500));
+        event.setChainId("chain-1");
+        event.setSequence(1L);
+        event.setHash("ab".repeat(32));
+
+        assertThat(writer.write(List.of(event))).isEqualTo(new WriteResult(1, 0));
+
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM audit_logs WHERE id = ?", "event-1");
+        assertThat(row).containsEntry("ENTITY", "Customer")
+            .containsEntry("ENTITY_ID", "1")
+            .containsEntry("STATUS", "SUCCESS")
+            .containsEntry("METADATA", "{\"amount\":1500}")
+            .containsEntry("CHAIN_ID", "chain-1")
+            .containsEntry("CHAIN_SEQUENCE", 1L);
+    }
+
+    @Test
+    void skipsRowsAlreadyStoredAfterDuplicateKey() {
+        writer.write(events(1, 5));
+
+        WriteResult result = writer.write(events(3, 8));
+
+        assertThat(result).isEqualTo(new WriteResult(3, 3));
+        assertThat(ids()).containsExactlyInAnyOrderElementsOf(ids(1, 8));
+    }
+
+    @Test
+    void rewritingAWholeChunkIsANoOp() {
+        writer.write(events(1, 5));
+
+        assertThat(writer.write(events(1, 5))).isEqualTo(new WriteResult(0, 5));
+        assertThat(count()).isEqualTo(5);
+    }
+
+    @Test
+    void rollsBackTheChunkOnOtherErrors() {
+        List<AuditEvent> events = events(1, 3);
+        events.get(2).setEntity("x".repeat(200));
+
+        assertThatThrownBy(() -> writer.write(events))
+            .isInstanceOf(DataAccessException.class);
+        assertThat(count()).isZero();
+    }
+
+    @Test
+    void derivesStableIdsForLegacyEvents() {
+        AuditEvent legacy = event(1);
+        legacy.setEventId(null);
+
+        assertThat(JdbcAuditEventWriter.idOf(legacy)).isEqualTo(JdbcAuditEventWriter.idOf(legacy));
+        assertThat(JdbcAuditEventWriter.idOf(event(1))).isEqualTo("event-1");
+    }
+
+    @Test
+    void rejectsInvalidTableNames() {
+        assertThatThrownBy(() -> new JdbcAuditEventWriter(dataSource(), "audit_logs; DROP TABLE x", new ObjectMapper()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> ids() {
+        return jdbcTemplate.queryForList("SELECT id FROM audit_logs", String.class);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Long.class);
+    }
+
+    /**
+     * Base H2 en mémoire propre au test, initialisée avec le schéma livré
+     */
+    static DataSource dataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource(AuditIngestAutoConfiguration.SCHEMA_SCRIPT)).execute(dataSource);
+        return dataSource;
+    }
+
+    static JdbcAuditEventWriter writer(DataSource dataSource) {
+        return new JdbcAuditEventWriter(dataSource, JdbcAuditEventWriter.DEFAULT_TABLE, new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    static AuditEvent event(int i) {
+        return AuditEvent.builder()
+            .eventId("event-" + i)
+            .entity("Customer")
+            .entityId(String.valueOf(i))
+            .action("UPDATE")
+            .actorSub("sub-42")
+            .status(AuditStatus.SUCCESS)
+            .timestamp(START.plusSeconds(i))
+            .source("customer-service")
+            .build();
+    }
+
+    static List<AuditEvent> events(int from, int to) {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            events.add(event(i));
+        }
+        return events;
+    }
+
+    static List<String> ids(int from, int to) {
+        return events(from, to).stream().map(AuditEvent::getEventId).toList();
+    }
+}
@@ -0,0 +1,27 @@
+package com.crm_bancaire.common.audit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque le champ ou la méthode (sans paramètre) qui porte l'ID d'une entité auditée.
+ *
+ * EntityInfoExtractor l'utilise en priorité, avant les accesseurs par convention
+ * (getId(), getUuid(), champ id).
+ *
+ * Usage:
+ * <pre>
+ * {@code
+ * public class Account {
+ *     @AuditId
+ *     private String accountNumber;
+ * }
+ * }
+ * </pre>
+ */
+@Target({ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuditId {
+}
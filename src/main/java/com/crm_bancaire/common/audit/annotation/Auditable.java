@@ -73,4 +73,30 @@ public @interface Auditable {
      * Peut contenir du JSON ou des paires clé-valeur.
      */
     String metadata() default "";
+
+    /**
+     * Proportion des appels réussis publiés (1.0 = tous, 0.1 = un sur dix en moyenne).
+     * Les échecs sont toujours publiés. Une règle common.audit.sampling.rules sur la même
+     * entité/action est prioritaire.
+     */
+    double sampleRate() default 1.0;
+
+    /**
+     * Publie un événement par élément quand la méthode retourne une collection, un tableau
+     * ou un autre Iterable (Page, Slice): entityIdExpression est alors évaluée sur chaque élément
+     * (racine et #result). Les événements sont publiés en un seul appel groupé.
+     *
+     * Pour un Flux, un événement par élément émis.
+     */
+    boolean expandResult() default false;
+
+    /**
+     * Expression SpEL qui fournit l'état avant modification, évaluée avant l'exécution
+     * de la méthode sur ses paramètres (#p0, #id...) et les beans (@customerRepository).
+     * Si renseignée, les champs modifiés entre cet état et le résultat sont publiés dans
+     * metadata.diff.
+     *
+     * Exemple: "@customerRepository.findById(#id).orElse(null)"
+     */
+    String diffBefore() default "";
 }
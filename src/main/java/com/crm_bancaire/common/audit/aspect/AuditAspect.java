@@ -2,51 +2,144 @@ package com.crm_bancaire.common.audit.aspect;
 
 import com.crm_bancaire.common.audit.annotation.Auditable;
 import com.crm_bancaire.common.audit.context.AuditContextHolder;
+import com.crm_bancaire.common.audit.context.AuditScope;
+import com.crm_bancaire.common.audit.diff.DiffEngine;
+import com.crm_bancaire.common.audit.diff.EntityDiff;
+import com.crm_bancaire.common.audit.dto.AuditActor;
 import com.crm_bancaire.common.audit.extractor.EntityInfoExtractor;
+import com.crm_bancaire.common.audit.metrics.AuditMetrics;
+import com.crm_bancaire.common.audit.metrics.EntityIdStrategy;
 import com.crm_bancaire.common.audit.publisher.AuditPublisher;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.crm_bancaire.common.audit.sampling.AuditSampler;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.expression.Expression;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.BeanResolver;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ClassUtils;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aspect AOP qui intercepte les méthodes annotées avec @Auditable.
  *
  * Publie automatiquement un événement d'audit (SUCCESS ou FAILED)
  * selon le résultat de l'exécution de la méthode.
+ *
+ * Chaque méthode annotée est analysée une seule fois en un {@link AuditPlan}
+ * (expression SpEL compilée, métadonnées parsées), mis en cache par Method.
+ *
+ * Chaque appel s'exécute dans un frame {@link AuditScope}: les appels @Auditable imbriqués
+ * ont chacun leur entityId et partagent l'ID de corrélation et l'acteur de la portée.
+ *
+ * Avec @Auditable(diffBefore), l'état avant est capturé avant l'exécution et les champs
+ * modifiés sont publiés dans metadata.diff ({@link EntityDiff}, l'état après est capturé au retour de
+ * la méthode, la comparaison a lieu à la sérialisation).
+ *
+ * Pour les méthodes asynchrones, l'événement est publié à la complétion du résultat,
+ * sans bloquer: {@link CompletionStage} (CompletableFuture), et Mono/Flux si Reactor
+ * est présent. L'ID d'entité est alors extrait de la valeur émise.
  */
 @Aspect
 @Slf4j
-@RequiredArgsConstructor
-public class AuditAspect {
+public class AuditAspect implements BeanFactoryAware {
+
+    /**
+     * Clé de metadata qui reçoit le diff avant/après
+     */
+    public static final String DIFF_METADATA_KEY = "diff";
+
+    private static final boolean REACTOR_PRESENT =
+        ClassUtils.isPresent("reactor.core.publisher.Mono", AuditAspect.class.getClassLoader());
 
     private final AuditPublisher auditPublisher;
+    private final AuditSampler sampler;
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ExpressionParser parser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, AuditAspect.class.getClassLoader()));
+    private final Map<Method, AuditPlan> plans = new ConcurrentHashMap<>();
+
+    @Autowired(required = false)
+    private AuditMetrics metrics = AuditMetrics.NOOP;
+
+    @Autowired(required = false)
+    private DiffEngine diffEngine = DiffEngine.withDefaults();
+
+    @Autowired(required = false)
+    private EntityInfoExtractor entityInfoExtractor = new EntityInfoExtractor();
+
+    private BeanResolver beanResolver;
+
+    public AuditAspect(AuditPublisher auditPublisher) {
+        this(auditPublisher, null);
+    }
+
+    /**
+     * @param sampler Reçoit les taux @Auditable(sampleRate) à la construction de chaque plan
+     */
+    public AuditAspect(AuditPublisher auditPublisher, AuditSampler sampler) {
+        this.auditPublisher = auditPublisher;
+        this.sampler = sampler;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanResolver = new BeanFactoryResolver(beanFactory);
+    }
 
     @Around("@annotation(auditable)")
     public Object auditMethod(ProceedingJoinPoint joinPoint, Auditable auditable) throws Throwable {
         Object result = null;
         Throwable error = null;
+        AuditScope scope = AuditScope.open();
 
         try {
+            // Capturer l'état avant modification (diff)
+            Map<String, Object> beforeState = auditable.diffBefore().isEmpty()
+                ? null : captureBeforeState(auditable, joinPoint);
+
             // Exécuter la méthode
             result = joinPoint.proceed();
 
+            // Méthode asynchrone: l'audit attend la complétion du résultat
+            if (result instanceof CompletionStage<?> stage) {
+                DeferredAudit audit = new DeferredAudit(auditable, joinPoint, beforeState);
+                stage.whenComplete((value, failure) -> {
+                    if (failure == null) {
+                        audit.success(value);
+                    } else {
+                        audit.failure(failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure);
+                    }
+                });
+                return result;
+            }
+            if (REACTOR_PRESENT && ReactiveAuditSupport.isReactive(result)) {
+                return ReactiveAuditSupport.auditOnCompletion(result, new DeferredAudit(auditable, joinPoint, beforeState));
+            }
+
             // Publier événement de succès
-            publishSuccessEvent(auditable, result, joinPoint);
+            long start = System.nanoTime();
+            publishSuccessEvent(auditable, result, joinPoint, AuditContextHolder.getEntityId(), null, beforeState);
+            metrics.recordAspectOverhead(auditable.entity(), auditable.action(), System.nanoTime() - start);
 
             return result;
 
@@ -54,42 +147,144 @@ public class AuditAspect {
             error = throwable;
 
             // Publier événement d'échec
-            publishFailureEvent(auditable, throwable, joinPoint);
+            long start = System.nanoTime();
+            publishFailureEvent(auditable, throwable, joinPoint.getArgs(), null);
+            metrics.recordAspectOverhead(auditable.entity(), auditable.action(), System.nanoTime() - start);
 
             // Re-throw l'exception
             throw throwable;
         } finally {
-            // IMPORTANT: Toujours nettoyer le contexte pour éviter les fuites mémoire
-            AuditContextHolder.clear();
+            // IMPORTANT: Toujours fermer le frame pour éviter les fuites mémoire
+            // (le frame de l'appelant, s'il existe, est restauré avec son entityId)
+            scope.close();
+            if (AuditScope.current() == null) {
+                AuditContextHolder.clear();
+            }
         }
     }
 
-    private void publishSuccessEvent(Auditable auditable, Object result, ProceedingJoinPoint joinPoint) {
+    /**
+     * Retourne le plan précalculé de la méthode, en le construisant au premier appel.
+     *
+     * @param method Méthode annotée
+     * @param auditable Annotation de la méthode
+     * @return Le plan immuable de la méthode
+     */
+    public AuditPlan planFor(Method method, Auditable auditable) {
+        AuditPlan plan = plans.get(method);
+        if (plan == null) {
+            plan = plans.computeIfAbsent(method, m -> AuditPlan.compile(m, auditable, parser, objectMapper));
+            if (sampler != null && plan.getSampleRate() < 1.0) {
+                sampler.registerAnnotationRate(plan.getEntity(), plan.getAction(), plan.getSampleRate());
+            }
+        }
+        return plan;
+    }
+
+    private AuditPlan planFor(ProceedingJoinPoint joinPoint, Auditable auditable) {
+        return planFor(((MethodSignature) joinPoint.getSignature()).getMethod(), auditable);
+    }
+
+    private void publishSuccessEvent(Auditable auditable, Object result, ProceedingJoinPoint joinPoint,
+                                     String contextEntityId, AuditActor actor, Map<String, Object> beforeState) {
         try {
-            String entityId = extractEntityIdUsingExpression(auditable, result, joinPoint);
-            Map<String, Object> metadata = parseMetadata(auditable.metadata());
+            AuditPlan plan = planFor(joinPoint, auditable);
+            if (plan.isExpandResult() && isMultiValued(result) && !(result instanceof Map<?, ?>)) {
+                publishExpandedSuccess(plan, extractEntityIds(plan, result, joinPoint.getArgs()), actor);
+                return;
+            }
+            String entityId = extractEntityIdUsingExpression(plan, result, joinPoint.getArgs(), contextEntityId);
 
             auditPublisher.success(
-                auditable.entity(),
+                plan.getEntity(),
                 entityId,
-                auditable.action(),
-                metadata
+                plan.getAction(),
+                beforeState != null ? withDiff(plan.getMetadata(), diffEngine.diff(beforeState, result)) : plan.getMetadata(),
+                actor
             );
         } catch (Exception e) {
             log.error("Failed to publish success audit event: {}", e.getMessage(), e);
         }
     }
 
-    private void publishFailureEvent(Auditable auditable, Throwable error, ProceedingJoinPoint joinPoint) {
+    /**
+     * Évalue @Auditable(diffBefore) et capture l'état avant l'exécution de la méthode.
+     * Les captures avant/après ont lieu sur le thread appelant; la comparaison à la sérialisation.
+     */
+    private Map<String, Object> captureBeforeState(Auditable auditable, ProceedingJoinPoint joinPoint) {
+        AuditPlan plan = planFor(joinPoint, auditable);
+        if (!plan.hasDiff()) {
+            return null;
+        }
+        try {
+            Object before = plan.getDiffBeforeExpression()
+                .getValue(plan.evaluationContext(null, joinPoint.getArgs(), beanResolver));
+            return diffEngine.snapshot(before);
+        } catch (Exception e) {
+            log.warn("Failed to capture before state using diffBefore '{}': {}", auditable.diffBefore(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static Map<String, Object> withDiff(Map<String, Object> metadata, EntityDiff diff) {
+        Map<String, Object> merged = metadata != null ? new LinkedHashMap<>(metadata) : new LinkedHashMap<>();
+        merged.put(DIFF_METADATA_KEY, diff);
+        return merged;
+    }
+
+    /**
+     * Publie un événement par ID en un seul appel groupé (acteur et métadonnées résolus une fois).
+     */
+    private void publishExpandedSuccess(AuditPlan plan, List<String> entityIds, AuditActor actor) {
+        if (entityIds.isEmpty()) {
+            log.debug("Empty result for {} {}, no audit event published", plan.getAction(), plan.getEntity());
+            return;
+        }
+        auditPublisher.success(plan.getEntity(), entityIds, plan.getAction(), plan.getMetadata(), actor);
+    }
+
+    /**
+     * Extrait l'ID de chaque élément d'une collection, d'un tableau ou d'un Iterable.
+     */
+    private List<String> extractEntityIds(AuditPlan plan, Object result, Object[] args) {
+        List<String> entityIds = new ArrayList<>();
+        if (result instanceof Iterable<?> elements) {
+            for (Object element : elements) {
+                entityIds.add(extractElementId(plan, element, args));
+            }
+        } else {
+            int length = Array.getLength(result);
+            for (int i = 0; i < length; i++) {
+                entityIds.add(extractElementId(plan, Array.get(result, i), args));
+            }
+        }
+        return entityIds;
+    }
+
+    private String extractElementId(AuditPlan plan, Object element, Object[] args) {
+        return extractEntityIdUsingExpression(plan, element, args, null);
+    }
+
+    /**
+     * @return true pour un résultat à plusieurs valeurs (Iterable, tableau, Map), dont le toString()
+     *         ne doit pas servir d'ID
+     */
+    private static boolean isMultiValued(Object result) {
+        return result instanceof Iterable<?> || result instanceof Map<?, ?>
+            || (result != null && result.getClass().isArray());
+    }
+
+    private void publishFailureEvent(Auditable auditable, Throwable error, Object[] args, AuditActor actor) {
         try {
             // Essayer d'extraire l'entityId depuis les paramètres si disponible
-            String entityId = tryExtractEntityIdFromArgs(joinPoint.getArgs());
+            String entityId = tryExtractEntityIdFromArgs(args);
 
             auditPublisher.failed(
                 auditable.entity(),
                 entityId,
                 auditable.action(),
-                error
+                error,
+                actor
             );
         } catch (Exception e) {
             log.error("Failed to publish failure audit event: {}", e.getMessage(), e);
@@ -101,61 +296,60 @@ public class AuditAspect {
      * 1. Vérifier AuditContextHolder (pour méthodes retournant String/Boolean)
      * 2. Utiliser l'expression SpEL définie dans @Auditable
      * 3. Fallback: essayer EntityInfoExtractor sur le résultat
+     *
+     * @param contextEntityId Valeur d'AuditContextHolder lue sur le thread de la méthode
      */
-    private String extractEntityIdUsingExpression(Auditable auditable, Object result, ProceedingJoinPoint joinPoint) {
+    private String extractEntityIdUsingExpression(AuditPlan plan, Object result, Object[] args, String contextEntityId) {
+        long start = System.nanoTime();
+        EntityIdStrategy strategy = EntityIdStrategy.NONE;
+        String entityId = null;
+
         // 1. D'abord vérifier si l'entityId a été stocké dans le contexte
-        String contextEntityId = AuditContextHolder.getEntityId();
         if (contextEntityId != null) {
             log.debug("Entity ID extracted from AuditContextHolder: {}", contextEntityId);
-            return contextEntityId;
+            strategy = EntityIdStrategy.CONTEXT;
+            entityId = contextEntityId;
         }
 
-        // 2. Essayer d'extraire via l'expression SpEL
-        try {
-            String expression = auditable.entityIdExpression();
-
-            // Créer le contexte d'évaluation SpEL
-            StandardEvaluationContext context = new StandardEvaluationContext();
+        // 2. Essayer d'extraire via l'expression SpEL précompilée
+        if (entityId == null && plan.hasValidExpression()) {
+            try {
+                Object value = plan.getEntityIdExpression()
+                    .getValue(plan.evaluationContext(result, args));
 
-            // Ajouter le résultat de la méthode
-            context.setRootObject(result);
-            context.setVariable("result", result);
-
-            // Ajouter les paramètres de la méthode (#p0, #p1, etc.)
-            MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            Method method = signature.getMethod();
-            String[] paramNames = signature.getParameterNames();
-            Object[] args = joinPoint.getArgs();
-
-            for (int i = 0; i < args.length; i++) {
-                context.setVariable("p" + i, args[i]);
-                if (paramNames != null && i < paramNames.length) {
-                    context.setVariable(paramNames[i], args[i]);
+                if (value != null) {
+                    log.debug("Entity ID extracted using SpEL expression '{}': {}", plan.getEntityIdExpressionString(), value);
+                    strategy = EntityIdStrategy.EXPRESSION;
+                    entityId = value.toString();
                 }
-            }
 
-            // Évaluer l'expression
-            Expression exp = parser.parseExpression(expression);
-            Object value = exp.getValue(context);
-
-            if (value != null) {
-                log.debug("Entity ID extracted using SpEL expression '{}': {}", expression, value);
-                return value.toString();
+            } catch (Exception e) {
+                log.warn("Failed to extract entityId using expression '{}': {}. Trying fallback extraction.",
+                         plan.getEntityIdExpressionString(), e.getMessage());
             }
+        }
 
-        } catch (Exception e) {
-            log.warn("Failed to extract entityId using expression '{}': {}. Trying fallback extraction.",
-                     auditable.entityIdExpression(), e.getMessage());
+        // 3. Fallback: essayer d'extraire depuis le résultat directement (jamais le toString() d'une collection)
+        if (entityId == null && isMultiValued(result)) {
+            log.warn("Collection result of type {} has no single entity ID. Consider @Auditable(expandResult = true).",
+                result.getClass().getSimpleName());
+        } else if (entityId == null && EntityInfoExtractor.isEntity(result)) {
+            entityId = entityInfoExtractor.readAccessorId(result);
+            if (entityId != null) {
+                strategy = EntityIdStrategy.ACCESSOR;
+                log.debug("Entity ID extracted using EntityInfoExtractor: {}", entityId);
+            } else {
+                strategy = EntityIdStrategy.TO_STRING;
+                entityId = result.toString();
+                log.debug("Could not extract entity ID from {}, using toString()", result.getClass().getSimpleName());
+            }
         }
 
-        // 3. Fallback: essayer d'extraire depuis le résultat directement
-        String extractedId = EntityInfoExtractor.extractEntityId(result);
-        if (extractedId != null) {
-            log.debug("Entity ID extracted using EntityInfoExtractor: {}", extractedId);
-        } else {
+        if (entityId == null) {
             log.warn("Could not extract entity ID for audit. Consider using AuditContextHolder.setEntityId() or entityIdExpression parameter.");
         }
-        return extractedId;
+        metrics.recordEntityIdExtraction(strategy, System.nanoTime() - start);
+        return entityId;
     }
 
     private String tryExtractEntityIdFromArgs(Object[] args) {
@@ -164,22 +358,85 @@ public class AuditAspect {
         }
 
         // Essayer d'extraire l'ID depuis le premier argument
-        return EntityInfoExtractor.extractEntityId(args[0]);
+        return entityInfoExtractor.extract(args[0]);
     }
 
-    private Map<String, Object> parseMetadata(String metadataString) {
-        if (metadataString == null || metadataString.trim().isEmpty()) {
-            return null;
+    /**
+     * Audit différé d'une méthode asynchrone.
+     *
+     * L'acteur, l'ID posé dans AuditContextHolder et la portée sont capturés sur le thread
+     * appelant; l'événement est publié sur le thread qui complète le résultat, rattaché à la portée.
+     */
+    final class DeferredAudit {
+
+        private final Auditable auditable;
+        private final ProceedingJoinPoint joinPoint;
+        private final String contextEntityId;
+        private final AuditActor actor;
+        private final AuditScope scope;
+        private final Map<String, Object> beforeState;
+
+        private DeferredAudit(Auditable auditable, ProceedingJoinPoint joinPoint, Map<String, Object> beforeState) {
+            this.auditable = auditable;
+            this.joinPoint = joinPoint;
+            this.contextEntityId = AuditContextHolder.getEntityId();
+            this.actor = auditPublisher.currentActor();
+            this.scope = AuditScope.current();
+            this.beforeState = beforeState;
         }
 
-        try {
-            // Essayer de parser comme JSON
-            return objectMapper.readValue(metadataString, new TypeReference<Map<String, Object>>() {});
-        } catch (Exception e) {
-            // Si ce n'est pas du JSON, retourner comme une simple entrée
-            Map<String, Object> metadata = new HashMap<>();
-            metadata.put("raw", metadataString);
-            return metadata;
+        void success(Object value) {
+            long start = System.nanoTime();
+            AuditScope attached = AuditScope.attach(scope);
+            try {
+                publishSuccessEvent(auditable, value, joinPoint, contextEntityId, actor, beforeState);
+            } finally {
+                attached.close();
+            }
+            metrics.recordAspectOverhead(auditable.entity(), auditable.action(), System.nanoTime() - start);
+        }
+
+        boolean isExpanding() {
+            return planFor(joinPoint, auditable).isExpandResult();
+        }
+
+        /**
+         * @return L'ID d'un élément émis (mode expandResult)
+         */
+        String elementId(Object element) {
+            try {
+                return extractElementId(planFor(joinPoint, auditable), element, joinPoint.getArgs());
+            } catch (Exception e) {
+                log.warn("Failed to extract entity ID from emitted element: {}", e.getMessage());
+                return null;
+            }
+        }
+
+        /**
+         * Publie un événement par élément émis (mode expandResult).
+         */
+        void successAll(List<String> entityIds) {
+            long start = System.nanoTime();
+            AuditScope attached = AuditScope.attach(scope);
+            try {
+                publishExpandedSuccess(planFor(joinPoint, auditable), entityIds, actor);
+            } catch (Exception e) {
+                log.error("Failed to publish success audit events: {}", e.getMessage(), e);
+            } finally {
+                attached.close();
+            }
+            metrics.recordAspectOverhead(auditable.entity(), auditable.action(), System.nanoTime() - start);
+        }
+
+        void failure(Throwable error) {
+            long start = System.nanoTime();
+            AuditScope attached = AuditScope.attach(scope);
+            try {
+                publishFailureEvent(auditable, error, joinPoint.getArgs(), actor);
+            } finally {
+                attached.close();
+            }
+            metrics.recordAspectOverhead(auditable.entity(), auditable.action(), System.nanoTime() - start);
         }
     }
 }
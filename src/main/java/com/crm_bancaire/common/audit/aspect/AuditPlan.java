@@ -0,0 +1,325 @@
+package com.crm_bancaire.common.audit.aspect;
+
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.IndexAccessor;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan d'audit immuable précalculé pour une méthode @Auditable.
+ *
+ * Tout ce qui ne dépend pas des arguments d'un appel est résolu une seule fois:
+ * expression SpEL parsée (et compilée par le parser), métadonnées JSON parsées,
+ * index de l'argument associé à chaque variable SpEL. Le chemin critique ne fait plus
+ * qu'évaluer l'expression: les variables sont résolues à la demande, sans remplir
+ * de contexte à chaque appel (comme MethodBasedEvaluationContext).
+ */
+@Slf4j
+@Getter
+public final class AuditPlan {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    /**
+     * Infrastructure SpEL partagée (accesseurs, résolveurs, conversions), initialisée une seule fois
+     */
+    private static final StandardEvaluationContext SHARED = new StandardEvaluationContext();
+
+    static {
+        // Les listes et services de StandardEvaluationContext sont créés paresseusement:
+        // on les force ici pour que les lectures concurrentes ne les initialisent pas
+        SHARED.getPropertyAccessors();
+        SHARED.getIndexAccessors();
+        SHARED.getConstructorResolvers();
+        SHARED.getMethodResolvers();
+        SHARED.getTypeLocator();
+        SHARED.getTypeConverter();
+    }
+
+    private final Method method;
+    private final String entity;
+    private final String action;
+    private final String entityIdExpressionString;
+
+    /**
+     * Expression parsée, ou null si elle est invalide
+     */
+    private final Expression entityIdExpression;
+
+    /**
+     * Erreur de parsing de l'expression, ou null si elle est valide
+     */
+    private final String expressionError;
+
+    /**
+     * Métadonnées immuables, ou null si @Auditable.metadata() est vide
+     */
+    private final Map<String, Object> metadata;
+
+    /**
+     * Variables SpEL "p0", "p1"... par position de paramètre
+     */
+    private final String[] positionalNames;
+
+    /**
+     * Noms réels des paramètres (null par position si non disponibles à la compilation)
+     */
+    private final String[] parameterNames;
+
+    /**
+     * Index de l'argument pour chaque variable SpEL ("p0", noms réels...)
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Integer> variableIndexes;
+
+    /**
+     * Taux d'échantillonnage déclaré par @Auditable(sampleRate)
+     */
+    private final double sampleRate;
+
+    /**
+     * Un événement par élément d'un résultat collection/tableau/Iterable (@Auditable(expandResult))
+     */
+    private final boolean expandResult;
+
+    /**
+     * Expression @Auditable(diffBefore) parsée, null si absente ou invalide
+     */
+    private final Expression diffBeforeExpression;
+
+    private AuditPlan(Method method, Auditable auditable, Expression expression, String expressionError,
+                      Expression diffBeforeExpression, Map<String, Object> metadata) {
+        this.method = method;
+        this.entity = auditable.entity();
+        this.action = auditable.action();
+        this.entityIdExpressionString = auditable.entityIdExpression();
+        this.entityIdExpression = expression;
+        this.expressionError = expressionError;
+        this.metadata = metadata;
+        this.sampleRate = auditable.sampleRate();
+        this.expandResult = auditable.expandResult();
+        this.diffBeforeExpression = diffBeforeExpression;
+
+        int count = method.getParameterCount();
+        this.positionalNames = new String[count];
+        for (int i = 0; i < count; i++) {
+            positionalNames[i] = "p" + i;
+        }
+        String[] discovered = PARAMETER_NAMES.getParameterNames(method);
+        this.parameterNames = discovered != null && discovered.length == count ? discovered : new String[count];
+
+        // Même ordre d'écrasement que des setVariable successifs: p0, nom0, p1, nom1...
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            indexes.put(positionalNames[i], i);
+            if (parameterNames[i] != null) {
+                indexes.put(parameterNames[i], i);
+            }
+        }
+        this.variableIndexes = Map.copyOf(indexes);
+    }
+
+    /**
+     * Construit le plan d'une méthode.
+     *
+     * @param method Méthode annotée
+     * @param auditable Annotation de la méthode
+     * @param parser Parser SpEL (configuré en mode compilé)
+     * @param objectMapper Mapper utilisé pour parser les métadonnées JSON
+     * @return Le plan immuable
+     */
+    public static AuditPlan compile(Method method, Auditable auditable, ExpressionParser parser, ObjectMapper objectMapper) {
+        Expression expression = null;
+        String expressionError = null;
+        try {
+            expression = parser.parseExpression(auditable.entityIdExpression());
+        } catch (Exception e) {
+            expressionError = e.getMessage();
+            log.warn("Invalid entityIdExpression '{}' on {}.{}: {}",
+                auditable.entityIdExpression(), method.getDeclaringClass().getSimpleName(), method.getName(), e.getMessage());
+        }
+        Expression diffBefore = null;
+        if (!auditable.diffBefore().isEmpty()) {
+            try {
+                diffBefore = parser.parseExpression(auditable.diffBefore());
+            } catch (Exception e) {
+                log.warn("Invalid diffBefore '{}' on {}.{}: {}",
+                    auditable.diffBefore(), method.getDeclaringClass().getSimpleName(), method.getName(), e.getMessage());
+            }
+        }
+        return new AuditPlan(method, auditable, expression, expressionError, diffBefore,
+            parseMetadata(auditable.metadata(), objectMapper));
+    }
+
+    /**
+     * @return true si l'expression entityIdExpression est syntaxiquement valide
+     */
+    public boolean hasValidExpression() {
+        return entityIdExpression != null;
+    }
+
+    /**
+     * @return true si un diff avant/après doit être calculé
+     */
+    public boolean hasDiff() {
+        return diffBeforeExpression != null;
+    }
+
+    /**
+     * Crée le contexte d'évaluation d'un appel: #result, #p0..#pN et les noms de paramètres.
+     *
+     * @param result Valeur retournée par la méthode (aussi objet racine)
+     * @param args Arguments de l'appel
+     * @return Contexte prêt pour l'évaluation
+     */
+    public EvaluationContext evaluationContext(Object result, Object[] args) {
+        return evaluationContext(result, args, null);
+    }
+
+    /**
+     * Contexte d'évaluation avec résolution des beans (@nomDuBean).
+     *
+     * @param beanResolver Résolveur des références @bean (peut être null)
+     */
+    public EvaluationContext evaluationContext(Object result, Object[] args, BeanResolver beanResolver) {
+        return new CallContext(this, result, args, beanResolver);
+    }
+
+    /**
+     * Contexte léger d'un appel: seules les références à l'appel sont allouées, les variables
+     * sont lues dans les arguments au moment où l'expression les demande.
+     */
+    private static final class CallContext implements EvaluationContext {
+
+        private final AuditPlan plan;
+        private final Object result;
+        private final Object[] args;
+        private final BeanResolver beanResolver;
+        private final TypedValue rootObject;
+
+        /**
+         * Variables affectées par l'expression elle-même (#x = ...), créées à la demande
+         */
+        private Map<String, Object> variables;
+
+        CallContext(AuditPlan plan, Object result, Object[] args, BeanResolver beanResolver) {
+            this.plan = plan;
+            this.result = result;
+            this.args = args;
+            this.beanResolver = beanResolver;
+            this.rootObject = result != null ? new TypedValue(result) : TypedValue.NULL;
+        }
+
+        @Override
+        public Object lookupVariable(String name) {
+            if (variables != null && variables.containsKey(name)) {
+                return variables.get(name);
+            }
+            Integer index = plan.variableIndexes.get(name);
+            if (index != null) {
+                return index < args.length ? args[index] : null;
+            }
+            return "result".equals(name) ? result : null;
+        }
+
+        @Override
+        public void setVariable(String name, Object value) {
+            if (variables == null) {
+                variables = new HashMap<>();
+            }
+            variables.put(name, value);
+        }
+
+        @Override
+        public TypedValue getRootObject() {
+            return rootObject;
+        }
+
+        @Override
+        public BeanResolver getBeanResolver() {
+            return beanResolver;
+        }
+
+        @Override
+        public List<PropertyAccessor> getPropertyAccessors() {
+            return SHARED.getPropertyAccessors();
+        }
+
+        @Override
+        public List<IndexAccessor> getIndexAccessors() {
+            return SHARED.getIndexAccessors();
+        }
+
+        @Override
+        public List<ConstructorResolver> getConstructorResolvers() {
+            return SHARED.getConstructorResolvers();
+        }
+
+        @Override
+        public List<MethodResolver> getMethodResolvers() {
+            return SHARED.getMethodResolvers();
+        }
+
+        @Override
+        public TypeLocator getTypeLocator() {
+            return SHARED.getTypeLocator();
+        }
+
+        @Override
+        public TypeConverter getTypeConverter() {
+            return SHARED.getTypeConverter();
+        }
+
+        @Override
+        public TypeComparator getTypeComparator() {
+            return SHARED.getTypeComparator();
+        }
+
+        @Override
+        public OperatorOverloader getOperatorOverloader() {
+            return SHARED.getOperatorOverloader();
+        }
+    }
+
+    private static Map<String, Object> parseMetadata(String metadataString, ObjectMapper objectMapper) {
+        if (metadataString == null || metadataString.trim().isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> metadata;
+        try {
+            // Essayer de parser comme JSON
+            metadata = objectMapper.readValue(metadataString, new TypeReference<LinkedHashMap<String, Object>>() {});
+        } catch (Exception e) {
+            // Si ce n'est pas du JSON, retourner comme une simple entrée
+            metadata = new LinkedHashMap<>();
+            metadata.put("raw", metadataString);
+        }
+        return Collections.unmodifiableMap(metadata);
+    }
+}
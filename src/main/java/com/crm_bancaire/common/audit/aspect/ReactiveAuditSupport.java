@@ -0,0 +1,55 @@
+package com.crm_bancaire.common.audit.aspect;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rattache l'audit aux signaux de complétion de Reactor.
+ *
+ * Seule classe de common-audit qui référence Reactor: elle n'est chargée que si
+ * reactor-core est présent (voir {@link AuditAspect}).
+ *
+ * - Mono: SUCCESS à la complétion (valeur émise, ou null si vide), FAILED sur erreur
+ * - Flux: un seul SUCCESS à la complétion, l'ID étant extrait du premier élément émis,
+ *   ou un SUCCESS par élément émis avec @Auditable(expandResult = true)
+ *
+ * L'audit a lieu à chaque souscription; une annulation ne publie rien.
+ */
+final class ReactiveAuditSupport {
+
+    private ReactiveAuditSupport() {
+    }
+
+    static boolean isReactive(Object result) {
+        return result instanceof Mono<?> || result instanceof Flux<?>;
+    }
+
+    static Object auditOnCompletion(Object result, AuditAspect.DeferredAudit audit) {
+        if (result instanceof Mono<?> mono) {
+            return mono
+                .doOnSuccess(audit::success)
+                .doOnError(audit::failure);
+        }
+        Flux<?> flux = (Flux<?>) result;
+        if (audit.isExpanding()) {
+            return Flux.defer(() -> {
+                List<String> entityIds = new ArrayList<>();
+                return flux
+                    .doOnNext(value -> entityIds.add(audit.elementId(value)))
+                    .doOnComplete(() -> audit.successAll(entityIds))
+                    .doOnError(audit::failure);
+            });
+        }
+        return Flux.defer(() -> {
+            AtomicReference<Object> first = new AtomicReference<>();
+            return flux
+                .doOnNext(value -> first.compareAndSet(null, value))
+                .doOnComplete(() -> audit.success(first.get()))
+                .doOnError(audit::failure);
+        });
+    }
+}
@@ -0,0 +1,318 @@
+package com.crm_bancaire.common.audit.async;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Base commune des dispatchers à files bornées: politique de débordement, threads de
+ * travail et arrêt propre.
+ *
+ * Chaque file est vidée par un ou plusieurs workers; les sous-classes choisissent
+ * la file de chaque événement.
+ */
+@Slf4j
+public abstract class AbstractAuditDispatcher implements AuditDispatcher {
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    /**
+     * Thread.ofVirtual().unstarted(Runnable) (Java 21+), null sur les JVM plus anciennes
+     */
+    private static final MethodHandle OF_VIRTUAL = resolveOfVirtual();
+    private static final MethodHandle UNSTARTED = resolveUnstarted();
+
+    protected final List<BlockingQueue<AuditEvent>> queues;
+    private final int workersPerQueue;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration shutdownTimeout;
+    private final boolean virtualThreads;
+    private final String threadPrefix;
+    private final int capacity;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+    private volatile Consumer<AuditEvent> sink;
+    private volatile Consumer<AuditEvent> overflowSink;
+
+    protected AbstractAuditDispatcher(List<BlockingQueue<AuditEvent>> queues, int workersPerQueue,
+                                      OverflowPolicy overflowPolicy, Duration shutdownTimeout,
+                                      boolean virtualThreads, String threadPrefix) {
+        this.queues = List.copyOf(queues);
+        this.workersPerQueue = Math.max(1, workersPerQueue);
+        this.overflowPolicy = overflowPolicy != null ? overflowPolicy : OverflowPolicy.CALLER_RUNS;
+        this.shutdownTimeout = shutdownTimeout != null ? shutdownTimeout : Duration.ofSeconds(10);
+        if (virtualThreads && (OF_VIRTUAL == null || UNSTARTED == null)) {
+            log.warn("⚠️ Virtual threads requested for audit dispatch but unavailable on Java {}, using platform threads",
+                Runtime.version().feature());
+        }
+        this.virtualThreads = virtualThreads && OF_VIRTUAL != null && UNSTARTED != null;
+        this.threadPrefix = threadPrefix;
+        this.capacity = this.queues.stream().mapToInt(BlockingQueue::remainingCapacity).sum();
+    }
+
+    /**
+     * Sélectionne la file de l'événement.
+     */
+    protected abstract BlockingQueue<AuditEvent> queueFor(AuditEvent event);
+
+    /**
+     * Démarre les workers qui transmettront chaque événement au sink.
+     *
+     * @param sink Fonction d'envoi effectif (appelée sur les threads workers)
+     */
+    public void start(Consumer<AuditEvent> sink) {
+        start(sink, sink);
+    }
+
+    @Override
+    public synchronized void start(Consumer<AuditEvent> sink, Consumer<AuditEvent> overflowSink) {
+        if (running) {
+            return;
+        }
+        this.sink = sink;
+        this.overflowSink = overflowSink;
+        this.running = true;
+        int index = 0;
+        for (BlockingQueue<AuditEvent> queue : queues) {
+            for (int i = 0; i < workersPerQueue; i++) {
+                Thread worker = newThread(() -> drain(queue), threadPrefix + index++);
+                worker.start();
+                workers.add(worker);
+            }
+        }
+        log.info("🚀 Async audit dispatcher started ({} queues, {} {} threads, capacity {}, overflow {})",
+            queues.size(), workers.size(), virtualThreads ? "virtual" : "platform",
+            capacity, overflowPolicy);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Après l'arrêt, l'événement est publié sur le thread appelant, précédé de ce qui reste
+     * dans sa file. Un événement déposé pendant un arrêt concurrent n'est jamais laissé en file.
+     *
+     * @throws IllegalStateException si le dispatcher n'a jamais été démarré
+     */
+    @Override
+    public void dispatch(AuditEvent event) {
+        if (sink == null) {
+            throw new IllegalStateException("Audit dispatcher not started");
+        }
+        BlockingQueue<AuditEvent> queue = queueFor(event);
+        if (!running) {
+            deliverStopped(queue, event);
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    // offer temporisé: un appelant bloqué voit l'arrêt au lieu d'attendre des workers disparus
+                    while (!queue.offer(event, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        if (!running) {
+                            deliverStopped(queue, event);
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(event);
+                    return;
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!queue.offer(event)) {
+                    drop(event);
+                    return;
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(event)) {
+                    AuditEvent evicted = queue.poll();
+                    if (evicted != null) {
+                        drop(evicted);
+                    }
+                }
+            }
+            case CALLER_RUNS -> {
+                if (!queue.offer(event)) {
+                    sink.accept(event);
+                    return;
+                }
+            }
+            case SPOOL -> {
+                if (!queue.offer(event)) {
+                    overflowSink.accept(event);
+                    return;
+                }
+            }
+        }
+
+        if (!running) {
+            // Arrêt pendant le dépôt: les workers ont pu se terminer sans voir l'événement
+            deliverStopped(queue, null);
+        }
+    }
+
+    /**
+     * Dispatcher arrêté: attend la fin de {@link #shutdown()}, publie sur le thread courant ce qui
+     * reste dans la file (dans l'ordre), puis l'événement.
+     *
+     * @param event Événement non déposé, ou null
+     */
+    private void deliverStopped(BlockingQueue<AuditEvent> queue, AuditEvent event) {
+        List<AuditEvent> leftovers = new ArrayList<>();
+        boolean stopped;
+        synchronized (this) {
+            stopped = !running;
+            if (stopped) {
+                queue.drainTo(leftovers);
+            }
+        }
+        if (!stopped) {
+            // Redémarré entre-temps: les workers prennent la file en charge
+            if (event != null) {
+                dispatch(event);
+            }
+            return;
+        }
+        leftovers.forEach(this::deliver);
+        if (event != null) {
+            sink.accept(event);
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        boolean terminated = true;
+        for (Thread worker : workers) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            try {
+                if (remaining > 0) {
+                    worker.join(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (worker.isAlive()) {
+                terminated = false;
+                worker.interrupt();
+            }
+        }
+        workers.clear();
+
+        List<AuditEvent> leftovers = new ArrayList<>();
+        queues.forEach(queue -> queue.drainTo(leftovers));
+        if (terminated) {
+            // Événements déposés pendant l'arrêt: les publier sur le thread courant
+            leftovers.forEach(this::deliver);
+        } else if (!leftovers.isEmpty()) {
+            droppedEvents.addAndGet(leftovers.size());
+            log.error("❌ Async audit dispatcher stopped after {} with {} undelivered events",
+                shutdownTimeout, leftovers.size());
+        }
+        log.info("🛑 Async audit dispatcher stopped ({} events dropped since startup)", droppedEvents.get());
+    }
+
+    @Override
+    public int getQueueSize() {
+        int size = 0;
+        for (BlockingQueue<AuditEvent> queue : queues) {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    private void drain(BlockingQueue<AuditEvent> queue) {
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent event = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    deliver(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void deliver(AuditEvent event) {
+        try {
+            sink.accept(event);
+        } catch (Exception e) {
+            log.error("💥 Error delivering audit event for {} {}: {}",
+                event.getEntity(), event.getEntityId(), e.getMessage(), e);
+        }
+    }
+
+    private void drop(AuditEvent event) {
+        long dropped = droppedEvents.incrementAndGet();
+        log.warn("⚠️ Audit queue full, event dropped: {} {} for {} {} (total dropped: {})",
+            event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId(), dropped);
+    }
+
+    private Thread newThread(Runnable task, String name) {
+        if (virtualThreads) {
+            try {
+                Object builder = OF_VIRTUAL.invoke();
+                Thread thread = (Thread) UNSTARTED.invoke(builder, task);
+                thread.setName(name);
+                return thread;
+            } catch (Throwable e) {
+                log.warn("⚠️ Could not create virtual thread {}: {}", name, e.getMessage());
+            }
+        }
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static MethodHandle resolveOfVirtual() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            return MethodHandles.publicLookup()
+                .findStatic(Thread.class, "ofVirtual", MethodType.methodType(builderType));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static MethodHandle resolveUnstarted() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            return MethodHandles.publicLookup()
+                .findVirtual(builderType, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
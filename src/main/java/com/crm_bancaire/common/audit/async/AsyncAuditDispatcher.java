@@ -0,0 +1,47 @@
+package com.crm_bancaire.common.audit.async;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Dispatcher asynchrone des événements d'audit à file unique.
+ *
+ * Le thread appelant dépose simplement l'événement dans une file bornée;
+ * des threads dédiés ("drainers") vident la file et effectuent l'envoi au broker.
+ * Quand la file est pleine, la {@link OverflowPolicy} configurée s'applique.
+ *
+ * Avec plusieurs drainers, l'ordre de publication n'est pas garanti: utiliser
+ * {@link ShardedAuditDispatcher} pour conserver l'ordre par entité.
+ *
+ * À l'arrêt, les drainers terminent la file dans la limite du timeout configuré.
+ */
+public class AsyncAuditDispatcher extends AbstractAuditDispatcher {
+
+    private final BlockingQueue<AuditEvent> queue;
+
+    public AsyncAuditDispatcher(int capacity, int threads, OverflowPolicy overflowPolicy, Duration shutdownTimeout) {
+        this(newQueue(capacity), threads, overflowPolicy, shutdownTimeout);
+    }
+
+    private AsyncAuditDispatcher(BlockingQueue<AuditEvent> queue, int threads,
+                                 OverflowPolicy overflowPolicy, Duration shutdownTimeout) {
+        super(List.of(queue), threads, overflowPolicy, shutdownTimeout, false, "audit-dispatcher-");
+        this.queue = queue;
+    }
+
+    @Override
+    protected BlockingQueue<AuditEvent> queueFor(AuditEvent event) {
+        return queue;
+    }
+
+    private static BlockingQueue<AuditEvent> newQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Async audit queue capacity must be > 0, got " + capacity);
+        }
+        return new ArrayBlockingQueue<>(capacity);
+    }
+}
@@ -0,0 +1,54 @@
+package com.crm_bancaire.common.audit.async;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+
+import java.util.function.Consumer;
+
+/**
+ * Étape asynchrone du pipeline de publication: reçoit les événements sur le thread
+ * appelant et les transmet au sink sur des threads dédiés.
+ */
+public interface AuditDispatcher {
+
+    /**
+     * Démarre les threads du dispatcher.
+     *
+     * @param sink Fonction d'envoi effectif (appelée sur les threads du dispatcher)
+     * @param overflowSink Destination des événements refusés par une file pleine en politique SPOOL
+     */
+    void start(Consumer<AuditEvent> sink, Consumer<AuditEvent> overflowSink);
+
+    /**
+     * Confie un événement au dispatcher. Ne bloque que si la politique est BLOCK et la file pleine.
+     *
+     * @param event L'événement à publier
+     */
+    void dispatch(AuditEvent event);
+
+    /**
+     * Arrête le dispatcher en laissant aux threads le temps de vider les files.
+     */
+    void shutdown();
+
+    /**
+     * @return Nombre total d'événements en attente
+     */
+    int getQueueSize();
+
+    /**
+     * @return Nombre maximum d'événements en attente
+     */
+    int getCapacity();
+
+    /**
+     * @return Remplissage des files, entre 0.0 (vides) et 1.0 (pleines)
+     */
+    default double getFillRatio() {
+        return (double) getQueueSize() / getCapacity();
+    }
+
+    /**
+     * @return Nombre d'événements abandonnés depuis le démarrage
+     */
+    long getDroppedEvents();
+}
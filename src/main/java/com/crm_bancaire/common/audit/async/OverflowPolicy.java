@@ -0,0 +1,32 @@
+package com.crm_bancaire.common.audit.async;
+
+/**
+ * Politique appliquée quand la file de publication asynchrone est pleine.
+ */
+public enum OverflowPolicy {
+    /**
+     * Le thread appelant attend qu'une place se libère dans la file
+     */
+    BLOCK,
+
+    /**
+     * L'événement le plus ancien de la file est abandonné au profit du nouveau
+     */
+    DROP_OLDEST,
+
+    /**
+     * Le nouvel événement est abandonné
+     */
+    DROP_NEWEST,
+
+    /**
+     * Le thread appelant publie lui-même l'événement (mode synchrone dégradé)
+     */
+    CALLER_RUNS,
+
+    /**
+     * L'événement est écrit dans le spool disque, puis republié par le replayer.
+     * Sans spool configuré, équivalent à CALLER_RUNS.
+     */
+    SPOOL
+}
@@ -0,0 +1,110 @@
+package com.crm_bancaire.common.audit.async;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Dispatcher asynchrone à voies ("lanes") qui conserve l'ordre par entité.
+ *
+ * Chaque voie possède sa propre file bornée et un seul worker. La voie d'un événement
+ * est choisie par hash de (entity, entityId): tous les événements d'une même entité
+ * passent par la même voie et sont publiés dans l'ordre de dépôt, tandis que les
+ * entités différentes sont publiées en parallèle.
+ *
+ * La {@link OverflowPolicy} s'applique voie par voie: une entité très active ne
+ * remplit que sa propre voie. CALLER_RUNS et SPOOL feraient doubler les événements
+ * encore en file par le nouvel événement: ils sont remplacés par BLOCK (défaut).
+ */
+@Slf4j
+public class ShardedAuditDispatcher extends AbstractAuditDispatcher {
+
+    /**
+     * @param capacity Capacité totale, répartie entre les voies
+     * @param lanes Nombre de voies (0 = nombre de processeurs)
+     * @param overflowPolicy Comportement quand la voie est pleine (null = BLOCK)
+     * @param shutdownTimeout Temps maximum accordé pour vider les voies à l'arrêt
+     * @param virtualThreads Utiliser des virtual threads pour les workers (Java 21+)
+     */
+    public ShardedAuditDispatcher(int capacity, int lanes, OverflowPolicy overflowPolicy,
+                                  Duration shutdownTimeout, boolean virtualThreads) {
+        this(newLanes(capacity, lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors()),
+            overflowPolicy, shutdownTimeout, virtualThreads);
+    }
+
+    private ShardedAuditDispatcher(List<BlockingQueue<AuditEvent>> lanes, OverflowPolicy overflowPolicy,
+                                   Duration shutdownTimeout, boolean virtualThreads) {
+        super(lanes, 1, orderedPolicy(overflowPolicy), shutdownTimeout, virtualThreads, "audit-lane-");
+    }
+
+    @Override
+    protected BlockingQueue<AuditEvent> queueFor(AuditEvent event) {
+        return queues.get(laneOf(event));
+    }
+
+    /**
+     * @return Index de la voie de l'événement
+     */
+    public int laneOf(AuditEvent event) {
+        int hash = Objects.hash(event.getEntity(), event.getEntityId());
+        return Math.floorMod(hash ^ (hash >>> 16), queues.size());
+    }
+
+    /**
+     * @return Nombre de voies
+     */
+    public int getLaneCount() {
+        return queues.size();
+    }
+
+    /**
+     * @return Nombre d'événements en attente dans la voie
+     */
+    public int getLaneDepth(int lane) {
+        return queues.get(lane).size();
+    }
+
+    /**
+     * @return Nombre d'événements en attente dans chaque voie
+     */
+    public int[] getLaneDepths() {
+        int[] depths = new int[queues.size()];
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = queues.get(i).size();
+        }
+        return depths;
+    }
+
+    /**
+     * Politique compatible avec l'ordre par entité: le débordement ne doit pas doubler la voie.
+     */
+    private static OverflowPolicy orderedPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            return OverflowPolicy.BLOCK;
+        }
+        if (overflowPolicy == OverflowPolicy.CALLER_RUNS || overflowPolicy == OverflowPolicy.SPOOL) {
+            log.warn("⚠️ Overflow policy {} would break per-entity ordering, using BLOCK for ordered audit lanes",
+                overflowPolicy);
+            return OverflowPolicy.BLOCK;
+        }
+        return overflowPolicy;
+    }
+
+    private static List<BlockingQueue<AuditEvent>> newLanes(int capacity, int count) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Async audit queue capacity must be > 0, got " + capacity);
+        }
+        int laneCapacity = Math.max(1, (capacity + count - 1) / count);
+        List<BlockingQueue<AuditEvent>> lanes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lanes.add(new ArrayBlockingQueue<>(laneCapacity));
+        }
+        return lanes;
+    }
+}
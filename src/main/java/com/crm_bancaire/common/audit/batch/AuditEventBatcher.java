@@ -0,0 +1,173 @@
+package com.crm_bancaire.common.audit.batch;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Regroupe les événements d'audit par destination en micro-lots.
+ *
+ * Un lot est envoyé dès que l'une des limites est atteinte:
+ * - nombre maximum d'événements
+ * - taille estimée maximale (octets)
+ * - temps d'attente maximum (linger) depuis le premier événement du lot
+ *
+ * Les flushs par taille s'exécutent sur le thread qui ajoute l'événement,
+ * les flushs par linger sur un thread planificateur dédié.
+ */
+@Slf4j
+public class AuditEventBatcher {
+
+    private final int maxEvents;
+    private final long maxBytes;
+    private final Duration linger;
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private BiConsumer<String, List<AuditEvent>> sink;
+
+    public AuditEventBatcher(int maxEvents, long maxBytes, Duration linger) {
+        this.maxEvents = Math.max(1, maxEvents);
+        this.maxBytes = Math.max(1, maxBytes);
+        this.linger = linger != null ? linger : Duration.ofMillis(50);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param sink Fonction d'envoi d'un lot complet vers sa destination
+     */
+    public void start(BiConsumer<String, List<AuditEvent>> sink) {
+        this.sink = sink;
+        log.info("🚀 Audit batcher started (max {} events, max {} bytes, linger {})", maxEvents, maxBytes, linger);
+    }
+
+    /**
+     * Ajoute un événement au lot courant de la destination.
+     *
+     * @param destination Queue/topic cible
+     * @param event L'événement
+     */
+    public void add(String destination, AuditEvent event) {
+        Buffer buffer = buffers.computeIfAbsent(destination, Buffer::new);
+        int eventSize = AuditEventSizeEstimator.estimate(event);
+        List<AuditEvent> ready = null;
+        boolean scheduleLinger = false;
+        long generation;
+
+        synchronized (buffer) {
+            // Un événement qui ferait dépasser la taille max part dans le lot suivant
+            if (!buffer.events.isEmpty() && buffer.bytes + eventSize > maxBytes) {
+                ready = buffer.swap();
+            }
+            if (buffer.events.isEmpty()) {
+                scheduleLinger = true;
+            }
+            buffer.events.add(event);
+            buffer.bytes += eventSize;
+
+            if (ready == null && (buffer.events.size() >= maxEvents || buffer.bytes >= maxBytes)) {
+                ready = buffer.swap();
+                scheduleLinger = false;
+            }
+            generation = buffer.generation;
+        }
+
+        if (scheduleLinger) {
+            scheduleLingerFlush(buffer, generation);
+        }
+        if (ready != null) {
+            emit(destination, ready);
+        }
+    }
+
+    /**
+     * Envoie immédiatement tous les lots en cours.
+     */
+    public void flushAll() {
+        buffers.values().forEach(buffer -> {
+            List<AuditEvent> ready;
+            synchronized (buffer) {
+                ready = buffer.events.isEmpty() ? null : buffer.swap();
+            }
+            if (ready != null) {
+                emit(buffer.destination, ready);
+            }
+        });
+    }
+
+    /**
+     * Arrête le planificateur et envoie les lots restants.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flushAll();
+        log.info("🛑 Audit batcher stopped");
+    }
+
+    private void scheduleLingerFlush(Buffer buffer, long generation) {
+        try {
+            scheduler.schedule(() -> flushIfSameGeneration(buffer, generation),
+                linger.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            // Planificateur arrêté: flush immédiat
+            flushIfSameGeneration(buffer, generation);
+        }
+    }
+
+    private void flushIfSameGeneration(Buffer buffer, long generation) {
+        List<AuditEvent> ready = null;
+        synchronized (buffer) {
+            if (buffer.generation == generation && !buffer.events.isEmpty()) {
+                ready = buffer.swap();
+            }
+        }
+        if (ready != null) {
+            emit(buffer.destination, ready);
+        }
+    }
+
+    private void emit(String destination, List<AuditEvent> events) {
+        try {
+            sink.accept(destination, events);
+        } catch (Exception e) {
+            log.error("💥 Error sending audit batch of {} events to {}: {}",
+                events.size(), destination, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lot en cours pour une destination. Chaque swap() incrémente la génération
+     * pour que les flushs linger planifiés pour un lot déjà parti soient ignorés.
+     */
+    private final class Buffer {
+        private final String destination;
+        private List<AuditEvent> events = new ArrayList<>();
+        private long bytes;
+        private long generation;
+
+        private Buffer(String destination) {
+            this.destination = destination;
+        }
+
+        private List<AuditEvent> swap() {
+            List<AuditEvent> ready = events;
+            events = new ArrayList<>(Math.min(maxEvents, 64));
+            bytes = 0;
+            generation++;
+            return ready;
+        }
+    }
+}
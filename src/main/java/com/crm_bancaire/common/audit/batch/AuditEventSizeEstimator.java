@@ -0,0 +1,88 @@
+package com.crm_bancaire.common.audit.batch;
+
+import com.crm_bancaire.common.audit.diff.EntityDiff;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Estimation rapide de la taille JSON d'un événement d'audit, sans sérialisation.
+ *
+ * L'estimation additionne la longueur des valeurs et un surcoût fixe pour les noms
+ * de champs; elle sert uniquement à déclencher le flush d'un lot avant d'atteindre
+ * la taille maximale d'un message broker.
+ */
+public final class AuditEventSizeEstimator {
+
+    /**
+     * Noms des 15 champs, guillemets, deux-points, virgules et accolades
+     */
+    private static final int FIXED_OVERHEAD = 260;
+
+    /**
+     * Timestamp ISO-8601 sérialisé
+     */
+    private static final int TIMESTAMP_SIZE = 32;
+
+    private AuditEventSizeEstimator() {
+    }
+
+    /**
+     * @param event L'événement
+     * @return Taille approximative en octets de sa représentation JSON
+     */
+    public static int estimate(AuditEvent event) {
+        int size = FIXED_OVERHEAD + TIMESTAMP_SIZE;
+        size += length(event.getEventId());
+        size += length(event.getAction());
+        size += length(event.getEntity());
+        size += length(event.getEntityId());
+        size += length(event.getActorSub());
+        size += length(event.getActorEmail());
+        size += length(event.getActorUsername());
+        size += length(event.getActorFirstName());
+        size += length(event.getActorLastName());
+        size += length(event.getActorRole());
+        size += length(event.getErrorMessage());
+        size += length(event.getSource());
+        size += length(event.getCorrelationId());
+        size += length(event.getErrorFingerprint());
+        size += estimateValue(event.getMetadata());
+        return size;
+    }
+
+    /**
+     * @param value Valeur de métadonnée (Map, Collection, String, nombre...)
+     * @return Taille approximative en octets de sa représentation JSON
+     */
+    public static int estimateValue(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof EntityDiff diff) {
+            // Sans déclencher le calcul du diff
+            return diff.estimatedSize();
+        }
+        if (value instanceof Map<?, ?> map) {
+            int size = 2;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += length(String.valueOf(entry.getKey())) + 4;
+                size += estimateValue(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            int size = 2;
+            for (Object element : collection) {
+                size += estimateValue(element) + 1;
+            }
+            return size;
+        }
+        return String.valueOf(value).length() + 2;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() + 2 : 4;
+    }
+}
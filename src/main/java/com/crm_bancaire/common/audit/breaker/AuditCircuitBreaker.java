@@ -0,0 +1,195 @@
+package com.crm_bancaire.common.audit.breaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Circuit breaker minimal autour de l'envoi au binder, sans dépendance externe.
+ *
+ * Les derniers appels sont enregistrés dans une fenêtre glissante (nombre d'appels).
+ * Un appel est "lent" s'il dépasse le budget de latence par événement. Quand le taux
+ * d'échecs ou le taux d'appels lents dépasse son seuil, le circuit s'ouvre: les envois
+ * sont court-circuités pendant la durée d'ouverture, puis quelques appels de test
+ * (half-open) décident de la fermeture ou d'une nouvelle ouverture.
+ *
+ * La durée n'est connue qu'au retour de l'envoi: le breaker ne borne pas la latence d'un
+ * envoi bloqué (StreamBridge.send attend le timeout du binder), il évite seulement les envois
+ * suivants une fois le circuit ouvert. Pour borner l'attente, régler les timeouts du binder
+ * (Kafka max.block.ms / delivery.timeout.ms, connexion RabbitMQ) et publier en asynchrone.
+ *
+ * En état fermé, l'enregistrement d'un résultat est sans verrou (fenêtre en tableau atomique,
+ * compteurs atomiques); seuls les changements d'état, rares, sont synchronisés.
+ */
+@Slf4j
+public class AuditCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Contenu d'une case de la fenêtre: 0 si vide, sinon RECORDED plus FAILED et/ou SLOW
+     */
+    private static final int RECORDED = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 4;
+
+    private final long latencyBudgetNanos;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final int minimumCalls;
+    private final long waitInOpenStateNanos;
+    private final int halfOpenCalls;
+
+    /**
+     * Fenêtre glissante des derniers appels, écrite à la position cursor modulo sa taille
+     */
+    private final AtomicIntegerArray window;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicInteger failureCount = new AtomicInteger();
+    private final AtomicInteger slowCount = new AtomicInteger();
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private final AtomicLong rejectedCalls = new AtomicLong();
+
+    public AuditCircuitBreaker(Duration latencyBudget, int failureRateThreshold, int slowCallRateThreshold,
+                               int slidingWindowSize, int minimumCalls, Duration waitInOpenState, int halfOpenCalls) {
+        this.latencyBudgetNanos = latencyBudget.toNanos();
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.window = new AtomicIntegerArray(Math.max(1, slidingWindowSize));
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, window.length()));
+        this.waitInOpenStateNanos = waitInOpenState.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+    }
+
+    /**
+     * Demande l'autorisation d'envoyer. Chaque autorisation accordée doit être suivie d'un onResult().
+     *
+     * @return false si le circuit est ouvert (envoi court-circuité)
+     */
+    public boolean tryAcquirePermission() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.nanoTime() - openedAt >= waitInOpenStateNanos) {
+            transition(State.OPEN, State.HALF_OPEN);
+            current = state;
+        }
+        if (current == State.HALF_OPEN && halfOpenPermits.incrementAndGet() <= halfOpenCalls) {
+            return true;
+        }
+        if (current == State.CLOSED) {
+            return true;
+        }
+        rejectedCalls.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Enregistre le résultat d'un envoi autorisé.
+     *
+     * @param success true si le binder a accepté le message
+     * @param durationNanos Durée de l'envoi
+     */
+    public void onResult(boolean success, long durationNanos) {
+        boolean slow = durationNanos > latencyBudgetNanos;
+
+        State current = state;
+        if (current == State.HALF_OPEN) {
+            if (!success || slow) {
+                transition(State.HALF_OPEN, State.OPEN);
+            } else if (halfOpenSuccesses.incrementAndGet() >= halfOpenCalls) {
+                transition(State.HALF_OPEN, State.CLOSED);
+            }
+            return;
+        }
+        if (current == State.OPEN) {
+            // Résultat tardif d'un appel autorisé avant l'ouverture
+            return;
+        }
+
+        int code = RECORDED | (success ? 0 : FAILED) | (slow ? SLOW : 0);
+        int slot = (int) Math.floorMod(cursor.getAndIncrement(), (long) window.length());
+        int previous = window.getAndSet(slot, code);
+        if (previous == 0) {
+            windowCount.incrementAndGet();
+        }
+        adjust(failureCount, previous, code, FAILED);
+        adjust(slowCount, previous, code, SLOW);
+
+        int calls = windowCount.get();
+        if (calls >= minimumCalls) {
+            int failureRate = failureCount.get() * 100 / calls;
+            int slowRate = slowCount.get() * 100 / calls;
+            if ((failureRate >= failureRateThreshold || slowRate >= slowCallRateThreshold)
+                    && transition(State.CLOSED, State.OPEN)) {
+                log.warn("⚡ Audit circuit breaker opening: failure rate {}%, slow call rate {}% over {} calls",
+                    failureRate, slowRate, calls);
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return Nombre d'envois court-circuités depuis le démarrage
+     */
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    private static void adjust(AtomicInteger counter, int previous, int code, int flag) {
+        int delta = ((code & flag) != 0 ? 1 : 0) - ((previous & flag) != 0 ? 1 : 0);
+        if (delta != 0) {
+            counter.addAndGet(delta);
+        }
+    }
+
+    /**
+     * Change d'état si l'état courant est toujours expected. Les compteurs du nouvel état sont
+     * réinitialisés avant sa publication.
+     *
+     * @return true si la transition a eu lieu
+     */
+    private synchronized boolean transition(State expected, State newState) {
+        if (state != expected) {
+            return false;
+        }
+        switch (newState) {
+            case OPEN -> {
+                openedAt = System.nanoTime();
+                log.warn("🔴 Audit circuit breaker {} → OPEN for {} ms", expected, waitInOpenStateNanos / 1_000_000);
+            }
+            case HALF_OPEN -> {
+                halfOpenPermits.set(0);
+                halfOpenSuccesses.set(0);
+                log.info("🟡 Audit circuit breaker OPEN → HALF_OPEN, probing with {} calls", halfOpenCalls);
+            }
+            case CLOSED -> {
+                for (int i = 0; i < window.length(); i++) {
+                    window.set(i, 0);
+                }
+                cursor.set(0);
+                windowCount.set(0);
+                failureCount.set(0);
+                slowCount.set(0);
+                log.info("🟢 Audit circuit breaker {} → CLOSED", expected);
+            }
+        }
+        state = newState;
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package com.crm_bancaire.common.audit.breaker;
+
+/**
+ * Traitement des événements court-circuités quand le circuit breaker est ouvert.
+ */
+public enum BreakerFallback {
+    /**
+     * L'événement est abandonné et compté
+     */
+    DROP,
+
+    /**
+     * L'événement est écrit dans le spool disque (LOG si le spool est désactivé)
+     */
+    SPOOL,
+
+    /**
+     * L'événement est écrit en JSON dans le logger "common.audit.fallback"
+     */
+    LOG
+}
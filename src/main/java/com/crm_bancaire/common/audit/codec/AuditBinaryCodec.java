@@ -0,0 +1,503 @@
+package com.crm_bancaire.common.audit.codec;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec binaire compact des événements d'audit.
+ *
+ * Format (version 4):
+ * <pre>
+ * message   = MAGIC version kind (event | batch)
+ * event     = varint(longueur) record
+ * batch     = str(batchId) dict(source) varint(size) timestamp varint(n) event*n
+ * record    = str(eventId) dict(action) dict(entity) str(entityId)
+ *             dict(actorSub) dict(actorEmail) dict(actorUsername)
+ *             dict(actorFirstName) dict(actorLastName) dict(actorRole)
+ *             status str(errorMessage) timestamp dict(source) metadata
+ *             str(correlationId)                                (v2)
+ *             str(errorFingerprint) varint(occurrences)         (v3, 0 = null)
+ *             str(chainId) varint(sequence) str(previousHash) str(hash)   (v4, sequence 0 = null)
+ * </pre>
+ * - varint: entier LEB128, les timestamps sont en microsecondes epoch (zigzag, delta
+ *   par rapport au timestamp précédent du message)
+ * - str: varint(longueur + 1) puis UTF-8, 0 = null
+ * - dict: chaînes répétées (source, entity, action, acteur) dédupliquées par message:
+ *   0 = null, 1 = nouvelle chaîne (ajoutée au dictionnaire), n ≥ 2 = entrée n - 2
+ * - status: octet (0 = null, ordinal + 1)
+ * - metadata: varint(longueur + 1) puis JSON UTF-8, 0 = null
+ *
+ * Tout changement de layout incrémente {@link #VERSION}. Le décodeur lit les champs de la
+ * version du message et refuse une version inconnue (0 ou supérieure à {@link #VERSION}).
+ * Les messages en version 1 écrits avant cette règle peuvent porter les champs v2 à v4:
+ * chaque record étant préfixé par sa longueur, ils sont lus s'ils sont présents.
+ *
+ * Les timestamps sont tronqués à la microseconde.
+ */
+public class AuditBinaryCodec {
+
+    public static final MimeType MIME_TYPE = MimeType.valueOf("application/x-audit-binary");
+
+    public static final int VERSION = 4;
+
+    static final byte MAGIC = (byte) 0xA7;
+
+    private static final byte KIND_EVENT = 0;
+    private static final byte KIND_BATCH = 1;
+
+    private static final int NULL_REF = 0;
+    private static final int LITERAL_REF = 1;
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public AuditBinaryCodec() {
+        this(new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+    }
+
+    /**
+     * @param objectMapper Mapper utilisé pour les métadonnées (seul champ non typé)
+     */
+    public AuditBinaryCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return true si le payload commence par l'en-tête du format binaire
+     */
+    public static boolean isBinary(byte[] payload) {
+        return payload != null && payload.length >= 3 && payload[0] == MAGIC;
+    }
+
+    public byte[] encode(AuditEvent event) {
+        Writer out = new Writer(256);
+        out.writeHeader(KIND_EVENT);
+        writeRecord(out, event, new Encoding());
+        return out.toByteArray();
+    }
+
+    public byte[] encode(AuditEventBatch batch) {
+        List<AuditEvent> events = batch.getEvents() != null ? batch.getEvents() : List.of();
+        Encoding encoding = new Encoding();
+        Writer out = new Writer(64 + events.size() * 96);
+        out.writeHeader(KIND_BATCH);
+        out.writeString(batch.getBatchId());
+        encoding.writeDict(out, batch.getSource());
+        out.writeVarLong(batch.getSize());
+        encoding.writeTimestamp(out, batch.getTimestamp());
+        out.writeVarLong(events.size());
+        for (AuditEvent event : events) {
+            writeRecord(out, event, encoding);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return {@link AuditEvent} ou {@link AuditEventBatch} selon le contenu du message
+     */
+    public Object decode(byte[] payload) {
+        Reader in = new Reader(payload);
+        byte kind = in.readHeader();
+        Decoding decoding = new Decoding();
+        if (kind == KIND_EVENT) {
+            return readRecord(in, decoding);
+        }
+        if (kind == KIND_BATCH) {
+            return readBatch(in, decoding);
+        }
+        throw new IllegalArgumentException("Unknown audit binary payload kind: " + kind);
+    }
+
+    public AuditEvent decodeEvent(byte[] payload) {
+        Object decoded = decode(payload);
+        if (decoded instanceof AuditEvent event) {
+            return event;
+        }
+        throw new IllegalArgumentException("Audit binary payload is a batch, not a single event");
+    }
+
+    public AuditEventBatch decodeBatch(byte[] payload) {
+        Object decoded = decode(payload);
+        if (decoded instanceof AuditEventBatch batch) {
+            return batch;
+        }
+        throw new IllegalArgumentException("Audit binary payload is a single event, not a batch");
+    }
+
+    /**
+     * @return Les événements du message (seul ou lot), dans l'ordre de publication
+     */
+    public List<AuditEvent> decodeEvents(byte[] payload) {
+        Object decoded = decode(payload);
+        if (decoded instanceof AuditEventBatch batch) {
+            return batch.getEvents();
+        }
+        return List.of((AuditEvent) decoded);
+    }
+
+    private void writeRecord(Writer out, AuditEvent event, Encoding encoding) {
+        Writer record = encoding.scratch;
+        record.reset();
+        record.writeString(event.getEventId());
+        encoding.writeDict(record, event.getAction());
+        encoding.writeDict(record, event.getEntity());
+        record.writeString(event.getEntityId());
+        encoding.writeDict(record, event.getActorSub());
+        encoding.writeDict(record, event.getActorEmail());
+        encoding.writeDict(record, event.getActorUsername());
+        encoding.writeDict(record, event.getActorFirstName());
+        encoding.writeDict(record, event.getActorLastName());
+        encoding.writeDict(record, event.getActorRole());
+        record.writeByte(event.getStatus() != null ? event.getStatus().ordinal() + 1 : 0);
+        record.writeString(event.getErrorMessage());
+        encoding.writeTimestamp(record, event.getTimestamp());
+        encoding.writeDict(record, event.getSource());
+        writeMetadata(record, event.getMetadata());
+        record.writeString(event.getCorrelationId());
+        record.writeString(event.getErrorFingerprint());
+        record.writeVarLong(event.getOccurrences() != null ? event.getOccurrences() : 0);
+        record.writeString(event.getChainId());
+        record.writeVarLong(event.getSequence() != null ? event.getSequence() : 0);
+        record.writeString(event.getPreviousHash());
+        record.writeString(event.getHash());
+
+        out.writeVarLong(record.size);
+        out.writeBytes(record.buf, 0, record.size);
+    }
+
+    private AuditEvent readRecord(Reader in, Decoding decoding) {
+        int length = in.readLength();
+        int end = in.pos + length;
+        if (end > in.buf.length) {
+            throw new IllegalArgumentException("Truncated audit binary record");
+        }
+
+        AuditEvent event = new AuditEvent();
+        event.setEventId(in.readString());
+        event.setAction(decoding.readDict(in));
+        event.setEntity(decoding.readDict(in));
+        event.setEntityId(in.readString());
+        event.setActorSub(decoding.readDict(in));
+        event.setActorEmail(decoding.readDict(in));
+        event.setActorUsername(decoding.readDict(in));
+        event.setActorFirstName(decoding.readDict(in));
+        event.setActorLastName(decoding.readDict(in));
+        event.setActorRole(decoding.readDict(in));
+        event.setStatus(readStatus(in.readByte()));
+        event.setErrorMessage(in.readString());
+        event.setTimestamp(decoding.readTimestamp(in));
+        event.setSource(decoding.readDict(in));
+        event.setMetadata(readMetadata(in));
+        if (in.hasField(2, end)) {
+            event.setCorrelationId(in.readString());
+        }
+        if (in.hasField(3, end)) {
+            event.setErrorFingerprint(in.readString());
+            long occurrences = in.readVarLong();
+            event.setOccurrences(occurrences > 0 ? (int) occurrences : null);
+        }
+        if (in.hasField(4, end)) {
+            event.setChainId(in.readString());
+            long sequence = in.readVarLong();
+            event.setSequence(sequence > 0 ? sequence : null);
+            event.setPreviousHash(in.readString());
+            event.setHash(in.readString());
+        }
+
+        if (in.pos != end) {
+            throw new IllegalArgumentException("Corrupted audit binary record");
+        }
+        return event;
+    }
+
+    private AuditEventBatch readBatch(Reader in, Decoding decoding) {
+        AuditEventBatch batch = new AuditEventBatch();
+        batch.setBatchId(in.readString());
+        batch.setSource(decoding.readDict(in));
+        batch.setSize((int) in.readVarLong());
+        batch.setTimestamp(decoding.readTimestamp(in));
+        int count = in.readLength();
+        List<AuditEvent> events = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            events.add(readRecord(in, decoding));
+        }
+        batch.setEvents(events);
+        return batch;
+    }
+
+    private static AuditStatus readStatus(int code) {
+        if (code == 0) {
+            return null;
+        }
+        AuditStatus[] values = AuditStatus.values();
+        // Statut inconnu (ajouté par une version plus récente): conservé comme null
+        return code <= values.length ? values[code - 1] : null;
+    }
+
+    private void writeMetadata(Writer out, Map<String, Object> metadata) {
+        if (metadata == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(metadata);
+            out.writeVarLong(json.length + 1L);
+            out.writeBytes(json, 0, json.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot encode audit metadata", e);
+        }
+    }
+
+    private Map<String, Object> readMetadata(Reader in) {
+        int length = in.readLength();
+        if (length == 0) {
+            return null;
+        }
+        int size = length - 1;
+        in.require(size);
+        try {
+            Map<String, Object> metadata = objectMapper.readValue(in.buf, in.pos, size, METADATA_TYPE);
+            in.pos += size;
+            return metadata;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid audit metadata", e);
+        }
+    }
+
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    /**
+     * État d'encodage d'un message: dictionnaire et dernier timestamp
+     */
+    private static final class Encoding {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final Writer scratch = new Writer(256);
+        private long lastMicros;
+
+        void writeDict(Writer out, String value) {
+            if (value == null) {
+                out.writeVarLong(NULL_REF);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                out.writeVarLong(index + 2L);
+                return;
+            }
+            dictionary.put(value, dictionary.size());
+            out.writeVarLong(LITERAL_REF);
+            out.writeString(value);
+        }
+
+        void writeTimestamp(Writer out, Instant timestamp) {
+            if (timestamp == null) {
+                out.writeByte(0);
+                return;
+            }
+            long micros = toMicros(timestamp);
+            out.writeByte(1);
+            out.writeZigZag(micros - lastMicros);
+            lastMicros = micros;
+        }
+    }
+
+    /**
+     * État de décodage d'un message: dictionnaire et dernier timestamp
+     */
+    private static final class Decoding {
+        private final List<String> dictionary = new ArrayList<>();
+        private long lastMicros;
+
+        String readDict(Reader in) {
+            int ref = in.readLength();
+            if (ref == NULL_REF) {
+                return null;
+            }
+            if (ref == LITERAL_REF) {
+                String value = in.readString();
+                dictionary.add(value);
+                return value;
+            }
+            int index = ref - 2;
+            if (index >= dictionary.size()) {
+                throw new IllegalArgumentException("Invalid audit binary dictionary reference: " + index);
+            }
+            return dictionary.get(index);
+        }
+
+        Instant readTimestamp(Reader in) {
+            if (in.readByte() == 0) {
+                return null;
+            }
+            lastMicros += in.readZigZag();
+            return fromMicros(lastMicros);
+        }
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int size;
+
+        Writer(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void writeHeader(byte kind) {
+            writeByte(MAGIC);
+            writeByte(VERSION);
+            writeByte(kind);
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            buf[size++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[size++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buf, size, length);
+            size += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private int version;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        byte readHeader() {
+            if (!isBinary(buf)) {
+                throw new IllegalArgumentException("Not an audit binary payload");
+            }
+            version = buf[1] & 0xFF;
+            if (version == 0 || version > VERSION) {
+                throw new IllegalArgumentException(
+                    "Unsupported audit binary version " + version + " (max supported: " + VERSION + ")");
+            }
+            pos = 3;
+            return buf[2];
+        }
+
+        /**
+         * @return true si le record contient les champs introduits par la version donnée
+         */
+        boolean hasField(int sinceVersion, int recordEnd) {
+            return version >= sinceVersion || (version == 1 && pos < recordEnd);
+        }
+
+        int readByte() {
+            require(1);
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in audit binary payload");
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        int readLength() {
+            long value = readVarLong();
+            if (value < 0 || value > buf.length) {
+                throw new IllegalArgumentException("Invalid length in audit binary payload: " + value);
+            }
+            return (int) value;
+        }
+
+        String readString() {
+            int length = readLength();
+            if (length == 0) {
+                return null;
+            }
+            int size = length - 1;
+            require(size);
+            String value = new String(buf, pos, size, StandardCharsets.UTF_8);
+            pos += size;
+            return value;
+        }
+
+        void require(int length) {
+            if (pos + length > buf.length) {
+                throw new IllegalArgumentException("Truncated audit binary payload");
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.crm_bancaire.common.audit.codec;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+
+/**
+ * MessageConverter Spring pour le content type {@link AuditBinaryCodec#MIME_TYPE}.
+ *
+ * Déclaré comme bean, il est utilisé par Spring Cloud Stream côté producteur
+ * (common.audit.wire-format=binary) et côté audit-service pour les consumers
+ * {@code Consumer<AuditEvent>} ou {@code Consumer<AuditEventBatch>}.
+ */
+public class AuditBinaryMessageConverter extends AbstractMessageConverter {
+
+    private final AuditBinaryCodec codec;
+
+    public AuditBinaryMessageConverter() {
+        this(new AuditBinaryCodec());
+    }
+
+    public AuditBinaryMessageConverter(AuditBinaryCodec codec) {
+        super(AuditBinaryCodec.MIME_TYPE);
+        this.codec = codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return AuditEvent.class.isAssignableFrom(clazz) || AuditEventBatch.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload) || !AuditBinaryCodec.isBinary(payload)) {
+            return null;
+        }
+        return AuditEventBatch.class.isAssignableFrom(targetClass)
+            ? codec.decodeBatch(payload)
+            : codec.decodeEvent(payload);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        if (payload instanceof AuditEventBatch batch) {
+            return codec.encode(batch);
+        }
+        return codec.encode((AuditEvent) payload);
+    }
+}
@@ -0,0 +1,17 @@
+package com.crm_bancaire.common.audit.codec;
+
+/**
+ * Format des messages d'audit publiés sur le broker.
+ */
+public enum WireFormat {
+    /**
+     * JSON (application/json), lisible et compatible avec tous les consumers
+     */
+    JSON,
+
+    /**
+     * Format binaire compact ({@link AuditBinaryCodec#MIME_TYPE}), à décoder avec
+     * {@link AuditBinaryCodec} ou {@link AuditBinaryMessageConverter}
+     */
+    BINARY
+}
@@ -1,15 +1,65 @@
 package com.crm_bancaire.common.audit.config;
 
 import com.crm_bancaire.common.audit.aspect.AuditAspect;
+import com.crm_bancaire.common.audit.async.AsyncAuditDispatcher;
+import com.crm_bancaire.common.audit.async.AuditDispatcher;
+import com.crm_bancaire.common.audit.async.ShardedAuditDispatcher;
+import com.crm_bancaire.common.audit.batch.AuditEventBatcher;
+import com.crm_bancaire.common.audit.breaker.AuditCircuitBreaker;
+import com.crm_bancaire.common.audit.breaker.BreakerFallback;
+import com.crm_bancaire.common.audit.codec.AuditBinaryCodec;
+import com.crm_bancaire.common.audit.codec.AuditBinaryMessageConverter;
+import com.crm_bancaire.common.audit.codec.WireFormat;
+import com.crm_bancaire.common.audit.context.AuditScopeTaskDecorator;
+import com.crm_bancaire.common.audit.diff.DiffEngine;
+import com.crm_bancaire.common.audit.error.ErrorDeduplicator;
+import com.crm_bancaire.common.audit.error.ErrorFingerprinter;
+import com.crm_bancaire.common.audit.extractor.ActorInfoExtractor;
+import com.crm_bancaire.common.audit.extractor.ActorProvider;
+import com.crm_bancaire.common.audit.extractor.EntityInfoExtractor;
+import com.crm_bancaire.common.audit.id.EventIdGenerator;
+import com.crm_bancaire.common.audit.integrity.AuditHashChain;
+import com.crm_bancaire.common.audit.integrity.CheckpointSigner;
+import com.crm_bancaire.common.audit.integrity.HmacCheckpointSigner;
+import com.crm_bancaire.common.audit.limits.AuditPayloadLimits;
+import com.crm_bancaire.common.audit.metrics.AuditMetrics;
+import com.crm_bancaire.common.audit.metrics.AuditPipelineMeterBinder;
+import com.crm_bancaire.common.audit.metrics.MicrometerAuditMetrics;
+import com.crm_bancaire.common.audit.publisher.AuditMessageHeaders;
 import com.crm_bancaire.common.audit.publisher.AuditPublisher;
+import com.crm_bancaire.common.audit.publisher.EmbeddedAuditPublisher;
 import com.crm_bancaire.common.audit.publisher.StreamAuditPublisher;
+import com.crm_bancaire.common.audit.registry.AuditBindingPrewarmer;
+import com.crm_bancaire.common.audit.registry.AuditRegistry;
+import com.crm_bancaire.common.audit.registry.AuditRegistryEndpoint;
+import com.crm_bancaire.common.audit.registry.AuditRegistryScanner;
+import com.crm_bancaire.common.audit.routing.AuditRouter;
+import com.crm_bancaire.common.audit.routing.RoutingRule;
+import com.crm_bancaire.common.audit.sampling.AuditSampler;
+import com.crm_bancaire.common.audit.sampling.SamplingRule;
+import com.crm_bancaire.common.audit.spool.AuditSpool;
+import com.crm_bancaire.common.audit.spool.AuditSpoolReplayer;
+import com.crm_bancaire.common.audit.store.AuditEventStore;
+import com.crm_bancaire.common.audit.transaction.TransactionalAuditBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.util.ClassUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
  * Auto-configuration principale pour common-audit.
@@ -18,21 +68,361 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
  */
 @Configuration
 @EnableAspectJAutoProxy
+@EnableConfigurationProperties(AuditProperties.class)
 @ConditionalOnClass(StreamBridge.class)
 @Slf4j
 public class AuditAutoConfiguration {
 
+    private static final String KAFKA_HEADERS_CLASS = "org.springframework.kafka.support.KafkaHeaders";
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ActorProvider actorProvider() {
+        log.info("🔧 Configuring default ActorProvider (common-security UserContext)");
+        return ActorInfoExtractor.defaultProvider();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EventIdGenerator eventIdGenerator() {
+        return EventIdGenerator.timeOrdered();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditSampler auditSampler(AuditProperties properties) {
+        AuditProperties.Sampling sampling = properties.getSampling();
+        List<SamplingRule> rules = sampling.getRules().stream()
+            .map(rule -> new SamplingRule(rule.getEntity(), rule.getAction(), rule.getRate()))
+            .toList();
+        if (!rules.isEmpty()) {
+            log.info("🔧 Audit sampling rules: {}", rules);
+        }
+        AuditProperties.Sampling.Shedding shedding = sampling.getShedding();
+        if (shedding.isEnabled() && !properties.getAsync().isEnabled()) {
+            log.warn("⚠️ Audit load shedding enabled but common.audit.async.enabled=false: shedding is inactive");
+        }
+        return new AuditSampler(rules, sampling.getCriticalActions(), shedding.isEnabled(),
+            shedding.getThreshold(), shedding.getMinRate(), shedding.getLowPriorityActions());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DiffEngine diffEngine(AuditProperties properties) {
+        AuditProperties.Diff diff = properties.getDiff();
+        return new DiffEngine(diff.getMaskedFields(), diff.getMaxChanges(), diff.getMaxValueLength(), diff.getMaxDepth());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public EntityInfoExtractor entityInfoExtractor(AuditProperties properties) {
+        AuditProperties.EntityId entityId = properties.getEntityId();
+        return new EntityInfoExtractor(entityId.getAccessorMethods(), entityId.getAccessorFields());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditRouter auditRouter(AuditProperties properties) {
+        List<RoutingRule> rules = properties.getRouting().getRules().stream()
+            .map(rule -> new RoutingRule(rule.getEntity(), rule.getAction(), rule.getStatus(), rule.getSource(),
+                rule.getDestination()))
+            .toList();
+        if (!rules.isEmpty()) {
+            log.info("🔧 Audit routing rules configured: {}", rules.size());
+        }
+        return new AuditRouter(rules);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ErrorFingerprinter errorFingerprinter(AuditProperties properties) {
+        return new ErrorFingerprinter(properties.getErrors().getFingerprintFrames());
+    }
+
+    /**
+     * Regroupement des échecs identiques (même empreinte) sur une fenêtre.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "common.audit.errors.dedupe.enabled", havingValue = "true")
+    public ErrorDeduplicator errorDeduplicator(AuditProperties properties) {
+        return new ErrorDeduplicator(properties.getErrors().getDedupe().getWindow());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditPayloadLimits auditPayloadLimits(AuditProperties properties) {
+        AuditProperties.Limits limits = properties.getLimits();
+        return new AuditPayloadLimits(limits.getMaxErrorMessageLength(), limits.getMaxMetadataSize().toBytes());
+    }
+
+    /**
+     * Converter du format binaire, enregistré aussi côté audit-service pour décoder
+     * les messages {@link AuditBinaryCodec#MIME_TYPE}.
+     */
     @Bean
     @ConditionalOnMissingBean
-    public AuditPublisher auditPublisher(StreamBridge streamBridge) {
+    public AuditBinaryMessageConverter auditBinaryMessageConverter() {
+        return new AuditBinaryMessageConverter();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuditPublisher auditPublisher(StreamBridge streamBridge, AuditProperties properties,
+                                         ObjectProvider<AuditSampler> sampler,
+                                         ObjectProvider<TransactionalAuditBuffer> transactionBuffer) {
         log.info("🔧 Configuring StreamAuditPublisher for automatic audit events");
-        return new StreamAuditPublisher(streamBridge);
+
+        if (properties.getWireFormat() == WireFormat.BINARY) {
+            log.info("🔧 Audit events published in binary format ({})", AuditBinaryCodec.MIME_TYPE);
+        }
+
+        AuditDispatcher dispatcher = null;
+        AuditProperties.Async async = properties.getAsync();
+        if (async.isEnabled() && async.isOrdered()) {
+            log.info("🔧 Async audit dispatch enabled, ordered per entity (capacity {}, lanes {})",
+                async.getCapacity(), async.getLanes() > 0 ? async.getLanes() : "auto");
+            dispatcher = new ShardedAuditDispatcher(async.getCapacity(), async.getLanes(),
+                async.getOverflowPolicy(), async.getShutdownTimeout(), async.isVirtualThreads());
+        } else if (async.isEnabled()) {
+            log.info("🔧 Async audit dispatch enabled (capacity {}, {} threads)",
+                async.getCapacity(), async.getThreads());
+            dispatcher = new AsyncAuditDispatcher(
+                async.getCapacity(), async.getThreads(), async.getOverflowPolicy(), async.getShutdownTimeout());
+        }
+
+        if (dispatcher != null) {
+            AuditDispatcher loadSource = dispatcher;
+            sampler.ifAvailable(s -> s.setLoadSupplier(loadSource::getFillRatio));
+        }
+
+        AuditEventBatcher batcher = null;
+        AuditProperties.Batch batch = properties.getBatch();
+        if (batch.isEnabled()) {
+            log.info("🔧 Audit batching enabled (max {} events, max {}, linger {})",
+                batch.getMaxEvents(), batch.getMaxSize(), batch.getLinger());
+            batcher = new AuditEventBatcher(batch.getMaxEvents(), batch.getMaxSize().toBytes(), batch.getLinger());
+        }
+
+        AuditSpool spool = null;
+        AuditSpoolReplayer replayer = null;
+        AuditProperties.Spool spoolProperties = properties.getSpool();
+        if (spoolProperties.isEnabled()) {
+            log.info("🔧 Audit disk spool enabled in {} (max {})",
+                spoolProperties.getDirectory().toAbsolutePath(), spoolProperties.getMaxSize());
+            spool = new AuditSpool(spoolProperties.getDirectory(), spoolProperties.getSegmentSize().toBytes(),
+                spoolProperties.getMaxSize().toBytes(), spoolProperties.isForceOnWrite());
+            replayer = new AuditSpoolReplayer(spool,
+                spoolProperties.getRetryInterval(), spoolProperties.getMaxRetryInterval());
+        }
+
+        AuditCircuitBreaker breaker = null;
+        AuditProperties.Breaker breakerProperties = properties.getBreaker();
+        if (breakerProperties.isEnabled()) {
+            log.info("🔧 Audit circuit breaker enabled (latency budget {}, fallback {})",
+                breakerProperties.getLatencyBudget(), breakerProperties.getFallback());
+            if (breakerProperties.getFallback() == BreakerFallback.SPOOL && spool == null) {
+                log.warn("⚠️ Audit breaker fallback is SPOOL but common.audit.spool.enabled=false: events will be logged");
+            }
+            breaker = new AuditCircuitBreaker(breakerProperties.getLatencyBudget(),
+                breakerProperties.getFailureRateThreshold(), breakerProperties.getSlowCallRateThreshold(),
+                breakerProperties.getSlidingWindowSize(), breakerProperties.getMinimumCalls(),
+                breakerProperties.getWaitInOpenState(), breakerProperties.getHalfOpenCalls());
+        }
+
+        return StreamAuditPublisher.builder()
+            .streamBridge(streamBridge)
+            .dispatcher(dispatcher)
+            .batcher(batcher)
+            .spool(spool)
+            .replayer(replayer)
+            .breaker(breaker)
+            .breakerFallback(breakerProperties.getFallback())
+            .contentType(properties.getWireFormat() == WireFormat.BINARY ? AuditBinaryCodec.MIME_TYPE : null)
+            .transactionBuffer(transactionBuffer.getIfAvailable())
+            .bulkMaxEvents(batch.getMaxEvents())
+            .bulkMaxBytes(batch.getMaxSize().toBytes())
+            .coalesceScope(properties.getScope().isCoalesce())
+            .messageHeaders(messageHeaders(properties.getHeaders(), batch.isEnabled()))
+            .build();
+    }
+
+    /**
+     * Headers de routage et clé de partition; la clé Kafka n'est posée que si le binder Kafka est présent.
+     * Les groupes de clés ne servent qu'aux lots: sans batching, la clé reste entity:entityId.
+     */
+    private static AuditMessageHeaders messageHeaders(AuditProperties.Headers headers, boolean batching) {
+        if (!headers.isEnabled()) {
+            return null;
+        }
+        boolean kafkaKey = headers.isKafkaKey() && ClassUtils.isPresent(KAFKA_HEADERS_CLASS, null);
+        int keyShards = batching ? headers.getKeyShards() : 0;
+        if (!batching && headers.getKeyShards() > 0) {
+            log.warn("⚠️ common.audit.headers.key-shards ignored: batching is disabled");
+        }
+        log.info("🔧 Audit routing headers enabled (Kafka message key: {}, key shards: {})", kafkaKey, keyShards);
+        return new AuditMessageHeaders(kafkaKey, keyShards);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public AuditAspect auditAspect(AuditPublisher auditPublisher) {
+    public AuditAspect auditAspect(AuditPublisher auditPublisher, ObjectProvider<AuditSampler> sampler) {
         log.info("🔧 Configuring AuditAspect for @Auditable methods");
-        return new AuditAspect(auditPublisher);
+        return new AuditAspect(auditPublisher, sampler.getIfAvailable());
+    }
+
+    /**
+     * Propagation de la portée d'audit aux exécuteurs @Async (repris par TaskExecutionAutoConfiguration).
+     * Sur activation: un TaskDecorator unique s'appliquerait à tous les exécuteurs de l'application.
+     */
+    @Bean
+    @ConditionalOnMissingBean(TaskDecorator.class)
+    @ConditionalOnProperty(name = "common.audit.scope.task-decorator", havingValue = "true", matchIfMissing = false)
+    public AuditScopeTaskDecorator auditScopeTaskDecorator(AuditPublisher auditPublisher) {
+        return new AuditScopeTaskDecorator(auditPublisher::currentActor);
+    }
+
+    /**
+     * Publication différée à la fin des transactions, si spring-tx est présent.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.transaction.support.TransactionSynchronizationManager")
+    @ConditionalOnProperty(name = "common.audit.transaction.enabled", havingValue = "true")
+    static class AuditTransactionConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public TransactionalAuditBuffer transactionalAuditBuffer(AuditProperties properties) {
+            AuditProperties.Transaction transaction = properties.getTransaction();
+            log.info("🔧 Audit events deferred until transaction completion (on rollback: {})",
+                transaction.getOnRollback());
+            return new TransactionalAuditBuffer(transaction.getOnRollback(), transaction.getMaxBufferedEvents());
+        }
+    }
+
+    /**
+     * Store local: les événements sont écrits sur disque au lieu d'être envoyés au broker.
+     *
+     * Déclaré dans une classe imbriquée, l'EmbeddedAuditPublisher est enregistré avant
+     * auditPublisher, qui n'est alors pas créé.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "common.audit.store.enabled", havingValue = "true")
+    static class AuditStoreConfiguration {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public AuditEventStore auditEventStore(AuditProperties properties) {
+            AuditProperties.Store store = properties.getStore();
+            log.info("🔧 Audit events written to local store {} (fsync: {})",
+                store.getDirectory().toAbsolutePath(), store.isFsync());
+            return new AuditEventStore(store.getDirectory(), store.getSegmentSize().toBytes(),
+                store.getMaxSize().toBytes(), store.isFsync());
+        }
+
+        @Bean
+        @ConditionalOnMissingBean(AuditPublisher.class)
+        public EmbeddedAuditPublisher embeddedAuditPublisher(AuditEventStore auditEventStore) {
+            return new EmbeddedAuditPublisher(auditEventStore);
+        }
+    }
+
+    /**
+     * Mode intégrité: chaîne de hash et checkpoints signés.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "common.audit.integrity.enabled", havingValue = "true")
+    static class AuditIntegrityConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnProperty(name = "common.audit.integrity.hmac-secret")
+        public CheckpointSigner checkpointSigner(AuditProperties properties) {
+            AuditProperties.Integrity integrity = properties.getIntegrity();
+            return new HmacCheckpointSigner(integrity.getKeyId(), integrity.getHmacSecret().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Bean
+        @ConditionalOnMissingBean
+        public AuditHashChain auditHashChain(AuditProperties properties, ObjectProvider<CheckpointSigner> signer) {
+            CheckpointSigner checkpointSigner = signer.getIfUnique();
+            if (checkpointSigner == null) {
+                log.warn("⚠️ Audit integrity enabled without CheckpointSigner: checkpoints are not signed");
+            }
+            return new AuditHashChain(properties.getIntegrity().getCheckpointInterval(), checkpointSigner);
+        }
+    }
+
+    /**
+     * Métriques Micrometer du pipeline, si Micrometer est présent.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class AuditMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public AuditMetrics auditMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+            MeterRegistry registry = meterRegistry.getIfUnique();
+            if (registry == null) {
+                return AuditMetrics.NOOP;
+            }
+            log.info("🔧 Audit metrics published to Micrometer");
+            return new MicrometerAuditMetrics(registry);
+        }
+
+        @Bean
+        public AuditPipelineMeterBinder auditPipelineMeterBinder(AuditPublisher auditPublisher,
+                                                                 ObjectProvider<AuditSampler> sampler) {
+            if (auditPublisher instanceof StreamAuditPublisher publisher) {
+                return new AuditPipelineMeterBinder(publisher.getDispatcher(), publisher.getBreaker(),
+                    publisher.getSpool(), sampler.getIfAvailable());
+            }
+            return new AuditPipelineMeterBinder(null, null, null, sampler.getIfAvailable());
+        }
+    }
+
+    /**
+     * Registre des méthodes @Auditable, validation des expressions et pré-création des bindings.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "common.audit.registry.enabled", havingValue = "true", matchIfMissing = true)
+    static class AuditRegistryConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public AuditRegistry auditRegistry() {
+            return new AuditRegistry();
+        }
+
+        @Bean
+        public AuditRegistryScanner auditRegistryScanner(ConfigurableListableBeanFactory beanFactory,
+                                                         AuditAspect auditAspect,
+                                                         AuditPublisher auditPublisher,
+                                                         AuditRegistry auditRegistry,
+                                                         AuditProperties properties) {
+            return new AuditRegistryScanner(beanFactory, auditAspect, auditPublisher, auditRegistry,
+                properties.getRegistry().isFailOnInvalidExpression());
+        }
+
+        @Bean
+        @ConditionalOnBean(BindingServiceProperties.class)
+        @ConditionalOnProperty(name = "common.audit.registry.prewarm-bindings", havingValue = "true")
+        public AuditBindingPrewarmer auditBindingPrewarmer(StreamBridge streamBridge,
+                                                           BindingServiceProperties bindingServiceProperties,
+                                                           AuditRegistry auditRegistry) {
+            return new AuditBindingPrewarmer(streamBridge, bindingServiceProperties, auditRegistry);
+        }
+
+        @Configuration
+        @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+        static class AuditRegistryEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public AuditRegistryEndpoint auditRegistryEndpoint(AuditRegistry auditRegistry) {
+                return new AuditRegistryEndpoint(auditRegistry);
+            }
+        }
     }
 }
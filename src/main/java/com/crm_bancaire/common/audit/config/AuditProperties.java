@@ -0,0 +1,585 @@
+package com.crm_bancaire.common.audit.config;
+
+import com.crm_bancaire.common.audit.async.OverflowPolicy;
+import com.crm_bancaire.common.audit.breaker.BreakerFallback;
+import com.crm_bancaire.common.audit.codec.WireFormat;
+import com.crm_bancaire.common.audit.diff.DiffEngine;
+import com.crm_bancaire.common.audit.error.ErrorFingerprinter;
+import com.crm_bancaire.common.audit.extractor.EntityInfoExtractor;
+import com.crm_bancaire.common.audit.transaction.RollbackPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Propriétés de configuration avancées de common-audit (préfixe {@code common.audit}).
+ *
+ * Les propriétés historiques (destination-mode, unified-destination) restent lues
+ * directement par AbstractAuditPublisher.
+ */
+@Data
+@ConfigurationProperties(prefix = "common.audit")
+public class AuditProperties {
+
+    /**
+     * Format des messages publiés (json ou binary).
+     */
+    private WireFormat wireFormat = WireFormat.JSON;
+
+    /**
+     * Publication asynchrone via une file bornée.
+     */
+    private final Async async = new Async();
+
+    /**
+     * Regroupement des événements en micro-lots par destination.
+     */
+    private final Batch batch = new Batch();
+
+    /**
+     * Extraction automatique de l'ID d'entité.
+     */
+    private final EntityId entityId = new EntityId();
+
+    /**
+     * Registre des méthodes @Auditable construit au démarrage.
+     */
+    private final Registry registry = new Registry();
+
+    /**
+     * Spool disque des événements non publiés (broker indisponible).
+     */
+    private final Spool spool = new Spool();
+
+    /**
+     * Circuit breaker autour de l'envoi au broker.
+     */
+    private final Breaker breaker = new Breaker();
+
+    /**
+     * Échantillonnage et délestage des événements SUCCESS.
+     */
+    private final Sampling sampling = new Sampling();
+
+    /**
+     * Publication différée à la fin des transactions Spring.
+     */
+    private final Transaction transaction = new Transaction();
+
+    /**
+     * Portée d'audit (appels imbriqués, corrélation, tâches @Async).
+     */
+    private final Scope scope = new Scope();
+
+    /**
+     * Diff avant/après des méthodes @Auditable(diffBefore).
+     */
+    private final Diff diff = new Diff();
+
+    /**
+     * Empreinte et regroupement des événements FAILED.
+     */
+    private final Errors errors = new Errors();
+
+    /**
+     * Plafonds de taille des événements publiés.
+     */
+    private final Limits limits = new Limits();
+
+    /**
+     * Headers de routage et clé de partition des messages publiés.
+     */
+    private final Headers headers = new Headers();
+
+    /**
+     * Règles de routage des événements vers leurs destinations.
+     */
+    private final Routing routing = new Routing();
+
+    /**
+     * Store local des événements (publication sans broker).
+     */
+    private final Store store = new Store();
+
+    /**
+     * Chaînage des événements par hash et checkpoints signés (preuve d'intégrité).
+     */
+    private final Integrity integrity = new Integrity();
+
+    @Data
+    public static class Async {
+
+        /**
+         * Active la publication asynchrone (désactivée par défaut).
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nombre maximum d'événements en attente (réparti entre les voies en mode ordonné).
+         */
+        private int capacity = 10_000;
+
+        /**
+         * Conserve l'ordre de publication par entité (entity + entityId) grâce à des voies
+         * indépendantes, chacune vidée par un seul thread.
+         */
+        private boolean ordered = true;
+
+        /**
+         * Nombre de voies en mode ordonné (0 = nombre de processeurs).
+         */
+        private int lanes = 0;
+
+        /**
+         * Workers en virtual threads (Java 21+, ignoré sur les versions antérieures).
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * Nombre de threads qui vident la file unique vers le broker (mode non ordonné).
+         */
+        private int threads = 1;
+
+        /**
+         * Comportement quand la file est pleine (défaut: BLOCK en mode ordonné, CALLER_RUNS sinon).
+         * CALLER_RUNS et SPOOL ne conservent pas l'ordre: ils sont remplacés par BLOCK en mode ordonné.
+         */
+        private OverflowPolicy overflowPolicy;
+
+        /**
+         * Temps maximum accordé pour vider la file à l'arrêt du contexte.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Batch {
+
+        /**
+         * Active l'envoi par lots (AuditEventBatch) au lieu d'un message par événement.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nombre maximum d'événements par lot (s'applique aussi aux lots de publishAll et après commit).
+         */
+        private int maxEvents = 100;
+
+        /**
+         * Taille maximale estimée d'un lot (s'applique aussi aux lots de publishAll et après commit).
+         */
+        private DataSize maxSize = DataSize.ofKilobytes(256);
+
+        /**
+         * Temps d'attente maximum avant l'envoi d'un lot incomplet.
+         */
+        private Duration linger = Duration.ofMillis(50);
+    }
+
+    @Data
+    public static class EntityId {
+
+        /**
+         * Méthodes sans paramètre essayées pour lire l'ID, dans l'ordre.
+         */
+        private List<String> accessorMethods = new ArrayList<>(EntityInfoExtractor.DEFAULT_ACCESSOR_METHODS);
+
+        /**
+         * Champs essayés pour lire l'ID, dans l'ordre.
+         */
+        private List<String> accessorFields = new ArrayList<>(EntityInfoExtractor.DEFAULT_ACCESSOR_FIELDS);
+    }
+
+    @Data
+    public static class Registry {
+
+        /**
+         * Active la découverte des méthodes @Auditable au démarrage.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Fait échouer le démarrage si une entityIdExpression est invalide (sinon simple warning).
+         */
+        private boolean failOnInvalidExpression = false;
+
+        /**
+         * Crée les bindings producteurs de chaque destination au démarrage (appel réflexif à une
+         * méthode interne de StreamBridge, désactivé par défaut).
+         */
+        private boolean prewarmBindings = false;
+    }
+
+    @Data
+    public static class Spool {
+
+        /**
+         * Active le spool disque (désactivé par défaut).
+         */
+        private boolean enabled = false;
+
+        /**
+         * Répertoire des segments; doit être propre à chaque instance du service.
+         */
+        private Path directory = Path.of("audit-spool");
+
+        /**
+         * Taille d'un segment (fichier mappé en mémoire).
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+
+        /**
+         * Taille totale maximale du spool; au-delà, les nouveaux événements sont perdus.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(512);
+
+        /**
+         * Force l'écriture sur disque (fsync) à chaque ajout: survit à un crash OS, mais plus lent.
+         */
+        private boolean forceOnWrite = false;
+
+        /**
+         * Délai avant de retenter la relecture après un échec d'envoi.
+         */
+        private Duration retryInterval = Duration.ofSeconds(5);
+
+        /**
+         * Délai maximum entre deux tentatives (backoff exponentiel).
+         */
+        private Duration maxRetryInterval = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class Breaker {
+
+        /**
+         * Active le circuit breaker (désactivé par défaut).
+         */
+        private boolean enabled = false;
+
+        /**
+         * Budget de latence par envoi: au-delà, l'appel est compté comme lent.
+         * Mesuré au retour de l'envoi: ce budget n'interrompt pas un envoi bloqué, dont la durée
+         * reste bornée par les timeouts du binder.
+         */
+        private Duration latencyBudget = Duration.ofMillis(200);
+
+        /**
+         * Taux d'échecs (%) qui ouvre le circuit.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * Taux d'appels lents (%) qui ouvre le circuit.
+         */
+        private int slowCallRateThreshold = 50;
+
+        /**
+         * Nombre d'appels de la fenêtre glissante.
+         */
+        private int slidingWindowSize = 100;
+
+        /**
+         * Nombre minimum d'appels avant d'évaluer les taux.
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * Durée pendant laquelle le circuit reste ouvert avant les appels de test.
+         */
+        private Duration waitInOpenState = Duration.ofSeconds(30);
+
+        /**
+         * Nombre d'appels de test en half-open.
+         */
+        private int halfOpenCalls = 5;
+
+        /**
+         * Traitement des événements quand le circuit est ouvert.
+         */
+        private BreakerFallback fallback = BreakerFallback.SPOOL;
+    }
+
+    @Data
+    public static class Sampling {
+
+        /**
+         * Règles par entité/action, la première qui correspond s'applique.
+         */
+        private List<Rule> rules = new ArrayList<>();
+
+        /**
+         * Actions jamais échantillonnées ni délestées.
+         */
+        private List<String> criticalActions = new ArrayList<>(List.of("DELETED"));
+
+        /**
+         * Délestage adaptatif selon le remplissage de la file asynchrone.
+         */
+        private final Shedding shedding = new Shedding();
+
+        @Data
+        public static class Rule {
+
+            /**
+             * Entité concernée ("*" et jokers acceptés).
+             */
+            private String entity = "*";
+
+            /**
+             * Action concernée ("*" et jokers acceptés).
+             */
+            private String action = "*";
+
+            /**
+             * Proportion des événements conservés (0.0 à 1.0).
+             */
+            private double rate = 1.0;
+        }
+
+        @Data
+        public static class Shedding {
+
+            /**
+             * Active le délestage (nécessite common.audit.async.enabled).
+             */
+            private boolean enabled = false;
+
+            /**
+             * Remplissage de la file (0.0 à 1.0) à partir duquel le délestage commence.
+             */
+            private double threshold = 0.5;
+
+            /**
+             * Proportion minimum conservée quand la file est pleine.
+             */
+            private double minRate = 0.0;
+
+            /**
+             * Actions délestables même sans règle d'échantillonnage.
+             */
+            private List<String> lowPriorityActions = new ArrayList<>();
+        }
+    }
+
+    @Data
+    public static class Transaction {
+
+        /**
+         * Retient les événements publiés dans une transaction jusqu'à sa fin (désactivé par défaut).
+         */
+        private boolean enabled = false;
+
+        /**
+         * Traitement des événements SUCCESS quand la transaction est annulée.
+         */
+        private RollbackPolicy onRollback = RollbackPolicy.FAILED;
+
+        /**
+         * Nombre maximum d'événements retenus par transaction; au-delà, publication immédiate.
+         */
+        private int maxBufferedEvents = 10_000;
+    }
+
+    @Data
+    public static class Scope {
+
+        /**
+         * Publie les événements d'une portée ensemble à sa fermeture (un lot par destination si batch.enabled).
+         */
+        private boolean coalesce = false;
+
+        /**
+         * Déclare un TaskDecorator qui propage la portée aux tâches @Async (désactivé par défaut:
+         * Spring Boot l'appliquerait à tous les exécuteurs de l'application).
+         */
+        private boolean taskDecorator = false;
+    }
+
+    @Data
+    public static class Diff {
+
+        /**
+         * Noms de champs publiés masqués ("***"), sans distinction de casse.
+         */
+        private List<String> maskedFields = new ArrayList<>(DiffEngine.DEFAULT_MASKED_FIELDS);
+
+        /**
+         * Nombre maximum de champs modifiés publiés (diff marqué truncated au-delà).
+         */
+        private int maxChanges = 50;
+
+        /**
+         * Longueur maximale d'une valeur texte publiée.
+         */
+        private int maxValueLength = 256;
+
+        /**
+         * Profondeur maximale suivie dans les objets imbriqués.
+         */
+        private int maxDepth = 4;
+    }
+
+    @Data
+    public static class Errors {
+
+        /**
+         * Nombre de frames de la cause racine prises en compte dans l'empreinte.
+         */
+        private int fingerprintFrames = ErrorFingerprinter.DEFAULT_FRAMES;
+
+        /**
+         * Regroupement des échecs de même empreinte.
+         */
+        private final Dedupe dedupe = new Dedupe();
+
+        @Data
+        public static class Dedupe {
+
+            /**
+             * Active le regroupement (désactivé par défaut).
+             */
+            private boolean enabled = false;
+
+            /**
+             * Fenêtre de regroupement: premier échec publié immédiatement, les suivants en un seul récapitulatif.
+             */
+            private Duration window = Duration.ofSeconds(10);
+        }
+    }
+
+    @Data
+    public static class Limits {
+
+        /**
+         * Longueur maximale de errorMessage (tronqué au-delà).
+         */
+        private int maxErrorMessageLength = 1024;
+
+        /**
+         * Taille JSON estimée maximale de metadata (entrées les plus volumineuses retirées au-delà).
+         */
+        private DataSize maxMetadataSize = DataSize.ofKilobytes(16);
+    }
+
+    @Data
+    public static class Headers {
+
+        /**
+         * Pose les headers audit_entity, audit_action, audit_status, audit_source, audit_event_id
+         * et la clé de partition audit_partition_key.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Pose aussi la clé en header kafka_messageKey (octets UTF-8) quand le binder Kafka est présent.
+         */
+        private boolean kafkaKey = true;
+
+        /**
+         * Nombre de groupes de clés avec le batching: la clé devient "shard:N" (hash de entity:entityId)
+         * pour les événements comme pour les lots, découpés par groupe, afin de garder l'ordre par entité.
+         * Limite le nombre de partitions utiles. Ignoré sans batching (0 = clé entity:entityId,
+         * lots mixtes sans clé)
+         */
+        private int keyShards = 0;
+    }
+
+    @Data
+    public static class Routing {
+
+        /**
+         * Règles par entité/action/statut/source, la première qui correspond s'applique;
+         * sans règle applicable, destination-mode décide.
+         */
+        private List<Rule> rules = new ArrayList<>();
+
+        @Data
+        public static class Rule {
+
+            /**
+             * Entité concernée ("*" et jokers acceptés).
+             */
+            private String entity = "*";
+
+            /**
+             * Action concernée ("*" et jokers acceptés).
+             */
+            private String action = "*";
+
+            /**
+             * Statut concerné (SUCCESS, FAILED, ERROR, "*").
+             */
+            private String status = "*";
+
+            /**
+             * Service source concerné ("*" et jokers acceptés).
+             */
+            private String source = "*";
+
+            /**
+             * Queue/topic de destination; {entity} est remplacé par l'entité en minuscules.
+             */
+            private String destination;
+        }
+    }
+
+    @Data
+    public static class Store {
+
+        /**
+         * Écrit les événements dans un store local au lieu du broker (désactivé par défaut).
+         */
+        private boolean enabled = false;
+
+        /**
+         * Répertoire des segments; doit être propre à chaque instance du service.
+         */
+        private Path directory = Path.of("audit-store");
+
+        /**
+         * Taille d'un segment; un nouveau segment (et son index) est créé au-delà.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Taille totale maximale; au-delà, les segments les plus anciens sont supprimés.
+         */
+        private DataSize maxSize = DataSize.ofGigabytes(1);
+
+        /**
+         * Force l'écriture sur disque (fsync) à chaque commit groupé.
+         */
+        private boolean fsync = true;
+    }
+
+    @Data
+    public static class Integrity {
+
+        /**
+         * Chaîne chaque événement au précédent et publie des checkpoints signés (désactivé par défaut).
+         */
+        private boolean enabled = false;
+
+        /**
+         * Nombre d'événements couverts par un checkpoint (une signature par checkpoint).
+         */
+        private int checkpointInterval = 1000;
+
+        /**
+         * Identifiant de la clé de signature, publié dans les checkpoints.
+         */
+        private String keyId = "default";
+
+        /**
+         * Secret HMAC-SHA256 des checkpoints; sans secret ni bean CheckpointSigner, les checkpoints
+         * ne sont pas signés.
+         */
+        private String hmacSecret;
+    }
+}
@@ -0,0 +1,134 @@
+package com.crm_bancaire.common.audit.consumer;
+
+import com.crm_bancaire.common.audit.codec.AuditBinaryCodec;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.crm_bancaire.common.audit.dto.AuditHeaders;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.messaging.Message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Désérialiseur côté audit-service, compatible avec les deux formats publiés:
+ * un {@link AuditEvent} seul (mode par défaut) ou un {@link AuditEventBatch} (mode batch).
+ *
+ * Le type est déterminé par le header {@link AuditHeaders#PAYLOAD_TYPE} quand il est présent,
+ * sinon par la présence du champ "events" dans le JSON.
+ *
+ * Les messages au format binaire ({@link AuditBinaryCodec#MIME_TYPE}) sont reconnus
+ * par leur en-tête et décodés par {@link AuditBinaryCodec}.
+ *
+ * Usage dans audit-service:
+ * <pre>
+ * {@code
+ * @Bean
+ * public Consumer<Message<byte[]>> auditEvents(AuditEventDeserializer deserializer) {
+ *     return deserializer.forEachEvent(auditService::save);
+ * }
+ * }
+ * </pre>
+ */
+public class AuditEventDeserializer {
+
+    private final ObjectMapper objectMapper;
+    private final AuditBinaryCodec binaryCodec;
+
+    public AuditEventDeserializer() {
+        this(new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+    }
+
+    public AuditEventDeserializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.binaryCodec = new AuditBinaryCodec(objectMapper);
+    }
+
+    /**
+     * Lit les événements d'un message broker.
+     *
+     * @param message Message brut (payload JSON ou binaire)
+     * @return Les événements contenus, dans l'ordre de publication
+     */
+    public List<AuditEvent> deserialize(Message<byte[]> message) {
+        if (AuditBinaryCodec.isBinary(message.getPayload())) {
+            return binaryCodec.decodeEvents(message.getPayload());
+        }
+        // Le binder Kafka livre les headers en octets UTF-8
+        String payloadType = AuditMessageFilter.header(message.getHeaders(), AuditHeaders.PAYLOAD_TYPE);
+        try {
+            if (AuditHeaders.PAYLOAD_BATCH.equals(payloadType)) {
+                return eventsOf(objectMapper.readValue(message.getPayload(), AuditEventBatch.class));
+            }
+            if (AuditHeaders.PAYLOAD_EVENT.equals(payloadType)) {
+                return List.of(objectMapper.readValue(message.getPayload(), AuditEvent.class));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid audit payload", e);
+        }
+        return deserialize(message.getPayload());
+    }
+
+    /**
+     * Lit les événements d'un payload JSON sans header (détection par le contenu).
+     *
+     * @param payload JSON ou binaire d'un AuditEvent ou d'un AuditEventBatch
+     * @return Les événements contenus, dans l'ordre de publication
+     */
+    public List<AuditEvent> deserialize(byte[] payload) {
+        if (AuditBinaryCodec.isBinary(payload)) {
+            return binaryCodec.decodeEvents(payload);
+        }
+        try {
+            JsonNode root = objectMapper.readTree(payload);
+            if (root.has("events") && root.get("events").isArray()) {
+                return eventsOf(objectMapper.treeToValue(root, AuditEventBatch.class));
+            }
+            return List.of(objectMapper.treeToValue(root, AuditEvent.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid audit payload", e);
+        }
+    }
+
+    /**
+     * Adapte un consumer d'événements unitaires en consumer de messages (seul ou lot).
+     *
+     * @param eventConsumer Traitement d'un événement
+     * @return Consumer à déclarer comme fonction Spring Cloud Stream
+     */
+    public Consumer<Message<byte[]>> forEachEvent(Consumer<AuditEvent> eventConsumer) {
+        return message -> deserialize(message).forEach(eventConsumer);
+    }
+
+    /**
+     * Comme {@link #forEachEvent(Consumer)}, en écartant sans désérialisation les messages dont
+     * les headers ne correspondent pas au filtre.
+     *
+     * @param filter Événements à traiter
+     * @param eventConsumer Traitement d'un événement
+     * @return Consumer à déclarer comme fonction Spring Cloud Stream
+     */
+    public Consumer<Message<byte[]>> forEachEvent(AuditMessageFilter filter, Consumer<AuditEvent> eventConsumer) {
+        return message -> {
+            if (!filter.mayMatch(message.getHeaders())) {
+                return;
+            }
+            for (AuditEvent event : deserialize(message)) {
+                if (filter.matches(event)) {
+                    eventConsumer.accept(event);
+                }
+            }
+        };
+    }
+
+    private static List<AuditEvent> eventsOf(AuditEventBatch batch) {
+        return batch.getEvents() != null ? batch.getEvents() : List.of();
+    }
+}
@@ -0,0 +1,102 @@
+package com.crm_bancaire.common.audit.consumer;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Route les événements reçus vers des traitements selon leur entité, action, statut ou source.
+ *
+ * Les routes sont essayées dans l'ordre de déclaration, la première qui correspond reçoit l'événement.
+ * Un message dont les headers ne correspondent à aucune route (et sans route par défaut) est
+ * ignoré sans être désérialisé.
+ *
+ * Usage dans audit-service:
+ * <pre>
+ * {@code
+ * @Bean
+ * public Consumer<Message<byte[]>> auditEvents(AuditEventDeserializer deserializer) {
+ *     return new AuditEventRouter(deserializer)
+ *         .route(AuditMessageFilter.any().statuses(AuditStatus.FAILED), alertService::notify)
+ *         .route(AuditMessageFilter.any().entities("Customer"), customerAuditService::save)
+ *         .otherwise(auditService::save);
+ * }
+ * }
+ * </pre>
+ */
+@Slf4j
+public class AuditEventRouter implements Consumer<Message<byte[]>> {
+
+    private record Route(AuditMessageFilter filter, Consumer<AuditEvent> consumer) {
+    }
+
+    private final AuditEventDeserializer deserializer;
+    private final List<Route> routes = new ArrayList<>();
+    private Consumer<AuditEvent> defaultConsumer;
+    private final AtomicLong skippedMessages = new AtomicLong();
+
+    public AuditEventRouter(AuditEventDeserializer deserializer) {
+        this.deserializer = deserializer;
+    }
+
+    public AuditEventRouter route(AuditMessageFilter filter, Consumer<AuditEvent> consumer) {
+        routes.add(new Route(filter, consumer));
+        return this;
+    }
+
+    /**
+     * @param consumer Traitement des événements qui ne correspondent à aucune route
+     */
+    public AuditEventRouter otherwise(Consumer<AuditEvent> consumer) {
+        this.defaultConsumer = consumer;
+        return this;
+    }
+
+    @Override
+    public void accept(Message<byte[]> message) {
+        List<Route> candidates = candidates(message.getHeaders());
+        if (candidates.isEmpty() && defaultConsumer == null) {
+            skippedMessages.incrementAndGet();
+            log.trace("Audit message skipped by headers: {}", message.getHeaders());
+            return;
+        }
+        for (AuditEvent event : deserializer.deserialize(message)) {
+            dispatch(candidates, event);
+        }
+    }
+
+    /**
+     * @return Nombre de messages écartés sur leurs seuls headers
+     */
+    public long getSkippedMessages() {
+        return skippedMessages.get();
+    }
+
+    private List<Route> candidates(MessageHeaders headers) {
+        List<Route> candidates = new ArrayList<>(routes.size());
+        for (Route route : routes) {
+            if (route.filter().mayMatch(headers)) {
+                candidates.add(route);
+            }
+        }
+        return candidates;
+    }
+
+    private void dispatch(List<Route> candidates, AuditEvent event) {
+        for (Route route : candidates) {
+            if (route.filter().matches(event)) {
+                route.consumer().accept(event);
+                return;
+            }
+        }
+        if (defaultConsumer != null) {
+            defaultConsumer.accept(event);
+        }
+    }
+}
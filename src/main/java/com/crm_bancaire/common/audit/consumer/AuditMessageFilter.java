@@ -0,0 +1,118 @@
+package com.crm_bancaire.common.audit.consumer;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditHeaders;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.springframework.messaging.MessageHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Filtre sur l'entité, l'action, le statut et le service source des événements.
+ *
+ * {@link #mayMatch(MessageHeaders)} décide à partir des headers {@link AuditHeaders}, avant
+ * toute désérialisation: un message est écarté dès qu'un header présent contredit le filtre.
+ * Un header absent (publication sans headers, lot hétérogène) ne permet pas de conclure:
+ * le message est conservé et {@link #matches(AuditEvent)} s'applique après désérialisation.
+ * Un champ null de l'événement désérialisé ne correspond à aucune valeur filtrée.
+ *
+ * <pre>
+ * {@code
+ * AuditMessageFilter filter = AuditMessageFilter.any()
+ *     .entities("Customer", "Account")
+ *     .statuses(AuditStatus.FAILED);
+ * }
+ * </pre>
+ */
+public final class AuditMessageFilter {
+
+    private static final AuditMessageFilter ANY = new AuditMessageFilter(null, null, null, null);
+
+    /**
+     * Valeurs acceptées par dimension (null = toutes)
+     */
+    private final Set<String> entities;
+    private final Set<String> actions;
+    private final Set<String> statuses;
+    private final Set<String> sources;
+
+    private AuditMessageFilter(Set<String> entities, Set<String> actions, Set<String> statuses, Set<String> sources) {
+        this.entities = entities;
+        this.actions = actions;
+        this.statuses = statuses;
+        this.sources = sources;
+    }
+
+    /**
+     * @return Filtre qui accepte tous les événements
+     */
+    public static AuditMessageFilter any() {
+        return ANY;
+    }
+
+    public AuditMessageFilter entities(String... entities) {
+        return new AuditMessageFilter(Set.of(entities), actions, statuses, sources);
+    }
+
+    public AuditMessageFilter actions(String... actions) {
+        return new AuditMessageFilter(entities, Set.of(actions), statuses, sources);
+    }
+
+    public AuditMessageFilter statuses(AuditStatus... statuses) {
+        return new AuditMessageFilter(entities, actions,
+            Arrays.stream(statuses).map(Enum::name).collect(Collectors.toUnmodifiableSet()), sources);
+    }
+
+    public AuditMessageFilter sources(String... sources) {
+        return new AuditMessageFilter(entities, actions, statuses, Set.of(sources));
+    }
+
+    /**
+     * @return false si les headers du message excluent tous ses événements
+     */
+    public boolean mayMatch(MessageHeaders headers) {
+        return accepts(entities, header(headers, AuditHeaders.ENTITY))
+            && accepts(actions, header(headers, AuditHeaders.ACTION))
+            && accepts(statuses, header(headers, AuditHeaders.STATUS))
+            && accepts(sources, header(headers, AuditHeaders.SOURCE));
+    }
+
+    /**
+     * @return true si l'événement désérialisé correspond au filtre
+     */
+    public boolean matches(AuditEvent event) {
+        return contains(entities, event.getEntity())
+            && contains(actions, event.getAction())
+            && contains(statuses, event.getStatus() != null ? event.getStatus().name() : null)
+            && contains(sources, event.getSource());
+    }
+
+    /**
+     * Valeur texte d'un header; les binders qui ne convertissent pas les headers (Kafka) les
+     * livrent en octets UTF-8.
+     */
+    static String header(MessageHeaders headers, String name) {
+        Object value = headers.get(name);
+        if (value == null) {
+            return null;
+        }
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : value.toString();
+    }
+
+    /**
+     * Header absent: le message peut encore contenir des événements acceptés
+     */
+    private static boolean accepts(Set<String> accepted, String value) {
+        return accepted == null || value == null || accepted.contains(value);
+    }
+
+    /**
+     * Champ null: aucun événement ne peut correspondre à une dimension filtrée
+     */
+    private static boolean contains(Set<String> accepted, String value) {
+        return accepted == null || (value != null && accepted.contains(value));
+    }
+}
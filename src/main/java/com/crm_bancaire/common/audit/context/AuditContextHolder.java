@@ -18,6 +18,10 @@ package com.crm_bancaire.common.audit.context;
  * }
  * </pre>
  *
+ * Dans une méthode @Auditable, l'entityId est porté par le frame {@link AuditScope} de l'appel:
+ * une méthode @Auditable imbriquée a le sien et n'efface pas celui de l'appelant.
+ * Hors de toute portée, il est stocké dans un ThreadLocal comme auparavant.
+ *
  * Le contexte est automatiquement nettoyé par AuditAspect après utilisation.
  */
 public class AuditContextHolder {
@@ -30,7 +34,12 @@ public class AuditContextHolder {
      * @param entityId L'ID de l'entité créée/modifiée
      */
     public static void setEntityId(String entityId) {
-        entityIdHolder.set(entityId);
+        AuditScope scope = AuditScope.current();
+        if (scope != null) {
+            scope.setEntityId(entityId);
+        } else {
+            entityIdHolder.set(entityId);
+        }
     }
 
     /**
@@ -39,6 +48,10 @@ public class AuditContextHolder {
      * @return L'entity ID ou null si non défini
      */
     public static String getEntityId() {
+        AuditScope scope = AuditScope.current();
+        if (scope != null && scope.getEntityId() != null) {
+            return scope.getEntityId();
+        }
         return entityIdHolder.get();
     }
 
@@ -49,6 +62,10 @@ public class AuditContextHolder {
      * Ceci est fait automatiquement par AuditAspect.
      */
     public static void clear() {
+        AuditScope scope = AuditScope.current();
+        if (scope != null) {
+            scope.setEntityId(null);
+        }
         entityIdHolder.remove();
     }
 }
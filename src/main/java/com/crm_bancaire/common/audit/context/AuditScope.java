@@ -0,0 +1,211 @@
+package com.crm_bancaire.common.audit.context;
+
+import com.crm_bancaire.common.audit.dto.AuditActor;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.id.EventIdGenerator;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Portée d'audit: pile de frames par thread, partageant une racine.
+ *
+ * AuditAspect ouvre un frame par méthode @Auditable; chaque frame a son propre entity ID
+ * (voir {@link AuditContextHolder}), un appel imbriqué n'efface donc plus celui de l'appelant.
+ * La racine (frame le plus externe) porte ce qui vaut pour toute la requête:
+ * - l'ID de corrélation, repris du MDC (traceId) s'il existe, sinon généré
+ * - l'acteur, résolu une seule fois
+ * - les événements retenus quand la coalescence est activée, publiés ensemble à la fermeture
+ *
+ * Une portée peut être ouverte explicitement (requête HTTP, job) pour englober plusieurs
+ * méthodes @Auditable:
+ * <pre>
+ * {@code
+ * try (AuditScope scope = AuditScope.open()) {
+ *     customerService.create(request);
+ *     accountService.open(request);
+ * }
+ * }
+ * </pre>
+ *
+ * {@link AuditScopeTaskDecorator} propage la portée aux tâches @Async.
+ */
+public final class AuditScope implements AutoCloseable {
+
+    /**
+     * Clés MDC lues pour l'ID de corrélation, dans l'ordre
+     */
+    private static final String[] CORRELATION_MDC_KEYS = {"traceId", "correlationId", "X-Correlation-Id"};
+
+    private static final ThreadLocal<AuditScope> CURRENT = new ThreadLocal<>();
+
+    private final Root root;
+    private final AuditScope previous;
+    private final boolean owner;
+    private String entityId;
+
+    private AuditScope(Root root, AuditScope previous, boolean owner) {
+        this.root = root;
+        this.previous = previous;
+        this.owner = owner;
+    }
+
+    /**
+     * Ouvre un frame: racine d'une nouvelle portée, ou frame imbriqué de la portée courante.
+     *
+     * @return Le frame ouvert, à fermer dans un finally (ou try-with-resources)
+     */
+    public static AuditScope open() {
+        AuditScope current = CURRENT.get();
+        AuditScope scope = current != null
+            ? new AuditScope(current.root, current, false)
+            : new AuditScope(new Root(initialCorrelationId()), null, true);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Rattache le thread courant à une portée ouverte sur un autre thread (tâche asynchrone,
+     * complétion réactive). La racine n'est pas refermée à la fermeture de ce frame.
+     *
+     * @param scope Frame capturé sur le thread d'origine (null = nouvelle portée)
+     */
+    public static AuditScope attach(AuditScope scope) {
+        if (scope == null) {
+            return open();
+        }
+        AuditScope attached = new AuditScope(scope.root, CURRENT.get(), false);
+        CURRENT.set(attached);
+        return attached;
+    }
+
+    /**
+     * @return Le frame courant du thread, ou null hors de toute portée
+     */
+    public static AuditScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Ferme le frame et restaure le précédent. La fermeture du frame racine publie
+     * les événements retenus.
+     */
+    @Override
+    public void close() {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        if (owner) {
+            root.release();
+        }
+    }
+
+    /**
+     * @return true pour le frame qui a ouvert la portée (sa fermeture publie les événements retenus)
+     */
+    public boolean isRoot() {
+        return owner;
+    }
+
+    public String getCorrelationId() {
+        return root.correlationId;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    /**
+     * Retourne l'acteur de la portée, résolu au premier appel.
+     *
+     * Seul un acteur non null est mémorisé: une résolution sur un thread sans contexte
+     * utilisateur (tâche asynchrone) n'empêche pas une résolution ultérieure.
+     *
+     * @param resolver Résolution effective (ActorProvider)
+     */
+    public AuditActor actor(Supplier<AuditActor> resolver) {
+        AuditActor actor = root.actor;
+        if (actor == null) {
+            actor = resolver.get();
+            root.actor = actor;
+        }
+        return actor;
+    }
+
+    /**
+     * Retient l'événement jusqu'à la fermeture de la racine.
+     *
+     * @param sink Reçoit les événements retenus à la fermeture (le premier sink enregistré est conservé)
+     * @return false si la portée est déjà fermée: l'événement doit être publié immédiatement
+     */
+    public boolean defer(AuditEvent event, Consumer<List<AuditEvent>> sink) {
+        return root.defer(event, sink);
+    }
+
+    private static String initialCorrelationId() {
+        for (String key : CORRELATION_MDC_KEYS) {
+            String value = MDC.get(key);
+            if (value != null && !value.isEmpty()) {
+                return value;
+            }
+        }
+        return EventIdGenerator.timeOrdered().nextId();
+    }
+
+    /**
+     * État partagé par tous les frames d'une portée, y compris ceux rattachés sur d'autres threads.
+     */
+    private static final class Root {
+
+        private final String correlationId;
+        private volatile AuditActor actor;
+        private List<AuditEvent> deferred;
+        private Consumer<List<AuditEvent>> sink;
+        private boolean closed;
+
+        private Root(String correlationId) {
+            this.correlationId = correlationId;
+        }
+
+        private synchronized boolean defer(AuditEvent event, Consumer<List<AuditEvent>> eventSink) {
+            if (closed) {
+                return false;
+            }
+            if (deferred == null) {
+                deferred = new ArrayList<>();
+                sink = eventSink;
+            }
+            deferred.add(event);
+            return true;
+        }
+
+        /**
+         * Fermeture de la portée: les frames rattachés ensuite publient directement.
+         */
+        private void release() {
+            List<AuditEvent> events;
+            Consumer<List<AuditEvent>> target;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                events = deferred;
+                target = sink;
+                deferred = null;
+            }
+            if (events != null && !events.isEmpty()) {
+                target.accept(events);
+            }
+        }
+    }
+}
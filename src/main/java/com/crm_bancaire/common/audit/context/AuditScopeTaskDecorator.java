@@ -0,0 +1,44 @@
+package com.crm_bancaire.common.audit.context;
+
+import com.crm_bancaire.common.audit.dto.AuditActor;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.function.Supplier;
+
+/**
+ * Propage la portée d'audit du thread appelant aux tâches @Async / ThreadPoolTaskExecutor.
+ *
+ * La tâche s'exécute dans un frame rattaché à la portée capturée: même ID de corrélation,
+ * même acteur. L'acteur est résolu sur le thread appelant, au moment de la soumission,
+ * car le contexte utilisateur n'existe pas sur le thread du pool.
+ * Sans portée active à la soumission, la tâche est renvoyée telle quelle: rien à propager,
+ * et aucun coût pour les tâches sans rapport avec l'audit.
+ */
+public class AuditScopeTaskDecorator implements TaskDecorator {
+
+    private final Supplier<AuditActor> actorResolver;
+
+    /**
+     * @param actorResolver Résolution de l'acteur courant (AuditPublisher::currentActor)
+     */
+    public AuditScopeTaskDecorator(Supplier<AuditActor> actorResolver) {
+        this.actorResolver = actorResolver;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        AuditScope captured = AuditScope.current();
+        if (captured == null) {
+            return runnable;
+        }
+        captured.actor(actorResolver);
+        return () -> {
+            AuditScope attached = AuditScope.attach(captured);
+            try {
+                runnable.run();
+            } finally {
+                attached.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,290 @@
+package com.crm_bancaire.common.audit.diff;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Calcule des différences champ par champ entre deux états d'une entité.
+ *
+ * Un objet est aplati en chemins → valeurs feuilles (String, Number, Boolean) en suivant
+ * ses propriétés (getters, composants de record), les Map et les collections, jusqu'à
+ * maxDepth niveaux. Les accesseurs sont résolus une seule fois par classe.
+ *
+ * - l'état avant doit être capturé par {@link #snapshot(Object)} avant l'exécution de la
+ *   méthode (l'objet peut être modifié en place par la suite)
+ * - l'état après est capturé par {@link #diff(Map, Object)} sur le thread appelant; seule la
+ *   comparaison est paresseuse ({@link EntityDiff})
+ * - une propriété illisible (association JPA non chargée...) est marquée inconnue: ses chemins
+ *   ne sont pas comparés
+ * - les champs dont le nom figure dans maskedFields sont comparés par empreinte et
+ *   publiés "***"
+ * - au plus maxChanges champs modifiés, valeurs texte tronquées à maxValueLength caractères
+ */
+@Slf4j
+@Getter
+public class DiffEngine {
+
+    public static final List<String> DEFAULT_MASKED_FIELDS =
+        List.of("password", "secret", "token", "pin", "cvv", "cardNumber", "iban");
+
+    static final String MASK = "***";
+
+    /**
+     * Nombre maximum d'éléments suivis par collection
+     */
+    private static final int MAX_COLLECTION_ELEMENTS = 100;
+
+    private final Set<String> maskedFields;
+    private final int maxChanges;
+    private final int maxValueLength;
+    private final int maxDepth;
+
+    private final ClassValue<List<Property>> properties = new ClassValue<>() {
+        @Override
+        protected List<Property> computeValue(Class<?> type) {
+            return resolveProperties(type);
+        }
+    };
+
+    /**
+     * Champ masqué: seule une empreinte de la valeur est conservée
+     */
+    private record Masked(int hash) {
+    }
+
+    /**
+     * Propriété dont la lecture a échoué: valeur inconnue
+     */
+    private record Unreadable() {
+    }
+
+    private static final Unreadable UNREADABLE = new Unreadable();
+
+    private record Property(String name, Method reader) {
+    }
+
+    public DiffEngine(Collection<String> maskedFields, int maxChanges, int maxValueLength, int maxDepth) {
+        this.maskedFields = new LinkedHashSet<>();
+        for (String field : maskedFields) {
+            this.maskedFields.add(field.toLowerCase(Locale.ROOT));
+        }
+        this.maxChanges = Math.max(1, maxChanges);
+        this.maxValueLength = Math.max(8, maxValueLength);
+        this.maxDepth = Math.max(1, maxDepth);
+    }
+
+    /**
+     * @return Un moteur avec les limites par défaut (50 champs, 256 caractères, profondeur 4)
+     */
+    public static DiffEngine withDefaults() {
+        return new DiffEngine(DEFAULT_MASKED_FIELDS, 50, 256, 4);
+    }
+
+    /**
+     * Capture l'état d'un objet (sur le thread appelant).
+     *
+     * @return Chemins → valeurs feuilles, dans l'ordre des propriétés
+     */
+    public Map<String, Object> snapshot(Object value) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        flatten("", value, 0, false, out, new IdentityHashMap<>());
+        return out;
+    }
+
+    /**
+     * Capture l'état après (sur le thread appelant) et prépare la différence avec l'état avant,
+     * comparée à la première lecture.
+     */
+    public EntityDiff diff(Map<String, Object> before, Object after) {
+        return new EntityDiff(this, before, snapshot(after));
+    }
+
+    EntityDiff.Result compute(Map<String, Object> before, Map<String, Object> after) {
+        List<String> unknown = new ArrayList<>();
+        collectUnreadable(before, unknown);
+        collectUnreadable(after, unknown);
+
+        List<FieldChange> changes = new ArrayList<>();
+        Set<String> paths = new LinkedHashSet<>(before.keySet());
+        paths.addAll(after.keySet());
+
+        for (String path : paths) {
+            Object previous = before.get(path);
+            Object current = after.get(path);
+            if (Objects.equals(previous, current) || isUnder(path, unknown)) {
+                continue;
+            }
+            if (changes.size() >= maxChanges) {
+                return new EntityDiff.Result(changes, true, unknown);
+            }
+            changes.add(new FieldChange(displayPath(path), publishable(previous), publishable(current)));
+        }
+        return new EntityDiff.Result(changes, false, unknown);
+    }
+
+    private static void collectUnreadable(Map<String, Object> state, List<String> unknown) {
+        state.forEach((path, value) -> {
+            if (value == UNREADABLE && !unknown.contains(displayPath(path))) {
+                unknown.add(displayPath(path));
+            }
+        });
+    }
+
+    /**
+     * @return true si le chemin est une propriété inconnue ou l'un de ses descendants
+     */
+    private static boolean isUnder(String path, List<String> unknown) {
+        String display = displayPath(path);
+        for (String prefix : unknown) {
+            if (display.equals(prefix) || display.startsWith(prefix + ".") || display.startsWith(prefix + "[")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String displayPath(String path) {
+        return path.isEmpty() ? "value" : path;
+    }
+
+    private void flatten(String path, Object value, int depth, boolean masked, Map<String, Object> out,
+                         IdentityHashMap<Object, Boolean> visited) {
+        if (masked) {
+            out.put(path, new Masked(Objects.hashCode(normalize(value))));
+            return;
+        }
+        if (value == null || isLeaf(value)) {
+            out.put(path, normalize(value));
+            return;
+        }
+        if (depth >= maxDepth || visited.put(value, Boolean.TRUE) != null) {
+            return;
+        }
+
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                flatten(child(path, key), entry.getValue(), depth + 1, isMasked(key), out, visited);
+            }
+        } else if (value instanceof Iterable<?> iterable) {
+            int index = 0;
+            for (Object element : iterable) {
+                if (index >= MAX_COLLECTION_ELEMENTS) {
+                    break;
+                }
+                flatten(path + "[" + index++ + "]", element, depth + 1, false, out, visited);
+            }
+        } else if (value.getClass().isArray()) {
+            int length = Math.min(Array.getLength(value), MAX_COLLECTION_ELEMENTS);
+            for (int i = 0; i < length; i++) {
+                flatten(path + "[" + i + "]", Array.get(value, i), depth + 1, false, out, visited);
+            }
+        } else {
+            for (Property property : properties.get(value.getClass())) {
+                Object propertyValue;
+                try {
+                    propertyValue = property.reader().invoke(value);
+                } catch (Exception e) {
+                    log.debug("Diff: cannot read {}.{}: {}", value.getClass().getSimpleName(), property.name(), e.getMessage());
+                    out.put(child(path, property.name()), UNREADABLE);
+                    continue;
+                }
+                flatten(child(path, property.name()), propertyValue, depth + 1, isMasked(property.name()), out, visited);
+            }
+        }
+        visited.remove(value);
+    }
+
+    private boolean isMasked(String name) {
+        return maskedFields.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private Object publishable(Object value) {
+        if (value instanceof Masked) {
+            return MASK;
+        }
+        if (value instanceof String text && text.length() > maxValueLength) {
+            return text.substring(0, maxValueLength) + "…";
+        }
+        return value;
+    }
+
+    private static String child(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+
+    /**
+     * Feuilles: types simples et tout type du JDK qui n'est ni Map, ni collection, ni tableau.
+     */
+    private static boolean isLeaf(Object value) {
+        if (value instanceof Map<?, ?> || value instanceof Iterable<?> || value.getClass().isArray()) {
+            return false;
+        }
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum<?>) {
+            return true;
+        }
+        String name = value.getClass().getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.");
+    }
+
+    /**
+     * Valeur feuille comparable et sérialisable sans module Jackson: String, Number, Boolean ou null.
+     */
+    private static Object normalize(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof Date date) {
+            return date.toInstant().toString();
+        }
+        return value.toString();
+    }
+
+    private static List<Property> resolveProperties(Class<?> type) {
+        List<Property> resolved = new ArrayList<>();
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                resolved.add(new Property(component.getName(), accessible(component.getAccessor())));
+            }
+            return resolved;
+        }
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors()) {
+                Method reader = descriptor.getReadMethod();
+                if (reader != null && reader.getParameterCount() == 0) {
+                    resolved.add(new Property(descriptor.getName(), accessible(reader)));
+                }
+            }
+        } catch (IntrospectionException e) {
+            log.warn("Diff: cannot introspect {}: {}", type.getName(), e.getMessage());
+        }
+        return resolved;
+    }
+
+    private static Method accessible(Method method) {
+        method.trySetAccessible();
+        return method;
+    }
+}
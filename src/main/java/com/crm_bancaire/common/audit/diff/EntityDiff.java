@@ -0,0 +1,128 @@
+package com.crm_bancaire.common.audit.diff;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Différence champ par champ entre deux états déjà capturés (avant et après la méthode).
+ *
+ * La comparaison est paresseuse: elle a lieu à la première lecture, en pratique lors de la
+ * sérialisation de l'événement, donc sur les threads du dispatcher quand la publication
+ * asynchrone est activée. Le résultat est mémorisé. En mode intégrité, le hash de l'événement
+ * couvre le diff: la comparaison a lieu au chaînage, sur le thread qui publie.
+ *
+ * Sérialisé en JSON sous la forme:
+ * <pre>
+ * {"changes": [{"path": "address.city", "before": "Dakar", "after": "Thiès"}], "truncated": false}
+ * </pre>
+ * Les propriétés illisibles, non comparées, sont listées dans "unknown" (absent si aucune).
+ */
+public final class EntityDiff implements JsonSerializable {
+
+    private final DiffEngine engine;
+    private Map<String, Object> before;
+    private Map<String, Object> after;
+    private final int estimatedChanges;
+
+    private volatile Result result;
+
+    record Result(List<FieldChange> changes, boolean truncated, List<String> unknown) {
+    }
+
+    EntityDiff(DiffEngine engine, Map<String, Object> before, Map<String, Object> after) {
+        this.engine = engine;
+        this.before = before;
+        this.after = after;
+        this.estimatedChanges = Math.min(Math.max(before.size(), after.size()), engine.getMaxChanges());
+    }
+
+    /**
+     * @return Les champs modifiés, dans l'ordre des chemins de l'état avant
+     */
+    public List<FieldChange> getChanges() {
+        return result().changes();
+    }
+
+    /**
+     * @return true si la limite de champs modifiés a été atteinte
+     */
+    public boolean isTruncated() {
+        return result().truncated();
+    }
+
+    /**
+     * @return Chemins des propriétés illisibles, non comparés
+     */
+    public List<String> getUnknownPaths() {
+        return result().unknown();
+    }
+
+    /**
+     * @return Taille JSON estimée, sans déclencher le calcul
+     */
+    public int estimatedSize() {
+        Result computed = result;
+        if (computed != null) {
+            return 32 + computed.changes().size() * 64;
+        }
+        return 32 + estimatedChanges * 64;
+    }
+
+    private Result result() {
+        Result computed = result;
+        if (computed == null) {
+            synchronized (this) {
+                computed = result;
+                if (computed == null) {
+                    computed = engine.compute(before, after);
+                    result = computed;
+                    // Les états capturés ne sont plus nécessaires
+                    before = null;
+                    after = null;
+                }
+            }
+        }
+        return computed;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        Result computed = result();
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("changes");
+        for (FieldChange change : computed.changes()) {
+            gen.writeStartObject();
+            gen.writeStringField("path", change.getPath());
+            gen.writeObjectField("before", change.getBefore());
+            gen.writeObjectField("after", change.getAfter());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeBooleanField("truncated", computed.truncated());
+        if (!computed.unknown().isEmpty()) {
+            gen.writeArrayFieldStart("unknown");
+            for (String path : computed.unknown()) {
+                gen.writeString(path);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return "EntityDiff" + getChanges();
+    }
+}
@@ -0,0 +1,28 @@
+package com.crm_bancaire.common.audit.diff;
+
+import lombok.Value;
+
+/**
+ * Modification d'un champ entre l'état avant et l'état après.
+ *
+ * Les valeurs sont des feuilles normalisées (String, Number, Boolean) ou null;
+ * les champs masqués valent "***".
+ */
+@Value
+public class FieldChange {
+
+    /**
+     * Chemin du champ (ex: "address.city", "phones[0]")
+     */
+    String path;
+
+    /**
+     * Valeur avant (null si absente)
+     */
+    Object before;
+
+    /**
+     * Valeur après (null si absente)
+     */
+    Object after;
+}
@@ -0,0 +1,46 @@
+package com.crm_bancaire.common.audit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Utilisateur à l'origine d'un événement d'audit, tel que fourni par un ActorProvider.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditActor {
+
+    /**
+     * Sub (ID Keycloak) de l'utilisateur
+     */
+    private String sub;
+
+    /**
+     * Email de l'utilisateur
+     */
+    private String email;
+
+    /**
+     * Username de l'utilisateur
+     */
+    private String username;
+
+    /**
+     * Prénom de l'utilisateur
+     */
+    private String firstName;
+
+    /**
+     * Nom de l'utilisateur
+     */
+    private String lastName;
+
+    /**
+     * Rôle de l'utilisateur
+     */
+    private String role;
+}
@@ -94,4 +94,46 @@ public class AuditEvent {
      * Métadonnées additionnelles (custom data)
      */
     private Map<String, Object> metadata;
+
+    /**
+     * ID de corrélation de la portée d'audit (requête, job): commun à tous les événements
+     * produits par un même appel, y compris les appels imbriqués et les tâches @Async
+     */
+    private String correlationId;
+
+    /**
+     * Empreinte stable de l'erreur (type d'exception + premières frames), pour regrouper
+     * les échecs identiques
+     */
+    private String errorFingerprint;
+
+    /**
+     * Nombre d'occurrences représentées par cet événement (échecs identiques regroupés);
+     * null = 1.
+     *
+     * Un récapitulatif d'ErrorDeduplicator ne compte que les échecs retenus: le premier échec
+     * de la fenêtre, publié à part, n'y est pas inclus. Une fenêtre de N échecs donne donc
+     * 1 + (N - 1); sommer occurrences (null = 1) sur les événements donne le total exact.
+     */
+    private Integer occurrences;
+
+    /**
+     * Chaîne d'intégrité de l'émetteur (mode intégrité, voir AuditHashChain)
+     */
+    private String chainId;
+
+    /**
+     * Position de l'événement dans sa chaîne, à partir de 1
+     */
+    private Long sequence;
+
+    /**
+     * Hash (SHA-256, hexadécimal) de l'événement précédent de la chaîne
+     */
+    private String previousHash;
+
+    /**
+     * Hash (SHA-256, hexadécimal) de l'événement, lié au précédent
+     */
+    private String hash;
 }
@@ -0,0 +1,48 @@
+package com.crm_bancaire.common.audit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Enveloppe regroupant plusieurs événements d'audit dans un seul message broker.
+ *
+ * Publiée par le mode batch de StreamAuditPublisher; tous les événements d'un lot
+ * partagent la même destination. Côté consumer, utiliser AuditEventDeserializer
+ * pour lire indifféremment un événement seul ou un lot.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditEventBatch {
+
+    /**
+     * ID unique du lot
+     */
+    private String batchId;
+
+    /**
+     * Nom du microservice source
+     */
+    private String source;
+
+    /**
+     * Nombre d'événements dans le lot
+     */
+    private int size;
+
+    /**
+     * Timestamp de création du lot
+     */
+    private Instant timestamp;
+
+    /**
+     * Événements du lot, dans l'ordre de publication
+     */
+    private List<AuditEvent> events;
+}
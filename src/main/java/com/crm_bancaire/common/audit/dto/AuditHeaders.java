@@ -0,0 +1,47 @@
+package com.crm_bancaire.common.audit.dto;
+
+/**
+ * Noms des headers de message posés par common-audit.
+ */
+public final class AuditHeaders {
+
+    /**
+     * Type de payload: {@link #PAYLOAD_EVENT} ou {@link #PAYLOAD_BATCH}
+     */
+    public static final String PAYLOAD_TYPE = "audit_payload_type";
+
+    public static final String PAYLOAD_EVENT = "event";
+    public static final String PAYLOAD_BATCH = "batch";
+
+    /**
+     * Nombre d'événements contenus dans le message
+     */
+    public static final String EVENT_COUNT = "audit_event_count";
+
+    /**
+     * Entité, action, statut et service source de l'événement (d'un lot: seulement si
+     * tous ses événements ont la même valeur)
+     */
+    public static final String ENTITY = "audit_entity";
+    public static final String ACTION = "audit_action";
+    public static final String STATUS = "audit_status";
+    public static final String SOURCE = "audit_source";
+
+    /**
+     * Identifiant de l'événement (ou du lot)
+     */
+    public static final String EVENT_ID = "audit_event_id";
+
+    /**
+     * Clé de partition: "entity:entityId", ou "entity" sans ID
+     */
+    public static final String PARTITION_KEY = "audit_partition_key";
+
+    /**
+     * Clé de message Kafka (KafkaHeaders.KEY), posée en octets UTF-8 avec le binder Kafka
+     */
+    public static final String KAFKA_MESSAGE_KEY = "kafka_messageKey";
+
+    private AuditHeaders() {
+    }
+}
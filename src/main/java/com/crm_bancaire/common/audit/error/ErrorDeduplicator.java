@@ -0,0 +1,166 @@
+package com.crm_bancaire.common.audit.error;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Regroupe les échecs identiques (même entité, action et empreinte d'erreur) sur une fenêtre de temps.
+ *
+ * Le premier échec d'une fenêtre est publié immédiatement. Les suivants sont retenus:
+ * à la fin de la fenêtre, le dernier est publié une seule fois avec
+ * {@link AuditEvent#getOccurrences()} = nombre d'échecs retenus, sans le premier déjà publié.
+ * Pendant un incident, N échecs identiques donnent donc 2 événements par fenêtre au lieu de N:
+ * le premier (occurrences null = 1) et le récapitulatif (occurrences = N - 1).
+ *
+ * Les échecs d'une même fenêtre peuvent concerner des entités différentes: le récapitulatif liste
+ * les entity IDs distincts des échecs retenus dans metadata.{@value #SUPPRESSED_ENTITY_IDS_KEY}
+ * (au plus {@value #MAX_SUPPRESSED_ENTITY_IDS}, puis {@value #SUPPRESSED_ENTITY_IDS_TRUNCATED_KEY} = true).
+ * La liste reste soumise aux plafonds de {@link com.crm_bancaire.common.audit.limits.AuditPayloadLimits}.
+ */
+@Slf4j
+public class ErrorDeduplicator {
+
+    public static final String SUPPRESSED_ENTITY_IDS_KEY = "suppressedEntityIds";
+    public static final String SUPPRESSED_ENTITY_IDS_TRUNCATED_KEY = "suppressedEntityIdsTruncated";
+    public static final int MAX_SUPPRESSED_ENTITY_IDS = 100;
+
+    private final Duration window;
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong suppressedEvents = new AtomicLong();
+
+    private Consumer<AuditEvent> sink;
+
+    private record Key(String entity, String action, String fingerprint) {
+    }
+
+    private static final class Window {
+        private AuditEvent last;
+        private int suppressed;
+        private final Set<String> entityIds = new LinkedHashSet<>();
+        private boolean entityIdsTruncated;
+        private boolean closed;
+    }
+
+    public ErrorDeduplicator(Duration window) {
+        this.window = window != null ? window : Duration.ofSeconds(10);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-error-dedup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param sink Publication de l'événement récapitulatif de fin de fenêtre
+     */
+    public void start(Consumer<AuditEvent> sink) {
+        this.sink = sink;
+        log.info("🚀 Audit error deduplication started (window {})", window);
+    }
+
+    /**
+     * @return true si l'événement doit être publié maintenant, false s'il est regroupé
+     */
+    public boolean admit(AuditEvent event) {
+        if (event.getErrorFingerprint() == null || sink == null) {
+            return true;
+        }
+        Key key = new Key(event.getEntity(), event.getAction(), event.getErrorFingerprint());
+        while (true) {
+            Window opened = new Window();
+            Window existing = windows.putIfAbsent(key, opened);
+            if (existing == null) {
+                schedule(key, opened);
+                return true;
+            }
+            synchronized (existing) {
+                if (!existing.closed) {
+                    existing.last = event;
+                    existing.suppressed++;
+                    if (event.getEntityId() != null && !existing.entityIds.contains(event.getEntityId())) {
+                        if (existing.entityIds.size() < MAX_SUPPRESSED_ENTITY_IDS) {
+                            existing.entityIds.add(event.getEntityId());
+                        } else {
+                            existing.entityIdsTruncated = true;
+                        }
+                    }
+                    suppressedEvents.incrementAndGet();
+                    return false;
+                }
+            }
+            // Fenêtre fermée entre-temps: en ouvrir une nouvelle
+        }
+    }
+
+    /**
+     * @return Nombre d'échecs regroupés (non publiés individuellement) depuis le démarrage
+     */
+    public long getSuppressedEvents() {
+        return suppressedEvents.get();
+    }
+
+    /**
+     * Arrête le planificateur et publie les récapitulatifs des fenêtres en cours.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        windows.forEach(this::close);
+    }
+
+    private void schedule(Key key, Window opened) {
+        try {
+            scheduler.schedule(() -> close(key, opened), window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            // Planificateur arrêté: pas de regroupement
+            close(key, opened);
+        }
+    }
+
+    private void close(Key key, Window closing) {
+        AuditEvent summary;
+        int suppressed;
+        Set<String> entityIds;
+        boolean entityIdsTruncated;
+        synchronized (closing) {
+            if (closing.closed) {
+                return;
+            }
+            closing.closed = true;
+            windows.remove(key, closing);
+            summary = closing.last;
+            suppressed = closing.suppressed;
+            entityIds = closing.entityIds;
+            entityIdsTruncated = closing.entityIdsTruncated;
+        }
+        if (summary != null) {
+            summary.setOccurrences(suppressed);
+            if (!entityIds.isEmpty()) {
+                Map<String, Object> metadata = summary.getMetadata() != null
+                    ? new LinkedHashMap<>(summary.getMetadata())
+                    : new LinkedHashMap<>();
+                metadata.put(SUPPRESSED_ENTITY_IDS_KEY, new ArrayList<>(entityIds));
+                if (entityIdsTruncated) {
+                    metadata.put(SUPPRESSED_ENTITY_IDS_TRUNCATED_KEY, true);
+                }
+                summary.setMetadata(metadata);
+            }
+            log.debug("🔁 {} identical audit failures grouped: {} {} [{}]",
+                suppressed, summary.getAction(), summary.getEntity(), key.fingerprint());
+            sink.accept(summary);
+        }
+    }
+}
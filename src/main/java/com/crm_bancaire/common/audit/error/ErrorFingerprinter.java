@@ -0,0 +1,78 @@
+package com.crm_bancaire.common.audit.error;
+
+/**
+ * Empreinte stable d'une exception: types de la chaîne de causes et premières frames
+ * de la cause racine, hachés en 64 bits (FNV-1a).
+ *
+ * Le message n'entre pas dans l'empreinte: deux échecs au même endroit avec des
+ * messages différents (ID, valeurs) ont la même empreinte.
+ */
+public class ErrorFingerprinter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Nombre maximum de causes prises en compte
+     */
+    private static final int MAX_CAUSES = 5;
+
+    /**
+     * Nombre de frames par défaut
+     */
+    public static final int DEFAULT_FRAMES = 5;
+
+    private final int frames;
+
+    /**
+     * @param frames Nombre de frames de la cause racine prises en compte
+     */
+    public ErrorFingerprinter(int frames) {
+        this.frames = Math.max(0, frames);
+    }
+
+    /**
+     * @return L'empreinte en hexadécimal (16 caractères), ou null si error est null
+     */
+    public String fingerprint(Throwable error) {
+        if (error == null) {
+            return null;
+        }
+        long hash = FNV_OFFSET;
+        Throwable root = error;
+        int depth = 0;
+        for (Throwable current = error; current != null && depth < MAX_CAUSES; current = current.getCause(), depth++) {
+            hash = mix(hash, current.getClass().getName());
+            root = current;
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+
+        StackTraceElement[] stack = root.getStackTrace();
+        int count = Math.min(frames, stack.length);
+        for (int i = 0; i < count; i++) {
+            hash = mix(hash, stack[i].getClassName());
+            hash = mix(hash, stack[i].getMethodName());
+            hash = mixInt(hash, stack[i].getLineNumber());
+        }
+        return String.format("%016x", hash);
+    }
+
+    private static long mix(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= 0xff;
+        return hash * FNV_PRIME;
+    }
+
+    private static long mixInt(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
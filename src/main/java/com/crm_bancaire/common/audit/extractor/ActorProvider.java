@@ -0,0 +1,41 @@
+package com.crm_bancaire.common.audit.extractor;
+
+import com.crm_bancaire.common.audit.dto.AuditActor;
+
+/**
+ * SPI fournissant l'utilisateur courant pour les événements d'audit.
+ *
+ * Par défaut, {@link UserContextActorProvider} lit UserContext de common-security.
+ * Un service peut déclarer son propre bean pour fournir l'acteur sans réflexion,
+ * par exemple depuis le contexte Spring Security:
+ * <pre>
+ * {@code
+ * @Bean
+ * public ActorProvider actorProvider() {
+ *     return () -> {
+ *         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+ *         if (auth == null || !(auth.getPrincipal() instanceof Jwt jwt)) {
+ *             return null;
+ *         }
+ *         return AuditActor.builder()
+ *             .sub(jwt.getSubject())
+ *             .email(jwt.getClaimAsString("email"))
+ *             .username(jwt.getClaimAsString("preferred_username"))
+ *             .build();
+ *     };
+ * }
+ * }
+ * </pre>
+ */
+@FunctionalInterface
+public interface ActorProvider {
+
+    /**
+     * Retourne l'utilisateur courant.
+     *
+     * Appelé sur le thread qui publie l'événement (thread de la requête).
+     *
+     * @return L'acteur courant ou null si aucun utilisateur n'est authentifié
+     */
+    AuditActor currentActor();
+}
@@ -1,22 +1,79 @@
 package com.crm_bancaire.common.audit.extractor;
 
+import com.crm_bancaire.common.audit.annotation.AuditId;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Extracteur d'informations sur l'entité.
  *
  * Permet d'extraire l'ID de l'entité depuis le résultat d'une méthode.
+ *
+ * Les accesseurs d'ID de chaque classe sont résolus une seule fois et mis en cache
+ * dans un {@link ClassValue}, y compris l'absence d'accesseur: aucune recherche
+ * réflexive ni exception n'a lieu par appel.
+ *
+ * Chaque instance a ses propres noms d'accesseurs et son propre cache: l'auto-configuration
+ * en déclare un bean (common.audit.entity-id.*), injecté dans l'AuditAspect.
  */
 @Slf4j
 public class EntityInfoExtractor {
 
+    public static final List<String> DEFAULT_ACCESSOR_METHODS = List.of("getId", "getUuid");
+    public static final List<String> DEFAULT_ACCESSOR_FIELDS = List.of("id");
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final EntityInfoExtractor DEFAULTS = new EntityInfoExtractor();
+
+    private final ClassValue<IdAccessor> accessors;
+
+    /**
+     * Extracteur avec les accesseurs par défaut (getId, getUuid, champ id)
+     */
+    public EntityInfoExtractor() {
+        this(DEFAULT_ACCESSOR_METHODS, DEFAULT_ACCESSOR_FIELDS);
+    }
+
+    /**
+     * @param methodNames Méthodes sans paramètre, dans l'ordre d'essai (ex: getId, getUuid)
+     * @param fieldNames Champs, dans l'ordre d'essai (ex: id)
+     */
+    public EntityInfoExtractor(List<String> methodNames, List<String> fieldNames) {
+        List<String> methods = List.copyOf(methodNames);
+        List<String> fields = List.copyOf(fieldNames);
+        this.accessors = new ClassValue<>() {
+            @Override
+            protected IdAccessor computeValue(Class<?> type) {
+                return resolve(type, methods, fields);
+            }
+        };
+    }
+
+    /**
+     * Extrait l'ID de l'entité avec les accesseurs par défaut (voir {@link #extract(Object)}).
+     *
+     * @param entity L'objet entité
+     * @return L'ID de l'entité ou null si introuvable
+     */
+    public static String extractEntityId(Object entity) {
+        return DEFAULTS.extract(entity);
+    }
+
     /**
      * Extrait l'ID de l'entité depuis un objet.
      *
-     * Par défaut, essaie d'appeler getId() sur l'objet.
-     * Si ça échoue, essaie getUuid(), puis toString().
+     * Essaie dans l'ordre: membre annoté {@link AuditId}, getId(), getUuid(), champ id
+     * (noms configurables), puis toString().
      *
      * NOTE: Les String pures ne sont PAS acceptées comme entity ID.
      * Utilisez entityIdExpression dans @Auditable pour extraire l'ID depuis les paramètres.
@@ -24,58 +81,151 @@ public class EntityInfoExtractor {
      * @param entity L'objet entité
      * @return L'ID de l'entité ou null si introuvable
      */
-    public static String extractEntityId(Object entity) {
-        if (entity == null) {
+    public String extract(Object entity) {
+        if (!isEntity(entity)) {
             return null;
         }
 
+        String id = readAccessorId(entity);
+        if (id != null) return id;
+
+        // Fallback: toString() uniquement pour les objets complexes
+        log.debug("Could not extract entity ID from {}, using toString()", entity.getClass().getSimpleName());
+        return entity.toString();
+    }
+
+    /**
+     * Indique si un objet peut porter un entity ID (ni null, ni String, ni Boolean/Number).
+     *
+     * @param entity L'objet retourné par la méthode
+     * @return false si l'objet est rejeté (avec un warning pour String/Boolean/Number)
+     */
+    public static boolean isEntity(Object entity) {
+        if (entity == null) {
+            return false;
+        }
+
         // IMPORTANT: Rejeter les String pures pour éviter de stocker des messages comme entity ID
         // Ex: "utilisateur créé avec succès" ou "UserRequest(...)" ne doivent PAS être des entity IDs
         if (entity instanceof String) {
             log.warn("Plain String '{}' rejected as entity ID. Use entityIdExpression in @Auditable to extract ID from method parameters.", entity);
-            return null;
+            return false;
         }
 
         // Rejeter les types primitifs et wrappers (Boolean, Integer, etc.)
         if (entity instanceof Boolean || entity instanceof Number) {
             log.warn("Primitive/wrapper type {} rejected as entity ID. Use entityIdExpression in @Auditable.", entity.getClass().getSimpleName());
-            return null;
+            return false;
         }
+        return true;
+    }
 
-        // Essayer getId()
-        String id = tryMethod(entity, "getId");
-        if (id != null) return id;
+    /**
+     * Lit l'ID via les accesseurs de la classe (@AuditId, méthodes puis champs), sans fallback toString().
+     *
+     * @param entity Objet accepté par {@link #isEntity(Object)}
+     * @return L'ID, ou null si aucun accesseur ne retourne de valeur
+     */
+    public String readAccessorId(Object entity) {
+        return accessors.get(entity.getClass()).read(entity);
+    }
 
-        // Essayer getUuid()
-        id = tryMethod(entity, "getUuid");
-        if (id != null) return id;
+    private static IdAccessor resolve(Class<?> type, List<String> methodNames, List<String> fieldNames) {
+        List<MethodHandle> handles = new ArrayList<>();
 
-        // Essayer id (field direct)
-        id = tryField(entity, "id");
-        if (id != null) return id;
+        // 1. Membres annotés @AuditId
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(AuditId.class) && method.getParameterCount() == 0
+                        && !Modifier.isStatic(method.getModifiers())) {
+                    addHandle(handles, method);
+                }
+            }
+            for (Field field : c.getDeclaredFields()) {
+                if (field.isAnnotationPresent(AuditId.class) && !Modifier.isStatic(field.getModifiers())) {
+                    addHandle(handles, field);
+                }
+            }
+        }
 
-        // Fallback: toString() uniquement pour les objets complexes
-        log.warn("Could not extract entity ID from {}, using toString()", entity.getClass().getSimpleName());
-        return entity.toString();
+        // 2. Méthodes par convention (getId(), getUuid())
+        for (String name : methodNames) {
+            try {
+                Method method = type.getMethod(name);
+                if (method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())) {
+                    addHandle(handles, method);
+                }
+            } catch (NoSuchMethodException ignored) {
+                // Accesseur absent pour cette classe
+            }
+        }
+
+        // 3. Champs par convention (id)
+        for (String name : fieldNames) {
+            Field field = findField(type, name);
+            if (field != null) {
+                addHandle(handles, field);
+            }
+        }
+
+        if (handles.isEmpty()) {
+            log.warn("No entity ID accessor found on {}; toString() will be used. Consider @AuditId or entityIdExpression.",
+                type.getName());
+            return IdAccessor.NONE;
+        }
+        return new IdAccessor(handles.toArray(new MethodHandle[0]));
     }
 
-    private static String tryMethod(Object obj, String methodName) {
-        try {
-            Method method = obj.getClass().getMethod(methodName);
-            Object result = method.invoke(obj);
-            return result != null ? result.toString() : null;
-        } catch (Exception e) {
-            return null;
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            } catch (NoSuchFieldException ignored) {
+                // Chercher dans la superclasse
+            }
         }
+        return null;
     }
 
-    private static String tryField(Object obj, String fieldName) {
+    private static void addHandle(List<MethodHandle> handles, AccessibleObject member) {
         try {
-            var field = obj.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            Object result = field.get(obj);
-            return result != null ? result.toString() : null;
+            member.trySetAccessible();
+            MethodHandle handle = member instanceof Method method
+                ? MethodHandles.lookup().unreflect(method)
+                : MethodHandles.lookup().unreflectGetter((Field) member);
+            handles.add(handle.asType(ACCESSOR_TYPE));
         } catch (Exception e) {
+            log.debug("Entity ID accessor {} not usable: {}", member, e.getMessage());
+        }
+    }
+
+    /**
+     * Accesseurs d'ID résolus pour une classe, essayés dans l'ordre jusqu'à une valeur non nulle.
+     */
+    private static final class IdAccessor {
+
+        private static final IdAccessor NONE = new IdAccessor(new MethodHandle[0]);
+
+        private final MethodHandle[] handles;
+
+        private IdAccessor(MethodHandle[] handles) {
+            this.handles = handles;
+        }
+
+        private String read(Object entity) {
+            for (MethodHandle handle : handles) {
+                try {
+                    Object result = (Object) handle.invokeExact(entity);
+                    if (result != null) {
+                        return result.toString();
+                    }
+                } catch (Throwable e) {
+                    log.debug("Entity ID accessor failed on {}: {}", entity.getClass().getSimpleName(), e.getMessage());
+                }
+            }
             return null;
         }
     }
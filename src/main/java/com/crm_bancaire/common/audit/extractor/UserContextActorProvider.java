@@ -0,0 +1,133 @@
+package com.crm_bancaire.common.audit.extractor;
+
+import com.crm_bancaire.common.audit.dto.AuditActor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+
+/**
+ * ActorProvider par défaut, basé sur UserContext de common-security.
+ *
+ * Les accesseurs de UserContext et de ActorInfo sont résolus une seule fois à la construction
+ * en MethodHandles; l'absence de common-security est elle aussi mémorisée, si bien qu'aucune
+ * recherche de classe ni exception n'a lieu par événement.
+ */
+@Slf4j
+public class UserContextActorProvider implements ActorProvider {
+
+    private static final String USER_CONTEXT_CLASS = "com.crm_bancaire.common.security.context.UserContext";
+    private static final String ACTOR_INFO_CLASS = "com.crm_bancaire.common.security.context.UserContext$ActorInfo";
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final MethodHandle getCurrentActor;
+    private final MethodHandle getSub;
+    private final MethodHandle getEmail;
+    private final MethodHandle getUsername;
+    private final MethodHandle getFirstName;
+    private final MethodHandle getLastName;
+    private final MethodHandle getRole;
+
+    public UserContextActorProvider() {
+        this(UserContextActorProvider.class.getClassLoader());
+    }
+
+    public UserContextActorProvider(ClassLoader classLoader) {
+        MethodHandle currentActor = null;
+        Class<?> actorInfoClass = null;
+        try {
+            Class<?> userContextClass = Class.forName(USER_CONTEXT_CLASS, true, classLoader);
+            Method method = userContextClass.getMethod("getCurrentActor");
+            currentActor = MethodHandles.publicLookup().unreflect(method)
+                .asType(MethodType.methodType(Object.class));
+            actorInfoClass = loadActorInfoClass(classLoader, method.getReturnType());
+            log.debug("UserContext found - actor info will be extracted from common-security");
+        } catch (ClassNotFoundException e) {
+            log.debug("UserContext not available in classpath - actor info will be null");
+        } catch (Exception e) {
+            log.warn("UserContext found but not usable for audit: {}", e.getMessage());
+            currentActor = null;
+        }
+
+        this.getCurrentActor = currentActor;
+        this.getSub = getter(actorInfoClass, "getSub");
+        this.getEmail = getter(actorInfoClass, "getEmail");
+        this.getUsername = getter(actorInfoClass, "getUsername");
+        this.getFirstName = getter(actorInfoClass, "getFirstName");
+        this.getLastName = getter(actorInfoClass, "getLastName");
+        this.getRole = getter(actorInfoClass, "getRole");
+    }
+
+    /**
+     * @return true si UserContext de common-security est présent et utilisable
+     */
+    public boolean isAvailable() {
+        return getCurrentActor != null;
+    }
+
+    @Override
+    public AuditActor currentActor() {
+        if (getCurrentActor == null) {
+            return null;
+        }
+
+        Object actorInfo;
+        try {
+            actorInfo = (Object) getCurrentActor.invokeExact();
+        } catch (Throwable e) {
+            log.warn("Failed to extract actor info from UserContext: {}", e.getMessage());
+            return null;
+        }
+
+        if (actorInfo == null) {
+            log.debug("No actor info available (UserContext.getCurrentActor() returned null)");
+            return null;
+        }
+
+        return AuditActor.builder()
+            .sub(read(getSub, actorInfo))
+            .email(read(getEmail, actorInfo))
+            .username(read(getUsername, actorInfo))
+            .firstName(read(getFirstName, actorInfo))
+            .lastName(read(getLastName, actorInfo))
+            .role(read(getRole, actorInfo))
+            .build();
+    }
+
+    private static Class<?> loadActorInfoClass(ClassLoader classLoader, Class<?> fallback) {
+        try {
+            return Class.forName(ACTOR_INFO_CLASS, true, classLoader);
+        } catch (ClassNotFoundException e) {
+            return fallback;
+        }
+    }
+
+    private static MethodHandle getter(Class<?> actorInfoClass, String methodName) {
+        if (actorInfoClass == null) {
+            return null;
+        }
+        try {
+            Method method = actorInfoClass.getMethod(methodName);
+            return MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+        } catch (Exception e) {
+            log.debug("ActorInfo accessor {} not available: {}", methodName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String read(MethodHandle getter, Object actorInfo) {
+        if (getter == null) {
+            return null;
+        }
+        try {
+            Object value = (Object) getter.invokeExact(actorInfo);
+            return value != null ? value.toString() : null;
+        } catch (Throwable e) {
+            log.debug("Failed to read actor field: {}", e.getMessage());
+            return null;
+        }
+    }
+}
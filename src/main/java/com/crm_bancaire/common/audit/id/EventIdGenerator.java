@@ -0,0 +1,32 @@
+package com.crm_bancaire.common.audit.id;
+
+import java.util.UUID;
+
+/**
+ * Génère l'identifiant unique (eventId) de chaque événement d'audit.
+ *
+ * L'implémentation par défaut ({@link UuidV7EventIdGenerator}) produit des UUID v7
+ * ordonnés dans le temps. Déclarer un bean EventIdGenerator pour la remplacer.
+ */
+@FunctionalInterface
+public interface EventIdGenerator {
+
+    /**
+     * @return Nouvel identifiant, unique
+     */
+    String nextId();
+
+    /**
+     * @return Générateur UUID v7 partagé (ordonné dans le temps, monotone dans la JVM)
+     */
+    static EventIdGenerator timeOrdered() {
+        return UuidV7EventIdGenerator.INSTANCE;
+    }
+
+    /**
+     * @return Générateur UUID v4 aléatoire (comportement historique, SecureRandom)
+     */
+    static EventIdGenerator random() {
+        return () -> UUID.randomUUID().toString();
+    }
+}
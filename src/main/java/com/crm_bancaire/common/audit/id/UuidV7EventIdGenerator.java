@@ -0,0 +1,92 @@
+package com.crm_bancaire.common.audit.id;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Générateur d'UUID v7 (RFC 9562): 48 bits de timestamp en millisecondes, puis 74 bits
+ * de compteur et d'aléa.
+ *
+ * Les 12 bits "rand_a" servent de compteur: dans la même milliseconde, chaque identifiant
+ * est strictement supérieur au précédent (méthode 1 de la RFC), sans verrou. Si le compteur
+ * déborde, le timestamp est avancé d'une milliseconde. Les 62 bits "rand_b" viennent de
+ * ThreadLocalRandom, sans contention entre threads.
+ *
+ * Les identifiants sont donc triables par date de création et s'insèrent en fin d'index
+ * B-tree côté audit-service, contrairement aux UUID v4.
+ */
+public class UuidV7EventIdGenerator implements EventIdGenerator {
+
+    static final UuidV7EventIdGenerator INSTANCE = new UuidV7EventIdGenerator();
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Dernière valeur émise: (timestamp ms << 12) | compteur
+     */
+    private final AtomicLong lastTimeAndCounter = new AtomicLong();
+
+    @Override
+    public String nextId() {
+        return format(nextMostSignificantBits(), randomLeastSignificantBits());
+    }
+
+    /**
+     * @return Nouvel UUID v7
+     */
+    public UUID nextUuid() {
+        return new UUID(nextMostSignificantBits(), randomLeastSignificantBits());
+    }
+
+    /**
+     * unix_ts_ms (48 bits) | version 7 (4 bits) | compteur (12 bits)
+     */
+    private long nextMostSignificantBits() {
+        long timeAndCounter = nextTimeAndCounter();
+        return (timeAndCounter >>> 12) << 16 | 0x7000L | (timeAndCounter & 0xFFFL);
+    }
+
+    /**
+     * variante RFC (2 bits) | aléa (62 bits)
+     */
+    private static long randomLeastSignificantBits() {
+        return ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+    }
+
+    private long nextTimeAndCounter() {
+        long candidate = System.currentTimeMillis() << 12;
+        while (true) {
+            long last = lastTimeAndCounter.get();
+            long next = candidate > last ? candidate : last + 1;
+            if (lastTimeAndCounter.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Formatage 8-4-4-4-12 directement en octets ASCII (une seule allocation de String)
+     */
+    private static String format(long msb, long lsb) {
+        byte[] out = new byte[36];
+        hex(out, 0, msb >>> 32, 8);
+        out[8] = '-';
+        hex(out, 9, msb >>> 16, 4);
+        out[13] = '-';
+        hex(out, 14, msb, 4);
+        out[18] = '-';
+        hex(out, 19, lsb >>> 48, 4);
+        out[23] = '-';
+        hex(out, 24, lsb, 12);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void hex(byte[] out, int offset, long value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            out[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.integrity.IntegrityReport.Violation;
+import com.crm_bancaire.common.audit.integrity.IntegrityReport.ViolationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Vérifie en une passe une suite d'événements chaînés et leurs checkpoints ({@link AuditHashChain}).
+ *
+ * Les événements peuvent arriver dans le désordre (plusieurs files, consommateurs parallèles): ils sont
+ * remis dans l'ordre de leur chaîne dans une fenêtre de maxReorder événements par chaîne. Au-delà,
+ * une position toujours absente est signalée manquante.
+ *
+ * Pour chaque événement: son hash est recalculé depuis son contenu, puis comparé au lien du précédent.
+ * Pour chaque checkpoint: la racine de Merkle du lot est recalculée au fil de l'eau et la signature
+ * vérifiée. La mémoire utilisée ne dépend pas de la taille des lots.
+ *
+ * <pre>
+ * AuditChainVerifier verifier = new AuditChainVerifier(signer);
+ * events.forEach(verifier);
+ * IntegrityReport report = verifier.finish();
+ * </pre>
+ *
+ * Une vérification peut porter sur un extrait (une journée en base): le début de chaque chaîne est
+ * alors la première position vue. Non thread-safe.
+ */
+public class AuditChainVerifier implements Consumer<AuditEvent> {
+
+    public static final int MAX_VIOLATIONS = 1000;
+    public static final int DEFAULT_MAX_REORDER = 10_000;
+
+    private final CheckpointVerifier signatures;
+    private final int maxReorder;
+    private final AuditEventHasher hasher = new AuditEventHasher();
+    private final Map<String, ChainState> chains = new HashMap<>();
+
+    private long verifiedEvents;
+    private long checkpoints;
+    private long partialCheckpoints;
+    private long duplicates;
+    private long unchainedEvents;
+    private long violationCount;
+    private final List<Violation> violations = new ArrayList<>();
+
+    /**
+     * @param signatures Vérification des signatures, ou null pour ne vérifier que hash et racines
+     */
+    public AuditChainVerifier(CheckpointVerifier signatures) {
+        this(signatures, DEFAULT_MAX_REORDER);
+    }
+
+    public AuditChainVerifier(CheckpointVerifier signatures, int maxReorder) {
+        this.signatures = signatures;
+        this.maxReorder = Math.max(0, maxReorder);
+    }
+
+    @Override
+    public void accept(AuditEvent event) {
+        if (event.getChainId() == null || event.getSequence() == null) {
+            unchainedEvents++;
+            return;
+        }
+        chains.computeIfAbsent(event.getChainId(), ChainState::new).offer(event);
+    }
+
+    /**
+     * Termine la vérification: les événements encore en attente sont traités (trous signalés).
+     */
+    public IntegrityReport finish() {
+        long unanchored = 0;
+        for (ChainState chain : chains.values()) {
+            chain.drain(true);
+            unanchored += chain.unanchored;
+        }
+        return new IntegrityReport(verifiedEvents, checkpoints, partialCheckpoints, duplicates, unchainedEvents,
+            unanchored, violationCount, List.copyOf(violations));
+    }
+
+    private void violation(ViolationType type, String chainId, long sequence, String detail) {
+        violationCount++;
+        if (violations.size() < MAX_VIOLATIONS) {
+            violations.add(new Violation(type, chainId, sequence, detail));
+        }
+    }
+
+    /**
+     * État de vérification d'une chaîne
+     */
+    private final class ChainState {
+        private final String chainId;
+        private final TreeMap<Long, AuditEvent> pending = new TreeMap<>();
+
+        /**
+         * Prochaine position attendue (0 = début de chaîne pas encore connu)
+         */
+        private long next;
+        private byte[] previousHash;
+        private MerkleAccumulator range = new MerkleAccumulator();
+        private long rangeStart;
+        private boolean rangeComplete;
+        private long unanchored;
+
+        ChainState(String chainId) {
+            this.chainId = chainId;
+        }
+
+        void offer(AuditEvent event) {
+            long sequence = event.getSequence();
+            if (sequence < next || pending.putIfAbsent(sequence, event) != null) {
+                duplicates++;
+                return;
+            }
+            drain(false);
+        }
+
+        void drain(boolean finished) {
+            while (!pending.isEmpty()) {
+                long first = pending.firstKey();
+                if (next == 0 && first == 1) {
+                    start(1);
+                    next = 1;
+                }
+                if (first != next) {
+                    if (!finished && pending.size() <= maxReorder) {
+                        return;
+                    }
+                    if (next == 0) {
+                        // Début de chaîne (ou d'extrait): la première position vue
+                        start(first);
+                    } else {
+                        violation(ViolationType.MISSING, chainId, next,
+                            first - next == 1 ? "1 event missing" : (first - next) + " events missing (" + next + ".." + (first - 1) + ")");
+                        previousHash = null;
+                        rangeComplete = false;
+                    }
+                    next = first;
+                }
+                verify(pending.pollFirstEntry().getValue());
+                next++;
+            }
+        }
+
+        private void start(long first) {
+            previousHash = first == 1 ? AuditEventHasher.genesis() : null;
+            rangeStart = first;
+            rangeComplete = first == 1;
+        }
+
+        private void verify(AuditEvent event) {
+            long sequence = event.getSequence();
+            byte[] declaredPrevious = decodeHash(event.getPreviousHash());
+            byte[] declaredHash = decodeHash(event.getHash());
+            if (declaredPrevious == null || declaredHash == null) {
+                violation(ViolationType.TAMPERED, chainId, sequence, "missing or malformed hash");
+                previousHash = null;
+                rangeComplete = false;
+                return;
+            }
+
+            byte[] hash = hasher.chainHash(declaredPrevious, sequence, hasher.contentHash(event));
+            if (!Arrays.equals(hash, declaredHash)) {
+                violation(ViolationType.TAMPERED, chainId, sequence, "content does not match hash");
+            } else if (previousHash != null && !Arrays.equals(previousHash, declaredPrevious)) {
+                violation(ViolationType.BROKEN_LINK, chainId, sequence, "previousHash does not match event " + (sequence - 1));
+            }
+            verifiedEvents++;
+
+            if (AuditHashChain.isCheckpoint(event)) {
+                verifyCheckpoint(event);
+                range = new MerkleAccumulator();
+                rangeStart = sequence;
+                rangeComplete = true;
+            }
+            // Le lot est construit avec le hash déclaré: une altération est déjà signalée ci-dessus
+            range.add(declaredHash);
+            previousHash = declaredHash;
+            unanchored = AuditHashChain.isCheckpoint(event) ? 0 : unanchored + 1;
+        }
+
+        private void verifyCheckpoint(AuditEvent checkpoint) {
+            long sequence = checkpoint.getSequence();
+            Map<String, Object> metadata = checkpoint.getMetadata() != null ? checkpoint.getMetadata() : Map.of();
+            Long from = toLong(metadata.get(AuditHashChain.FROM_SEQUENCE));
+            Long to = toLong(metadata.get(AuditHashChain.TO_SEQUENCE));
+            Object root = metadata.get(AuditHashChain.MERKLE_ROOT);
+            if (from == null || to == null || !(root instanceof String merkleRoot) || to != sequence - 1) {
+                violation(ViolationType.INVALID_CHECKPOINT, chainId, sequence, "malformed checkpoint");
+                return;
+            }
+
+            if (rangeComplete && from == rangeStart) {
+                byte[] computed = range.root();
+                if (computed == null || !AuditEventHasher.toHex(computed).equals(merkleRoot)) {
+                    violation(ViolationType.INVALID_CHECKPOINT, chainId, sequence,
+                        "Merkle root does not match events " + from + ".." + to);
+                }
+                checkpoints++;
+            } else {
+                partialCheckpoints++;
+            }
+
+            if (signatures != null) {
+                Object signature = metadata.get(AuditHashChain.SIGNATURE);
+                Object keyId = metadata.get(AuditHashChain.KEY_ID);
+                Object algorithm = metadata.get(AuditHashChain.SIGNATURE_ALGORITHM);
+                if (!(signature instanceof String encoded)) {
+                    violation(ViolationType.INVALID_SIGNATURE, chainId, sequence, "unsigned checkpoint");
+                } else if (!verifySignature(keyId, algorithm, from, to, merkleRoot, encoded)) {
+                    violation(ViolationType.INVALID_SIGNATURE, chainId, sequence,
+                        "invalid signature (key " + keyId + ", " + algorithm + ")");
+                }
+            }
+        }
+
+        private boolean verifySignature(Object keyId, Object algorithm, long from, long to, String root, String signature) {
+            try {
+                return signatures.verify(String.valueOf(keyId), String.valueOf(algorithm),
+                    AuditHashChain.signedData(chainId, from, to, root), Base64.getDecoder().decode(signature));
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+    }
+
+    private static byte[] decodeHash(String hash) {
+        if (hash == null || hash.length() != AuditEventHasher.HASH_LENGTH * 2) {
+            return null;
+        }
+        try {
+            return AuditEventHasher.fromHex(hash);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Long.parseLong(text);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
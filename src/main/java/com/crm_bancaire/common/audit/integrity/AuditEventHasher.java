@@ -0,0 +1,199 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import com.crm_bancaire.common.audit.diff.EntityDiff;
+import com.crm_bancaire.common.audit.diff.FieldChange;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash SHA-256 des événements d'audit, indépendant du format de transport.
+ *
+ * Le contenu est haché sous une forme canonique: champs dans un ordre fixe, préfixés par leur longueur,
+ * timestamp en microsecondes (précision du format binaire et des bases), métadonnées en JSON à clés
+ * triées (une map vide équivaut à null). Un événement relu depuis JSON, le format binaire ou la table
+ * d'audit a donc le même hash que l'événement publié. Les champs previousHash et hash sont exclus.
+ *
+ * Un {@link EntityDiff} est haché sous sa forme publiée (changes, truncated, unknown): le hash
+ * couvrant le diff, sa comparaison a lieu lors du chaînage, sur le thread qui publie.
+ *
+ * Le hash de chaîne lie ensuite le contenu à sa position et au hash précédent:
+ * <pre>
+ * hash(n) = SHA-256(hash(n - 1) || sequence(n) || SHA-256(contenu(n)))
+ * </pre>
+ */
+public class AuditEventHasher {
+
+    public static final int HASH_LENGTH = 32;
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(AuditEventHasher::newDigest);
+
+    private final ObjectMapper objectMapper;
+
+    public AuditEventHasher() {
+        this.objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * @return SHA-256 de la forme canonique de l'événement
+     */
+    public byte[] contentHash(AuditEvent event) {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        update(digest, event.getChainId());
+        update(digest, event.getEventId());
+        update(digest, event.getAction());
+        update(digest, event.getEntity());
+        update(digest, event.getEntityId());
+        update(digest, event.getActorSub());
+        update(digest, event.getActorEmail());
+        update(digest, event.getActorUsername());
+        update(digest, event.getActorFirstName());
+        update(digest, event.getActorLastName());
+        update(digest, event.getActorRole());
+        update(digest, event.getStatus() != null ? event.getStatus().name() : null);
+        update(digest, event.getErrorMessage());
+        update(digest, event.getTimestamp() != null ? Long.toString(toMicros(event.getTimestamp())) : null);
+        update(digest, event.getSource());
+        update(digest, canonicalMetadata(event.getMetadata()));
+        update(digest, event.getCorrelationId());
+        update(digest, event.getErrorFingerprint());
+        update(digest, event.getOccurrences() != null ? event.getOccurrences().toString() : null);
+        return digest.digest();
+    }
+
+    /**
+     * @return Hash de chaîne de l'événement à la position sequence
+     */
+    public byte[] chainHash(byte[] previousHash, long sequence, byte[] contentHash) {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        digest.update(previousHash);
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence).array());
+        digest.update(contentHash);
+        return digest.digest();
+    }
+
+    public static String toHex(byte[] hash) {
+        return HEX.formatHex(hash);
+    }
+
+    public static byte[] fromHex(String hash) {
+        return HEX.parseHex(hash);
+    }
+
+    /**
+     * Hash de départ d'une chaîne (pas d'événement précédent)
+     */
+    public static byte[] genesis() {
+        return new byte[HASH_LENGTH];
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String canonicalMetadata(Map<String, Object> metadata) {
+        if (metadata == null || metadata.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> computed = withComputedDiffs(metadata);
+        try {
+            // Objets imbriqués convertis en maps pour que leurs propriétés soient aussi triées
+            Object canonical = isPlain(computed) ? computed : objectMapper.convertValue(computed, METADATA_TYPE);
+            return objectMapper.writeValueAsString(canonical);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot hash audit metadata", e);
+        }
+    }
+
+    /**
+     * Remplace les diffs par leur résultat, sous la forme produite par leur sérialisation JSON.
+     */
+    private static Map<String, Object> withComputedDiffs(Map<String, Object> metadata) {
+        Map<String, Object> copy = null;
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            if (entry.getValue() instanceof EntityDiff diff) {
+                if (copy == null) {
+                    copy = new LinkedHashMap<>(metadata);
+                }
+                copy.put(entry.getKey(), diffContent(diff));
+            }
+        }
+        return copy != null ? copy : metadata;
+    }
+
+    private static Map<String, Object> diffContent(EntityDiff diff) {
+        List<Map<String, Object>> changes = new ArrayList<>(diff.getChanges().size());
+        for (FieldChange change : diff.getChanges()) {
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("path", change.getPath());
+            value.put("before", change.getBefore());
+            value.put("after", change.getAfter());
+            changes.add(value);
+        }
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("changes", changes);
+        content.put("truncated", diff.isTruncated());
+        if (!diff.getUnknownPaths().isEmpty()) {
+            content.put("unknown", diff.getUnknownPaths());
+        }
+        return content;
+    }
+
+    /**
+     * @return true si la valeur ne contient que des types JSON (chaînes, nombres, booléens, maps, listes)
+     */
+    private static boolean isPlain(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return true;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.values().stream().allMatch(AuditEventHasher::isPlain);
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().allMatch(AuditEventHasher::isPlain);
+        }
+        return false;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, -1).array());
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(0, bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+}
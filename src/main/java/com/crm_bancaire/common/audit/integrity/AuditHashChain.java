@@ -0,0 +1,188 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.crm_bancaire.common.audit.id.EventIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chaîne d'intégrité des événements publiés par une instance de service.
+ *
+ * Chaque événement reçoit sa position (sequence), le hash de l'événement précédent et son propre hash
+ * ({@link AuditEventHasher}): modifier, supprimer ou réordonner un événement casse la chaîne.
+ *
+ * Tous les checkpointInterval événements, un événement checkpoint (entity {@value #CHECKPOINT_ENTITY})
+ * est produit: il porte la racine de Merkle des hash des événements depuis le checkpoint précédent
+ * (lui compris), signée par le {@link CheckpointSigner}. Le checkpoint est lui-même chaîné.
+ * Une signature par lot au lieu d'une par événement: le coût de signature est amorti.
+ *
+ * Le hash du contenu est calculé hors verrou; seuls la liaison (un SHA-256 de 72 octets) et, une fois
+ * par lot, la signature sont sérialisés.
+ */
+@Slf4j
+public class AuditHashChain {
+
+    public static final String CHECKPOINT_ENTITY = "AuditCheckpoint";
+    public static final String CHECKPOINT_ACTION = "CHECKPOINT";
+
+    /**
+     * Clés des métadonnées d'un checkpoint
+     */
+    public static final String FROM_SEQUENCE = "fromSequence";
+    public static final String TO_SEQUENCE = "toSequence";
+    public static final String MERKLE_ROOT = "merkleRoot";
+    public static final String KEY_ID = "keyId";
+    public static final String SIGNATURE_ALGORITHM = "signatureAlgorithm";
+    public static final String SIGNATURE = "signature";
+
+    private final int checkpointInterval;
+    private final CheckpointSigner signer;
+    private final AuditEventHasher hasher = new AuditEventHasher();
+
+    private volatile String chainId;
+    private String source;
+    private EventIdGenerator eventIdGenerator;
+
+    private byte[] previousHash = AuditEventHasher.genesis();
+    private long sequence;
+    private MerkleAccumulator range = new MerkleAccumulator();
+    private long rangeStart = 1;
+    private boolean rangeHasEvents;
+
+    private final AtomicLong checkpoints = new AtomicLong();
+
+    /**
+     * @param checkpointInterval Nombre d'événements couverts par un checkpoint
+     * @param signer Signature des checkpoints, ou null (checkpoints non signés)
+     */
+    public AuditHashChain(int checkpointInterval, CheckpointSigner signer) {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be > 0, got " + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+        this.signer = signer;
+    }
+
+    /**
+     * Ouvre la chaîne de cette instance; appelé par le publisher avant le premier événement.
+     *
+     * L'identifiant de chaîne est unique par démarrage: plusieurs instances d'un même service
+     * ont chacune leur chaîne.
+     */
+    public synchronized void start(String source, EventIdGenerator eventIdGenerator) {
+        if (chainId != null) {
+            return;
+        }
+        this.source = source;
+        this.eventIdGenerator = eventIdGenerator;
+        this.chainId = source + ":" + UUID.randomUUID();
+        log.info("🔗 Audit hash chain {} started (checkpoint every {} events, {})", chainId, checkpointInterval,
+            signer != null ? signer.getAlgorithm() + " key " + signer.getKeyId() : "unsigned");
+    }
+
+    /**
+     * Chaîne l'événement: renseigne chainId, sequence, previousHash et hash.
+     *
+     * L'événement ne doit plus être modifié ensuite.
+     *
+     * @return Checkpoint à publier après l'événement, ou null s'il n'est pas dû
+     */
+    public AuditEvent append(AuditEvent event) {
+        event.setChainId(chainId);
+        byte[] contentHash = hasher.contentHash(event);
+        synchronized (this) {
+            link(event, contentHash);
+            rangeHasEvents = true;
+            return range.size() >= checkpointInterval ? checkpoint() : null;
+        }
+    }
+
+    /**
+     * Produit un checkpoint pour les événements pas encore couverts (à l'arrêt).
+     *
+     * @return Checkpoint à publier, ou null si tous les événements sont couverts
+     */
+    public synchronized AuditEvent flush() {
+        if (!rangeHasEvents) {
+            return null;
+        }
+        return checkpoint();
+    }
+
+    public String getChainId() {
+        return chainId;
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return Nombre de checkpoints produits depuis le démarrage
+     */
+    public long getCheckpoints() {
+        return checkpoints.get();
+    }
+
+    public static boolean isCheckpoint(AuditEvent event) {
+        return event != null && CHECKPOINT_ENTITY.equals(event.getEntity()) && CHECKPOINT_ACTION.equals(event.getAction());
+    }
+
+    /**
+     * Données signées d'un checkpoint
+     */
+    public static byte[] signedData(String chainId, long fromSequence, long toSequence, String merkleRoot) {
+        return (chainId + "\n" + fromSequence + "\n" + toSequence + "\n" + merkleRoot).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void link(AuditEvent event, byte[] contentHash) {
+        sequence++;
+        byte[] hash = hasher.chainHash(previousHash, sequence, contentHash);
+        event.setSequence(sequence);
+        event.setPreviousHash(AuditEventHasher.toHex(previousHash));
+        event.setHash(AuditEventHasher.toHex(hash));
+        previousHash = hash;
+        range.add(hash);
+    }
+
+    private AuditEvent checkpoint() {
+        String root = AuditEventHasher.toHex(range.root());
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put(FROM_SEQUENCE, rangeStart);
+        metadata.put(TO_SEQUENCE, sequence);
+        metadata.put(MERKLE_ROOT, root);
+        if (signer != null) {
+            metadata.put(KEY_ID, signer.getKeyId());
+            metadata.put(SIGNATURE_ALGORITHM, signer.getAlgorithm());
+            metadata.put(SIGNATURE, Base64.getEncoder().encodeToString(
+                signer.sign(signedData(chainId, rangeStart, sequence, root))));
+        }
+        AuditEvent checkpoint = AuditEvent.builder()
+            .eventId(eventIdGenerator.nextId())
+            .action(CHECKPOINT_ACTION)
+            .entity(CHECKPOINT_ENTITY)
+            .entityId(chainId)
+            .status(AuditStatus.SUCCESS)
+            .timestamp(Instant.now())
+            .source(source)
+            .metadata(metadata)
+            .chainId(chainId)
+            .build();
+
+        // Le checkpoint ouvre le lot suivant
+        range = new MerkleAccumulator();
+        rangeStart = sequence + 1;
+        link(checkpoint, hasher.contentHash(checkpoint));
+        rangeHasEvents = false;
+        checkpoints.incrementAndGet();
+        return checkpoint;
+    }
+}
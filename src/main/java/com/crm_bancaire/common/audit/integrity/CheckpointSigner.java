@@ -0,0 +1,23 @@
+package com.crm_bancaire.common.audit.integrity;
+
+/**
+ * Signe les checkpoints de la chaîne d'intégrité.
+ *
+ * Appelé une fois par checkpoint (tous les N événements): le coût d'une signature asymétrique
+ * est réparti sur tout le lot. Déclarer un bean CheckpointSigner pour utiliser sa propre clé
+ * (HSM, KMS...).
+ */
+public interface CheckpointSigner {
+
+    /**
+     * @return Identifiant de la clé, publié avec la signature (rotation des clés)
+     */
+    String getKeyId();
+
+    /**
+     * @return Algorithme de signature (HmacSHA256, SHA256withECDSA, Ed25519...)
+     */
+    String getAlgorithm();
+
+    byte[] sign(byte[] data);
+}
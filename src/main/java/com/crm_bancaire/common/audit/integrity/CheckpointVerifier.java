@@ -0,0 +1,13 @@
+package com.crm_bancaire.common.audit.integrity;
+
+/**
+ * Vérifie la signature d'un checkpoint (côté audit-service ou outil de contrôle).
+ */
+@FunctionalInterface
+public interface CheckpointVerifier {
+
+    /**
+     * @return true si la signature est valide pour cette clé et cet algorithme
+     */
+    boolean verify(String keyId, String algorithm, byte[] data, byte[] signature);
+}
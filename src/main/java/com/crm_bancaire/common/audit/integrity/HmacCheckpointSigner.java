@@ -0,0 +1,55 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * Signature HMAC-SHA256 des checkpoints, avec un secret partagé entre services et vérificateur.
+ *
+ * Le vérificateur doit connaître le secret: utiliser {@link SignatureCheckpointSigner} quand
+ * il ne doit pas pouvoir produire de checkpoints.
+ */
+public class HmacCheckpointSigner implements CheckpointSigner, CheckpointVerifier {
+
+    public static final String ALGORITHM = "HmacSHA256";
+
+    private final String keyId;
+    private final SecretKeySpec key;
+
+    public HmacCheckpointSigner(String keyId, byte[] secret) {
+        if (secret == null || secret.length == 0) {
+            throw new IllegalArgumentException("HMAC checkpoint secret must not be empty");
+        }
+        this.keyId = keyId;
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    @Override
+    public String getKeyId() {
+        return keyId;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return ALGORITHM;
+    }
+
+    @Override
+    public byte[] sign(byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign audit checkpoint", e);
+        }
+    }
+
+    @Override
+    public boolean verify(String keyId, String algorithm, byte[] data, byte[] signature) {
+        return this.keyId.equals(keyId) && ALGORITHM.equals(algorithm)
+            && MessageDigest.isEqual(sign(data), signature);
+    }
+}
@@ -0,0 +1,51 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import java.util.List;
+
+/**
+ * Résultat d'une vérification par {@link AuditChainVerifier}.
+ *
+ * @param verifiedEvents Événements chaînés dont le hash a été vérifié (checkpoints compris)
+ * @param checkpoints Checkpoints dont la racine de Merkle a été recalculée
+ * @param partialCheckpoints Checkpoints dont le lot n'a pas été vu en entier (début d'extrait, trou
+ *                           déjà signalé): seule la signature est vérifiée
+ * @param duplicates Événements reçus deux fois (relivraison) ou après qu'un trou a été signalé
+ * @param unchainedEvents Événements sans chaîne (mode intégrité désactivé à l'émission)
+ * @param unanchoredEvents Événements postérieurs au dernier checkpoint de leur chaîne
+ * @param violationCount Nombre total d'anomalies
+ * @param violations Premières anomalies (au plus {@link AuditChainVerifier#MAX_VIOLATIONS})
+ */
+public record IntegrityReport(long verifiedEvents, long checkpoints, long partialCheckpoints, long duplicates,
+                              long unchainedEvents, long unanchoredEvents, long violationCount,
+                              List<Violation> violations) {
+
+    public enum ViolationType {
+        /**
+         * Positions absentes de la chaîne (événements perdus ou supprimés)
+         */
+        MISSING,
+        /**
+         * Contenu ne correspondant plus au hash de l'événement
+         */
+        TAMPERED,
+        /**
+         * previousHash différent du hash de l'événement précédent (insertion, remplacement)
+         */
+        BROKEN_LINK,
+        /**
+         * Racine de Merkle ou bornes du checkpoint incorrectes
+         */
+        INVALID_CHECKPOINT,
+        /**
+         * Signature de checkpoint absente ou invalide
+         */
+        INVALID_SIGNATURE
+    }
+
+    public record Violation(ViolationType type, String chainId, long sequence, String detail) {
+    }
+
+    public boolean isValid() {
+        return violationCount == 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Racine de Merkle calculée au fil de l'eau (arbre RFC 6962), en mémoire O(log n).
+ *
+ * Seules les racines des sous-arbres complets sont conservées; deux sous-arbres de même taille
+ * sont fusionnés dès que possible. Feuilles et nœuds sont hachés avec un préfixe différent
+ * (0x00 / 0x01), une feuille ne peut donc pas se faire passer pour un nœud.
+ */
+public class MerkleAccumulator {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    private final MessageDigest digest = AuditEventHasher.newDigest();
+    private final List<byte[]> subtrees = new ArrayList<>();
+    private long size;
+
+    /**
+     * Ajoute une feuille (hash d'un événement).
+     */
+    public void add(byte[] leaf) {
+        digest.update(LEAF_PREFIX);
+        byte[] node = digest.digest(leaf);
+        for (long n = size; (n & 1) == 1; n >>>= 1) {
+            node = node(subtrees.remove(subtrees.size() - 1), node);
+        }
+        subtrees.add(node);
+        size++;
+    }
+
+    /**
+     * @return Racine de l'arbre des feuilles ajoutées, ou null si aucune
+     */
+    public byte[] root() {
+        if (subtrees.isEmpty()) {
+            return null;
+        }
+        byte[] root = subtrees.get(subtrees.size() - 1);
+        for (int i = subtrees.size() - 2; i >= 0; i--) {
+            root = node(subtrees.get(i), root);
+        }
+        return root;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private byte[] node(byte[] left, byte[] right) {
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        return digest.digest(right);
+    }
+}
@@ -0,0 +1,66 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+
+/**
+ * Signature asymétrique des checkpoints (clé privée côté service, clé publique côté vérificateur).
+ */
+public class SignatureCheckpointSigner implements CheckpointSigner {
+
+    private final String keyId;
+    private final String algorithm;
+    private final PrivateKey privateKey;
+
+    /**
+     * @param algorithm Algorithme JCA (SHA256withECDSA, SHA256withRSA, Ed25519...)
+     */
+    public SignatureCheckpointSigner(String keyId, String algorithm, PrivateKey privateKey) {
+        this.keyId = keyId;
+        this.algorithm = algorithm;
+        this.privateKey = privateKey;
+    }
+
+    @Override
+    public String getKeyId() {
+        return keyId;
+    }
+
+    @Override
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public byte[] sign(byte[] data) {
+        try {
+            Signature signature = Signature.getInstance(algorithm);
+            signature.initSign(privateKey);
+            signature.update(data);
+            return signature.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign audit checkpoint", e);
+        }
+    }
+
+    /**
+     * @return Vérificateur des checkpoints signés par la clé privée associée à publicKey
+     */
+    public static CheckpointVerifier verifier(String keyId, PublicKey publicKey) {
+        return (checkpointKeyId, algorithm, data, signature) -> {
+            if (!keyId.equals(checkpointKeyId)) {
+                return false;
+            }
+            try {
+                Signature verifier = Signature.getInstance(algorithm);
+                verifier.initVerify(publicKey);
+                verifier.update(data);
+                return verifier.verify(signature);
+            } catch (GeneralSecurityException e) {
+                return false;
+            }
+        };
+    }
+}
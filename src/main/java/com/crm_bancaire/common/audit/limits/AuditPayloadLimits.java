@@ -0,0 +1,94 @@
+package com.crm_bancaire.common.audit.limits;
+
+import com.crm_bancaire.common.audit.batch.AuditEventSizeEstimator;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plafonds de taille appliqués à chaque événement avant publication.
+ *
+ * - errorMessage: tronqué à maxErrorMessageLength caractères
+ * - metadata: si sa taille JSON estimée dépasse maxMetadataBytes, les entrées les plus
+ *   volumineuses sont retirées jusqu'à respecter la limite; leurs clés sont listées
+ *   dans l'entrée {@value #TRUNCATED_KEY}
+ */
+@Slf4j
+public class AuditPayloadLimits {
+
+    public static final String TRUNCATED_KEY = "_truncated";
+
+    private final int maxErrorMessageLength;
+    private final long maxMetadataBytes;
+    private final AtomicLong truncatedEvents = new AtomicLong();
+
+    public AuditPayloadLimits(int maxErrorMessageLength, long maxMetadataBytes) {
+        this.maxErrorMessageLength = Math.max(16, maxErrorMessageLength);
+        this.maxMetadataBytes = Math.max(64, maxMetadataBytes);
+    }
+
+    /**
+     * Applique les plafonds à l'événement (modifié en place).
+     */
+    public void apply(AuditEvent event) {
+        boolean truncated = false;
+
+        String message = event.getErrorMessage();
+        if (message != null && message.length() > maxErrorMessageLength) {
+            event.setErrorMessage(message.substring(0, maxErrorMessageLength)
+                + "… [" + (message.length() - maxErrorMessageLength) + " chars truncated]");
+            truncated = true;
+        }
+
+        Map<String, Object> metadata = event.getMetadata();
+        if (metadata != null && !metadata.isEmpty()) {
+            int size = AuditEventSizeEstimator.estimateValue(metadata);
+            if (size > maxMetadataBytes) {
+                event.setMetadata(shrink(metadata, size));
+                truncated = true;
+            }
+        }
+
+        if (truncated && truncatedEvents.incrementAndGet() == 1) {
+            log.warn("⚠️ Audit event {} {} exceeded payload limits and was truncated (further occurrences are not logged)",
+                event.getAction(), event.getEntity());
+        }
+    }
+
+    /**
+     * @return Nombre d'événements tronqués depuis le démarrage
+     */
+    public long getTruncatedEvents() {
+        return truncatedEvents.get();
+    }
+
+    private Map<String, Object> shrink(Map<String, Object> metadata, int size) {
+        record Entry(String key, int size) {
+        }
+        List<Entry> entries = new ArrayList<>(metadata.size());
+        for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+            entries.add(new Entry(entry.getKey(), AuditEventSizeEstimator.estimateValue(entry.getValue()) + entry.getKey().length() + 4));
+        }
+        entries.sort(Comparator.comparingInt(Entry::size).reversed());
+
+        Map<String, Object> shrunk = new LinkedHashMap<>(metadata);
+        List<String> removed = new ArrayList<>();
+        long remaining = size;
+        for (Entry entry : entries) {
+            if (remaining + 32 + removed.size() * 16L <= maxMetadataBytes) {
+                break;
+            }
+            shrunk.remove(entry.key());
+            removed.add(entry.key());
+            remaining -= entry.size();
+        }
+        shrunk.put(TRUNCATED_KEY, removed);
+        return shrunk;
+    }
+}
@@ -0,0 +1,39 @@
+package com.crm_bancaire.common.audit.metrics;
+
+/**
+ * Points de mesure du pipeline d'audit.
+ *
+ * L'implémentation par défaut ne fait rien; {@link MicrometerAuditMetrics} est
+ * auto-configurée quand Micrometer est présent. Les durées sont en nanosecondes.
+ */
+public interface AuditMetrics {
+
+    AuditMetrics NOOP = new AuditMetrics() {
+    };
+
+    /**
+     * Temps ajouté par l'aspect à une méthode @Auditable (hors exécution de la méthode).
+     */
+    default void recordAspectOverhead(String entity, String action, long nanos) {
+    }
+
+    /**
+     * Extraction de l'entity ID et stratégie retenue.
+     */
+    default void recordEntityIdExtraction(EntityIdStrategy strategy, long nanos) {
+    }
+
+    /**
+     * Appel au binder (streamBridge.send) pour un événement ou un lot.
+     */
+    default void recordSend(String destination, boolean success, long nanos) {
+    }
+
+    /**
+     * Devenir d'un événement.
+     *
+     * @param destination Destination de l'événement, ou null si inconnue
+     */
+    default void recordOutcome(String entity, String action, String status, String destination, EventOutcome outcome) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.crm_bancaire.common.audit.metrics;
+
+import com.crm_bancaire.common.audit.async.AuditDispatcher;
+import com.crm_bancaire.common.audit.async.ShardedAuditDispatcher;
+import com.crm_bancaire.common.audit.breaker.AuditCircuitBreaker;
+import com.crm_bancaire.common.audit.sampling.AuditSampler;
+import com.crm_bancaire.common.audit.spool.AuditSpool;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jauges et compteurs cumulés des composants du pipeline (file asynchrone, voies,
+ * circuit breaker, spool, échantillonnage).
+ *
+ * Les composants absents (null) ne publient rien.
+ */
+public class AuditPipelineMeterBinder implements MeterBinder {
+
+    private final AuditDispatcher dispatcher;
+    private final AuditCircuitBreaker breaker;
+    private final AuditSpool spool;
+    private final AuditSampler sampler;
+
+    public AuditPipelineMeterBinder(AuditDispatcher dispatcher, AuditCircuitBreaker breaker,
+                                    AuditSpool spool, AuditSampler sampler) {
+        this.dispatcher = dispatcher;
+        this.breaker = breaker;
+        this.spool = spool;
+        this.sampler = sampler;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (dispatcher != null) {
+            Gauge.builder("audit.dispatcher.queue.size", dispatcher, AuditDispatcher::getQueueSize)
+                .description("Audit events waiting in the async queues")
+                .register(registry);
+            Gauge.builder("audit.dispatcher.queue.fill", dispatcher, AuditDispatcher::getFillRatio)
+                .description("Async queue fill ratio (0-1)")
+                .register(registry);
+            FunctionCounter.builder("audit.dispatcher.dropped", dispatcher, AuditDispatcher::getDroppedEvents)
+                .description("Audit events dropped by the overflow policy")
+                .register(registry);
+            if (dispatcher instanceof ShardedAuditDispatcher sharded) {
+                for (int lane = 0; lane < sharded.getLaneCount(); lane++) {
+                    int index = lane;
+                    Gauge.builder("audit.dispatcher.lane.depth", sharded, s -> s.getLaneDepth(index))
+                        .description("Audit events waiting in one ordered lane")
+                        .tag("lane", String.valueOf(lane))
+                        .register(registry);
+                }
+            }
+        }
+
+        if (breaker != null) {
+            Gauge.builder("audit.breaker.state", breaker, b -> b.getState().ordinal())
+                .description("Audit circuit breaker state (0=closed, 1=open, 2=half-open)")
+                .register(registry);
+            FunctionCounter.builder("audit.breaker.rejected", breaker, AuditCircuitBreaker::getRejectedCalls)
+                .description("Sends short-circuited by the open breaker")
+                .register(registry);
+        }
+
+        if (spool != null) {
+            Gauge.builder("audit.spool.pending", spool, AuditSpool::getPendingEvents)
+                .description("Audit events waiting in the disk spool")
+                .register(registry);
+            FunctionCounter.builder("audit.spool.rejected", spool, AuditSpool::getRejectedEvents)
+                .description("Audit events lost because the spool was full")
+                .register(registry);
+        }
+
+        if (sampler != null) {
+            // Un compteur par règle, enregistré au premier abandon: la compensation se fait par règle
+            sampler.onDropCounter(counter ->
+                FunctionCounter.builder("audit.sampling.dropped", counter.count(), LongAdder::sum)
+                    .description("Audit events dropped by sampling rules or adaptive load shedding")
+                    .tag("reason", counter.reason())
+                    .tag("rule", counter.rule())
+                    .tag("entity", counter.entity())
+                    .tag("action", counter.action())
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.crm_bancaire.common.audit.metrics;
+
+/**
+ * Stratégie qui a fourni l'entity ID d'un événement @Auditable.
+ */
+public enum EntityIdStrategy {
+    /**
+     * AuditContextHolder.setEntityId()
+     */
+    CONTEXT,
+
+    /**
+     * entityIdExpression (SpEL)
+     */
+    EXPRESSION,
+
+    /**
+     * Accesseur du résultat (@AuditId, getId(), champ id...)
+     */
+    ACCESSOR,
+
+    /**
+     * Fallback toString() du résultat
+     */
+    TO_STRING,
+
+    /**
+     * Aucun ID trouvé
+     */
+    NONE
+}
@@ -0,0 +1,41 @@
+package com.crm_bancaire.common.audit.metrics;
+
+/**
+ * Devenir d'un événement d'audit dans le pipeline de publication.
+ */
+public enum EventOutcome {
+    /**
+     * Accepté par le binder
+     */
+    SENT,
+
+    /**
+     * Refusé par le binder, sans spool pour le conserver
+     */
+    FAILED,
+
+    /**
+     * Écrit dans le spool disque pour être republié
+     */
+    SPOOLED,
+
+    /**
+     * Écrit dans le logger de fallback (circuit ouvert sans spool)
+     */
+    LOGGED,
+
+    /**
+     * Abandonné (fallback DROP du circuit breaker, spool plein)
+     */
+    DROPPED,
+
+    /**
+     * Écarté par l'échantillonnage ou le délestage
+     */
+    SAMPLED,
+
+    /**
+     * Abandonné au rollback de la transaction (politique DISCARD)
+     */
+    ROLLED_BACK
+}
@@ -0,0 +1,87 @@
+package com.crm_bancaire.common.audit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implémentation Micrometer de {@link AuditMetrics}.
+ *
+ * Métriques publiées:
+ * - audit.aspect.overhead (timer, tags entity/action)
+ * - audit.entity.id.extraction (timer, tag strategy)
+ * - audit.send (timer, tags destination/result)
+ * - audit.events (counter, tags entity/action/status/destination/outcome)
+ *
+ * Les meters sont mis en cache par combinaison de tags: l'enregistrement auprès du
+ * registry n'a lieu qu'à la première occurrence.
+ */
+public class MicrometerAuditMetrics implements AuditMetrics {
+
+    private record AspectKey(String entity, String action) {
+    }
+
+    private record SendKey(String destination, boolean success) {
+    }
+
+    private record OutcomeKey(String entity, String action, String status, String destination, EventOutcome outcome) {
+    }
+
+    private final MeterRegistry registry;
+    private final Map<AspectKey, Timer> aspectTimers = new ConcurrentHashMap<>();
+    private final Map<EntityIdStrategy, Timer> extractionTimers = new ConcurrentHashMap<>();
+    private final Map<SendKey, Timer> sendTimers = new ConcurrentHashMap<>();
+    private final Map<OutcomeKey, Counter> outcomeCounters = new ConcurrentHashMap<>();
+
+    public MicrometerAuditMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void recordAspectOverhead(String entity, String action, long nanos) {
+        aspectTimers.computeIfAbsent(new AspectKey(entity, action), key -> Timer.builder("audit.aspect.overhead")
+                .description("Time added by the audit aspect to @Auditable methods")
+                .tag("entity", key.entity())
+                .tag("action", key.action())
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordEntityIdExtraction(EntityIdStrategy strategy, long nanos) {
+        extractionTimers.computeIfAbsent(strategy, key -> Timer.builder("audit.entity.id.extraction")
+                .description("Entity ID extraction, by winning strategy")
+                .tag("strategy", key.name().toLowerCase(Locale.ROOT))
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSend(String destination, boolean success, long nanos) {
+        sendTimers.computeIfAbsent(new SendKey(destination, success), key -> Timer.builder("audit.send")
+                .description("StreamBridge send of an audit event or batch")
+                .tag("destination", key.destination())
+                .tag("result", key.success() ? "success" : "failure")
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordOutcome(String entity, String action, String status, String destination, EventOutcome outcome) {
+        outcomeCounters.computeIfAbsent(new OutcomeKey(entity, action, status, destination, outcome),
+                key -> Counter.builder("audit.events")
+                    .description("Audit events by outcome")
+                    .tag("entity", String.valueOf(key.entity()))
+                    .tag("action", String.valueOf(key.action()))
+                    .tag("status", String.valueOf(key.status()))
+                    .tag("destination", key.destination() != null ? key.destination() : "none")
+                    .tag("outcome", key.outcome().name().toLowerCase(Locale.ROOT))
+                    .register(registry))
+            .increment();
+    }
+}
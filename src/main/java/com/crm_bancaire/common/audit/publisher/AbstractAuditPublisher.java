@@ -1,14 +1,30 @@
 package com.crm_bancaire.common.audit.publisher;
 
+import com.crm_bancaire.common.audit.context.AuditScope;
+import com.crm_bancaire.common.audit.dto.AuditActor;
 import com.crm_bancaire.common.audit.dto.AuditEvent;
 import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.crm_bancaire.common.audit.error.ErrorDeduplicator;
+import com.crm_bancaire.common.audit.error.ErrorFingerprinter;
 import com.crm_bancaire.common.audit.extractor.ActorInfoExtractor;
+import com.crm_bancaire.common.audit.extractor.ActorProvider;
+import com.crm_bancaire.common.audit.id.EventIdGenerator;
+import com.crm_bancaire.common.audit.integrity.AuditHashChain;
+import com.crm_bancaire.common.audit.limits.AuditPayloadLimits;
+import com.crm_bancaire.common.audit.metrics.AuditMetrics;
+import com.crm_bancaire.common.audit.metrics.EventOutcome;
+import com.crm_bancaire.common.audit.routing.AuditRouter;
+import com.crm_bancaire.common.audit.sampling.AuditSampler;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Implémentation abstraite de base pour AuditPublisher.
@@ -18,6 +34,11 @@ import java.util.UUID;
 @Slf4j
 public abstract class AbstractAuditPublisher implements AuditPublisher {
 
+    /**
+     * Tag de destination des métriques d'un événement sans destination (entité absente en per-entity)
+     */
+    public static final String UNROUTED_DESTINATION = "unrouted";
+
     @Value("${spring.application.name:unknown-service}")
     private String serviceName;
 
@@ -27,6 +48,36 @@ public abstract class AbstractAuditPublisher implements AuditPublisher {
     @Value("${common.audit.unified-destination:audit.events}")
     private String unifiedDestination;  // Nom de la queue unique
 
+    @Autowired(required = false)
+    private ActorProvider actorProvider = ActorInfoExtractor.defaultProvider();
+
+    @Autowired(required = false)
+    private EventIdGenerator eventIdGenerator = EventIdGenerator.timeOrdered();
+
+    @Autowired(required = false)
+    private AuditSampler sampler;
+
+    @Autowired(required = false)
+    private AuditMetrics metrics = AuditMetrics.NOOP;
+
+    @Autowired(required = false)
+    private ErrorFingerprinter errorFingerprinter = new ErrorFingerprinter(ErrorFingerprinter.DEFAULT_FRAMES);
+
+    @Autowired(required = false)
+    private AuditPayloadLimits payloadLimits;
+
+    private ErrorDeduplicator errorDeduplicator;
+
+    @Autowired(required = false)
+    private AuditRouter router = new AuditRouter(List.of());
+
+    private volatile boolean routerStarted;
+
+    @Autowired(required = false)
+    private AuditHashChain hashChain;
+
+    private volatile boolean hashChainStarted;
+
     @Override
     public void success(String entity, String entityId, String action) {
         success(entity, entityId, action, null);
@@ -34,39 +85,249 @@ public abstract class AbstractAuditPublisher implements AuditPublisher {
 
     @Override
     public void success(String entity, String entityId, String action, Map<String, Object> metadata) {
-        AuditEvent.AuditEventBuilder builder = AuditEvent.builder()
-            .eventId(UUID.randomUUID().toString())
+        success(entity, entityId, action, metadata, null);
+    }
+
+    @Override
+    public void success(String entity, String entityId, String action, Map<String, Object> metadata, AuditActor actor) {
+        if (isSampledOut(entity, action)) {
+            return;
+        }
+
+        AuditEvent.AuditEventBuilder builder = successBuilder(entity, entityId, action, metadata, Instant.now());
+        fillActor(builder, actor);
+        publish(builder.build());
+    }
+
+    /**
+     * Construit tous les événements avant de les publier via {@link #publishAll(Collection)}:
+     * acteur et horodatage sont résolus une seule fois, l'échantillonnage reste appliqué par événement.
+     */
+    @Override
+    public void success(String entity, Collection<String> entityIds, String action,
+                        Map<String, Object> metadata, AuditActor actor) {
+        if (entityIds.isEmpty()) {
+            return;
+        }
+        AuditActor resolved = actor != null ? actor : currentActor();
+        Instant timestamp = Instant.now();
+
+        List<AuditEvent> events = new ArrayList<>(entityIds.size());
+        for (String entityId : entityIds) {
+            if (isSampledOut(entity, action)) {
+                continue;
+            }
+            AuditEvent.AuditEventBuilder builder = successBuilder(entity, entityId, action, metadata, timestamp);
+            ActorInfoExtractor.fillActorInfo(builder, resolved);
+            events.add(builder.build());
+        }
+        if (!events.isEmpty()) {
+            publishAll(events);
+        }
+    }
+
+    private boolean isSampledOut(String entity, String action) {
+        if (sampler != null && !sampler.sample(entity, action, AuditStatus.SUCCESS)) {
+            metrics.recordOutcome(entity, action, AuditStatus.SUCCESS.name(), null, EventOutcome.SAMPLED);
+            return true;
+        }
+        return false;
+    }
+
+    private AuditEvent.AuditEventBuilder successBuilder(String entity, String entityId, String action,
+                                                        Map<String, Object> metadata, Instant timestamp) {
+        return AuditEvent.builder()
+            .eventId(eventIdGenerator.nextId())
             .entity(entity)
             .entityId(entityId)
             .action(action)
             .status(AuditStatus.SUCCESS)
-            .timestamp(Instant.now())
+            .timestamp(timestamp)
             .source(serviceName)
-            .metadata(metadata);
-
-        ActorInfoExtractor.fillActorInfo(builder);
-        publish(builder.build());
+            .metadata(metadata)
+            .correlationId(currentCorrelationId());
     }
 
     @Override
     public void failed(String entity, String entityId, String action, Throwable error) {
-        failed(entity, entityId, action, error != null ? error.getMessage() : "Unknown error");
+        failed(entity, entityId, action, error, null);
+    }
+
+    @Override
+    public void failed(String entity, String entityId, String action, Throwable error, AuditActor actor) {
+        failed(entity, entityId, action, error != null ? error.getMessage() : "Unknown error",
+            error != null ? errorFingerprinter.fingerprint(error) : null, actor);
     }
 
     @Override
     public void failed(String entity, String entityId, String action, String errorMessage) {
+        failed(entity, entityId, action, errorMessage, null, null);
+    }
+
+    private void failed(String entity, String entityId, String action, String errorMessage,
+                        String errorFingerprint, AuditActor actor) {
         AuditEvent.AuditEventBuilder builder = AuditEvent.builder()
-            .eventId(UUID.randomUUID().toString())
+            .eventId(eventIdGenerator.nextId())
             .entity(entity)
             .entityId(entityId)
             .action(action)
             .status(AuditStatus.FAILED)
             .errorMessage(errorMessage)
+            .errorFingerprint(errorFingerprint)
             .timestamp(Instant.now())
-            .source(serviceName);
+            .source(serviceName)
+            .correlationId(currentCorrelationId());
 
-        ActorInfoExtractor.fillActorInfo(builder);
-        publish(builder.build());
+        fillActor(builder, actor);
+        AuditEvent event = builder.build();
+        if (errorDeduplicator != null && !errorDeduplicator.admit(event)) {
+            return;
+        }
+        publish(event);
+    }
+
+    /**
+     * Active le regroupement des échecs identiques; les récapitulatifs passent par {@link #publish(AuditEvent)}.
+     */
+    @Autowired(required = false)
+    public void setErrorDeduplicator(ErrorDeduplicator errorDeduplicator) {
+        this.errorDeduplicator = errorDeduplicator;
+        errorDeduplicator.start(this::publish);
+    }
+
+    /**
+     * Publie les récapitulatifs en attente du regroupement des échecs (à appeler à l'arrêt, avant de
+     * fermer le canal d'envoi).
+     */
+    protected void flushErrorDeduplicator() {
+        if (errorDeduplicator != null) {
+            errorDeduplicator.shutdown();
+        }
+    }
+
+    /**
+     * Applique les plafonds de taille (errorMessage, metadata) s'ils sont configurés.
+     */
+    protected void enforceLimits(AuditEvent event) {
+        if (payloadLimits != null) {
+            payloadLimits.apply(event);
+        }
+    }
+
+    /**
+     * Mode intégrité: chaîne l'événement au moment où il entre dans le pipeline d'envoi
+     * (après les plafonds de taille, hors transaction annulée).
+     *
+     * @return Checkpoint à publier après l'événement (déjà chaîné), ou null
+     */
+    protected AuditEvent chain(AuditEvent event) {
+        return hashChain != null ? hashChain().append(event) : null;
+    }
+
+    /**
+     * Chaîne les événements dans l'ordre.
+     *
+     * @return Les événements, suivis de chaque checkpoint dû à sa place
+     */
+    protected List<AuditEvent> chain(List<AuditEvent> events) {
+        if (hashChain == null) {
+            return events;
+        }
+        List<AuditEvent> chained = new ArrayList<>(events.size() + 1);
+        for (AuditEvent event : events) {
+            chained.add(event);
+            AuditEvent checkpoint = hashChain().append(event);
+            if (checkpoint != null) {
+                chained.add(checkpoint);
+            }
+        }
+        return chained;
+    }
+
+    /**
+     * Publie le checkpoint des derniers événements chaînés (à l'arrêt, avant de fermer le canal d'envoi).
+     *
+     * @param sink Envoi sans nouveau chaînage
+     */
+    protected void flushHashChain(Consumer<AuditEvent> sink) {
+        if (hashChain != null && hashChainStarted) {
+            AuditEvent checkpoint = hashChain.flush();
+            if (checkpoint != null) {
+                sink.accept(checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Dans une {@link AuditScope}, l'acteur est résolu une seule fois pour toute la portée.
+     */
+    @Override
+    public AuditActor currentActor() {
+        AuditScope scope = AuditScope.current();
+        return scope != null ? scope.actor(this::resolveActor) : resolveActor();
+    }
+
+    private AuditActor resolveActor() {
+        try {
+            return actorProvider.currentActor();
+        } catch (Exception e) {
+            log.warn("Failed to extract actor info from {}: {}", actorProvider.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Acteur déjà résolu s'il est fourni, sinon celui de la portée ou du thread courant.
+     */
+    private void fillActor(AuditEvent.AuditEventBuilder builder, AuditActor actor) {
+        if (actor != null) {
+            ActorInfoExtractor.fillActorInfo(builder, actor);
+        } else if (AuditScope.current() != null) {
+            ActorInfoExtractor.fillActorInfo(builder, currentActor());
+        } else {
+            ActorInfoExtractor.fillActorInfo(builder, actorProvider);
+        }
+    }
+
+    private static String currentCorrelationId() {
+        AuditScope scope = AuditScope.current();
+        return scope != null ? scope.getCorrelationId() : null;
+    }
+
+    protected AuditMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Compte le devenir d'un événement.
+     *
+     * @param destination Destination déjà calculée, ou null pour la déduire de l'entité
+     */
+    protected void recordOutcome(AuditEvent event, String destination, EventOutcome outcome) {
+        if (metrics == AuditMetrics.NOOP) {
+            return;
+        }
+        metrics.recordOutcome(event.getEntity(), event.getAction(),
+            event.getStatus() != null ? event.getStatus().name() : null,
+            destination != null ? destination : destinationTag(event), outcome);
+    }
+
+    /**
+     * @return La destination de l'événement, ou {@value #UNROUTED_DESTINATION} s'il n'en a pas
+     */
+    private String destinationTag(AuditEvent event) {
+        try {
+            return getDestinationName(event);
+        } catch (IllegalArgumentException e) {
+            return UNROUTED_DESTINATION;
+        }
+    }
+
+    /**
+     * @return Générateur des identifiants d'événement (et de lot)
+     */
+    protected EventIdGenerator getEventIdGenerator() {
+        return eventIdGenerator;
     }
 
     /**
@@ -78,11 +339,60 @@ public abstract class AbstractAuditPublisher implements AuditPublisher {
      *
      * Mode "unified": Une seule queue pour tous
      *   - Tous → "audit.events" (configurable)
+     *
+     * Les règles de routage ne s'appliquent pas ici: voir {@link #getDestinationName(AuditEvent)}.
      */
-    protected String getDestinationName(String entity) {
+    public String getDestinationName(String entity) {
         if ("unified".equalsIgnoreCase(destinationMode)) {
             return unifiedDestination;
         }
+        if (entity == null) {
+            throw new IllegalArgumentException("Audit event has no entity: no per-entity destination");
+        }
         return entity.toLowerCase() + ".events";
     }
+
+    /**
+     * Destination d'un événement: première règle de routage qui correspond à son entité, son action
+     * et son statut, sinon {@link #getDestinationName(String)}. Résolue par la table compilée
+     * de l'{@link AuditRouter}.
+     */
+    public String getDestinationName(AuditEvent event) {
+        return getDestinationName(event.getEntity(), event.getAction(), event.getStatus());
+    }
+
+    public String getDestinationName(String entity, String action, AuditStatus status) {
+        return router().destination(entity, action, status);
+    }
+
+    /**
+     * Pré-calcule le routage d'un couple (entity, action) connu au démarrage.
+     */
+    public void prepareRoute(String entity, String action) {
+        router().prepare(entity, action);
+    }
+
+    private AuditRouter router() {
+        if (!routerStarted) {
+            synchronized (this) {
+                if (!routerStarted) {
+                    router.start(serviceName, this::getDestinationName);
+                    routerStarted = true;
+                }
+            }
+        }
+        return router;
+    }
+
+    private AuditHashChain hashChain() {
+        if (!hashChainStarted) {
+            synchronized (this) {
+                if (!hashChainStarted) {
+                    hashChain.start(serviceName, eventIdGenerator);
+                    hashChainStarted = true;
+                }
+            }
+        }
+        return hashChain;
+    }
 }
@@ -0,0 +1,148 @@
+package com.crm_bancaire.common.audit.publisher;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.crm_bancaire.common.audit.dto.AuditHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Construit les messages publiés avec les headers {@link AuditHeaders}: les consommateurs
+ * peuvent filtrer et router sans désérialiser le payload, et les binders partitionnés
+ * (Kafka) conservent l'ordre par entité grâce à la clé de partition.
+ *
+ * La clé est "entity:entityId" (même regroupement que les voies de
+ * {@link com.crm_bancaire.common.audit.async.ShardedAuditDispatcher}).
+ *
+ * Un lot ne peut porter qu'une clé. Avec keyShards > 0 (utile seulement avec le batching), la clé
+ * de chaque message (événement ou lot) est celle du groupe de son entité, "shard:N" selon le hash de
+ * "entity:entityId", et {@link #split(List)} découpe les lots par groupe avant l'envoi: une entité a
+ * toujours la même clé, qu'elle soit publiée seule ou en lot, donc la même partition, et ses événements
+ * restent dans l'ordre. Le nombre de clés distinctes (donc de partitions utiles) est limité à keyShards;
+ * plus il est grand, plus les lots mixtes sont découpés en petits messages.
+ */
+public class AuditMessageHeaders {
+
+    public static final int DEFAULT_KEY_SHARDS = 0;
+
+    private final boolean kafkaKey;
+    private final int keyShards;
+
+    /**
+     * @param kafkaKey Poser aussi la clé en header {@link AuditHeaders#KAFKA_MESSAGE_KEY} (binder Kafka)
+     */
+    public AuditMessageHeaders(boolean kafkaKey) {
+        this(kafkaKey, DEFAULT_KEY_SHARDS);
+    }
+
+    /**
+     * @param kafkaKey  Poser aussi la clé en header {@link AuditHeaders#KAFKA_MESSAGE_KEY} (binder Kafka)
+     * @param keyShards Nombre de groupes de clés (0 = clé "entity:entityId", lots mixtes sans clé)
+     */
+    public AuditMessageHeaders(boolean kafkaKey, int keyShards) {
+        this.kafkaKey = kafkaKey;
+        this.keyShards = Math.max(0, keyShards);
+    }
+
+    public Message<AuditEvent> toMessage(AuditEvent event) {
+        MessageBuilder<AuditEvent> builder = MessageBuilder.withPayload(event)
+            .setHeader(AuditHeaders.PAYLOAD_TYPE, AuditHeaders.PAYLOAD_EVENT)
+            .setHeader(AuditHeaders.EVENT_ID, event.getEventId())
+            .setHeader(AuditHeaders.ENTITY, event.getEntity())
+            .setHeader(AuditHeaders.ACTION, event.getAction())
+            .setHeader(AuditHeaders.STATUS, event.getStatus() != null ? event.getStatus().name() : null)
+            .setHeader(AuditHeaders.SOURCE, event.getSource());
+        setKey(builder, key(event));
+        return builder.build();
+    }
+
+    /**
+     * Les headers d'entité, d'action, de statut et de source ne sont posés que s'ils sont communs
+     * à tous les événements du lot, de même que la clé (toujours le cas pour un lot découpé par
+     * {@link #split(List)}).
+     */
+    public Message<AuditEventBatch> toMessage(AuditEventBatch batch) {
+        List<AuditEvent> events = batch.getEvents();
+        MessageBuilder<AuditEventBatch> builder = MessageBuilder.withPayload(batch)
+            .setHeader(AuditHeaders.PAYLOAD_TYPE, AuditHeaders.PAYLOAD_BATCH)
+            .setHeader(AuditHeaders.EVENT_COUNT, events.size())
+            .setHeader(AuditHeaders.EVENT_ID, batch.getBatchId())
+            .setHeader(AuditHeaders.ENTITY, common(events, AuditEvent::getEntity))
+            .setHeader(AuditHeaders.ACTION, common(events, AuditEvent::getAction))
+            .setHeader(AuditHeaders.STATUS, common(events, e -> e.getStatus() != null ? e.getStatus().name() : null))
+            .setHeader(AuditHeaders.SOURCE, common(events, AuditEvent::getSource));
+        setKey(builder, common(events, this::key));
+        return builder.build();
+    }
+
+    /**
+     * Découpe un lot en sous-lots dont tous les événements partagent le même groupe de clés,
+     * en conservant l'ordre des événements dans chaque sous-lot.
+     *
+     * @return Le lot lui-même s'il n'y a qu'un groupe
+     */
+    public List<List<AuditEvent>> split(List<AuditEvent> events) {
+        if (keyShards == 0 || events.size() < 2) {
+            return List.of(events);
+        }
+        Map<String, List<AuditEvent>> groups = new LinkedHashMap<>();
+        for (AuditEvent event : events) {
+            groups.computeIfAbsent(key(event), k -> new ArrayList<>()).add(event);
+        }
+        return groups.size() == 1 ? List.of(events) : new ArrayList<>(groups.values());
+    }
+
+    /**
+     * @return "entity:entityId", ou "entity" si l'événement n'a pas d'ID
+     */
+    public static String partitionKey(AuditEvent event) {
+        if (event.getEntity() == null) {
+            return null;
+        }
+        return event.getEntityId() != null ? event.getEntity() + ":" + event.getEntityId() : event.getEntity();
+    }
+
+    /**
+     * @return "shard:N" selon le hash de la clé de partition (ou la clé elle-même sans groupes),
+     *         null si l'événement n'a pas d'entité
+     */
+    private String key(AuditEvent event) {
+        String key = partitionKey(event);
+        if (key == null || keyShards == 0) {
+            return key;
+        }
+        return "shard:" + Math.floorMod(key.hashCode(), keyShards);
+    }
+
+    private void setKey(MessageBuilder<?> builder, String key) {
+        if (key == null) {
+            return;
+        }
+        builder.setHeader(AuditHeaders.PARTITION_KEY, key);
+        if (kafkaKey) {
+            // Le binder Kafka sérialise la clé avec ByteArraySerializer par défaut
+            builder.setHeader(AuditHeaders.KAFKA_MESSAGE_KEY, key.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String common(List<AuditEvent> events, Function<AuditEvent, String> value) {
+        if (events.isEmpty()) {
+            return null;
+        }
+        String first = value.apply(events.get(0));
+        for (int i = 1; i < events.size(); i++) {
+            if (!Objects.equals(first, value.apply(events.get(i)))) {
+                return null;
+            }
+        }
+        return first;
+    }
+}
@@ -1,7 +1,9 @@
 package com.crm_bancaire.common.audit.publisher;
 
+import com.crm_bancaire.common.audit.dto.AuditActor;
 import com.crm_bancaire.common.audit.dto.AuditEvent;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -18,6 +20,17 @@ public interface AuditPublisher {
      */
     void publish(AuditEvent event);
 
+    /**
+     * Publie plusieurs événements d'audit en une fois.
+     *
+     * Les implémentations peuvent regrouper les envois (un message par lot et par destination).
+     *
+     * @param events Les événements à publier, dans l'ordre
+     */
+    default void publishAll(Collection<AuditEvent> events) {
+        events.forEach(this::publish);
+    }
+
     /**
      * Publie un événement d'audit de succès.
      *
@@ -37,6 +50,31 @@ public interface AuditPublisher {
      */
     void success(String entity, String entityId, String action, Map<String, Object> metadata);
 
+    /**
+     * Publie un événement de succès par entité (imports, traitements par lots).
+     *
+     * L'acteur et les métadonnées sont résolus une seule fois pour tout l'appel.
+     *
+     * @param entity Type d'entité
+     * @param entityIds IDs des entités
+     * @param action Action effectuée
+     */
+    default void success(String entity, Collection<String> entityIds, String action) {
+        success(entity, entityIds, action, null);
+    }
+
+    /**
+     * Publie un événement de succès par entité, avec les mêmes métadonnées.
+     *
+     * @param entity Type d'entité
+     * @param entityIds IDs des entités
+     * @param action Action effectuée
+     * @param metadata Métadonnées partagées par tous les événements
+     */
+    default void success(String entity, Collection<String> entityIds, String action, Map<String, Object> metadata) {
+        success(entity, entityIds, action, metadata, null);
+    }
+
     /**
      * Publie un événement d'audit d'échec.
      *
@@ -56,4 +94,47 @@ public interface AuditPublisher {
      * @param errorMessage Message d'erreur
      */
     void failed(String entity, String entityId, String action, String errorMessage);
+
+    /**
+     * Résout l'acteur courant sur le thread appelant.
+     *
+     * Utilisé pour les méthodes asynchrones (Mono, Flux, CompletableFuture): l'acteur est
+     * capturé à l'appel, puis transmis à l'événement publié à la complétion, sur un autre thread.
+     *
+     * @return L'acteur courant ou null
+     */
+    default AuditActor currentActor() {
+        return null;
+    }
+
+    /**
+     * Publie un événement d'audit de succès pour un acteur déjà résolu.
+     *
+     * @param actor Acteur capturé via {@link #currentActor()} (null = acteur du thread courant)
+     */
+    default void success(String entity, String entityId, String action, Map<String, Object> metadata, AuditActor actor) {
+        success(entity, entityId, action, metadata);
+    }
+
+    /**
+     * Publie un événement de succès par entité pour un acteur déjà résolu.
+     *
+     * @param actor Acteur capturé via {@link #currentActor()} (null = acteur du thread courant)
+     */
+    default void success(String entity, Collection<String> entityIds, String action,
+                         Map<String, Object> metadata, AuditActor actor) {
+        AuditActor resolved = actor != null ? actor : currentActor();
+        for (String entityId : entityIds) {
+            success(entity, entityId, action, metadata, resolved);
+        }
+    }
+
+    /**
+     * Publie un événement d'audit d'échec pour un acteur déjà résolu.
+     *
+     * @param actor Acteur capturé via {@link #currentActor()} (null = acteur du thread courant)
+     */
+    default void failed(String entity, String entityId, String action, Throwable error, AuditActor actor) {
+        failed(entity, entityId, action, error);
+    }
 }
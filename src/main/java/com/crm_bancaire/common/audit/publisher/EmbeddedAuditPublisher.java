@@ -0,0 +1,79 @@
+package com.crm_bancaire.common.audit.publisher;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.metrics.EventOutcome;
+import com.crm_bancaire.common.audit.store.AuditEventStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Implémentation d'AuditPublisher qui écrit les événements dans un {@link AuditEventStore} local,
+ * sans broker: pour les services isolés, les tests d'intégration ou les environnements sans messaging.
+ *
+ * L'appel rend la main quand l'événement est écrit; les écritures concurrentes sont regroupées
+ * par le store (group commit). Le cycle de vie du store n'est pas géré ici.
+ */
+@Slf4j
+public class EmbeddedAuditPublisher extends AbstractAuditPublisher implements DisposableBean {
+
+    private static final String DESTINATION = "store";
+
+    private final AuditEventStore store;
+
+    public EmbeddedAuditPublisher(AuditEventStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void publish(AuditEvent event) {
+        enforceLimits(event);
+        AuditEvent checkpoint = chain(event);
+        complete(event, store.append(event));
+        if (checkpoint != null) {
+            complete(checkpoint, store.append(checkpoint));
+        }
+    }
+
+    /**
+     * Dépose tous les événements puis attend leur écriture: ils partagent les mêmes commits.
+     */
+    @Override
+    public void publishAll(Collection<AuditEvent> events) {
+        events.forEach(this::enforceLimits);
+        List<AuditEvent> chained = chain(List.copyOf(events));
+        List<CompletableFuture<Void>> writes = new ArrayList<>(chained.size());
+        for (AuditEvent event : chained) {
+            writes.add(store.append(event));
+        }
+        for (int i = 0; i < chained.size(); i++) {
+            complete(chained.get(i), writes.get(i));
+        }
+    }
+
+    private void complete(AuditEvent event, CompletableFuture<Void> write) {
+        try {
+            write.join();
+            recordOutcome(event, DESTINATION, EventOutcome.SENT);
+        } catch (CompletionException e) {
+            log.error("❌ Failed to store audit event {}:{}: {}",
+                event.getEntity(), event.getAction(), e.getCause().getMessage());
+            recordOutcome(event, DESTINATION, EventOutcome.FAILED);
+        }
+    }
+
+    public AuditEventStore getStore() {
+        return store;
+    }
+
+    @Override
+    public void destroy() {
+        flushErrorDeduplicator();
+        flushHashChain(checkpoint -> complete(checkpoint, store.append(checkpoint)));
+    }
+}
@@ -1,39 +1,510 @@
 package com.crm_bancaire.common.audit.publisher;
 
+import com.crm_bancaire.common.audit.async.AuditDispatcher;
+import com.crm_bancaire.common.audit.batch.AuditEventBatcher;
+import com.crm_bancaire.common.audit.batch.AuditEventSizeEstimator;
+import com.crm_bancaire.common.audit.breaker.AuditCircuitBreaker;
+import com.crm_bancaire.common.audit.breaker.BreakerFallback;
+import com.crm_bancaire.common.audit.context.AuditScope;
 import com.crm_bancaire.common.audit.dto.AuditEvent;
-import lombok.RequiredArgsConstructor;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.crm_bancaire.common.audit.dto.AuditHeaders;
+import com.crm_bancaire.common.audit.metrics.EventOutcome;
+import com.crm_bancaire.common.audit.spool.AuditSpool;
+import com.crm_bancaire.common.audit.spool.AuditSpoolReplayer;
+import com.crm_bancaire.common.audit.transaction.TransactionalAuditBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implémentation d'AuditPublisher utilisant Spring Cloud Stream (RabbitMQ/Kafka).
  *
  * Utilise StreamBridge pour publier les événements de manière dynamique
  * sans avoir à déclarer les bindings dans application.yml.
+ *
+ * Étapes optionnelles du pipeline (construites via {@link #builder()}):
+ * - {@link AuditDispatcher}: l'envoi est délégué à des threads dédiés, le thread
+ *   appelant ne fait que déposer l'événement dans une file
+ * - {@link AuditEventBatcher}: les événements sont regroupés par destination
+ *   et publiés sous forme d'{@link AuditEventBatch}
+ * - {@link AuditSpool}: les événements non publiés (broker indisponible, file pleine)
+ *   sont écrits sur disque puis republiés dans l'ordre par un {@link AuditSpoolReplayer}
+ * - {@link AuditCircuitBreaker}: quand le broker est lent ou en échec, les envois sont
+ *   court-circuités vers le {@link BreakerFallback} configuré au lieu de bloquer l'appelant
+ * - contentType: format des messages publiés (JSON par défaut, ou
+ *   {@link com.crm_bancaire.common.audit.codec.AuditBinaryCodec#MIME_TYPE})
+ * - {@link TransactionalAuditBuffer}: les événements publiés dans une transaction Spring
+ *   sont retenus jusqu'au commit, puis publiés ensemble
+ * - bulkMaxEvents / bulkMaxBytes: taille des lots envoyés immédiatement par
+ *   {@link #publishAll(Collection)} et après commit, quand le batcher est actif sans dispatcher
+ * - coalesceScope: les événements produits dans une {@link AuditScope} sont retenus jusqu'à
+ *   sa fermeture, puis publiés ensemble
+ *
+ * Seul le batcher produit des {@link AuditEventBatch}: sans lui, chaque événement reste un
+ * message, y compris pour les publications groupées.
+ * - {@link AuditMessageHeaders}: les messages portent la clé de partition et les headers
+ *   {@link AuditHeaders} (entité, action, statut...) lisibles sans désérialiser le payload
+ *
+ * Ces étapes démarrent dans {@link #afterPropertiesSet()}: hors contexte Spring, l'appeler avant
+ * la première publication.
  */
 @Slf4j
-@RequiredArgsConstructor
-public class StreamAuditPublisher extends AbstractAuditPublisher {
+public class StreamAuditPublisher extends AbstractAuditPublisher implements InitializingBean, DisposableBean {
+
+    private static final int DEFAULT_BULK_MAX_EVENTS = 100;
+    private static final long DEFAULT_BULK_MAX_BYTES = 256 * 1024;
+
+    private static final Logger FALLBACK_LOG = LoggerFactory.getLogger("common.audit.fallback");
+    private static final ObjectMapper FALLBACK_MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
     private final StreamBridge streamBridge;
+    private final AuditDispatcher dispatcher;
+    private final AuditEventBatcher batcher;
+    private final AuditSpool spool;
+    private final AuditSpoolReplayer replayer;
+    private final AuditCircuitBreaker breaker;
+    private final BreakerFallback breakerFallback;
+    private final MimeType contentType;
+    private final TransactionalAuditBuffer transactionBuffer;
+    private final int bulkMaxEvents;
+    private final long bulkMaxBytes;
+    private final boolean coalesceScope;
+    private final AuditMessageHeaders messageHeaders;
+    private final AtomicLong breakerDroppedEvents = new AtomicLong();
+
+    /**
+     * Résultat d'une tentative d'envoi au binder
+     */
+    private enum SendOutcome {
+        SENT, FAILED, REJECTED
+    }
 
+    public StreamAuditPublisher(StreamBridge streamBridge) {
+        this(streamBridge, null, null, null, null, null, null, null, null, 0, 0, false, null);
+    }
+
+    @Builder
+    public StreamAuditPublisher(StreamBridge streamBridge, AuditDispatcher dispatcher, AuditEventBatcher batcher,
+                                AuditSpool spool, AuditSpoolReplayer replayer,
+                                AuditCircuitBreaker breaker, BreakerFallback breakerFallback,
+                                MimeType contentType, TransactionalAuditBuffer transactionBuffer,
+                                int bulkMaxEvents, long bulkMaxBytes, boolean coalesceScope,
+                                AuditMessageHeaders messageHeaders) {
+        this.streamBridge = streamBridge;
+        this.dispatcher = dispatcher;
+        this.batcher = batcher;
+        this.spool = spool;
+        this.replayer = replayer;
+        this.breaker = breaker;
+        this.breakerFallback = breakerFallback != null ? breakerFallback : BreakerFallback.SPOOL;
+        this.contentType = contentType;
+        this.transactionBuffer = transactionBuffer;
+        this.bulkMaxEvents = bulkMaxEvents > 0 ? bulkMaxEvents : DEFAULT_BULK_MAX_EVENTS;
+        this.bulkMaxBytes = bulkMaxBytes > 0 ? bulkMaxBytes : DEFAULT_BULK_MAX_BYTES;
+        this.coalesceScope = coalesceScope;
+        this.messageHeaders = messageHeaders;
+    }
+
+    /**
+     * Démarre les étapes du pipeline une fois les propriétés injectées (nom du service, mode de
+     * destination, routage): le replayer peut envoyer dès son démarrage un backlog laissé par un crash.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (transactionBuffer != null) {
+            transactionBuffer.start(this::publishGrouped,
+                event -> recordOutcome(event, null, EventOutcome.ROLLED_BACK));
+        }
+        if (replayer != null) {
+            replayer.start(event -> transmit(getDestinationName(event), event) == SendOutcome.SENT);
+        }
+        if (batcher != null) {
+            batcher.start(this::sendBatch);
+        }
+        if (dispatcher != null) {
+            dispatcher.start(this::deliver, spool != null ? this::spool : this::deliver);
+        }
+    }
+
+    /**
+     * Ne lève jamais d'exception: une erreur (routage, chaînage, envoi) est journalisée et
+     * l'événement compté en échec, l'opération métier n'est pas interrompue.
+     */
     @Override
     public void publish(AuditEvent event) {
         try {
-            String destination = getDestinationName(event.getEntity());
+            enforceLimits(event);
+            if (isDeferred(event)) {
+                return;
+            }
+            AuditEvent checkpoint = chain(event);
+            publishNowSafely(event);
+            if (checkpoint != null) {
+                publishNowSafely(checkpoint);
+            }
+        } catch (Exception e) {
+            onPublishError(event, e);
+        }
+    }
 
-            boolean sent = streamBridge.send(destination, event);
+    private void publishNowSafely(AuditEvent event) {
+        try {
+            publishNow(event);
+        } catch (Exception e) {
+            onPublishError(event, e);
+        }
+    }
 
-            if (sent) {
-                log.debug("✅ Audit event published: {} {} for {} {}",
-                    event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId());
-            } else {
-                log.error("❌ Failed to publish audit event: {} {} for {} {}",
-                    event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId());
+    private void onPublishError(AuditEvent event, Exception e) {
+        log.error("❌ Failed to publish audit event: {} {} for {} {}: {}",
+            event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId(), e.getMessage(), e);
+        recordOutcome(event, null, EventOutcome.FAILED);
+    }
+
+    /**
+     * Retient l'événement dans la transaction active, sinon dans la portée d'audit (coalescence).
+     *
+     * @return true si l'événement sera publié plus tard
+     */
+    private boolean isDeferred(AuditEvent event) {
+        if (transactionBuffer != null && transactionBuffer.defer(event)) {
+            return true;
+        }
+        if (coalesceScope) {
+            AuditScope scope = AuditScope.current();
+            return scope != null && scope.defer(event, this::publishGrouped);
+        }
+        return false;
+    }
+
+    private void publishNow(AuditEvent event) {
+        if (dispatcher != null) {
+            dispatcher.dispatch(event);
+        } else {
+            deliver(event);
+        }
+    }
+
+    /**
+     * Publie plusieurs événements: ceux d'une transaction ou d'une portée active sont différés comme avec
+     * {@link #publish(AuditEvent)}, les autres sont envoyés par lots (voir {@link #publishGrouped(List)}).
+     */
+    @Override
+    public void publishAll(Collection<AuditEvent> events) {
+        List<AuditEvent> immediate = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            try {
+                enforceLimits(event);
+                if (!isDeferred(event)) {
+                    immediate.add(event);
+                }
+            } catch (Exception e) {
+                onPublishError(event, e);
+            }
+        }
+        if (!immediate.isEmpty()) {
+            try {
+                publishGrouped(immediate);
+            } catch (Exception e) {
+                // Échec du chaînage, avant tout envoi
+                immediate.forEach(event -> onPublishError(event, e));
+            }
+        }
+    }
+
+    /**
+     * Publie un ensemble d'événements (appel groupé, transaction ou portée terminée).
+     *
+     * Avec le batcher et sans dispatcher, les événements sont regroupés par destination et envoyés
+     * tout de suite en lots d'au plus bulkMaxEvents événements / bulkMaxBytes octets estimés, sans
+     * attendre le linger; sinon ils suivent le pipeline habituel (file, lots, ou un message par
+     * événement).
+     */
+    protected void publishGrouped(List<AuditEvent> events) {
+        sendGrouped(chain(events));
+    }
+
+    private void sendGrouped(List<AuditEvent> events) {
+        if (dispatcher != null || batcher == null) {
+            events.forEach(this::publishNowSafely);
+            return;
+        }
+        Map<String, List<AuditEvent>> byDestination = new LinkedHashMap<>();
+        for (AuditEvent event : events) {
+            String destination;
+            try {
+                destination = getDestinationName(event);
+            } catch (Exception e) {
+                onPublishError(event, e);
+                continue;
+            }
+            byDestination.computeIfAbsent(destination, d -> new ArrayList<>()).add(event);
+        }
+        byDestination.forEach(this::sendChunked);
+    }
+
+    private void sendChunked(String destination, List<AuditEvent> events) {
+        int from = 0;
+        long bytes = 0;
+        for (int i = 0; i < events.size(); i++) {
+            int size = AuditEventSizeEstimator.estimate(events.get(i));
+            if (i > from && (i - from >= bulkMaxEvents || bytes + size > bulkMaxBytes)) {
+                sendChunk(destination, events.subList(from, i));
+                from = i;
+                bytes = 0;
             }
+            bytes += size;
+        }
+        sendChunk(destination, events.subList(from, events.size()));
+    }
+
+    private void sendChunk(String destination, List<AuditEvent> chunk) {
+        if (chunk.size() == 1) {
+            send(chunk.get(0));
+        } else {
+            sendBatch(destination, new ArrayList<>(chunk));
+        }
+    }
+
+    /**
+     * Transmet l'événement au lot de sa destination, ou l'envoie directement sans batching.
+     */
+    protected void deliver(AuditEvent event) {
+        if (batcher != null) {
+            batcher.add(getDestinationName(event), event);
+        } else {
+            send(event);
+        }
+    }
+
+    /**
+     * Envoie l'événement au broker sur le thread courant.
+     *
+     * Tant que le spool contient des événements en attente, les nouveaux événements y sont
+     * ajoutés à la suite pour conserver l'ordre de publication.
+     */
+    protected void send(AuditEvent event) {
+        if (spool != null && spool.hasBacklog()) {
+            spool(event);
+            return;
+        }
+        String destination = getDestinationName(event);
+        SendOutcome outcome = transmit(destination, event);
+        switch (outcome) {
+            case SENT -> recordOutcome(event, destination, EventOutcome.SENT);
+            case FAILED -> {
+                if (spool != null) {
+                    spool(event);
+                } else {
+                    recordOutcome(event, destination, EventOutcome.FAILED);
+                }
+            }
+            case REJECTED -> fallback(event);
+        }
+    }
+
+    /**
+     * Envoie un lot d'événements de la même destination dans un seul message.
+     * En cas d'échec, chaque événement du lot est écrit dans le spool.
+     *
+     * Avec les headers de routage, le lot est d'abord découpé par groupe de clés de partition
+     * pour que chaque message porte une clé (voir {@link AuditMessageHeaders#split(List)}).
+     */
+    protected void sendBatch(String destination, List<AuditEvent> events) {
+        if (messageHeaders != null) {
+            List<List<AuditEvent>> groups = messageHeaders.split(events);
+            if (groups.size() > 1) {
+                groups.forEach(group -> sendChunk(destination, group));
+                return;
+            }
+        }
+        if (spool != null && spool.hasBacklog()) {
+            events.forEach(this::spool);
+            return;
+        }
+
+        AuditEventBatch batch = AuditEventBatch.builder()
+            .batchId(getEventIdGenerator().nextId())
+            .source(events.get(0).getSource())
+            .size(events.size())
+            .timestamp(Instant.now())
+            .events(events)
+            .build();
+
+        Message<AuditEventBatch> message = messageHeaders != null
+            ? messageHeaders.toMessage(batch)
+            : MessageBuilder.withPayload(batch)
+                .setHeader(AuditHeaders.PAYLOAD_TYPE, AuditHeaders.PAYLOAD_BATCH)
+                .setHeader(AuditHeaders.EVENT_COUNT, events.size())
+                .build();
+
+        SendOutcome outcome = guardedSend(destination, message);
+        switch (outcome) {
+            case SENT -> {
+                log.debug("✅ Audit batch published: {} events to {}", events.size(), destination);
+                events.forEach(event -> recordOutcome(event, destination, EventOutcome.SENT));
+            }
+            case FAILED -> {
+                log.error("❌ Failed to publish audit batch: {} events to {}", events.size(), destination);
+                if (spool != null) {
+                    events.forEach(this::spool);
+                } else {
+                    events.forEach(event -> recordOutcome(event, destination, EventOutcome.FAILED));
+                }
+            }
+            case REJECTED -> events.forEach(this::fallback);
+        }
+    }
+
+    /**
+     * Publie un événement vers sa destination via StreamBridge.
+     */
+    private SendOutcome transmit(String destination, AuditEvent event) {
+        SendOutcome outcome = guardedSend(destination, messageHeaders != null ? messageHeaders.toMessage(event) : event);
+        switch (outcome) {
+            case SENT -> log.debug("✅ Audit event published: {} {} for {} {}",
+                event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId());
+            case FAILED -> log.error("❌ Failed to publish audit event: {} {} for {} {}",
+                event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId());
+            case REJECTED -> log.debug("⚡ Audit event short-circuited (breaker open): {} {} for {} {}",
+                event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId());
+        }
+        return outcome;
+    }
+
+    /**
+     * Envoie un payload (événement ou lot) via StreamBridge, à travers le circuit breaker s'il existe.
+     */
+    private SendOutcome guardedSend(String destination, Object payload) {
+        if (breaker != null && !breaker.tryAcquirePermission()) {
+            return SendOutcome.REJECTED;
+        }
+
+        long start = System.nanoTime();
+        boolean sent = false;
+        try {
+            sent = sendToBinder(destination, payload);
+        } catch (Exception e) {
+            log.error("💥 Error publishing audit payload to {}: {}", destination, e.getMessage(), e);
+        } finally {
+            long duration = System.nanoTime() - start;
+            if (breaker != null) {
+                breaker.onResult(sent, duration);
+            }
+            getMetrics().recordSend(destination, sent, duration);
+        }
+        return sent ? SendOutcome.SENT : SendOutcome.FAILED;
+    }
+
+    /**
+     * Appel effectif à StreamBridge, seul point de contact avec le binder.
+     *
+     * @return true si le binder a accepté le message
+     */
+    protected boolean sendToBinder(String destination, Object payload) {
+        return contentType != null
+            ? streamBridge.send(destination, payload, contentType)
+            : streamBridge.send(destination, payload);
+    }
+
+    /**
+     * Traite un événement court-circuité par le circuit breaker.
+     */
+    private void fallback(AuditEvent event) {
+        switch (breakerFallback) {
+            case DROP -> {
+                breakerDroppedEvents.incrementAndGet();
+                recordOutcome(event, null, EventOutcome.DROPPED);
+            }
+            case SPOOL -> {
+                if (spool != null) {
+                    spool(event);
+                } else {
+                    logFallback(event);
+                }
+            }
+            case LOG -> logFallback(event);
+        }
+    }
+
+    private void logFallback(AuditEvent event) {
+        try {
+            FALLBACK_LOG.info(FALLBACK_MAPPER.writeValueAsString(event));
         } catch (Exception e) {
-            log.error("💥 Error publishing audit event for {} {}: {}",
-                event.getEntity(), event.getEntityId(), e.getMessage(), e);
+            FALLBACK_LOG.info(String.valueOf(event));
+        }
+        recordOutcome(event, null, EventOutcome.LOGGED);
+    }
+
+    public AuditDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    public AuditCircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    public AuditSpool getSpool() {
+        return spool;
+    }
+
+    /**
+     * @return Nombre d'événements abandonnés par le fallback DROP du circuit breaker
+     */
+    public long getBreakerDroppedEvents() {
+        return breakerDroppedEvents.get();
+    }
+
+    private void spool(AuditEvent event) {
+        if (spool.append(event)) {
+            log.debug("📦 Audit event spooled: {} {} for {} {}",
+                event.getStatus(), event.getAction(), event.getEntity(), event.getEntityId());
+            recordOutcome(event, null, EventOutcome.SPOOLED);
+        } else {
+            recordOutcome(event, null, EventOutcome.DROPPED);
+        }
+    }
+
+    /**
+     * Vide la file asynchrone puis les lots en cours avant l'arrêt du contexte
+     * (StreamBridge est encore disponible), puis ferme le spool.
+     */
+    @Override
+    public void destroy() {
+        flushErrorDeduplicator();
+        flushHashChain(this::publishNow);
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        if (replayer != null) {
+            replayer.shutdown();
+        }
+        if (spool != null) {
+            spool.close();
         }
     }
 }
@@ -0,0 +1,68 @@
+package com.crm_bancaire.common.audit.registry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.binder.ProducerProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Crée au démarrage les bindings producteurs de toutes les destinations du registre.
+ *
+ * StreamBridge crée un binding à la première publication vers une destination, ce qui coûte
+ * plusieurs centaines de millisecondes au premier événement après un déploiement. StreamBridge
+ * n'exposant pas d'API publique pour cela, sa méthode interne resolveDestination est appelée
+ * par réflexion; en cas d'échec (version incompatible, broker indisponible), la création
+ * reste simplement paresseuse.
+ *
+ * Dépendant d'une API interne, il n'est actif qu'avec common.audit.registry.prewarm-bindings=true.
+ */
+@Slf4j
+public class AuditBindingPrewarmer implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final StreamBridge streamBridge;
+    private final BindingServiceProperties bindingServiceProperties;
+    private final AuditRegistry registry;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    public AuditBindingPrewarmer(StreamBridge streamBridge, BindingServiceProperties bindingServiceProperties,
+                                 AuditRegistry registry) {
+        this.streamBridge = streamBridge;
+        this.bindingServiceProperties = bindingServiceProperties;
+        this.registry = registry;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!done.compareAndSet(false, true)) {
+            return;
+        }
+
+        Method resolveDestination = ReflectionUtils.findMethod(StreamBridge.class, "resolveDestination",
+            String.class, ProducerProperties.class, String.class);
+        if (resolveDestination == null) {
+            log.warn("⚠️ StreamBridge.resolveDestination(String, ProducerProperties, String) not found in this "
+                + "Spring Cloud Stream version: audit bindings will be created on first publish");
+            return;
+        }
+        ReflectionUtils.makeAccessible(resolveDestination);
+
+        int created = 0;
+        for (String destination : registry.getDestinations()) {
+            try {
+                ProducerProperties producerProperties = bindingServiceProperties.getProducerProperties(destination);
+                resolveDestination.invoke(streamBridge, destination, producerProperties, null);
+                created++;
+                log.debug("Audit binding pre-warmed for destination {}", destination);
+            } catch (Exception e) {
+                log.warn("⚠️ Could not pre-warm audit binding for {}: {}", destination, e.getMessage());
+            }
+        }
+        log.info("🔥 Audit bindings pre-warmed: {}/{} destinations", created, registry.getDestinations().size());
+    }
+}
@@ -0,0 +1,67 @@
+package com.crm_bancaire.common.audit.registry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registre des méthodes @Auditable de l'application, construit au démarrage
+ * par AuditRegistryScanner.
+ */
+public class AuditRegistry {
+
+    private volatile List<AuditedMethod> methods = List.of();
+
+    /**
+     * @return Toutes les méthodes @Auditable découvertes
+     */
+    public List<AuditedMethod> getMethods() {
+        return methods;
+    }
+
+    /**
+     * @return Les types d'entité audités, triés
+     */
+    public Set<String> getEntities() {
+        return collect(AuditedMethod::getEntity);
+    }
+
+    /**
+     * @return Les actions auditées, triées
+     */
+    public Set<String> getActions() {
+        return collect(AuditedMethod::getAction);
+    }
+
+    /**
+     * @return Les destinations vers lesquelles l'application publie (SUCCESS et FAILED), triées
+     */
+    public Set<String> getDestinations() {
+        Set<String> destinations = new TreeSet<>(collect(AuditedMethod::getDestination));
+        destinations.addAll(collect(AuditedMethod::getFailureDestination));
+        return Collections.unmodifiableSet(destinations);
+    }
+
+    /**
+     * @return Les méthodes dont l'entityIdExpression est invalide
+     */
+    public List<AuditedMethod> getInvalidMethods() {
+        return methods.stream().filter(m -> !m.isExpressionValid()).toList();
+    }
+
+    void register(List<AuditedMethod> discovered) {
+        this.methods = List.copyOf(discovered);
+    }
+
+    private Set<String> collect(Function<AuditedMethod, String> attribute) {
+        Set<String> values = methods.stream()
+            .map(attribute)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(TreeSet::new));
+        return Collections.unmodifiableSet(values);
+    }
+}
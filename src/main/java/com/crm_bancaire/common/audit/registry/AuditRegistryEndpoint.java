@@ -0,0 +1,30 @@
+package com.crm_bancaire.common.audit.registry;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Endpoint actuator exposant le registre des méthodes @Auditable ({@code /actuator/auditable}).
+ */
+@Endpoint(id = "auditable")
+public class AuditRegistryEndpoint {
+
+    private final AuditRegistry registry;
+
+    public AuditRegistryEndpoint(AuditRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> registry() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entities", registry.getEntities());
+        result.put("actions", registry.getActions());
+        result.put("destinations", registry.getDestinations());
+        result.put("methods", registry.getMethods());
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+package com.crm_bancaire.common.audit.registry;
+
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.crm_bancaire.common.audit.aspect.AuditAspect;
+import com.crm_bancaire.common.audit.aspect.AuditPlan;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.crm_bancaire.common.audit.publisher.AbstractAuditPublisher;
+import com.crm_bancaire.common.audit.publisher.AuditPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.framework.autoproxy.AutoProxyUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Découvre au démarrage toutes les méthodes @Auditable des beans de l'application.
+ *
+ * Chaque méthode est compilée en AuditPlan (ce qui préchauffe le cache de l'aspect)
+ * et son entityIdExpression est validée: erreur de syntaxe ou référence à un paramètre
+ * inexistant sont signalées au boot plutôt qu'à la première requête.
+ *
+ * Comme le pointcut @annotation(auditable) de l'aspect, seule l'annotation portée par la méthode
+ * de la classe cible compte: une annotation sur la méthode d'une interface ou d'une méthode
+ * redéfinie n'est pas interceptée, donc pas enregistrée.
+ */
+@Slf4j
+public class AuditRegistryScanner implements SmartInitializingSingleton {
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final AuditAspect auditAspect;
+    private final AuditPublisher auditPublisher;
+    private final AuditRegistry registry;
+    private final boolean failOnInvalidExpression;
+
+    public AuditRegistryScanner(ConfigurableListableBeanFactory beanFactory, AuditAspect auditAspect,
+                                AuditPublisher auditPublisher, AuditRegistry registry, boolean failOnInvalidExpression) {
+        this.beanFactory = beanFactory;
+        this.auditAspect = auditAspect;
+        this.auditPublisher = auditPublisher;
+        this.registry = registry;
+        this.failOnInvalidExpression = failOnInvalidExpression;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<AuditedMethod> discovered = new ArrayList<>();
+
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> type = AutoProxyUtils.determineTargetClass(beanFactory, beanName);
+            if (type == null || type.getName().startsWith("org.springframework.")) {
+                continue;
+            }
+
+            Map<Method, Auditable> annotated;
+            try {
+                annotated = MethodIntrospector.selectMethods(type, (MethodIntrospector.MetadataLookup<Auditable>)
+                    method -> AnnotationUtils.getAnnotation(method, Auditable.class));
+            } catch (Throwable e) {
+                log.debug("Could not introspect bean '{}' for @Auditable methods: {}", beanName, e.getMessage());
+                continue;
+            }
+
+            annotated.forEach((method, auditable) -> discovered.add(describe(beanName, type, method, auditable)));
+        }
+
+        registry.register(discovered);
+
+        List<AuditedMethod> invalid = registry.getInvalidMethods();
+        for (AuditedMethod method : invalid) {
+            log.warn("⚠️ Invalid entityIdExpression '{}' on {}.{}: {}",
+                method.getEntityIdExpression(), method.getBeanType(), method.getMethod(), method.getExpressionError());
+        }
+        if (!invalid.isEmpty() && failOnInvalidExpression) {
+            throw new IllegalStateException(invalid.size() + " @Auditable method(s) have an invalid entityIdExpression: "
+                + invalid.stream().map(m -> m.getBeanType() + "." + m.getMethod()).collect(Collectors.joining(", ")));
+        }
+
+        log.info("📋 Audit registry: {} @Auditable methods, {} entities, {} destinations",
+            discovered.size(), registry.getEntities().size(), registry.getDestinations().size());
+    }
+
+    private AuditedMethod describe(String beanName, Class<?> type, Method method, Auditable auditable) {
+        AuditPlan plan = auditAspect.planFor(method, auditable);
+        String error = plan.hasValidExpression() ? unknownVariables(plan) : plan.getExpressionError();
+
+        AbstractAuditPublisher publisher = auditPublisher instanceof AbstractAuditPublisher p ? p : null;
+        if (publisher != null) {
+            publisher.prepareRoute(plan.getEntity(), plan.getAction());
+        }
+
+        return AuditedMethod.builder()
+            .beanName(beanName)
+            .beanType(type.getName())
+            .method(method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")")))
+            .entity(plan.getEntity())
+            .action(plan.getAction())
+            .entityIdExpression(plan.getEntityIdExpressionString())
+            .expressionValid(error == null)
+            .expressionError(error)
+            .destination(publisher != null
+                ? publisher.getDestinationName(plan.getEntity(), plan.getAction(), AuditStatus.SUCCESS)
+                : null)
+            .failureDestination(publisher != null
+                ? publisher.getDestinationName(plan.getEntity(), plan.getAction(), AuditStatus.FAILED)
+                : null)
+            .build();
+    }
+
+    /**
+     * Vérifie que les variables #xxx de l'expression correspondent à des paramètres de la méthode.
+     *
+     * @return Message d'erreur, ou null si toutes les variables sont connues (ou non vérifiables)
+     */
+    private static String unknownVariables(AuditPlan plan) {
+        if (!(plan.getEntityIdExpression() instanceof SpelExpression spel)) {
+            return null;
+        }
+        String[] parameterNames = plan.getParameterNames();
+        if (Arrays.stream(parameterNames).anyMatch(name -> name == null)) {
+            // Noms de paramètres absents (compilé sans -parameters): seules #pN et #result sont vérifiables
+            return null;
+        }
+
+        Set<String> known = new HashSet<>(Arrays.asList(parameterNames));
+        known.addAll(Arrays.asList(plan.getPositionalNames()));
+        known.add("result");
+        known.add("root");
+        known.add("this");
+
+        Set<String> unknown = new HashSet<>();
+        collectVariables(spel.getAST(), known, unknown);
+        return unknown.isEmpty() ? null : "unknown variable(s) " + unknown + ", available: " + known;
+    }
+
+    private static void collectVariables(SpelNode node, Set<String> known, Set<String> unknown) {
+        if (node instanceof VariableReference) {
+            String name = node.toStringAST().substring(1);
+            if (!known.contains(name)) {
+                unknown.add("#" + name);
+            }
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            collectVariables(node.getChild(i), known, unknown);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.crm_bancaire.common.audit.registry;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Méthode @Auditable découverte au démarrage.
+ */
+@Value
+@Builder
+public class AuditedMethod {
+
+    /**
+     * Nom du bean Spring qui déclare la méthode
+     */
+    String beanName;
+
+    /**
+     * Classe (non proxifiée) du bean
+     */
+    String beanType;
+
+    /**
+     * Signature de la méthode, ex: createCustomer(Customer)
+     */
+    String method;
+
+    String entity;
+
+    String action;
+
+    String entityIdExpression;
+
+    /**
+     * false si l'expression est invalide ou référence un paramètre inexistant
+     */
+    boolean expressionValid;
+
+    /**
+     * Raison de l'invalidité de l'expression, ou null
+     */
+    String expressionError;
+
+    /**
+     * Queue/topic vers lequel les événements SUCCESS de la méthode sont publiés
+     */
+    String destination;
+
+    /**
+     * Queue/topic des événements FAILED (différent de destination avec les règles de routage)
+     */
+    String failureDestination;
+}
@@ -0,0 +1,115 @@
+package com.crm_bancaire.common.audit.routing;
+
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Choix de la destination d'un événement à partir d'une table de {@link RoutingRule}.
+ *
+ * Les règles sont compilées en une table entity → action → destination par statut:
+ * - au démarrage, les règles dont la source ne correspond pas au service sont écartées
+ *   et les couples (entity, action) du registre @Auditable sont pré-calculés ({@link #prepare})
+ * - un couple inconnu est résolu une seule fois (première règle qui correspond, sinon la
+ *   destination par défaut de l'entité) puis mis en table
+ *
+ * Par événement, le routage se limite donc à deux lectures de map et un accès tableau,
+ * sans construction de chaîne. Une entité ou une action null est mise en table sous une clé
+ * réservée (aucune règle ne lui correspond, seule la destination par défaut s'applique).
+ */
+@Slf4j
+public class AuditRouter {
+
+    private static final AuditStatus[] STATUSES = AuditStatus.values();
+
+    /**
+     * Index de la destination d'un événement sans statut
+     */
+    private static final int NO_STATUS = STATUSES.length;
+
+    /**
+     * Clé de table d'une entité ou d'une action null (ConcurrentHashMap n'accepte pas null)
+     */
+    private static final String NONE = "\u0000";
+
+    private final List<RoutingRule> configuredRules;
+    private List<RoutingRule> rules = List.of();
+    private UnaryOperator<String> defaultDestination = entity -> entity.toLowerCase() + ".events";
+
+    private final Map<String, Map<String, String[]>> table = new ConcurrentHashMap<>();
+
+    /**
+     * @param rules Règles par ordre de priorité (la première qui correspond s'applique)
+     */
+    public AuditRouter(List<RoutingRule> rules) {
+        this.configuredRules = List.copyOf(rules);
+    }
+
+    /**
+     * Retient les règles applicables au service et vide la table.
+     *
+     * @param source Nom du service publiant
+     * @param defaultDestination Destination d'une entité sans règle applicable
+     */
+    public synchronized void start(String source, UnaryOperator<String> defaultDestination) {
+        this.rules = configuredRules.stream().filter(rule -> rule.matchesSource(source)).toList();
+        this.defaultDestination = defaultDestination;
+        table.clear();
+        if (!configuredRules.isEmpty()) {
+            log.info("🚀 Audit routing started: {} of {} rules apply to {}", rules.size(), configuredRules.size(), source);
+        }
+    }
+
+    /**
+     * @return La destination de l'événement
+     */
+    public String destination(String entity, String action, AuditStatus status) {
+        String entityKey = entity != null ? entity : NONE;
+        String actionKey = action != null ? action : NONE;
+        Map<String, String[]> byAction = table.get(entityKey);
+        if (byAction == null) {
+            byAction = table.computeIfAbsent(entityKey, e -> new ConcurrentHashMap<>());
+        }
+        String[] byStatus = byAction.get(actionKey);
+        if (byStatus == null) {
+            byStatus = byAction.computeIfAbsent(actionKey, a -> compile(entity, action));
+        }
+        return byStatus[status != null ? status.ordinal() : NO_STATUS];
+    }
+
+    /**
+     * Pré-calcule les destinations d'un couple (entity, action) connu au démarrage.
+     */
+    public void prepare(String entity, String action) {
+        destination(entity, action, null);
+    }
+
+    /**
+     * @return true si au moins une règle s'applique au service
+     */
+    public boolean hasRules() {
+        return !rules.isEmpty();
+    }
+
+    private String[] compile(String entity, String action) {
+        String[] byStatus = new String[STATUSES.length + 1];
+        for (int i = 0; i < byStatus.length; i++) {
+            AuditStatus status = i < NO_STATUS ? STATUSES[i] : null;
+            byStatus[i] = resolve(entity, action, status);
+        }
+        return byStatus;
+    }
+
+    private String resolve(String entity, String action, AuditStatus status) {
+        for (RoutingRule rule : rules) {
+            if (rule.matches(entity, action, status)) {
+                return rule.destinationFor(entity);
+            }
+        }
+        return defaultDestination.apply(entity);
+    }
+}
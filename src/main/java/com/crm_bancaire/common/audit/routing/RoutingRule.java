@@ -0,0 +1,58 @@
+package com.crm_bancaire.common.audit.routing;
+
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import lombok.Value;
+import org.springframework.util.PatternMatchUtils;
+
+import java.util.Locale;
+
+/**
+ * Règle de routage: destination des événements d'une entité, d'une action, d'un statut
+ * et d'un service source.
+ *
+ * entity, action, status et source acceptent les jokers simples ("*", "Customer*", "*_VIEWED").
+ * La destination peut contenir {@value #ENTITY_PLACEHOLDER}, remplacé par le nom de l'entité
+ * en minuscules ("{entity}.failures" → "customer.failures").
+ */
+@Value
+public class RoutingRule {
+
+    public static final String ENTITY_PLACEHOLDER = "{entity}";
+
+    String entity;
+    String action;
+    String status;
+    String source;
+    String destination;
+
+    public RoutingRule(String entity, String action, String status, String source, String destination) {
+        if (destination == null || destination.isBlank()) {
+            throw new IllegalArgumentException("Audit routing rule " + entity + ":" + action + ":" + status
+                + " has no destination");
+        }
+        this.entity = entity != null ? entity : "*";
+        this.action = action != null ? action : "*";
+        this.status = status != null ? status.toUpperCase(Locale.ROOT) : "*";
+        this.source = source != null ? source : "*";
+        this.destination = destination;
+    }
+
+    public boolean matches(String entity, String action, AuditStatus status) {
+        return PatternMatchUtils.simpleMatch(this.entity, entity)
+            && PatternMatchUtils.simpleMatch(this.action, action)
+            && PatternMatchUtils.simpleMatch(this.status, status != null ? status.name() : null);
+    }
+
+    public boolean matchesSource(String source) {
+        return PatternMatchUtils.simpleMatch(this.source, source);
+    }
+
+    /**
+     * @return La destination, placeholder remplacé
+     */
+    public String destinationFor(String entity) {
+        return destination.contains(ENTITY_PLACEHOLDER)
+            ? destination.replace(ENTITY_PLACEHOLDER, entity.toLowerCase(Locale.ROOT))
+            : destination;
+    }
+}
@@ -0,0 +1,256 @@
+package com.crm_bancaire.common.audit.sampling;
+
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.PatternMatchUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Échantillonnage et délestage des événements d'audit, décidés avant la construction
+ * de l'événement.
+ *
+ * - Règles statiques: chaque (entity, action) reçoit le taux de la première règle
+ *   des propriétés qui correspond, sinon celui de @Auditable(sampleRate), sinon 1.0
+ * - Délestage adaptatif: quand la file de publication dépasse le seuil de remplissage,
+ *   le taux des événements basse priorité (soumis à une règle ou listés comme tels)
+ *   baisse proportionnellement jusqu'au taux minimum
+ * - Jamais abandonnés: les statuts FAILED/ERROR et les actions critiques (jokers acceptés)
+ *
+ * Les abandons sont comptés par règle pour permettre la compensation côté analytics.
+ */
+@Slf4j
+public class AuditSampler {
+
+    /**
+     * Décision pour une paire (entity, action): règle appliquée (nom et motifs), ou null si aucune
+     */
+    private record Resolution(String name, String entity, String action, double rate, boolean sheddable) {
+    }
+
+    /**
+     * Compteur d'abandons d'une règle
+     *
+     * @param reason "sampled" (échantillonnage) ou "shed" (délestage)
+     * @param rule Nom de la règle
+     * @param entity Motif d'entité de la règle
+     * @param action Motif d'action de la règle
+     */
+    public record DropCounter(String reason, String rule, String entity, String action, LongAdder count) {
+    }
+
+    private static final Resolution ALWAYS = new Resolution(null, null, null, 1.0, false);
+
+    private final List<SamplingRule> rules;
+    private final List<SamplingRule> annotationRules = new CopyOnWriteArrayList<>();
+    private final String[] criticalActions;
+    private final String[] lowPriorityActions;
+    private final boolean sheddingEnabled;
+    private final double sheddingThreshold;
+    private final double minRate;
+
+    /**
+     * Résolutions par entity puis par action: pas de clé composée à construire à chaque appel
+     */
+    private final Map<String, Map<String, Resolution>> resolutions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> sampledOut = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> shed = new ConcurrentHashMap<>();
+    private final List<DropCounter> dropCounters = new CopyOnWriteArrayList<>();
+    private final List<Consumer<DropCounter>> dropCounterListeners = new CopyOnWriteArrayList<>();
+
+    private volatile DoubleSupplier load = () -> 0.0;
+    private volatile boolean active;
+
+    /**
+     * @param rules Règles des propriétés, par ordre de priorité
+     * @param criticalActions Actions jamais échantillonnées ni délestées
+     * @param sheddingEnabled Active le délestage adaptatif
+     * @param sheddingThreshold Remplissage de la file (0.0 à 1.0) à partir duquel le délestage commence
+     * @param minRate Taux minimum conservé au remplissage maximum
+     * @param lowPriorityActions Actions délestables même sans règle d'échantillonnage
+     */
+    public AuditSampler(List<SamplingRule> rules, Collection<String> criticalActions,
+                        boolean sheddingEnabled, double sheddingThreshold, double minRate,
+                        Collection<String> lowPriorityActions) {
+        this.rules = List.copyOf(rules);
+        this.criticalActions = upperCase(criticalActions);
+        this.lowPriorityActions = upperCase(lowPriorityActions);
+        this.sheddingEnabled = sheddingEnabled;
+        this.sheddingThreshold = Math.max(0.0, Math.min(0.99, sheddingThreshold));
+        this.minRate = Math.max(0.0, Math.min(1.0, minRate));
+        this.active = !this.rules.isEmpty() || sheddingEnabled;
+    }
+
+    /**
+     * Sampler sans règle ni délestage: seuls les taux de @Auditable(sampleRate) s'appliquent.
+     */
+    public AuditSampler() {
+        this(List.of(), List.of(), false, 0.5, 0.0, List.of());
+    }
+
+    /**
+     * @param load Remplissage courant de la file de publication (0.0 à 1.0)
+     */
+    public void setLoadSupplier(DoubleSupplier load) {
+        this.load = load;
+    }
+
+    /**
+     * Déclare le taux d'une méthode @Auditable. Les règles des propriétés restent prioritaires.
+     */
+    public synchronized void registerAnnotationRate(String entity, String action, double rate) {
+        if (rate >= 1.0) {
+            return;
+        }
+        SamplingRule rule = new SamplingRule(entity, action, rate);
+        for (SamplingRule existing : annotationRules) {
+            if (existing.getEntity().equals(entity) && existing.getAction().equals(action)) {
+                if (existing.getRate() != rule.getRate()) {
+                    log.warn("⚠️ Conflicting @Auditable sampleRate for {}:{} ({} vs {}), keeping {}",
+                        entity, action, existing.getRate(), rule.getRate(), existing.getRate());
+                }
+                return;
+            }
+        }
+        annotationRules.add(rule);
+        resolutions.clear();
+        active = true;
+    }
+
+    /**
+     * Décide si un événement doit être publié, et compte l'abandon sinon.
+     *
+     * @return true si l'événement doit être publié
+     */
+    public boolean sample(String entity, String action, AuditStatus status) {
+        if (!active || status != AuditStatus.SUCCESS) {
+            return true;
+        }
+
+        Resolution resolution = resolution(entity, action);
+        if (resolution == ALWAYS) {
+            return true;
+        }
+
+        double rate = resolution.rate();
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            counter(sampledOut, "sampled", resolution).increment();
+            return false;
+        }
+
+        if (resolution.sheddable() && sheddingEnabled) {
+            double keep = sheddingFactor(load.getAsDouble());
+            if (keep < 1.0 && ThreadLocalRandom.current().nextDouble() >= keep) {
+                counter(shed, "shed", resolution).increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Événements abandonnés par échantillonnage, par règle
+     */
+    public Map<String, Long> getSampledOutCounts() {
+        return snapshot(sampledOut);
+    }
+
+    /**
+     * @return Événements abandonnés par délestage, par règle
+     */
+    public Map<String, Long> getShedCounts() {
+        return snapshot(shed);
+    }
+
+    /**
+     * Notifie le listener pour chaque compteur d'abandons existant, puis pour chaque compteur créé
+     * ensuite (au premier abandon d'une règle).
+     */
+    public synchronized void onDropCounter(Consumer<DropCounter> listener) {
+        dropCounters.forEach(listener);
+        dropCounterListeners.add(listener);
+    }
+
+    /**
+     * Proportion conservée selon le remplissage: 1.0 sous le seuil, puis décroissance
+     * linéaire jusqu'au taux minimum quand la file est pleine.
+     */
+    double sheddingFactor(double fill) {
+        if (fill <= sheddingThreshold) {
+            return 1.0;
+        }
+        double pressure = Math.min(1.0, (fill - sheddingThreshold) / (1.0 - sheddingThreshold));
+        return Math.max(minRate, 1.0 - pressure);
+    }
+
+    private Resolution resolution(String entity, String action) {
+        String entityKey = entity != null ? entity : "";
+        String actionKey = action != null ? action : "";
+        Map<String, Resolution> byAction = resolutions.get(entityKey);
+        Resolution resolution = byAction != null ? byAction.get(actionKey) : null;
+        if (resolution == null) {
+            resolution = resolutions.computeIfAbsent(entityKey, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(actionKey, k -> resolve(entity, action));
+        }
+        return resolution;
+    }
+
+    private LongAdder counter(Map<String, LongAdder> counters, String reason, Resolution resolution) {
+        LongAdder counter = counters.get(resolution.name());
+        return counter != null ? counter : newCounter(counters, reason, resolution);
+    }
+
+    private synchronized LongAdder newCounter(Map<String, LongAdder> counters, String reason, Resolution resolution) {
+        LongAdder counter = counters.get(resolution.name());
+        if (counter == null) {
+            counter = new LongAdder();
+            counters.put(resolution.name(), counter);
+            DropCounter dropCounter = new DropCounter(reason, resolution.name(), resolution.entity(),
+                resolution.action(), counter);
+            dropCounters.add(dropCounter);
+            dropCounterListeners.forEach(listener -> listener.accept(dropCounter));
+        }
+        return counter;
+    }
+
+    private Resolution resolve(String entity, String action) {
+        String normalizedAction = action != null ? action.toUpperCase() : "";
+        if (PatternMatchUtils.simpleMatch(criticalActions, normalizedAction)) {
+            return ALWAYS;
+        }
+        for (SamplingRule rule : rules) {
+            if (rule.matches(entity, action)) {
+                return new Resolution(rule.getName(), rule.getEntity(), rule.getAction(), rule.getRate(), true);
+            }
+        }
+        for (SamplingRule rule : annotationRules) {
+            if (rule.matches(entity, action)) {
+                return new Resolution("@Auditable " + rule.getName(), rule.getEntity(), rule.getAction(),
+                    rule.getRate(), true);
+            }
+        }
+        if (PatternMatchUtils.simpleMatch(lowPriorityActions, normalizedAction)) {
+            return new Resolution("*:" + normalizedAction, "*", normalizedAction, 1.0, true);
+        }
+        return ALWAYS;
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, count) -> result.put(name, count.sum()));
+        return result;
+    }
+
+    private static String[] upperCase(Collection<String> values) {
+        return values == null ? new String[0] : values.stream().map(String::toUpperCase).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,42 @@
+package com.crm_bancaire.common.audit.sampling;
+
+import lombok.Value;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * Règle d'échantillonnage: proportion des événements SUCCESS conservés pour
+ * une entité et une action.
+ *
+ * entity et action acceptent les jokers simples ("*", "Customer*", "*_VIEWED").
+ */
+@Value
+public class SamplingRule {
+
+    String entity;
+    String action;
+
+    /**
+     * Proportion conservée, entre 0.0 (tout abandonner) et 1.0 (tout garder)
+     */
+    double rate;
+
+    /**
+     * Nom de la règle dans les compteurs d'abandons
+     */
+    String name;
+
+    public SamplingRule(String entity, String action, double rate) {
+        this(entity, action, rate, entity + ":" + action);
+    }
+
+    public SamplingRule(String entity, String action, double rate, String name) {
+        this.entity = entity != null ? entity : "*";
+        this.action = action != null ? action : "*";
+        this.rate = Math.max(0.0, Math.min(1.0, rate));
+        this.name = name;
+    }
+
+    public boolean matches(String entity, String action) {
+        return PatternMatchUtils.simpleMatch(this.entity, entity) && PatternMatchUtils.simpleMatch(this.action, action);
+    }
+}
@@ -0,0 +1,390 @@
+package com.crm_bancaire.common.audit.spool;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Spool disque local (write-ahead log) pour les événements d'audit non publiés.
+ *
+ * Les événements sont ajoutés dans des segments de taille fixe, mappés en mémoire
+ * et en ajout seul. Chaque enregistrement est encadré par sa longueur et son CRC32C:
+ * <pre>
+ * [int longueur][int crc32c][payload JSON]
+ * </pre>
+ * Un segment préalloué contient des zéros après le dernier enregistrement (longueur 0 = fin).
+ *
+ * La position de relecture est persistée dans un fichier checkpoint mappé (segment, offset, CRC).
+ * Au redémarrage, les segments sont relus jusqu'au premier enregistrement incomplet ou corrompu,
+ * ce qui rend le spool sûr en cas de crash. La livraison est "au moins une fois": un événement
+ * envoyé juste avant un crash peut être rejoué (les consumers dédupliquent par eventId).
+ */
+@Slf4j
+public class AuditSpool implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "audit-spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_SIZE = 8;
+    private static final int CHECKPOINT_SIZE = 20;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean forceOnWrite;
+    private final ObjectMapper objectMapper;
+
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+
+    /**
+     * Segment et offset du prochain enregistrement à relire
+     */
+    private Segment readSegment;
+    private int readOffset;
+
+    /**
+     * Taille de l'enregistrement renvoyé par le dernier peek()
+     */
+    private int peekedSize;
+
+    public AuditSpool(Path directory, long segmentSize, long maxSize, boolean forceOnWrite) {
+        if (segmentSize <= HEADER_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid audit spool segment size: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize;
+        this.maxSegments = (int) Math.max(1, maxSize / segmentSize);
+        this.forceOnWrite = forceOnWrite;
+        this.objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        try {
+            Files.createDirectories(directory);
+            this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_SIZE);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit spool in " + directory, e);
+        }
+    }
+
+    /**
+     * Ajoute un événement en fin de spool.
+     *
+     * @param event L'événement à conserver
+     * @return false si le spool est plein ou l'événement trop gros (événement perdu)
+     */
+    public synchronized boolean append(AuditEvent event) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            log.error("💥 Cannot serialize audit event {} for spool: {}", event.getEventId(), e.getMessage());
+            rejected.incrementAndGet();
+            return false;
+        }
+
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            log.error("❌ Audit event {} too large for spool segment ({} bytes)", event.getEventId(), recordSize);
+            rejected.incrementAndGet();
+            return false;
+        }
+
+        try {
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.writeOffset + recordSize > segmentSize) {
+                if (segments.size() >= maxSegments) {
+                    long count = rejected.incrementAndGet();
+                    log.error("❌ Audit spool full ({} segments), event {} lost (total rejected: {})",
+                        segments.size(), event.getEventId(), count);
+                    return false;
+                }
+                segment = openSegment(segment != null ? segment.sequence + 1 : 0);
+                segments.addLast(segment);
+                if (readSegment == null) {
+                    readSegment = segment;
+                    readOffset = 0;
+                }
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            MappedByteBuffer buffer = segment.buffer;
+            int offset = segment.writeOffset;
+            // Le payload et le CRC sont écrits avant la longueur: un enregistrement n'est visible
+            // à la relecture qu'une fois complet
+            buffer.putInt(offset + 4, (int) crc.getValue());
+            buffer.put(offset + HEADER_SIZE, payload);
+            buffer.putInt(offset, payload.length);
+            segment.writeOffset = offset + recordSize;
+            if (forceOnWrite) {
+                buffer.force();
+            }
+        } catch (IOException e) {
+            log.error("💥 Cannot write audit event {} to spool: {}", event.getEventId(), e.getMessage());
+            rejected.incrementAndGet();
+            return false;
+        }
+
+        pending.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Lit le prochain événement à rejouer, sans l'acquitter.
+     *
+     * @return L'événement le plus ancien, ou null si le spool est vide
+     */
+    public synchronized AuditEvent peek() {
+        while (readSegment != null) {
+            if (readOffset + HEADER_SIZE <= segmentSize) {
+                int length = readSegment.buffer.getInt(readOffset);
+                if (length > 0 && readOffset + HEADER_SIZE + length <= readSegment.writeOffset) {
+                    byte[] payload = new byte[length];
+                    readSegment.buffer.get(readOffset + HEADER_SIZE, payload);
+                    peekedSize = HEADER_SIZE + length;
+                    try {
+                        return objectMapper.readValue(payload, AuditEvent.class);
+                    } catch (IOException e) {
+                        log.error("💥 Unreadable audit event in spool segment {} at {}, skipping: {}",
+                            readSegment.sequence, readOffset, e.getMessage());
+                        commit();
+                        continue;
+                    }
+                }
+            }
+            // Fin du segment courant: passer au suivant s'il existe
+            if (readSegment == segments.peekLast()) {
+                return null;
+            }
+            advanceSegment();
+        }
+        return null;
+    }
+
+    /**
+     * Acquitte l'événement renvoyé par le dernier peek() (publié avec succès).
+     */
+    public synchronized void commit() {
+        if (peekedSize == 0) {
+            return;
+        }
+        readOffset += peekedSize;
+        peekedSize = 0;
+        pending.updateAndGet(count -> Math.max(0, count - 1));
+        saveCheckpoint();
+    }
+
+    /**
+     * @return true si des événements attendent d'être rejoués
+     */
+    public boolean hasBacklog() {
+        return pending.get() > 0;
+    }
+
+    /**
+     * @return Nombre d'événements en attente de relecture
+     */
+    public long getPendingEvents() {
+        return pending.get();
+    }
+
+    /**
+     * @return Nombre d'événements refusés (spool plein, erreur d'écriture)
+     */
+    public long getRejectedEvents() {
+        return rejected.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            closeQuietly(segment.channel);
+        }
+        checkpoint.force();
+        closeQuietly(checkpointChannel);
+        log.info("🛑 Audit spool closed ({} events pending)", pending.get());
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+
+        for (Path file : files) {
+            Segment segment = openSegment(sequenceOf(file));
+            segment.writeOffset = scan(segment);
+            segments.addLast(segment);
+        }
+
+        // Position de relecture persistée
+        long checkpointSequence = checkpoint.getLong(0);
+        int checkpointOffset = (int) checkpoint.getLong(8);
+        CRC32C crc = new CRC32C();
+        crc.update(checkpoint.slice(0, 16));
+        boolean validCheckpoint = checkpoint.getInt(16) == (int) crc.getValue();
+
+        readSegment = segments.peekFirst();
+        readOffset = 0;
+        if (validCheckpoint) {
+            // Supprimer les segments entièrement relus avant le crash
+            while (!segments.isEmpty() && segments.peekFirst().sequence < checkpointSequence) {
+                deleteSegment(segments.pollFirst());
+            }
+            readSegment = segments.peekFirst();
+            if (readSegment != null && readSegment.sequence == checkpointSequence) {
+                readOffset = Math.min(checkpointOffset, readSegment.writeOffset);
+            }
+        } else if (!segments.isEmpty()) {
+            log.warn("⚠️ Audit spool checkpoint missing or corrupted, replaying from the oldest segment");
+        }
+
+        long count = 0;
+        for (Segment segment : segments) {
+            int offset = segment == readSegment ? readOffset : 0;
+            while (offset < segment.writeOffset) {
+                offset += HEADER_SIZE + segment.buffer.getInt(offset);
+                count++;
+            }
+        }
+        pending.set(count);
+        if (count > 0) {
+            log.info("📦 Audit spool recovered: {} events pending in {} segments", count, segments.size());
+        }
+    }
+
+    /**
+     * Parcourt un segment et retourne la fin des données valides.
+     * Un enregistrement incomplet ou corrompu (crash pendant l'écriture) marque la fin;
+     * les octets suivants sont remis à zéro pour les prochains ajouts.
+     */
+    private int scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(offset + HEADER_SIZE, length));
+            if (buffer.getInt(offset + 4) != (int) crc.getValue()) {
+                log.warn("⚠️ Corrupted record in audit spool segment {} at {}, truncating", segment.sequence, offset);
+                break;
+            }
+            offset += HEADER_SIZE + length;
+        }
+
+        if (offset + HEADER_SIZE <= segmentSize && buffer.getInt(offset) != 0) {
+            for (int i = offset; i < segmentSize; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+        return offset;
+    }
+
+    private void advanceSegment() {
+        Segment consumed = segments.pollFirst();
+        readSegment = segments.peekFirst();
+        readOffset = 0;
+        saveCheckpoint();
+        if (consumed != null) {
+            deleteSegment(consumed);
+        }
+    }
+
+    private void saveCheckpoint() {
+        if (readSegment == null) {
+            return;
+        }
+        checkpoint.putLong(0, readSegment.sequence);
+        checkpoint.putLong(8, readOffset);
+        CRC32C crc = new CRC32C();
+        crc.update(checkpoint.slice(0, 16));
+        checkpoint.putInt(16, (int) crc.getValue());
+        if (forceOnWrite) {
+            checkpoint.force();
+        }
+    }
+
+    private Segment openSegment(long sequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        return new Segment(sequence, path, channel, buffer);
+    }
+
+    private void deleteSegment(Segment segment) {
+        closeQuietly(segment.channel);
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Cannot delete consumed audit spool segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // Fermeture best-effort
+        }
+    }
+
+    /**
+     * Fichier segment mappé en mémoire.
+     */
+    private static final class Segment {
+        private final long sequence;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+
+        private Segment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.crm_bancaire.common.audit.spool;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Thread de fond qui republie dans l'ordre les événements du spool.
+ *
+ * Tant que les envois réussissent, le spool est vidé en continu. Au premier échec
+ * (broker toujours indisponible), le replayer attend le délai de retry, doublé à chaque
+ * échec consécutif jusqu'au délai maximum, puis réessaie le même événement.
+ */
+@Slf4j
+public class AuditSpoolReplayer {
+
+    private static final long IDLE_WAIT_MS = 500;
+
+    private final AuditSpool spool;
+    private final Duration retryInterval;
+    private final Duration maxRetryInterval;
+
+    private volatile boolean running;
+    private Predicate<AuditEvent> sender;
+    private Thread thread;
+
+    public AuditSpoolReplayer(AuditSpool spool, Duration retryInterval, Duration maxRetryInterval) {
+        this.spool = spool;
+        this.retryInterval = retryInterval != null ? retryInterval : Duration.ofSeconds(5);
+        this.maxRetryInterval = maxRetryInterval != null ? maxRetryInterval : Duration.ofMinutes(1);
+    }
+
+    /**
+     * @param sender Envoi d'un événement au broker, retourne true si la publication a réussi
+     */
+    public synchronized void start(Predicate<AuditEvent> sender) {
+        if (running) {
+            return;
+        }
+        this.sender = sender;
+        this.running = true;
+        this.thread = new Thread(this::replay, "audit-spool-replayer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(retryInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void replay() {
+        long backoff = retryInterval.toMillis();
+        long replayed = 0;
+
+        while (running) {
+            try {
+                AuditEvent event = spool.hasBacklog() ? spool.peek() : null;
+                if (event == null) {
+                    if (replayed > 0) {
+                        log.info("✅ Audit spool drained: {} events republished", replayed);
+                        replayed = 0;
+                    }
+                    Thread.sleep(IDLE_WAIT_MS);
+                    continue;
+                }
+
+                if (sender.test(event)) {
+                    spool.commit();
+                    replayed++;
+                    backoff = retryInterval.toMillis();
+                } else {
+                    log.warn("⏳ Audit spool replay paused ({} events pending), retrying in {} ms",
+                        spool.getPendingEvents(), backoff);
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, maxRetryInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("💥 Error replaying audit spool: {}", e.getMessage(), e);
+                if (!pause(backoff)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
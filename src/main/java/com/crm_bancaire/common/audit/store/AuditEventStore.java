@@ -0,0 +1,535 @@
+package com.crm_bancaire.common.audit.store;
+
+import com.crm_bancaire.common.audit.codec.AuditBinaryCodec;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Store local des événements d'audit, sans broker ni base de données.
+ *
+ * Les événements sont ajoutés (format {@link AuditBinaryCodec}) dans des segments en ajout seul,
+ * écrits par un thread unique via {@link FileChannel}. Chaque enregistrement est encadré par:
+ * <pre>
+ * [int longueur][int crc32c][long timestamp µs][payload binaire]
+ * </pre>
+ *
+ * Group commit: les appelants déposent leurs événements dans une file; le thread d'écriture
+ * écrit tous les événements en attente en une écriture groupée puis un seul fsync, et complète
+ * ensuite leurs futures. Sous charge, un fsync couvre donc de nombreux événements.
+ *
+ * Chaque segment a un {@link SegmentIndex} (entity + entityId, période), écrit dans un fichier .idx
+ * quand le segment est plein. Les requêtes lisent index et segments par mmap, enregistrement par
+ * enregistrement: seules les pages utiles sont chargées.
+ *
+ * Au redémarrage, les segments sans index valide sont relus jusqu'au premier enregistrement
+ * incomplet ou corrompu (tronqué) et leur index est reconstruit.
+ */
+@Slf4j
+public class AuditEventStore implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "audit-store-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int HEADER_SIZE = 16;
+    private static final int MAX_GROUP = 1024;
+    private static final int QUEUE_CAPACITY = 16_384;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long maxSize;
+    private final boolean fsync;
+    private final AuditBinaryCodec codec = new AuditBinaryCodec();
+
+    /**
+     * Segments du plus ancien au plus récent; le dernier est le segment actif
+     */
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<PendingWrite> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final AtomicLong storedEvents = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong failedEvents = new AtomicLong();
+
+    private record PendingWrite(byte[] payload, long micros, int hash, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * @param directory Répertoire des segments; propre à chaque instance du service
+     * @param segmentSize Taille à partir de laquelle un nouveau segment est ouvert
+     * @param maxSize Taille totale au-delà de laquelle les segments les plus anciens sont supprimés
+     * @param fsync Force l'écriture sur disque à chaque commit (groupé)
+     */
+    public AuditEventStore(Path directory, long segmentSize, long maxSize, boolean fsync) {
+        if (segmentSize <= HEADER_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid audit store segment size: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = Math.max(segmentSize, maxSize);
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            recover();
+            if (segments.isEmpty()) {
+                segments.add(openSegment(0));
+            }
+            enforceRetention();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open audit store in " + directory, e);
+        }
+        this.writer = new Thread(this::writeLoop, "audit-store-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        log.info("🚀 Audit event store opened in {} ({} segments, {} events)",
+            directory.toAbsolutePath(), segments.size(), storedEvents.get());
+    }
+
+    /**
+     * Ajoute un événement.
+     *
+     * @return Future complétée quand l'événement est écrit (et sur disque avec fsync)
+     */
+    public CompletableFuture<Void> append(AuditEvent event) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Audit event store is closed"));
+        }
+        PendingWrite write = new PendingWrite(codec.encode(event), toMicros(event.getTimestamp()),
+            SegmentIndex.hash(event.getEntity(), event.getEntityId()), new CompletableFuture<>());
+        try {
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        return write.done();
+    }
+
+    /**
+     * Événements d'une entité, dans l'ordre d'ajout.
+     *
+     * Le Stream est paresseux: les segments sont lus au fur et à mesure de la consommation.
+     */
+    public Stream<AuditEvent> findByEntity(String entity, String entityId) {
+        int hash = SegmentIndex.hash(entity, entityId);
+        return List.copyOf(segments).stream()
+            .flatMap(segment -> segment.findByHash(hash))
+            .filter(event -> Objects.equals(entity, event.getEntity()) && Objects.equals(entityId, event.getEntityId()));
+    }
+
+    /**
+     * Événements dont le timestamp est compris entre from et to (inclus), dans l'ordre d'ajout.
+     */
+    public Stream<AuditEvent> findBetween(Instant from, Instant to) {
+        long fromMicros = toMicros(from);
+        long toMicros = toMicros(to);
+        return List.copyOf(segments).stream()
+            .flatMap(segment -> segment.findBetween(fromMicros, toMicros));
+    }
+
+    /**
+     * @return Nombre d'événements présents dans le store
+     */
+    public long getStoredEvents() {
+        return storedEvents.get();
+    }
+
+    /**
+     * @return Nombre d'écritures groupées effectuées depuis l'ouverture
+     */
+    public long getCommits() {
+        return commits.get();
+    }
+
+    /**
+     * @return Nombre d'événements dont l'écriture a échoué
+     */
+    public long getFailedEvents() {
+        return failedEvents.get();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Termine les écritures en attente puis ferme les segments.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        log.info("🛑 Audit event store closed ({} events)", storedEvents.get());
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> group = new ArrayList<>(MAX_GROUP);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, MAX_GROUP - 1);
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("💥 Unexpected error in audit store writer: {}", e.getMessage(), e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Écrit un groupe d'événements: une écriture groupée et un fsync par segment touché.
+     */
+    private void commit(List<PendingWrite> group) {
+        int next = 0;
+        while (next < group.size()) {
+            Segment active = segments.get(segments.size() - 1);
+            int from = next;
+            long position = active.size;
+            while (next < group.size()
+                && (position == active.size || position + HEADER_SIZE + group.get(next).payload().length <= segmentSize)) {
+                position += HEADER_SIZE + group.get(next).payload().length;
+                next++;
+            }
+            if (next == from) {
+                roll(active);
+                continue;
+            }
+            List<PendingWrite> written = group.subList(from, next);
+            try {
+                active.write(written, fsync);
+                commits.incrementAndGet();
+                storedEvents.addAndGet(written.size());
+                written.forEach(write -> write.done().complete(null));
+            } catch (IOException e) {
+                log.error("💥 Cannot write {} audit events to store segment {}: {}",
+                    written.size(), active.sequence, e.getMessage());
+                failedEvents.addAndGet(written.size());
+                written.forEach(write -> write.done().completeExceptionally(e));
+            }
+            if (active.size >= segmentSize) {
+                roll(active);
+            }
+        }
+    }
+
+    /**
+     * Ferme le segment actif (écriture de son index) et en ouvre un nouveau.
+     */
+    private void roll(Segment active) {
+        try {
+            active.seal();
+            segments.add(openSegment(active.sequence + 1));
+            enforceRetention();
+        } catch (IOException e) {
+            log.error("💥 Cannot roll audit store segment {}: {}", active.sequence, e.getMessage());
+        }
+    }
+
+    private void enforceRetention() {
+        long total = segments.stream().mapToLong(segment -> segment.size).sum();
+        while (total > maxSize && segments.size() > 1) {
+            Segment oldest = segments.remove(0);
+            total -= oldest.size;
+            storedEvents.addAndGet(-oldest.index().getRecordCount());
+            oldest.delete();
+            log.info("🗑️ Audit store segment {} deleted (max size {} bytes reached)", oldest.sequence, maxSize);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                .filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = openSegment(sequenceOf(files.get(i)));
+            boolean last = i == files.size() - 1;
+            SegmentIndex index = last ? null : SegmentIndex.read(segment.indexPath);
+            if (index != null) {
+                segment.sealed(index);
+            } else {
+                segment.scan();
+                if (!last) {
+                    segment.seal();
+                }
+            }
+            segments.add(segment);
+            storedEvents.addAndGet(segment.index().getRecordCount());
+        }
+    }
+
+    private Segment openSegment(long sequence) throws IOException {
+        String name = String.format("%s%020d", SEGMENT_PREFIX, sequence);
+        Path path = directory.resolve(name + SEGMENT_SUFFIX);
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(sequence, path, directory.resolve(name + INDEX_SUFFIX), channel);
+    }
+
+    private AuditEvent decode(ByteBuffer view, int offset) {
+        int length = view.getInt(offset);
+        byte[] payload = new byte[length];
+        view.get(offset + HEADER_SIZE, payload);
+        return codec.decodeEvent(payload);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long toMicros(Instant instant) {
+        Instant value = instant != null ? instant : Instant.now();
+        return Math.addExact(Math.multiplyExact(value.getEpochSecond(), 1_000_000L), value.getNano() / 1_000);
+    }
+
+    private static int crc(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Fichier segment et son index.
+     */
+    private final class Segment {
+        private final long sequence;
+        private final Path path;
+        private final Path indexPath;
+        private final FileChannel channel;
+
+        /**
+         * Octets écrits (enregistrements complets); publié après l'écriture, avant l'indexation
+         */
+        private volatile long size;
+        private volatile SegmentIndex.Builder builder = new SegmentIndex.Builder();
+        private volatile SegmentIndex sealedIndex;
+        private volatile MappedByteBuffer sealedView;
+
+        private Segment(long sequence, Path path, Path indexPath, FileChannel channel) {
+            this.sequence = sequence;
+            this.path = path;
+            this.indexPath = indexPath;
+            this.channel = channel;
+        }
+
+        SegmentIndex index() {
+            SegmentIndex index = sealedIndex;
+            return index != null ? index : builder.snapshot();
+        }
+
+        void write(List<PendingWrite> writes, boolean force) throws IOException {
+            ByteBuffer[] buffers = new ByteBuffer[writes.size() * 2];
+            int[] offsets = new int[writes.size()];
+            long position = size;
+            for (int i = 0; i < writes.size(); i++) {
+                PendingWrite write = writes.get(i);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(0, write.payload().length);
+                header.putLong(8, write.micros());
+                CRC32C crc = new CRC32C();
+                crc.update(header.slice(8, 8));
+                crc.update(write.payload());
+                header.putInt(4, (int) crc.getValue());
+                buffers[i * 2] = header;
+                buffers[i * 2 + 1] = ByteBuffer.wrap(write.payload());
+                offsets[i] = (int) position;
+                position += HEADER_SIZE + write.payload().length;
+            }
+            try {
+                channel.position(size);
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                if (force) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                // Écriture partielle: revenir à la dernière position valide
+                channel.truncate(size);
+                throw e;
+            }
+            size = position;
+            SegmentIndex.Builder index = builder;
+            for (int i = 0; i < writes.size(); i++) {
+                index.add(writes.get(i).hash(), writes.get(i).micros(), offsets[i]);
+            }
+        }
+
+        /**
+         * Relit le segment, reconstruit son index en mémoire et tronque la fin invalide.
+         */
+        void scan() throws IOException {
+            long fileSize = channel.size();
+            SegmentIndex.Builder index = new SegmentIndex.Builder();
+            long offset = 0;
+            if (fileSize > 0) {
+                MappedByteBuffer view = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+                while (offset + HEADER_SIZE <= fileSize) {
+                    int length = view.getInt((int) offset);
+                    if (length <= 0 || offset + HEADER_SIZE + length > fileSize
+                        || view.getInt((int) offset + 4) != crc(view.slice((int) offset + 8, 8 + length))) {
+                        break;
+                    }
+                    AuditEvent event = decode(view, (int) offset);
+                    index.add(SegmentIndex.hash(event.getEntity(), event.getEntityId()),
+                        view.getLong((int) offset + 8), (int) offset);
+                    offset += HEADER_SIZE + length;
+                }
+            }
+            if (offset < fileSize) {
+                log.warn("⚠️ Incomplete or corrupted record in audit store segment {} at {}, truncating",
+                    sequence, offset);
+                channel.truncate(offset);
+            }
+            this.size = offset;
+            this.builder = index;
+        }
+
+        void seal() throws IOException {
+            channel.force(true);
+            index().writeTo(indexPath);
+            SegmentIndex index = SegmentIndex.read(indexPath);
+            if (index == null) {
+                throw new IOException("Audit store index " + indexPath + " unreadable after write");
+            }
+            sealed(index);
+        }
+
+        void sealed(SegmentIndex index) throws IOException {
+            this.size = channel.size();
+            this.sealedIndex = index;
+            this.builder = null;
+        }
+
+        /**
+         * Vue en lecture des enregistrements: tout le fichier pour un segment fermé (mappé une fois),
+         * les octets déjà écrits pour le segment actif.
+         */
+        ByteBuffer view() {
+            try {
+                if (sealedIndex != null) {
+                    MappedByteBuffer view = sealedView;
+                    if (view == null) {
+                        view = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                        sealedView = view;
+                    }
+                    return view;
+                }
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read audit store segment " + sequence, e);
+            }
+        }
+
+        Stream<AuditEvent> findByHash(int hash) {
+            int[] offsets = index().offsetsFor(hash);
+            if (offsets.length == 0) {
+                return Stream.empty();
+            }
+            ByteBuffer view = view();
+            return Arrays.stream(offsets)
+                .filter(offset -> offset + HEADER_SIZE <= view.limit())
+                .mapToObj(offset -> decode(view, offset));
+        }
+
+        Stream<AuditEvent> findBetween(long fromMicros, long toMicros) {
+            SegmentIndex index = index();
+            if (!index.overlaps(fromMicros, toMicros)) {
+                return Stream.empty();
+            }
+            int start = index.startOffset(fromMicros);
+            ByteBuffer view = view();
+            Spliterator<AuditEvent> records = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+                private int offset = start;
+
+                @Override
+                public boolean tryAdvance(Consumer<? super AuditEvent> action) {
+                    while (offset + HEADER_SIZE <= view.limit()) {
+                        int recordOffset = offset;
+                        long micros = view.getLong(recordOffset + 8);
+                        offset += HEADER_SIZE + view.getInt(recordOffset);
+                        if (micros >= fromMicros && micros <= toMicros) {
+                            action.accept(decode(view, recordOffset));
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            };
+            return StreamSupport.stream(records, false);
+        }
+
+        void close() {
+            try {
+                if (sealedIndex == null) {
+                    channel.force(true);
+                }
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Cannot close audit store segment {}: {}", sequence, e.getMessage());
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(indexPath);
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Cannot delete audit store segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.crm_bancaire.common.audit.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Index d'un segment du store: entrées (hash entité, offset) et index temporel clairsemé.
+ *
+ * Une entrée tient dans un long: hash 32 bits de (entity, entityId) en poids fort, offset
+ * de l'enregistrement en poids faible. Les collisions de hash sont écartées à la lecture.
+ * L'index temporel conserve, tous les {@link #TIME_INTERVAL} enregistrements, le timestamp
+ * maximum des enregistrements précédents: une recherche par période démarre au dernier point
+ * dont ce maximum est antérieur au début de la période.
+ *
+ * Le segment actif construit son index en mémoire (entrées dans l'ordre d'ajout). À la fermeture
+ * du segment, les entrées sont triées et écrites dans un fichier .idx lu ensuite par mmap:
+ * <pre>
+ * [magic][recordCount][minMicros][maxMicros][entryCount][timeCount]
+ * [entry]*entryCount [maxBefore, offset]*timeCount [crc32c]
+ * </pre>
+ */
+final class SegmentIndex {
+
+    static final int TIME_INTERVAL = 256;
+
+    private static final long MAGIC = 0x4155444954494458L; // "AUDITIDX"
+    private static final int HEADER_LONGS = 6;
+
+    private final LongBuffer entries;
+    private final LongBuffer times;
+    private final int recordCount;
+    private final long minMicros;
+    private final long maxMicros;
+    private final boolean sorted;
+
+    private SegmentIndex(LongBuffer entries, LongBuffer times, int recordCount,
+                         long minMicros, long maxMicros, boolean sorted) {
+        this.entries = entries;
+        this.times = times;
+        this.recordCount = recordCount;
+        this.minMicros = minMicros;
+        this.maxMicros = maxMicros;
+        this.sorted = sorted;
+    }
+
+    static int hash(String entity, String entityId) {
+        int h = 31 * (entity != null ? entity.hashCode() : 0) + (entityId != null ? entityId.hashCode() : 0);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return true si le segment peut contenir des enregistrements de la période
+     */
+    boolean overlaps(long fromMicros, long toMicros) {
+        return recordCount > 0 && maxMicros >= fromMicros && minMicros <= toMicros;
+    }
+
+    /**
+     * @return Offsets (croissants) des enregistrements dont le hash correspond
+     */
+    int[] offsetsFor(int hash) {
+        int count = entries.limit();
+        if (!sorted) {
+            int[] offsets = new int[8];
+            int found = 0;
+            for (int i = 0; i < count; i++) {
+                long entry = entries.get(i);
+                if ((int) (entry >>> 32) == hash) {
+                    if (found == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, found * 2);
+                    }
+                    offsets[found++] = (int) entry;
+                }
+            }
+            return Arrays.copyOf(offsets, found);
+        }
+        // Première entrée >= (hash, 0): comparaison non signée sur le long complet
+        long key = (long) hash << 32;
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compare(entries.get(mid) ^ Long.MIN_VALUE, key ^ Long.MIN_VALUE) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = low;
+        while (end < count && (int) (entries.get(end) >>> 32) == hash) {
+            end++;
+        }
+        int[] offsets = new int[end - low];
+        for (int i = low; i < end; i++) {
+            offsets[i - low] = (int) entries.get(i);
+        }
+        return offsets;
+    }
+
+    /**
+     * @return Offset à partir duquel lire pour trouver les enregistrements postérieurs à fromMicros
+     */
+    int startOffset(long fromMicros) {
+        int points = times.limit() / 2;
+        int low = 0;
+        int high = points - 1;
+        int start = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (times.get(mid * 2) < fromMicros) {
+                start = (int) times.get(mid * 2 + 1);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Écrit l'index trié dans un fichier (via un fichier temporaire renommé).
+     */
+    void writeTo(Path file) throws IOException {
+        long[] sortedEntries = new long[entries.limit()];
+        entries.get(0, sortedEntries);
+        // Tri non signé: hash (poids fort) puis offset
+        for (int i = 0; i < sortedEntries.length; i++) {
+            sortedEntries[i] ^= Long.MIN_VALUE;
+        }
+        Arrays.sort(sortedEntries);
+        for (int i = 0; i < sortedEntries.length; i++) {
+            sortedEntries[i] ^= Long.MIN_VALUE;
+        }
+
+        int longs = HEADER_LONGS + sortedEntries.length + times.limit() + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(longs * Long.BYTES);
+        LongBuffer out = buffer.asLongBuffer();
+        out.put(MAGIC).put(recordCount).put(minMicros).put(maxMicros).put(sortedEntries.length).put(times.limit() / 2);
+        out.put(sortedEntries);
+        long[] timePoints = new long[times.limit()];
+        times.get(0, timePoints);
+        out.put(timePoints);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(0, (longs - 1) * Long.BYTES));
+        out.put(crc.getValue());
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return L'index mappé du fichier, ou null s'il est absent ou invalide
+     */
+    static SegmentIndex read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < (HEADER_LONGS + 1) * Long.BYTES || size % Long.BYTES != 0) {
+                return null;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        LongBuffer longs = mapped.asLongBuffer();
+        int total = longs.limit();
+        if (longs.get(0) != MAGIC) {
+            return null;
+        }
+        int entryCount = (int) longs.get(4);
+        int timeCount = (int) longs.get(5);
+        if (HEADER_LONGS + entryCount + timeCount * 2L + 1 != total) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(mapped.slice(0, (total - 1) * Long.BYTES));
+        if (longs.get(total - 1) != crc.getValue()) {
+            return null;
+        }
+        return new SegmentIndex(
+            longs.slice(HEADER_LONGS, entryCount),
+            longs.slice(HEADER_LONGS + entryCount, timeCount * 2),
+            (int) longs.get(1), longs.get(2), longs.get(3), true);
+    }
+
+    /**
+     * Index en construction du segment actif. Les ajouts sont faits par le seul thread d'écriture;
+     * {@link #snapshot()} donne une vue figée lisible sans verrou.
+     */
+    static final class Builder {
+
+        private long[] entries = new long[1024];
+        private long[] times = new long[16];
+        private int recordCount;
+        private int timeLongs;
+        private long minMicros = Long.MAX_VALUE;
+        private long maxMicros = Long.MIN_VALUE;
+
+        synchronized void add(int hash, long micros, int offset) {
+            if (recordCount % TIME_INTERVAL == 0) {
+                if (timeLongs + 2 > times.length) {
+                    times = Arrays.copyOf(times, times.length * 2);
+                }
+                times[timeLongs++] = maxMicros;
+                times[timeLongs++] = offset;
+            }
+            if (recordCount == entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[recordCount++] = ((long) hash << 32) | (offset & 0xFFFFFFFFL);
+            minMicros = Math.min(minMicros, micros);
+            maxMicros = Math.max(maxMicros, micros);
+        }
+
+        synchronized SegmentIndex snapshot() {
+            return new SegmentIndex(LongBuffer.wrap(entries, 0, recordCount).slice(),
+                LongBuffer.wrap(times, 0, timeLongs).slice(), recordCount, minMicros, maxMicros, false);
+        }
+    }
+}
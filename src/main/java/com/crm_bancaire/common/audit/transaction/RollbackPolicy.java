@@ -0,0 +1,18 @@
+package com.crm_bancaire.common.audit.transaction;
+
+/**
+ * Traitement des événements SUCCESS d'une transaction annulée.
+ *
+ * Les événements FAILED de la transaction sont publiés dans tous les cas.
+ */
+public enum RollbackPolicy {
+    /**
+     * Les événements SUCCESS sont publiés en FAILED ("Transaction rolled back")
+     */
+    FAILED,
+
+    /**
+     * Les événements SUCCESS sont abandonnés
+     */
+    DISCARD
+}
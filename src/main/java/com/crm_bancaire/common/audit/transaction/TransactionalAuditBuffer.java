@@ -0,0 +1,152 @@
+package com.crm_bancaire.common.audit.transaction;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Diffère les événements d'audit publiés dans une transaction Spring jusqu'à sa fin.
+ *
+ * Au premier événement d'une transaction, une {@link TransactionSynchronization} est
+ * enregistrée et la liste des événements est liée à la transaction courante. Après le commit,
+ * tous les événements sont remis ensemble au sink (un lot par destination si le batching est actif); après un
+ * rollback (ou une issue inconnue), la {@link RollbackPolicy} s'applique. Les transactions suspendues
+ * (REQUIRES_NEW) ont leur propre liste.
+ *
+ * Hors transaction, ou au-delà de maxBufferedEvents événements dans la même transaction,
+ * l'événement n'est pas différé et l'appelant le publie immédiatement.
+ */
+@Slf4j
+public class TransactionalAuditBuffer {
+
+    static final String ROLLBACK_MESSAGE = "Transaction rolled back";
+
+    private final RollbackPolicy rollbackPolicy;
+    private final int maxBufferedEvents;
+    private final AtomicBoolean overflowWarned = new AtomicBoolean();
+
+    private Consumer<List<AuditEvent>> sink;
+    private Consumer<AuditEvent> discardSink;
+
+    public TransactionalAuditBuffer(RollbackPolicy rollbackPolicy, int maxBufferedEvents) {
+        this.rollbackPolicy = rollbackPolicy != null ? rollbackPolicy : RollbackPolicy.FAILED;
+        this.maxBufferedEvents = maxBufferedEvents;
+    }
+
+    /**
+     * @param sink Reçoit les événements d'une transaction terminée, dans l'ordre de publication
+     * @param discardSink Reçoit chaque événement abandonné par {@link RollbackPolicy#DISCARD}
+     */
+    public void start(Consumer<List<AuditEvent>> sink, Consumer<AuditEvent> discardSink) {
+        this.sink = sink;
+        this.discardSink = discardSink;
+    }
+
+    /**
+     * Ajoute l'événement à la transaction courante.
+     *
+     * @return false si aucune transaction n'est active ou si la limite est atteinte:
+     *         l'événement doit alors être publié immédiatement
+     */
+    public boolean defer(AuditEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AuditEvent> events = (List<AuditEvent>) TransactionSynchronizationManager.getResource(this);
+        if (events == null) {
+            events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new BufferSynchronization(events));
+        }
+
+        if (events.size() >= maxBufferedEvents) {
+            if (overflowWarned.compareAndSet(false, true)) {
+                log.warn("⚠️ More than {} audit events in one transaction: extra events are published immediately",
+                    maxBufferedEvents);
+            }
+            return false;
+        }
+        events.add(event);
+        return true;
+    }
+
+    /**
+     * @return Nombre d'événements en attente dans la transaction courante
+     */
+    public int getPendingEvents() {
+        Object events = TransactionSynchronizationManager.isSynchronizationActive()
+            ? TransactionSynchronizationManager.getResource(this) : null;
+        return events != null ? ((List<?>) events).size() : 0;
+    }
+
+    private void complete(List<AuditEvent> events, int status) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            log.debug("✅ Transaction committed, publishing {} deferred audit events", events.size());
+            sink.accept(events);
+            return;
+        }
+
+        List<AuditEvent> retained = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            if (event.getStatus() != AuditStatus.SUCCESS) {
+                retained.add(event);
+            } else if (rollbackPolicy == RollbackPolicy.FAILED) {
+                event.setStatus(AuditStatus.FAILED);
+                event.setErrorMessage(ROLLBACK_MESSAGE);
+                retained.add(event);
+            } else {
+                discardSink.accept(event);
+            }
+        }
+        log.debug("↩️ Transaction rolled back, {} of {} deferred audit events kept ({})",
+            retained.size(), events.size(), rollbackPolicy);
+        if (!retained.isEmpty()) {
+            sink.accept(retained);
+        }
+    }
+
+    /**
+     * Synchronisation d'une transaction: lie la liste à la transaction pendant sa durée.
+     */
+    private final class BufferSynchronization implements TransactionSynchronization {
+
+        private final List<AuditEvent> events;
+
+        private BufferSynchronization(List<AuditEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TransactionalAuditBuffer.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TransactionalAuditBuffer.this, events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TransactionalAuditBuffer.this);
+            try {
+                complete(events, status);
+            } catch (Exception e) {
+                log.error("💥 Failed to publish {} deferred audit events: {}", events.size(), e.getMessage(), e);
+            }
+        }
+    }
+}
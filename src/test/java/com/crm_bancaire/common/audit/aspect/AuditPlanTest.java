@@ -0,0 +1,111 @@
+package com.crm_bancaire.common.audit.aspect;
+
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditPlanTest {
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    @Test
+    void resolvesResultAndPositionalArguments() {
+        AuditPlan plan = plan("transfer", "#p0 + ':' + #p1 + ':' + #result.id");
+
+        Object value = plan.getEntityIdExpression().getValue(plan.evaluationContext(new Account("A-1"), new Object[] {"C-7", 42}));
+
+        assertThat(value).isEqualTo("C-7:42:A-1");
+    }
+
+    @Test
+    void usesResultAsRootObject() {
+        AuditPlan plan = plan("transfer", "id");
+
+        assertThat(plan.getEntityIdExpression().getValue(plan.evaluationContext(new Account("A-1"), new Object[] {"C-7", 42})))
+            .isEqualTo("A-1");
+        assertThat(plan.evaluationContext(null, new Object[0]).getRootObject().getValue()).isNull();
+    }
+
+    @Test
+    void unknownOrMissingVariablesAreNull() {
+        AuditPlan plan = plan("transfer", "#p0");
+        EvaluationContext context = plan.evaluationContext(null, new Object[] {"C-7"});
+
+        assertThat(context.lookupVariable("p1")).isNull();
+        assertThat(context.lookupVariable("p2")).isNull();
+        assertThat(context.lookupVariable("other")).isNull();
+    }
+
+    @Test
+    void variablesAssignedByTheExpressionAreVisibleToTheCallOnly() {
+        AuditPlan plan = plan("transfer", "(#p0 = 'override') + ':' + #p0");
+
+        assertThat(plan.getEntityIdExpression().getValue(plan.evaluationContext(null, new Object[] {"C-7", 42})))
+            .isEqualTo("override:override");
+        assertThat(plan.evaluationContext(null, new Object[] {"C-7", 42}).lookupVariable("p0")).isEqualTo("C-7");
+    }
+
+    @Test
+    void compiledExpressionsReadArgumentsOfEachCall() {
+        ExpressionParser compiled = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader()));
+        AuditPlan plan = AuditPlan.compile(method("transfer"), auditable("transfer", "#p0"), compiled, new ObjectMapper());
+        Expression expression = plan.getEntityIdExpression();
+
+        for (String id : List.of("C-1", "C-2", "C-3")) {
+            assertThat(expression.getValue(plan.evaluationContext(null, new Object[] {id, 1}))).isEqualTo(id);
+        }
+    }
+
+    private AuditPlan plan(String methodName, String expression) {
+        return AuditPlan.compile(method(methodName), auditable(methodName, expression), parser, new ObjectMapper());
+    }
+
+    private static Method method(String name) {
+        for (Method method : Samples.class.getDeclaredMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    private static Auditable auditable(String methodName, String expression) {
+        Auditable declared = method(methodName).getAnnotation(Auditable.class);
+        return new Auditable() {
+            @Override public String action() { return declared.action(); }
+            @Override public String entity() { return declared.entity(); }
+            @Override public String entityIdExpression() { return expression; }
+            @Override public String metadata() { return declared.metadata(); }
+            @Override public double sampleRate() { return declared.sampleRate(); }
+            @Override public boolean expandResult() { return declared.expandResult(); }
+            @Override public String diffBefore() { return declared.diffBefore(); }
+            @Override public Class<Auditable> annotationType() { return Auditable.class; }
+        };
+    }
+
+    public record Account(String id) {
+        public String getId() {
+            return id;
+        }
+    }
+
+    static class Samples {
+
+        @Auditable(action = "TRANSFER", entity = "Account")
+        Account transfer(String customerId, int amount) {
+            return new Account(customerId);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.crm_bancaire.common.audit.async;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class AsyncAuditDispatcherTest {
+
+    private final GatedSink sink = new GatedSink();
+    private final List<String> overflow = new CopyOnWriteArrayList<>();
+    private AsyncAuditDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        sink.open();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsEventsBeforeStart() {
+        dispatcher = new AsyncAuditDispatcher(10, 1, OverflowPolicy.BLOCK, Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> dispatcher.dispatch(event(1)))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void deliversQueuedEventsBeforeShutdownReturns() {
+        dispatcher = new AsyncAuditDispatcher(500, 2, OverflowPolicy.BLOCK, Duration.ofSeconds(10));
+        sink.open();
+        dispatcher.start(sink, sink);
+
+        for (int i = 1; i <= 300; i++) {
+            dispatcher.dispatch(event(i));
+        }
+        dispatcher.shutdown();
+
+        assertThat(sink.delivered).hasSize(300).doesNotHaveDuplicates();
+        assertThat(dispatcher.getQueueSize()).isZero();
+    }
+
+    @Test
+    void dropNewestDiscardsIncomingEventsWhenFull() {
+        dispatcher = fullQueue(OverflowPolicy.DROP_NEWEST);
+
+        dispatcher.dispatch(event(4));
+        dispatcher.dispatch(event(5));
+        sink.open();
+        dispatcher.shutdown();
+
+        assertThat(sink.delivered).containsExactly("event-1", "event-2", "event-3");
+        assertThat(dispatcher.getDroppedEvents()).isEqualTo(2);
+    }
+
+    @Test
+    void dropOldestEvictsQueuedEvents() {
+        dispatcher = fullQueue(OverflowPolicy.DROP_OLDEST);
+
+        dispatcher.dispatch(event(4));
+        dispatcher.dispatch(event(5));
+        sink.open();
+        dispatcher.shutdown();
+
+        assertThat(sink.delivered).containsExactly("event-1", "event-4", "event-5");
+        assertThat(dispatcher.getDroppedEvents()).isEqualTo(2);
+    }
+
+    @Test
+    void callerRunsPublishesOverflowOnTheCallingThread() {
+        dispatcher = fullQueue(OverflowPolicy.CALLER_RUNS);
+
+        dispatcher.dispatch(event(4));
+
+        assertThat(sink.delivered).containsExactly("event-1", "event-4");
+        assertThat(sink.threads.get("event-4")).isEqualTo(Thread.currentThread().getName());
+        assertThat(dispatcher.getDroppedEvents()).isZero();
+    }
+
+    @Test
+    void spoolPolicySendsOverflowToTheOverflowSink() {
+        dispatcher = fullQueue(OverflowPolicy.SPOOL);
+
+        dispatcher.dispatch(event(4));
+        sink.open();
+        dispatcher.shutdown();
+
+        assertThat(overflow).containsExactly("event-4");
+        assertThat(sink.delivered).containsExactly("event-1", "event-2", "event-3");
+    }
+
+    @Test
+    void blockedCallerIsReleasedWhenTheDispatcherStops() throws InterruptedException {
+        // Worker bloqué au-delà du timeout d'arrêt: l'appelant en attente ne doit pas rester bloqué
+        dispatcher = new AsyncAuditDispatcher(1, 1, OverflowPolicy.BLOCK, Duration.ofMillis(200));
+        dispatcher.start(sink, event -> overflow.add(event.getEventId()));
+        dispatcher.dispatch(event(1));
+        await().until(() -> sink.delivered.contains("event-1"));
+        dispatcher.dispatch(event(2));
+
+        Thread producer = new Thread(() -> dispatcher.dispatch(event(3)), "producer");
+        producer.start();
+        await().until(() -> producer.getState() == Thread.State.TIMED_WAITING);
+        dispatcher.shutdown();
+        producer.join(5_000);
+
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(sink.delivered).contains("event-3");
+        assertThat(sink.threads.get("event-3")).isEqualTo("producer");
+        // event-2, resté en file derrière le worker bloqué, est compté comme perdu
+        assertThat(dispatcher.getDroppedEvents()).isEqualTo(1);
+    }
+
+    @Test
+    void publishesOnTheCallingThreadAfterShutdown() {
+        dispatcher = new AsyncAuditDispatcher(10, 1, OverflowPolicy.BLOCK, Duration.ofSeconds(1));
+        sink.open();
+        dispatcher.start(sink, sink);
+        dispatcher.shutdown();
+
+        dispatcher.dispatch(event(1));
+
+        assertThat(sink.delivered).containsExactly("event-1");
+        assertThat(sink.threads.get("event-1")).isEqualTo(Thread.currentThread().getName());
+    }
+
+    /**
+     * Dispatcher à un worker bloqué sur event-1, file de 2 remplie par event-2 et event-3
+     */
+    private AsyncAuditDispatcher fullQueue(OverflowPolicy policy) {
+        AsyncAuditDispatcher full = new AsyncAuditDispatcher(2, 1, policy, Duration.ofSeconds(10));
+        full.start(sink, event -> overflow.add(event.getEventId()));
+        full.dispatch(event(1));
+        await().until(() -> sink.delivered.contains("event-1"));
+        full.dispatch(event(2));
+        full.dispatch(event(3));
+        assertThat(full.getQueueSize()).isEqualTo(2);
+        return full;
+    }
+
+    static AuditEvent event(int i) {
+        return AuditEvent.builder()
+            .eventId("event-" + i)
+            .entity("Customer")
+            .entityId(String.valueOf(i))
+            .action("UPDATE")
+            .status(AuditStatus.SUCCESS)
+            .build();
+    }
+
+    /**
+     * Sink qui enregistre les événements (et leur thread) et bloque sur event-1 tant qu'il n'est pas ouvert
+     */
+    static class GatedSink implements Consumer<AuditEvent> {
+
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        final Map<String, String> threads = new ConcurrentHashMap<>();
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        void open() {
+            gate.countDown();
+        }
+
+        @Override
+        public void accept(AuditEvent event) {
+            delivered.add(event.getEventId());
+            threads.put(event.getEventId(), Thread.currentThread().getName());
+            if (event.getEventId().equals("event-1")) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
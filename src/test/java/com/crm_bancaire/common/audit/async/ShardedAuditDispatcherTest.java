@@ -0,0 +1,165 @@
+package com.crm_bancaire.common.audit.async;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ShardedAuditDispatcherTest {
+
+    private final LaneSink sink = new LaneSink();
+    private ShardedAuditDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        sink.open();
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void sameEntityAlwaysMapsToTheSameLane() {
+        dispatcher = new ShardedAuditDispatcher(10, 4, OverflowPolicy.BLOCK, Duration.ofSeconds(1), false);
+
+        assertThat(dispatcher.getLaneCount()).isEqualTo(4);
+        // Capacité répartie et arrondie au supérieur par voie
+        assertThat(dispatcher.getCapacity()).isEqualTo(12);
+        for (int i = 0; i < 100; i++) {
+            int lane = dispatcher.laneOf(event("Customer", "c-" + i, 1));
+            assertThat(lane).isBetween(0, 3);
+            assertThat(dispatcher.laneOf(event("Customer", "c-" + i, 2))).isEqualTo(lane);
+        }
+    }
+
+    @Test
+    void keepsPerEntityOrderAcrossLanes() {
+        dispatcher = new ShardedAuditDispatcher(64, 4, OverflowPolicy.BLOCK, Duration.ofSeconds(10), false);
+        sink.open();
+        sink.jitter = true;
+        dispatcher.start(sink);
+
+        for (int seq = 1; seq <= 50; seq++) {
+            for (int entity = 0; entity < 8; entity++) {
+                dispatcher.dispatch(event("Customer", "c-" + entity, seq));
+            }
+        }
+        dispatcher.shutdown();
+
+        assertThat(sink.byEntity).hasSize(8);
+        sink.byEntity.values().forEach(sequence -> assertThat(sequence).hasSize(50).isSorted());
+        // Plusieurs voies ont travaillé en parallèle
+        assertThat(sink.threads).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void callerRunsIsReplacedByBlockToKeepOrdering() {
+        dispatcher = new ShardedAuditDispatcher(2, 2, OverflowPolicy.CALLER_RUNS, Duration.ofSeconds(10), false);
+        dispatcher.start(sink);
+        String entityId = "blocked";
+        dispatcher.dispatch(event("Customer", entityId, 1));
+        await().until(() -> sink.delivered.size() == 1);
+        dispatcher.dispatch(event("Customer", entityId, 2));
+
+        Thread producer = new Thread(() -> dispatcher.dispatch(event("Customer", entityId, 3)), "producer");
+        producer.start();
+        await().until(() -> producer.getState() == Thread.State.TIMED_WAITING);
+
+        // L'événement 3 attend dans la voie au lieu de doubler l'événement 2 sur le thread appelant
+        assertThat(sink.delivered).hasSize(1);
+        sink.open();
+        await().until(() -> sink.delivered.size() == 3);
+        assertThat(sink.byEntity.get(entityId)).containsExactly(1, 2, 3);
+        assertThat(sink.threads).doesNotContain("producer");
+    }
+
+    @Test
+    void overflowIsAppliedPerLane() {
+        dispatcher = new ShardedAuditDispatcher(2, 2, OverflowPolicy.DROP_NEWEST, Duration.ofSeconds(10), false);
+        dispatcher.start(sink);
+        String blocked = "blocked";
+        String other = otherLaneThan(blocked);
+        dispatcher.dispatch(event("Customer", blocked, 1));
+        await().until(() -> sink.delivered.size() == 1);
+        dispatcher.dispatch(event("Customer", blocked, 2));
+
+        // Voie pleine: l'entité bloquée perd son événement, l'autre voie continue
+        dispatcher.dispatch(event("Customer", blocked, 3));
+        dispatcher.dispatch(event("Customer", other, 1));
+        await().until(() -> sink.byEntity.containsKey(other));
+
+        assertThat(dispatcher.getDroppedEvents()).isEqualTo(1);
+        assertThat(dispatcher.getLaneDepth(dispatcher.laneOf(event("Customer", blocked, 2)))).isEqualTo(1);
+        sink.open();
+        dispatcher.shutdown();
+        assertThat(sink.byEntity.get(blocked)).containsExactly(1, 2);
+    }
+
+    private String otherLaneThan(String entityId) {
+        int lane = dispatcher.laneOf(event("Customer", entityId, 1));
+        for (int i = 0; ; i++) {
+            if (dispatcher.laneOf(event("Customer", "c-" + i, 1)) != lane) {
+                return "c-" + i;
+            }
+        }
+    }
+
+    private static AuditEvent event(String entity, String entityId, int seq) {
+        return AuditEvent.builder()
+            .eventId(entityId + "-" + seq)
+            .entity(entity)
+            .entityId(entityId)
+            .action("UPDATE")
+            .status(AuditStatus.SUCCESS)
+            .metadata(Map.of("seq", seq))
+            .build();
+    }
+
+    /**
+     * Sink qui enregistre l'ordre reçu par entité et bloque sur l'événement 1 de "blocked" tant qu'il n'est pas ouvert
+     */
+    private static class LaneSink implements Consumer<AuditEvent> {
+
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        final Map<String, List<Integer>> byEntity = new ConcurrentHashMap<>();
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch gate = new CountDownLatch(1);
+        volatile boolean jitter;
+
+        void open() {
+            gate.countDown();
+        }
+
+        @Override
+        public void accept(AuditEvent event) {
+            delivered.add(event.getEventId());
+            byEntity.computeIfAbsent(event.getEntityId(), id -> new CopyOnWriteArrayList<>())
+                .add((Integer) event.getMetadata().get("seq"));
+            String thread = Thread.currentThread().getName();
+            if (!threads.contains(thread)) {
+                threads.add(thread);
+            }
+            try {
+                if (event.getEventId().equals("blocked-1")) {
+                    gate.await();
+                } else if (jitter && ThreadLocalRandom.current().nextInt(10) == 0) {
+                    Thread.sleep(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
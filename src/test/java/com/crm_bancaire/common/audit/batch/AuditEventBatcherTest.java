@@ -0,0 +1,151 @@
+package com.crm_bancaire.common.audit.batch;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AuditEventBatcherTest {
+
+    private final List<Batch> batches = new CopyOnWriteArrayList<>();
+    private AuditEventBatcher batcher;
+
+    private record Batch(String destination, List<String> eventIds, String thread) {
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void flushesOnTheCallingThreadWhenMaxEventsIsReached() {
+        batcher = started(3, Long.MAX_VALUE, Duration.ofHours(1));
+
+        for (int i = 1; i <= 7; i++) {
+            batcher.add("customer.events", event(i));
+        }
+
+        assertThat(batches).extracting(Batch::eventIds).containsExactly(
+            List.of("event-1", "event-2", "event-3"),
+            List.of("event-4", "event-5", "event-6"));
+        assertThat(batches).extracting(Batch::thread).containsOnly(Thread.currentThread().getName());
+
+        batcher.flushAll();
+        assertThat(batches).last().extracting(Batch::eventIds).isEqualTo(List.of("event-7"));
+    }
+
+    @Test
+    void startsANewBatchBeforeExceedingMaxBytes() {
+        int size = AuditEventSizeEstimator.estimate(event(1));
+        batcher = started(100, size * 5 / 2, Duration.ofHours(1));
+
+        for (int i = 1; i <= 5; i++) {
+            batcher.add("customer.events", event(i));
+        }
+        AuditEvent large = event(6);
+        large.setErrorMessage("x".repeat(size * 4));
+        batcher.add("customer.events", large);
+        batcher.flushAll();
+
+        assertThat(batches).extracting(Batch::eventIds).containsExactly(
+            List.of("event-1", "event-2"),
+            List.of("event-3", "event-4"),
+            List.of("event-5"),
+            List.of("event-6"));
+    }
+
+    @Test
+    void lingerFlushesAPartialBatchOnTheSchedulerThread() {
+        batcher = started(100, Long.MAX_VALUE, Duration.ofMillis(50));
+
+        batcher.add("customer.events", event(1));
+        batcher.add("customer.events", event(2));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> !batches.isEmpty());
+        assertThat(batches).singleElement().satisfies(batch -> {
+            assertThat(batch.eventIds()).containsExactly("event-1", "event-2");
+            assertThat(batch.thread()).isEqualTo("audit-batcher");
+        });
+    }
+
+    @Test
+    void lingerOfAFlushedBatchDoesNotCutTheNextOneShort() throws InterruptedException {
+        batcher = started(2, Long.MAX_VALUE, Duration.ofMillis(600));
+
+        batcher.add("customer.events", event(1));
+        batcher.add("customer.events", event(2));
+        Thread.sleep(400);
+        batcher.add("customer.events", event(3));
+
+        // Le linger planifié pour event-1 expire ici: il ne doit pas envoyer event-3
+        Thread.sleep(400);
+        assertThat(batches).extracting(Batch::eventIds).containsExactly(List.of("event-1", "event-2"));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> batches.size() == 2);
+        assertThat(batches.get(1).eventIds()).containsExactly("event-3");
+    }
+
+    @Test
+    void batchesEachDestinationSeparately() {
+        batcher = started(2, Long.MAX_VALUE, Duration.ofHours(1));
+
+        batcher.add("customer.events", event(1));
+        batcher.add("account.events", event(2));
+        batcher.add("customer.events", event(3));
+        batcher.add("account.events", event(4));
+
+        assertThat(batches).containsExactlyInAnyOrder(
+            new Batch("customer.events", List.of("event-1", "event-3"), Thread.currentThread().getName()),
+            new Batch("account.events", List.of("event-2", "event-4"), Thread.currentThread().getName()));
+    }
+
+    @Test
+    void shutdownSendsPendingBatchesAndSinkErrorsDoNotReachTheCaller() {
+        batcher = new AuditEventBatcher(2, Long.MAX_VALUE, Duration.ofHours(1));
+        batcher.start((destination, events) -> {
+            record(destination, events);
+            throw new IllegalStateException("binder down");
+        });
+
+        batcher.add("customer.events", event(1));
+        batcher.add("customer.events", event(2));
+        batcher.add("customer.events", event(3));
+        batcher.shutdown();
+        batcher = null;
+
+        assertThat(batches).extracting(Batch::eventIds).containsExactly(
+            List.of("event-1", "event-2"),
+            List.of("event-3"));
+    }
+
+    private AuditEventBatcher started(int maxEvents, long maxBytes, Duration linger) {
+        AuditEventBatcher started = new AuditEventBatcher(maxEvents, maxBytes, linger);
+        started.start(this::record);
+        return started;
+    }
+
+    private void record(String destination, List<AuditEvent> events) {
+        batches.add(new Batch(destination, events.stream().map(AuditEvent::getEventId).toList(),
+            Thread.currentThread().getName()));
+    }
+
+    private static AuditEvent event(int i) {
+        return AuditEvent.builder()
+            .eventId("event-" + i)
+            .entity("Customer")
+            .entityId(String.valueOf(i))
+            .action("UPDATE")
+            .status(AuditStatus.SUCCESS)
+            .build();
+    }
+}
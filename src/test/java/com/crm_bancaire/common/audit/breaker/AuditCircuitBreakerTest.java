@@ -0,0 +1,160 @@
+package com.crm_bancaire.common.audit.breaker;
+
+import com.crm_bancaire.common.audit.breaker.AuditCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditCircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    @Test
+    void staysClosedUntilMinimumCallsAreRecorded() {
+        AuditCircuitBreaker breaker = breaker(Duration.ofSeconds(30));
+
+        for (int i = 0; i < 9; i++) {
+            record(breaker, false, FAST);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        record(breaker, false, FAST);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void opensOnFailureRateAndRejectsWhileOpen() {
+        AuditCircuitBreaker breaker = breaker(Duration.ofSeconds(30));
+
+        // 5 échecs sur 10 appels: 50 %, seuil atteint
+        for (int i = 0; i < 10; i++) {
+            record(breaker, i % 2 == 0, FAST);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.getRejectedCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        AuditCircuitBreaker breaker = breaker(Duration.ofSeconds(30));
+
+        for (int i = 0; i < 10; i++) {
+            record(breaker, true, i < 4 ? FAST : SLOW);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        AuditCircuitBreaker breaker = breaker(Duration.ofSeconds(30));
+
+        for (int i = 0; i < 4; i++) {
+            record(breaker, false, FAST);
+        }
+        // 20 succès remplacent les échecs dans la fenêtre de 20 appels
+        for (int i = 0; i < 20; i++) {
+            record(breaker, true, FAST);
+        }
+        for (int i = 0; i < 9; i++) {
+            record(breaker, false, FAST);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbesCloseTheCircuitOnSuccess() throws InterruptedException {
+        AuditCircuitBreaker breaker = opened(Duration.ofMillis(50));
+        Thread.sleep(100);
+
+        List<Boolean> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(breaker.tryAcquirePermission());
+        }
+
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(permits).containsExactly(true, true, true, false);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.onResult(true, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        // Fenêtre réinitialisée: les échecs d'avant l'ouverture ne comptent plus
+        for (int i = 0; i < 9; i++) {
+            record(breaker, false, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void failedOrSlowProbeReopensTheCircuit() throws InterruptedException {
+        AuditCircuitBreaker breaker = opened(Duration.ofMillis(50));
+        Thread.sleep(100);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onResult(true, SLOW);
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    void concurrentResultsKeepWindowCountsConsistent() throws InterruptedException {
+        AuditCircuitBreaker breaker = new AuditCircuitBreaker(Duration.ofMillis(200), 50, 50,
+            100, 100, Duration.ofSeconds(30), 3);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    record(breaker, true, FAST);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+
+        // La fenêtre pleine de succès doit s'ouvrir dès que la moitié des cases est en échec
+        for (int i = 0; i < 49; i++) {
+            record(breaker, false, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        record(breaker, false, FAST);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    /**
+     * Fenêtre de 20 appels, évaluée à partir de 10, seuils de 50 %, 3 appels de test
+     */
+    private static AuditCircuitBreaker breaker(Duration waitInOpenState) {
+        return new AuditCircuitBreaker(Duration.ofMillis(200), 50, 50, 20, 10, waitInOpenState, 3);
+    }
+
+    private static AuditCircuitBreaker opened(Duration waitInOpenState) {
+        AuditCircuitBreaker breaker = breaker(waitInOpenState);
+        for (int i = 0; i < 10; i++) {
+            record(breaker, false, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        return breaker;
+    }
+
+    private static void record(AuditCircuitBreaker breaker, boolean success, long durationNanos) {
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onResult(success, durationNanos);
+    }
+}
@@ -0,0 +1,149 @@
+package com.crm_bancaire.common.audit.codec;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditBinaryCodecTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-14T09:26:53.589793Z");
+
+    private final AuditBinaryCodec codec = new AuditBinaryCodec();
+
+    @Test
+    void roundTripsEveryField() {
+        AuditEvent event = fullEvent(1);
+
+        byte[] payload = codec.encode(event);
+
+        assertThat(AuditBinaryCodec.isBinary(payload)).isTrue();
+        assertThat(codec.decodeEvent(payload)).isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsNullFields() {
+        AuditEvent event = AuditEvent.builder().action("DELETE").build();
+
+        assertThat(codec.decodeEvent(codec.encode(event))).isEqualTo(event);
+    }
+
+    @Test
+    void roundTripsBatchWithRepeatedStrings() {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            events.add(fullEvent(i));
+        }
+        AuditEventBatch batch = AuditEventBatch.builder()
+            .batchId("batch-1")
+            .source("customer-service")
+            .size(events.size())
+            .timestamp(NOW)
+            .events(events)
+            .build();
+
+        byte[] payload = codec.encode(batch);
+
+        assertThat(codec.decodeBatch(payload)).isEqualTo(batch);
+        assertThat(codec.decodeEvents(payload)).containsExactlyElementsOf(events);
+    }
+
+    @Test
+    void isSmallerThanJson() throws Exception {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            events.add(fullEvent(i));
+        }
+        AuditEventBatch batch = AuditEventBatch.builder().batchId("b").size(100).timestamp(NOW).events(events).build();
+        ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        assertThat(codec.encode(batch).length).isLessThan(json.writeValueAsBytes(batch).length / 2);
+    }
+
+    @Test
+    void truncatesTimestampsToMicroseconds() {
+        Instant nanos = NOW.plusNanos(123);
+        AuditEvent event = AuditEvent.builder().timestamp(nanos).build();
+
+        assertThat(codec.decodeEvent(codec.encode(event)).getTimestamp())
+            .isEqualTo(nanos.truncatedTo(ChronoUnit.MICROS));
+    }
+
+    @Test
+    void rejectsUnknownPayloads() {
+        byte[] payload = codec.encode(fullEvent(1));
+        payload[1] = (byte) (AuditBinaryCodec.VERSION + 1);
+
+        assertThat(AuditBinaryCodec.isBinary("{\"action\":\"CREATE\"}".getBytes())).isFalse();
+        assertThatThrownBy(() -> codec.decode(payload))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unsupported audit binary version");
+        assertThatThrownBy(() -> codec.decodeBatch(codec.encode(fullEvent(1))))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void readsTheLayoutOfTheMessageVersion() {
+        AuditEvent event = fullEvent(5);
+        byte[] payload = codec.encode(event);
+        payload[1] = 0;
+        byte[] legacy = codec.encode(event);
+        legacy[1] = 1;
+        byte[] older = codec.encode(event);
+        older[1] = 2;
+
+        assertThatThrownBy(() -> codec.decode(payload))
+            .hasMessageContaining("Unsupported audit binary version 0");
+        // Version 1 écrite avant les incréments de version: champs v2 à v4 lus s'ils sont présents
+        assertThat(codec.decodeEvent(legacy)).isEqualTo(event);
+        // Une version 2 s'arrête après correlationId: des octets en trop signalent un record corrompu
+        assertThatThrownBy(() -> codec.decode(older))
+            .hasMessageContaining("Corrupted audit binary record");
+    }
+
+    private static AuditEvent fullEvent(int i) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("amount", 1500);
+        metadata.put("currency", "XOF");
+        metadata.put("tags", List.of("vip", "new"));
+        return AuditEvent.builder()
+            .eventId("0190a5c2-7e3f-7000-8000-00000000000" + (i % 10))
+            .action(i % 2 == 0 ? "UPDATE" : "CREATE")
+            .entity("Customer")
+            .entityId("customer-" + i)
+            .actorSub("sub-42")
+            .actorEmail("agent@bank.sn")
+            .actorUsername("agent")
+            .actorFirstName("Awa")
+            .actorLastName("Diop")
+            .actorRole("ADVISOR")
+            .status(i % 5 == 0 ? AuditStatus.FAILED : AuditStatus.SUCCESS)
+            .errorMessage(i % 5 == 0 ? "Insufficient funds" : null)
+            .timestamp(NOW.plusMillis(i))
+            .source("customer-service")
+            .metadata(metadata)
+            .correlationId("corr-" + i)
+            .errorFingerprint(i % 5 == 0 ? "3f2a9c1b" : null)
+            .occurrences(i % 5 == 0 ? 3 : null)
+            .chainId("chain-1")
+            .sequence((long) i)
+            .previousHash("ab".repeat(32))
+            .hash("cd".repeat(32))
+            .build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.crm_bancaire.common.audit.consumer;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditHeaders;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditEventDeserializerTest {
+
+    private final AuditEventDeserializer deserializer = new AuditEventDeserializer();
+
+    @Test
+    void payloadTypeHeaderIsDecodedFromKafkaBytes() {
+        // Événement portant un champ "events" inconnu: la détection par le contenu le prendrait pour un lot
+        byte[] json = "{\"eventId\":\"event-1\",\"events\":[]}".getBytes(StandardCharsets.UTF_8);
+        Message<byte[]> message = MessageBuilder.withPayload(json)
+            .setHeader(AuditHeaders.PAYLOAD_TYPE, AuditHeaders.PAYLOAD_EVENT.getBytes(StandardCharsets.UTF_8))
+            .build();
+
+        assertThat(deserializer.deserialize(message)).extracting(AuditEvent::getEventId)
+            .containsExactly("event-1");
+    }
+
+    @Test
+    void nullEventFieldDoesNotMatchAConfiguredFilter() {
+        AuditMessageFilter filter = AuditMessageFilter.any().statuses(AuditStatus.FAILED).entities("Customer");
+        List<String> accepted = new ArrayList<>();
+        // Lot hétérogène sans headers: le filtre s'applique après désérialisation
+        byte[] json = ("{\"events\":[{\"eventId\":\"event-1\",\"entity\":\"Customer\",\"status\":\"FAILED\"},"
+            + "{\"eventId\":\"event-2\",\"entity\":\"Customer\"},"
+            + "{\"eventId\":\"event-3\",\"status\":\"FAILED\"}]}").getBytes(StandardCharsets.UTF_8);
+
+        deserializer.forEachEvent(filter, event -> accepted.add(event.getEventId()))
+            .accept(MessageBuilder.withPayload(json).build());
+
+        assertThat(accepted).containsExactly("event-1");
+        assertThat(AuditMessageFilter.any().matches(AuditEvent.builder().build())).isTrue();
+    }
+
+    @Test
+    void absentHeadersDoNotExcludeAMessage() {
+        AuditMessageFilter filter = AuditMessageFilter.any().entities("Customer");
+
+        assertThat(filter.mayMatch(MessageBuilder.withPayload(new byte[0]).build().getHeaders())).isTrue();
+        assertThat(filter.mayMatch(MessageBuilder.withPayload(new byte[0])
+            .setHeader(AuditHeaders.ENTITY, "Account".getBytes(StandardCharsets.UTF_8)).build().getHeaders())).isFalse();
+    }
+}
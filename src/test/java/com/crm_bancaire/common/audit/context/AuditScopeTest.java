@@ -0,0 +1,154 @@
+package com.crm_bancaire.common.audit.context;
+
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.crm_bancaire.common.audit.aspect.AuditAspect;
+import com.crm_bancaire.common.audit.dto.AuditActor;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.publisher.AuditPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AuditScopeTest {
+
+    private final List<List<String>> published = new ArrayList<>();
+    private final Consumer<List<AuditEvent>> sink =
+        events -> published.add(events.stream().map(AuditEvent::getEventId).toList());
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        while (AuditScope.current() != null) {
+            AuditScope.current().close();
+        }
+    }
+
+    @Test
+    void nestedFramesKeepTheirOwnEntityIdAndShareTheRoot() {
+        MDC.put("traceId", "trace-42");
+
+        try (AuditScope outer = AuditScope.open()) {
+            AuditContextHolder.setEntityId("customer-1");
+            try (AuditScope inner = AuditScope.open()) {
+                assertThat(inner.isRoot()).isFalse();
+                assertThat(inner.getCorrelationId()).isEqualTo("trace-42");
+                assertThat(AuditContextHolder.getEntityId()).isNull();
+                AuditContextHolder.setEntityId("account-7");
+                assertThat(AuditContextHolder.getEntityId()).isEqualTo("account-7");
+            }
+            assertThat(AuditScope.current()).isSameAs(outer);
+            assertThat(outer.isRoot()).isTrue();
+            assertThat(AuditContextHolder.getEntityId()).isEqualTo("customer-1");
+        }
+        assertThat(AuditScope.current()).isNull();
+    }
+
+    @Test
+    void actorIsResolvedOncePerScope() {
+        AtomicInteger resolutions = new AtomicInteger();
+        AuditActor actor = AuditActor.builder().sub("sub-1").build();
+
+        try (AuditScope outer = AuditScope.open(); AuditScope inner = AuditScope.open()) {
+            assertThat(outer.actor(() -> null)).isNull();
+            assertThat(inner.actor(() -> {
+                resolutions.incrementAndGet();
+                return actor;
+            })).isSameAs(actor);
+            assertThat(outer.actor(() -> {
+                resolutions.incrementAndGet();
+                return null;
+            })).isSameAs(actor);
+        }
+        assertThat(resolutions).hasValue(1);
+    }
+
+    @Test
+    void coalescedEventsArePublishedTogetherWhenTheRootCloses() {
+        AuditScope root = AuditScope.open();
+        assertThat(root.defer(event(1), sink)).isTrue();
+        try (AuditScope nested = AuditScope.open()) {
+            assertThat(nested.defer(event(2), events -> published.add(List.of("wrong sink")))).isTrue();
+        }
+        assertThat(published).isEmpty();
+
+        root.close();
+
+        assertThat(published).containsExactly(List.of("event-1", "event-2"));
+        // Portée fermée: l'événement doit être publié immédiatement par l'appelant
+        assertThat(root.defer(event(3), sink)).isFalse();
+    }
+
+    @Test
+    void attachedFramesDoNotCloseTheRoot() throws Exception {
+        AuditScope root = AuditScope.open();
+
+        CompletableFuture.runAsync(() -> {
+            try (AuditScope attached = AuditScope.attach(root)) {
+                assertThat(attached.getCorrelationId()).isEqualTo(root.getCorrelationId());
+                attached.defer(event(1), sink);
+            }
+            assertThat(AuditScope.current()).isNull();
+        }).get();
+        assertThat(published).isEmpty();
+
+        root.close();
+        assertThat(published).containsExactly(List.of("event-1"));
+
+        // Tâche terminée après la fermeture de la racine: plus de coalescence
+        CompletableFuture.runAsync(() -> {
+            try (AuditScope attached = AuditScope.attach(root)) {
+                assertThat(attached.defer(event(2), sink)).isFalse();
+            }
+        }).get();
+    }
+
+    @Test
+    void aspectClosesItsFrameWhenTheMethodThrows() {
+        AuditPublisher publisher = mock(AuditPublisher.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new CustomerService());
+        factory.addAspect(new AuditAspect(publisher));
+        CustomerService service = factory.getProxy();
+
+        try (AuditScope request = AuditScope.open()) {
+            AuditContextHolder.setEntityId("request-entity");
+            assertThatThrownBy(() -> service.close("customer-1")).isInstanceOf(IllegalStateException.class);
+
+            // Le frame de la méthode est refermé: la portée de la requête et son entityId sont restaurés
+            assertThat(AuditScope.current()).isSameAs(request);
+            assertThat(AuditContextHolder.getEntityId()).isEqualTo("request-entity");
+        }
+        assertThatThrownBy(() -> service.close("customer-2")).isInstanceOf(IllegalStateException.class);
+
+        assertThat(AuditScope.current()).isNull();
+        assertThat(AuditContextHolder.getEntityId()).isNull();
+        verify(publisher, times(2)).failed(eq("Customer"), any(), eq("CLOSED"), any(Throwable.class), any());
+    }
+
+    private static AuditEvent event(int i) {
+        return AuditEvent.builder().eventId("event-" + i).entity("Customer").action("UPDATE").build();
+    }
+
+    public static class CustomerService {
+
+        @Auditable(action = "CLOSED", entity = "Customer", entityIdExpression = "#p0")
+        public void close(String customerId) {
+            AuditContextHolder.setEntityId(customerId);
+            throw new IllegalStateException("account still open");
+        }
+    }
+}
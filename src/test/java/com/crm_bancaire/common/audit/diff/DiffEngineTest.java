@@ -0,0 +1,201 @@
+package com.crm_bancaire.common.audit.diff;
+
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.crm_bancaire.common.audit.aspect.AuditAspect;
+import com.crm_bancaire.common.audit.publisher.AuditPublisher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class DiffEngineTest {
+
+    private final DiffEngine engine = DiffEngine.withDefaults();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void reportsChangedLeavesByPath() {
+        Customer customer = new Customer("Awa", new Address("Dakar"), List.of("+221 1"));
+        Map<String, Object> before = engine.snapshot(customer);
+
+        customer.setName("Awa Diop");
+        customer.getAddress().setCity("Thiès");
+        customer.setPhones(List.of("+221 1", "+221 2"));
+
+        assertThat(engine.diff(before, customer).getChanges()).containsExactly(
+            new FieldChange("address.city", "Dakar", "Thiès"),
+            new FieldChange("name", "Awa", "Awa Diop"),
+            new FieldChange("phones[1]", null, "+221 2"));
+    }
+
+    @Test
+    void masksSensitiveFieldsButStillDetectsTheirChanges() {
+        Map<String, Object> before = engine.snapshot(Map.of("login", "awa", "password", "old-secret"));
+
+        EntityDiff changed = engine.diff(before, Map.of("login", "awa", "password", "new-secret"));
+        EntityDiff unchanged = engine.diff(before, Map.of("login", "awa", "password", "old-secret"));
+
+        assertThat(changed.getChanges()).containsExactly(new FieldChange("password", "***", "***"));
+        assertThat(unchanged.getChanges()).isEmpty();
+    }
+
+    @Test
+    void truncatesChangesAndLongValues() {
+        DiffEngine limited = new DiffEngine(List.of(), 2, 8, 4);
+        Map<String, Object> before = new LinkedHashMap<>();
+        Map<String, Object> after = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            before.put("field" + i, "v" + i);
+            after.put("field" + i, "changed value " + i);
+        }
+
+        EntityDiff diff = limited.diff(limited.snapshot(before), after);
+
+        assertThat(diff.isTruncated()).isTrue();
+        assertThat(diff.getChanges()).extracting(FieldChange::getPath).containsExactly("field0", "field1");
+        assertThat(diff.getChanges().get(0).getAfter()).isEqualTo("changed …");
+    }
+
+    @Test
+    void unreadablePropertiesAreReportedAndNotCompared() throws Exception {
+        Map<String, Object> before = engine.snapshot(new LazyOrder("o-1", true));
+
+        EntityDiff diff = engine.diff(before, new LazyOrder("o-2", false));
+
+        // lines est illisible avant: ni ce chemin ni ses éléments ne sont comparés
+        assertThat(diff.getChanges()).containsExactly(new FieldChange("reference", "o-1", "o-2"));
+        assertThat(diff.getUnknownPaths()).containsExactly("lines");
+        assertThat(objectMapper.readTree(objectMapper.writeValueAsString(diff)).get("unknown").get(0).asText())
+            .isEqualTo("lines");
+    }
+
+    @Test
+    void stateAfterIsCapturedWhenTheDiffIsCreated() throws Exception {
+        Customer customer = new Customer("Awa", new Address("Dakar"), List.of());
+        Map<String, Object> before = engine.snapshot(customer);
+        customer.getAddress().setCity("Thiès");
+
+        EntityDiff diff = engine.diff(before, customer);
+        // Modification en place après le retour de la méthode: absente du diff, même sérialisé plus tard
+        customer.getAddress().setCity("Saint-Louis");
+        customer.setName("Fatou");
+
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsString(diff));
+        assertThat(json.get("changes")).hasSize(1);
+        assertThat(json.get("changes").get(0).get("after").asText()).isEqualTo("Thiès");
+        assertThat(json.get("truncated").asBoolean()).isFalse();
+    }
+
+    @Test
+    void aspectDiffsTheResultAsReturnedByTheMethod() throws Exception {
+        AuditPublisher publisher = mock(AuditPublisher.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new CustomerService());
+        factory.addAspect(new AuditAspect(publisher));
+        CustomerService service = factory.getProxy();
+        Customer customer = new Customer("Awa", new Address("Dakar"), List.of());
+
+        Customer moved = service.move(customer, "Thiès");
+        moved.getAddress().setCity("Ziguinchor");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> metadata = ArgumentCaptor.forClass(Map.class);
+        verify(publisher).success(eq("Customer"), anyString(), eq("MOVED"), metadata.capture(), any());
+        JsonNode diff = objectMapper.readTree(objectMapper.writeValueAsString(metadata.getValue().get("diff")));
+        assertThat(diff.get("changes").get(0).get("before").asText()).isEqualTo("Dakar");
+        assertThat(diff.get("changes").get(0).get("after").asText()).isEqualTo("Thiès");
+    }
+
+    public static class CustomerService {
+
+        @Auditable(action = "MOVED", entity = "Customer", entityIdExpression = "name", diffBefore = "#p0")
+        public Customer move(Customer customer, String city) {
+            customer.getAddress().setCity(city);
+            return customer;
+        }
+    }
+
+    public static class Customer {
+        private String name;
+        private final Address address;
+        private List<String> phones;
+
+        Customer(String name, Address address, List<String> phones) {
+            this.name = name;
+            this.address = address;
+            this.phones = new ArrayList<>(phones);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+
+        public List<String> getPhones() {
+            return phones;
+        }
+
+        public void setPhones(List<String> phones) {
+            this.phones = phones;
+        }
+    }
+
+    public static class Address {
+        private String city;
+
+        Address(String city) {
+            this.city = city;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public void setCity(String city) {
+            this.city = city;
+        }
+    }
+
+    /**
+     * Entité dont l'association n'est pas chargée (lecture en échec, comme une association JPA lazy)
+     */
+    public static class LazyOrder {
+        private final String reference;
+        private final boolean detached;
+
+        LazyOrder(String reference, boolean detached) {
+            this.reference = reference;
+            this.detached = detached;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+
+        public List<String> getLines() {
+            if (detached) {
+                throw new IllegalStateException("could not initialize proxy - no Session");
+            }
+            return List.of("line-1");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.crm_bancaire.common.audit.error;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorDeduplicatorTest {
+
+    @Test
+    void summaryCountsOnlyTheFailuresAfterTheFirstOne() {
+        List<AuditEvent> published = new ArrayList<>();
+        ErrorDeduplicator deduplicator = new ErrorDeduplicator(Duration.ofHours(1));
+        deduplicator.start(published::add);
+
+        for (int i = 1; i <= 5; i++) {
+            AuditEvent failure = failure(i);
+            if (deduplicator.admit(failure)) {
+                published.add(failure);
+            }
+        }
+        deduplicator.shutdown();
+
+        assertThat(published).extracting(AuditEvent::getEntityId).containsExactly("1", "5");
+        assertThat(published.get(0).getOccurrences()).isNull();
+        assertThat(published.get(1).getOccurrences()).isEqualTo(4);
+        assertThat(published.get(1).getMetadata().get(ErrorDeduplicator.SUPPRESSED_ENTITY_IDS_KEY))
+            .isEqualTo(List.of("2", "3", "4", "5"));
+        // Total exact: somme des occurrences, null = 1
+        assertThat(published.stream().mapToInt(event -> event.getOccurrences() != null ? event.getOccurrences() : 1)
+            .sum()).isEqualTo(5);
+    }
+
+    private static AuditEvent failure(int i) {
+        return AuditEvent.builder()
+            .eventId("event-" + i)
+            .entity("Customer")
+            .entityId(String.valueOf(i))
+            .action("UPDATE")
+            .status(AuditStatus.FAILED)
+            .errorFingerprint("3f2a9c1b")
+            .build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.crm_bancaire.common.audit.extractor;
+
+import com.crm_bancaire.common.audit.annotation.AuditId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityInfoExtractorTest {
+
+    @Test
+    void instancesKeepTheirOwnAccessorNames() {
+        EntityInfoExtractor defaults = new EntityInfoExtractor();
+        EntityInfoExtractor byReference = new EntityInfoExtractor(List.of("getReference"), List.of("reference"));
+        Contract contract = new Contract("c-1", "REF-9");
+
+        assertThat(byReference.extract(contract)).isEqualTo("REF-9");
+        assertThat(defaults.extract(contract)).isEqualTo("c-1");
+        assertThat(EntityInfoExtractor.extractEntityId(contract)).isEqualTo("c-1");
+    }
+
+    @Test
+    void auditIdTakesPrecedenceOverConventions() {
+        assertThat(new EntityInfoExtractor().extract(new Account("internal", "FR76-3000"))).isEqualTo("FR76-3000");
+    }
+
+    @Test
+    void fallsBackToToStringButRejectsPlainValues() {
+        EntityInfoExtractor extractor = new EntityInfoExtractor();
+
+        assertThat(extractor.readAccessorId(new Receipt())).isNull();
+        assertThat(extractor.extract(new Receipt())).isEqualTo("receipt");
+        assertThat(extractor.extract("created")).isNull();
+        assertThat(extractor.extract(42)).isNull();
+        assertThat(extractor.extract(null)).isNull();
+    }
+
+    public record Contract(String id, String reference) {
+        public String getId() {
+            return id;
+        }
+
+        public String getReference() {
+            return reference;
+        }
+    }
+
+    public static class Account {
+        private final String id;
+        @AuditId
+        private final String iban;
+
+        Account(String id, String iban) {
+            this.id = id;
+            this.iban = iban;
+        }
+
+        public String getId() {
+            return id;
+        }
+    }
+
+    public static class Receipt {
+        @Override
+        public String toString() {
+            return "receipt";
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.crm_bancaire.common.audit.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7EventIdGeneratorTest {
+
+    private final UuidV7EventIdGenerator generator = new UuidV7EventIdGenerator();
+
+    @Test
+    void generatesRfcVersion7Uuids() {
+        long before = System.currentTimeMillis();
+        String id = generator.nextId();
+        long after = System.currentTimeMillis();
+
+        UUID uuid = UUID.fromString(id);
+        assertThat(uuid.toString()).isEqualTo(id);
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        long millis = uuid.getMostSignificantBits() >>> 16;
+        // Le compteur peut avancer le timestamp d'une milliseconde en cas de débordement
+        assertThat(millis).isBetween(before, after + 1);
+    }
+
+    @Test
+    void stringAndUuidFormsAgree() {
+        UUID uuid = generator.nextUuid();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(UUID.fromString(generator.nextId())).isGreaterThan(uuid);
+    }
+
+    @Test
+    void idsAreStrictlyIncreasingWithinTheSameMillisecond() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(ids.get(i)).isGreaterThan(ids.get(i - 1));
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Set<String> local = new HashSet<>();
+                    for (int i = 0; i < perThread; i++) {
+                        local.add(generator.nextId());
+                    }
+                    ids.addAll(local);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(ids).hasSize(threads * perThread);
+    }
+}
@@ -0,0 +1,228 @@
+package com.crm_bancaire.common.audit.integrity;
+
+import com.crm_bancaire.common.audit.codec.AuditBinaryCodec;
+import com.crm_bancaire.common.audit.diff.DiffEngine;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.crm_bancaire.common.audit.id.UuidV7EventIdGenerator;
+import com.crm_bancaire.common.audit.integrity.IntegrityReport.ViolationType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AuditChainVerifierTest {
+
+    private static final int INTERVAL = 10;
+
+    private final HmacCheckpointSigner signer =
+        new HmacCheckpointSigner("k1", "test-secret-0123456789".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void verifiesAnIntactChain() {
+        List<AuditEvent> events = chain(95, signer);
+
+        IntegrityReport report = verify(events, signer);
+
+        assertThat(report.isValid()).isTrue();
+        assertThat(report.verifiedEvents()).isEqualTo(events.size());
+        assertThat(report.checkpoints()).isEqualTo(checkpoints(events)).isGreaterThan(9);
+        assertThat(report.unanchoredEvents()).isZero();
+    }
+
+    @Test
+    void verifiesEventsReceivedOutOfOrderAfterJsonAndBinaryRoundTrips() throws Exception {
+        List<AuditEvent> events = chain(95, signer);
+        ObjectMapper json = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        AuditBinaryCodec codec = new AuditBinaryCodec();
+        List<AuditEvent> received = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            AuditEvent event = events.get(i);
+            received.add(i % 2 == 0
+                ? json.readValue(json.writeValueAsBytes(event), AuditEvent.class)
+                : codec.decodeEvent(codec.encode(event)));
+        }
+        Collections.shuffle(received, new Random(42));
+
+        IntegrityReport report = verify(received, signer);
+
+        assertThat(report.violations()).isEmpty();
+        assertThat(report.verifiedEvents()).isEqualTo(events.size());
+    }
+
+    @Test
+    void hashesDiffMetadataAsPublished() throws Exception {
+        DiffEngine engine = new DiffEngine(List.of("password"), 50, 256, 4);
+        Map<String, Object> before = engine.snapshot(Map.of("city", "Dakar", "password", "a", "tier", 1));
+        AuditEvent event = AuditEvent.builder()
+            .eventId("event-1")
+            .entity("Customer")
+            .entityId("1")
+            .action("UPDATED")
+            .metadata(Map.of("diff", engine.diff(before, Map.of("city", "Thiès", "password", "b", "tier", 1))))
+            .build();
+        ObjectMapper json = new ObjectMapper().registerModule(new JavaTimeModule());
+        AuditEventHasher hasher = new AuditEventHasher();
+
+        byte[] published = hasher.contentHash(event);
+        AuditEvent received = json.readValue(json.writeValueAsBytes(event), AuditEvent.class);
+
+        assertThat(hasher.contentHash(received)).isEqualTo(published);
+    }
+
+    @Test
+    void detectsTamperedContent() {
+        List<AuditEvent> events = chain(30, signer);
+        events.get(4).setActorSub("someone-else");
+
+        IntegrityReport report = verify(events, signer);
+
+        assertThat(report.violations()).extracting(IntegrityReport.Violation::type, IntegrityReport.Violation::sequence)
+            .containsExactly(tuple(ViolationType.TAMPERED, 5L));
+    }
+
+    @Test
+    void detectsMissingAndDuplicatedEvents() {
+        List<AuditEvent> events = chain(30, signer);
+        List<AuditEvent> received = new ArrayList<>(events);
+        received.remove(6);
+        received.remove(6);
+        received.add(events.get(20));
+
+        IntegrityReport report = verify(received, signer);
+
+        assertThat(report.isValid()).isFalse();
+        assertThat(report.duplicates()).isEqualTo(1);
+        assertThat(report.violations()).first()
+            .satisfies(violation -> {
+                assertThat(violation.type()).isEqualTo(ViolationType.MISSING);
+                assertThat(violation.sequence()).isEqualTo(7);
+            });
+    }
+
+    @Test
+    void detectsReplacedEventThroughBrokenLink() {
+        List<AuditEvent> events = chain(30, signer);
+        // Événement recalculé de façon cohérente mais sur une autre chaîne: son hash est valide,
+        // son previousHash ne correspond pas
+        AuditEvent forged = chain(30, signer).get(7);
+        forged.setChainId(events.get(7).getChainId());
+        forged.setHash(AuditEventHasher.toHex(new AuditEventHasher().chainHash(
+            AuditEventHasher.fromHex(forged.getPreviousHash()), 8, new AuditEventHasher().contentHash(forged))));
+        events.set(7, forged);
+
+        IntegrityReport report = verify(events, signer);
+
+        assertThat(report.violations()).extracting(IntegrityReport.Violation::type)
+            .contains(ViolationType.BROKEN_LINK);
+    }
+
+    @Test
+    void detectsWrongSigningKey() {
+        List<AuditEvent> events = chain(30, signer);
+        HmacCheckpointSigner otherKey = new HmacCheckpointSigner("k1", "another-secret".getBytes(StandardCharsets.UTF_8));
+
+        IntegrityReport report = verify(events, otherKey);
+
+        assertThat(report.violations()).extracting(IntegrityReport.Violation::type)
+            .containsOnly(ViolationType.INVALID_SIGNATURE)
+            .hasSize((int) checkpoints(events));
+    }
+
+    @Test
+    void verifiesCheckpointsSignedWithAPrivateKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(256);
+        KeyPair keys = generator.generateKeyPair();
+        SignatureCheckpointSigner ecdsa = new SignatureCheckpointSigner("ec-1", "SHA256withECDSA", keys.getPrivate());
+        List<AuditEvent> events = chain(25, ecdsa);
+
+        AuditChainVerifier verifier = new AuditChainVerifier(SignatureCheckpointSigner.verifier("ec-1", keys.getPublic()));
+        events.forEach(verifier);
+        IntegrityReport report = verifier.finish();
+
+        assertThat(report.isValid()).isTrue();
+        assertThat(report.checkpoints()).isEqualTo(checkpoints(events));
+    }
+
+    @Test
+    void verifiesAnExtractStartingMidChain() {
+        List<AuditEvent> events = chain(60, signer);
+
+        IntegrityReport report = verify(events.subList(25, 60), signer);
+
+        assertThat(report.isValid()).isTrue();
+        // Le premier checkpoint de l'extrait couvre des événements absents de l'extrait
+        assertThat(report.partialCheckpoints()).isEqualTo(1);
+    }
+
+    @Test
+    void merkleRootMatchesCheckpointMetadata() {
+        List<AuditEvent> events = chain(INTERVAL, signer);
+        AuditEvent checkpoint = events.get(INTERVAL);
+        MerkleAccumulator accumulator = new MerkleAccumulator();
+        events.subList(0, INTERVAL).forEach(event -> accumulator.add(AuditEventHasher.fromHex(event.getHash())));
+
+        assertThat(AuditHashChain.isCheckpoint(checkpoint)).isTrue();
+        Map<String, Object> metadata = checkpoint.getMetadata();
+        assertThat(metadata.get(AuditHashChain.MERKLE_ROOT)).isEqualTo(AuditEventHasher.toHex(accumulator.root()));
+        assertThat(metadata).containsEntry(AuditHashChain.FROM_SEQUENCE, 1L).containsEntry(AuditHashChain.TO_SEQUENCE, 10L);
+    }
+
+    /**
+     * Publie count événements dans une chaîne: les checkpoints suivent l'événement qui les déclenche
+     */
+    private static List<AuditEvent> chain(int count, CheckpointSigner signer) {
+        AuditHashChain chain = new AuditHashChain(INTERVAL, signer);
+        chain.start("test-service", new UuidV7EventIdGenerator());
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            AuditEvent event = AuditEvent.builder()
+                .eventId("event-" + i)
+                .entity("Account")
+                .entityId(String.valueOf(i % 7))
+                .action("DEBIT")
+                .actorSub("sub-" + (i % 3))
+                .status(AuditStatus.SUCCESS)
+                .timestamp(Instant.parse("2026-01-01T00:00:00Z").plusSeconds(i))
+                .source("test-service")
+                .metadata(Map.of("amount", i * 100, "currency", "XOF"))
+                .build();
+            AuditEvent checkpoint = chain.append(event);
+            events.add(event);
+            if (checkpoint != null) {
+                events.add(checkpoint);
+            }
+        }
+        AuditEvent last = chain.flush();
+        if (last != null) {
+            events.add(last);
+        }
+        return events;
+    }
+
+    private static long checkpoints(List<AuditEvent> events) {
+        return events.stream().filter(AuditHashChain::isCheckpoint).count();
+    }
+
+    private static IntegrityReport verify(List<AuditEvent> events, CheckpointVerifier signatures) {
+        AuditChainVerifier verifier = new AuditChainVerifier(signatures);
+        events.forEach(verifier);
+        return verifier.finish();
+    }
+}
@@ -0,0 +1,69 @@
+package com.crm_bancaire.common.audit.publisher;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.crm_bancaire.common.audit.dto.AuditHeaders;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditMessageHeadersTest {
+
+    @Test
+    void defaultKeyIsEntityAndEntityId() {
+        AuditMessageHeaders headers = new AuditMessageHeaders(true);
+
+        Message<AuditEvent> message = headers.toMessage(event("Customer", "42"));
+
+        assertThat(message.getHeaders().get(AuditHeaders.PARTITION_KEY)).isEqualTo("Customer:42");
+        assertThat((byte[]) message.getHeaders().get(AuditHeaders.KAFKA_MESSAGE_KEY))
+            .isEqualTo("Customer:42".getBytes(StandardCharsets.UTF_8));
+        assertThat(headers.split(List.of(event("Customer", "1"), event("Customer", "2")))).hasSize(1);
+    }
+
+    @Test
+    void keyShardsGroupEventsAndSplitMixedBatches() {
+        AuditMessageHeaders headers = new AuditMessageHeaders(false, 4);
+        List<AuditEvent> events = List.of(event("Customer", "1"), event("Account", "7"), event("Customer", "1"));
+
+        String key = (String) headers.toMessage(event("Customer", "1")).getHeaders().get(AuditHeaders.PARTITION_KEY);
+        List<List<AuditEvent>> groups = headers.split(events);
+
+        assertThat(key).startsWith("shard:");
+        assertThat(groups).allSatisfy(group -> assertThat(headers.toMessage(batch(group)).getHeaders()
+            .get(AuditHeaders.PARTITION_KEY)).isNotNull());
+        // Même entité: même groupe, même clé qu'en publication unitaire, ordre conservé
+        assertThat(groups).filteredOn(group -> group.contains(events.get(0))).singleElement()
+            .satisfies(group -> assertThat(headers.toMessage(batch(group)).getHeaders()
+                .get(AuditHeaders.PARTITION_KEY)).isEqualTo(key));
+    }
+
+    @Test
+    void mixedBatchHasNoKeyWithoutShards() {
+        AuditMessageHeaders headers = new AuditMessageHeaders(false);
+
+        Message<AuditEventBatch> message = headers.toMessage(batch(List.of(event("Customer", "1"), event("Account", "7"))));
+
+        assertThat(message.getHeaders()).doesNotContainKeys(AuditHeaders.PARTITION_KEY, AuditHeaders.ENTITY);
+        assertThat(message.getHeaders().get(AuditHeaders.ACTION)).isEqualTo("UPDATE");
+    }
+
+    private static AuditEventBatch batch(List<AuditEvent> events) {
+        return AuditEventBatch.builder().batchId("batch-1").events(events).build();
+    }
+
+    private static AuditEvent event(String entity, String entityId) {
+        return AuditEvent.builder()
+            .eventId(entity + "-" + entityId)
+            .entity(entity)
+            .entityId(entityId)
+            .action("UPDATE")
+            .status(AuditStatus.SUCCESS)
+            .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.crm_bancaire.common.audit.publisher;
+
+import com.crm_bancaire.common.audit.batch.AuditEventBatcher;
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditEventBatch;
+import com.crm_bancaire.common.audit.dto.AuditHeaders;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.crm_bancaire.common.audit.metrics.AuditMetrics;
+import com.crm_bancaire.common.audit.metrics.EventOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StreamAuditPublisherTest {
+
+    private final StreamBridge streamBridge = mock(StreamBridge.class);
+    private StreamAuditPublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.destroy();
+        }
+    }
+
+    @Test
+    void groupedPublicationSendsOneMessagePerEventWithoutBatching() {
+        when(streamBridge.send(anyString(), any())).thenReturn(true);
+        publisher = started(StreamAuditPublisher.builder().streamBridge(streamBridge));
+
+        publisher.publishAll(List.of(event(1), event(2), event(3)));
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(streamBridge, times(3)).send(eq("customer.events"), payloads.capture());
+        assertThat(payloads.getAllValues()).allSatisfy(payload -> assertThat(payload).isInstanceOf(AuditEvent.class));
+    }
+
+    @Test
+    void groupedPublicationSendsOneBatchPerDestinationWithBatching() {
+        when(streamBridge.send(anyString(), any())).thenReturn(true);
+        publisher = started(StreamAuditPublisher.builder()
+            .streamBridge(streamBridge)
+            .batcher(new AuditEventBatcher(100, Long.MAX_VALUE, Duration.ofHours(1))));
+
+        publisher.publishAll(List.of(event(1), event(2), event(3)));
+
+        // Envoyé sans attendre le linger
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(streamBridge).send(eq("customer.events"), payload.capture());
+        assertThat(payload.getValue()).isInstanceOfSatisfying(Message.class, message -> {
+            assertThat(message.getHeaders().get(AuditHeaders.PAYLOAD_TYPE)).isEqualTo(AuditHeaders.PAYLOAD_BATCH);
+            assertThat(((AuditEventBatch) message.getPayload()).getEvents()).extracting(AuditEvent::getEventId)
+                .containsExactly("event-1", "event-2", "event-3");
+        });
+    }
+
+    @Test
+    void publicationNeverThrowsAndCountsUnroutableEventsAsFailed() {
+        List<String> outcomes = new ArrayList<>();
+        publisher = started(StreamAuditPublisher.builder().streamBridge(streamBridge));
+        ReflectionTestUtils.setField(publisher, "metrics", new AuditMetrics() {
+            @Override
+            public void recordOutcome(String entity, String action, String status, String destination,
+                                      EventOutcome outcome) {
+                outcomes.add(destination + ":" + outcome);
+            }
+        });
+        // Pas d'entité: aucune destination en mode per-entity
+        AuditEvent unroutable = AuditEvent.builder().eventId("event-0").status(AuditStatus.SUCCESS).build();
+
+        publisher.publish(unroutable);
+        publisher.publishAll(List.of(unroutable, event(1)));
+
+        assertThat(outcomes).containsExactly(
+            AbstractAuditPublisher.UNROUTED_DESTINATION + ":FAILED",
+            AbstractAuditPublisher.UNROUTED_DESTINATION + ":FAILED",
+            "customer.events:FAILED");
+        verify(streamBridge).send(eq("customer.events"), any());
+    }
+
+    private static StreamAuditPublisher started(StreamAuditPublisher.StreamAuditPublisherBuilder builder) {
+        StreamAuditPublisher started = builder.build();
+        started.afterPropertiesSet();
+        return started;
+    }
+
+    static AuditEvent event(int i) {
+        return AuditEvent.builder()
+            .eventId("event-" + i)
+            .entity("Customer")
+            .entityId(String.valueOf(i))
+            .action("UPDATE")
+            .status(AuditStatus.SUCCESS)
+            .build();
+    }
+}
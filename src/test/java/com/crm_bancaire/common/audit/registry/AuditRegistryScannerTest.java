@@ -0,0 +1,72 @@
+package com.crm_bancaire.common.audit.registry;
+
+import com.crm_bancaire.common.audit.annotation.Auditable;
+import com.crm_bancaire.common.audit.aspect.AuditAspect;
+import com.crm_bancaire.common.audit.publisher.AuditPublisher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AuditRegistryScannerTest {
+
+    private final AuditPublisher publisher = mock(AuditPublisher.class);
+    private final AuditRegistry registry = new AuditRegistry();
+
+    @Test
+    void registersOnlyMethodsTheAspectIntercepts() {
+        scanner(false, CustomerService.class).afterSingletonsInstantiated();
+
+        // L'annotation de l'interface n'est pas vue par le pointcut @annotation(auditable)
+        assertThat(registry.getMethods()).extracting(AuditedMethod::getMethod)
+            .containsExactly("close(String)");
+        assertThat(registry.getActions()).containsExactly("CLOSED");
+    }
+
+    @Test
+    void reportsOrRejectsInvalidExpressions() {
+        scanner(false, BrokenService.class).afterSingletonsInstantiated();
+
+        assertThat(registry.getInvalidMethods()).singleElement()
+            .satisfies(method -> assertThat(method.getExpressionError()).isNotBlank());
+        assertThatThrownBy(() -> scanner(true, BrokenService.class).afterSingletonsInstantiated())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("invalid entityIdExpression");
+    }
+
+    private AuditRegistryScanner scanner(boolean failOnInvalidExpression, Class<?> beanType) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("service", new RootBeanDefinition(beanType));
+        return new AuditRegistryScanner(beanFactory, new AuditAspect(publisher), publisher, registry,
+            failOnInvalidExpression);
+    }
+
+    public interface CustomerOperations {
+
+        @Auditable(action = "CREATED", entity = "Customer")
+        String create(String name);
+    }
+
+    public static class CustomerService implements CustomerOperations {
+
+        @Override
+        public String create(String name) {
+            return name;
+        }
+
+        @Auditable(action = "CLOSED", entity = "Customer", entityIdExpression = "#p0")
+        public void close(String customerId) {
+        }
+    }
+
+    public static class BrokenService {
+
+        @Auditable(action = "CREATED", entity = "Customer", entityIdExpression = "getId(")
+        public Object create() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.crm_bancaire.common.audit.routing;
+
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRouterTest {
+
+    @Test
+    void firstMatchingRuleWinsThenEntityDefault() {
+        AuditRouter router = new AuditRouter(List.of(
+            new RoutingRule("*", "*", "failed", null, "{entity}.failures"),
+            new RoutingRule("Customer", "*_VIEWED", null, null, "customer.reads"),
+            new RoutingRule("*", "*", null, "billing-service", "billing.audit")));
+        router.start("customer-service", entity -> entity.toLowerCase() + ".events");
+
+        assertThat(router.destination("Customer", "UPDATE", AuditStatus.FAILED)).isEqualTo("customer.failures");
+        assertThat(router.destination("Customer", "PROFILE_VIEWED", AuditStatus.SUCCESS)).isEqualTo("customer.reads");
+        assertThat(router.destination("Account", "UPDATE", AuditStatus.SUCCESS)).isEqualTo("account.events");
+        assertThat(router.hasRules()).isTrue();
+    }
+
+    @Test
+    void nullEntityAndActionAreResolvedOnceWithTheDefaultDestination() {
+        AtomicInteger resolutions = new AtomicInteger();
+        AuditRouter router = new AuditRouter(List.of(new RoutingRule("*", "*", null, null, "{entity}.all")));
+        router.start("customer-service", entity -> {
+            resolutions.incrementAndGet();
+            return "audit.events";
+        });
+
+        for (int i = 0; i < 3; i++) {
+            // Aucune règle ne correspond à une valeur absente
+            assertThat(router.destination(null, null, AuditStatus.SUCCESS)).isEqualTo("audit.events");
+            assertThat(router.destination("Customer", null, null)).isEqualTo("audit.events");
+        }
+        // Une résolution par statut (et sans statut) pour chacun des deux couples, mise en table
+        assertThat(resolutions).hasValue(2 * (AuditStatus.values().length + 1));
+        assertThat(router.destination("Customer", "UPDATE", AuditStatus.SUCCESS)).isEqualTo("customer.all");
+    }
+}
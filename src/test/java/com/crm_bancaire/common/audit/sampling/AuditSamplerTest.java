@@ -0,0 +1,113 @@
+package com.crm_bancaire.common.audit.sampling;
+
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import com.crm_bancaire.common.audit.metrics.AuditPipelineMeterBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class AuditSamplerTest {
+
+    @Test
+    void firstMatchingPropertyRuleWinsOverLaterRulesAndAnnotations() {
+        AuditSampler sampler = new AuditSampler(List.of(
+            new SamplingRule("Customer", "*", 0.0, "customer-all"),
+            new SamplingRule("Customer", "VIEWED", 1.0)), List.of(), false, 0.5, 0.0, List.of());
+        sampler.registerAnnotationRate("Account", "VIEWED", 0.0);
+        sampler.registerAnnotationRate("Customer", "LISTED", 1.0 / 3);
+
+        assertThat(sample(sampler, "Customer", "VIEWED", 100)).isZero();
+        assertThat(sample(sampler, "Customer", "LISTED", 100)).isZero();
+        assertThat(sample(sampler, "Account", "VIEWED", 100)).isZero();
+        assertThat(sample(sampler, "Account", "CREATED", 100)).isEqualTo(100);
+        assertThat(sampler.getSampledOutCounts()).containsExactly(
+            Map.entry("@Auditable Account:VIEWED", 100L),
+            Map.entry("customer-all", 200L));
+    }
+
+    @Test
+    void annotationRatesApplyWithoutPropertyRules() {
+        AuditSampler sampler = new AuditSampler();
+        sampler.registerAnnotationRate("Customer", "VIEWED", 0.0);
+        // Taux contradictoire d'une autre méthode: le premier déclaré est conservé
+        sampler.registerAnnotationRate("Customer", "VIEWED", 1.0 / 2);
+
+        assertThat(sample(sampler, "Customer", "VIEWED", 50)).isZero();
+        assertThat(sample(sampler, "Customer", "UPDATED", 50)).isEqualTo(50);
+    }
+
+    @Test
+    void failuresAndCriticalActionsAreNeverDropped() {
+        AuditSampler sampler = new AuditSampler(List.of(new SamplingRule("*", "*", 0.0)),
+            List.of("delete*", "TRANSFER"), true, 0.0, 0.0, List.of());
+        sampler.setLoadSupplier(() -> 1.0);
+
+        assertThat(sampler.sample("Customer", "VIEWED", AuditStatus.FAILED)).isTrue();
+        assertThat(sampler.sample("Customer", "VIEWED", AuditStatus.ERROR)).isTrue();
+        assertThat(sample(sampler, "Customer", "DELETE_SOFT", 50)).isEqualTo(50);
+        assertThat(sample(sampler, "Account", "transfer", 50)).isEqualTo(50);
+        assertThat(sample(sampler, "Customer", "VIEWED", 50)).isZero();
+    }
+
+    @Test
+    void shedsOnlyLowPriorityEventsUnderLoad() {
+        AuditSampler sampler = new AuditSampler(List.of(), List.of(), true, 0.5, 0.0, List.of("*_VIEWED"));
+        double[] load = {0.2};
+        sampler.setLoadSupplier(() -> load[0]);
+
+        assertThat(sample(sampler, "Customer", "CUSTOMER_VIEWED", 100)).isEqualTo(100);
+
+        load[0] = 1.0;
+        assertThat(sample(sampler, "Customer", "CUSTOMER_VIEWED", 100)).isZero();
+        assertThat(sample(sampler, "Customer", "CREATED", 100)).isEqualTo(100);
+        assertThat(sampler.getShedCounts()).containsExactly(Map.entry("*:CUSTOMER_VIEWED", 100L));
+        assertThat(sampler.getSampledOutCounts()).isEmpty();
+    }
+
+    @Test
+    void sheddingFactorDecreasesLinearlyDownToTheMinimumRate() {
+        AuditSampler sampler = new AuditSampler(List.of(), List.of(), true, 0.6, 0.1, List.of());
+
+        assertThat(sampler.sheddingFactor(0.5)).isEqualTo(1.0);
+        assertThat(sampler.sheddingFactor(0.8)).isCloseTo(0.5, offset(1e-9));
+        assertThat(sampler.sheddingFactor(1.0)).isEqualTo(0.1);
+    }
+
+    @Test
+    void publishesOneCounterPerRule() {
+        AuditSampler sampler = new AuditSampler(List.of(
+            new SamplingRule("Customer", "VIEWED", 0.0),
+            new SamplingRule("Account", "*", 0.0, "accounts")), List.of(), false, 0.5, 0.0, List.of());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        sample(sampler, "Customer", "VIEWED", 3);
+        new AuditPipelineMeterBinder(null, null, null, sampler).bindTo(registry);
+        // Compteur créé après l'enregistrement du binder
+        sample(sampler, "Account", "LISTED", 2);
+
+        assertThat(registry.get("audit.sampling.dropped")
+            .tags("reason", "sampled", "rule", "Customer:VIEWED", "entity", "Customer", "action", "VIEWED")
+            .functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("audit.sampling.dropped")
+            .tags("rule", "accounts", "entity", "Account", "action", "*")
+            .functionCounter().count()).isEqualTo(2);
+    }
+
+    /**
+     * @return Nombre d'événements SUCCESS conservés sur count
+     */
+    private static int sample(AuditSampler sampler, String entity, String action, int count) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (sampler.sample(entity, action, AuditStatus.SUCCESS)) {
+                kept++;
+            }
+        }
+        return kept;
+    }
+}
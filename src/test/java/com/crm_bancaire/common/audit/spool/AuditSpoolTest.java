@@ -0,0 +1,170 @@
+package com.crm_bancaire.common.audit.spool;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class AuditSpoolTest {
+
+    private static final long SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEventsInOrderAcrossSegments() {
+        try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20, false)) {
+            for (int i = 1; i <= 50; i++) {
+                assertThat(spool.append(event(i))).isTrue();
+            }
+            assertThat(spool.getPendingEvents()).isEqualTo(50);
+
+            assertThat(drain(spool)).containsExactlyElementsOf(ids(1, 50));
+            assertThat(spool.hasBacklog()).isFalse();
+            assertThat(spool.peek()).isNull();
+        }
+    }
+
+    @Test
+    void resumesAfterLastCommittedEventOnReopen() {
+        try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20, false)) {
+            for (int i = 1; i <= 30; i++) {
+                spool.append(event(i));
+            }
+            for (int i = 1; i <= 12; i++) {
+                spool.peek();
+                spool.commit();
+            }
+            // Lu mais pas acquitté: doit être rejoué
+            assertThat(spool.peek().getEventId()).isEqualTo("event-13");
+        }
+
+        try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20, false)) {
+            assertThat(spool.getPendingEvents()).isEqualTo(18);
+            assertThat(drain(spool)).containsExactlyElementsOf(ids(13, 30));
+        }
+    }
+
+    @Test
+    void recoveryStopsAtCorruptedRecord() throws IOException {
+        try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20, false)) {
+            for (int i = 1; i <= 3; i++) {
+                spool.append(event(i));
+            }
+        }
+        corrupt(segmentFiles().get(0), "event-3");
+
+        try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20, false)) {
+            assertThat(spool.getPendingEvents()).isEqualTo(2);
+            // Les ajouts suivants remplacent l'enregistrement corrompu
+            spool.append(event(4));
+            assertThat(drain(spool)).containsExactly("event-1", "event-2", "event-4");
+        }
+    }
+
+    @Test
+    void rejectsEventsWhenFull() {
+        try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, SEGMENT_SIZE, false)) {
+            int accepted = 0;
+            while (spool.append(event(accepted + 1))) {
+                accepted++;
+            }
+            assertThat(accepted).isPositive();
+            assertThat(spool.getRejectedEvents()).isEqualTo(1);
+            assertThat(spool.getPendingEvents()).isEqualTo(accepted);
+        }
+    }
+
+    @Test
+    void replayerRetriesUntilSenderSucceeds() {
+        try (AuditSpool spool = new AuditSpool(directory, SEGMENT_SIZE, 1 << 20, false)) {
+            for (int i = 1; i <= 5; i++) {
+                spool.append(event(i));
+            }
+            AtomicBoolean brokerUp = new AtomicBoolean(false);
+            List<String> sent = new CopyOnWriteArrayList<>();
+            AuditSpoolReplayer replayer = new AuditSpoolReplayer(spool, Duration.ofMillis(10), Duration.ofMillis(50));
+            replayer.start(event -> {
+                if (!brokerUp.get()) {
+                    return false;
+                }
+                sent.add(event.getEventId());
+                return true;
+            });
+            try {
+                await().pollDelay(Duration.ofMillis(100)).until(() -> true);
+                assertThat(sent).isEmpty();
+                assertThat(spool.getPendingEvents()).isEqualTo(5);
+
+                brokerUp.set(true);
+                await().atMost(Duration.ofSeconds(5)).until(() -> !spool.hasBacklog());
+                assertThat(sent).containsExactlyElementsOf(ids(1, 5));
+            } finally {
+                replayer.shutdown();
+            }
+        }
+    }
+
+    private static AuditEvent event(int i) {
+        return AuditEvent.builder()
+            .eventId("event-" + i)
+            .entity("Customer")
+            .entityId(String.valueOf(i))
+            .action("UPDATE")
+            .status(AuditStatus.SUCCESS)
+            .timestamp(Instant.parse("2026-01-01T00:00:00Z").plusSeconds(i))
+            .source("test-service")
+            .build();
+    }
+
+    private static List<String> ids(int from, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            ids.add("event-" + i);
+        }
+        return ids;
+    }
+
+    private static List<String> drain(AuditSpool spool) {
+        List<String> ids = new ArrayList<>();
+        for (AuditEvent event = spool.peek(); event != null; event = spool.peek()) {
+            ids.add(event.getEventId());
+            spool.commit();
+        }
+        return ids;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+
+    /**
+     * Altère un octet du payload contenant marker (écriture interrompue par un crash)
+     */
+    private static void corrupt(Path file, String marker) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        String text = new String(content, StandardCharsets.ISO_8859_1);
+        int position = text.indexOf(marker);
+        assertThat(position).isPositive();
+        content[position] ^= 0x01;
+        Files.write(file, content);
+    }
+}
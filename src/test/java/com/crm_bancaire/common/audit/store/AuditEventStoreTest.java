@@ -0,0 +1,122 @@
+package com.crm_bancaire.common.audit.store;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditEventStoreTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final long SEGMENT_SIZE = 16 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsEventsByEntityAcrossSegmentsAndAfterReopen() {
+        try (AuditEventStore store = new AuditEventStore(directory, SEGMENT_SIZE, 1 << 30, false)) {
+            appendAll(store, 1, 1000);
+
+            assertThat(store.getSegmentCount()).isGreaterThan(1);
+            assertThat(store.getStoredEvents()).isEqualTo(1000);
+            assertThat(entityIds(store.findByEntity("Customer", "7"))).containsExactlyElementsOf(expectedFor(7, 1000));
+            assertThat(store.findByEntity("Account", "7")).isEmpty();
+        }
+
+        try (AuditEventStore store = new AuditEventStore(directory, SEGMENT_SIZE, 1 << 30, false)) {
+            assertThat(store.getStoredEvents()).isEqualTo(1000);
+            appendAll(store, 1001, 1100);
+            assertThat(entityIds(store.findByEntity("Customer", "7"))).containsExactlyElementsOf(expectedFor(7, 1100));
+        }
+    }
+
+    @Test
+    void findsEventsOfAPeriod() {
+        try (AuditEventStore store = new AuditEventStore(directory, SEGMENT_SIZE, 1 << 30, false)) {
+            appendAll(store, 1, 1000);
+
+            List<AuditEvent> events = store.findBetween(START.plusSeconds(400), START.plusSeconds(409)).toList();
+
+            assertThat(events).extracting(AuditEvent::getEventId)
+                .containsExactly("event-400", "event-401", "event-402", "event-403", "event-404",
+                    "event-405", "event-406", "event-407", "event-408", "event-409");
+        }
+    }
+
+    @Test
+    void truncatesTornWriteOnRecovery() throws IOException {
+        try (AuditEventStore store = new AuditEventStore(directory, SEGMENT_SIZE, 1 << 30, false)) {
+            appendAll(store, 1, 10);
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.toString().endsWith(".log")).sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        // En-tête annonçant 1000 octets dont seuls quelques-uns ont été écrits
+        Files.write(segment, new byte[] {0, 0, 3, (byte) 0xE8, 1, 2, 3, 4, 5, 6}, StandardOpenOption.APPEND);
+
+        try (AuditEventStore store = new AuditEventStore(directory, SEGMENT_SIZE, 1 << 30, false)) {
+            assertThat(store.getStoredEvents()).isEqualTo(10);
+            appendAll(store, 11, 12);
+            assertThat(store.findBetween(START, START.plusSeconds(100)).map(AuditEvent::getEventId).toList())
+                .hasSize(12)
+                .endsWith("event-11", "event-12");
+        }
+    }
+
+    @Test
+    void deletesOldestSegmentsBeyondMaxSize() {
+        try (AuditEventStore store = new AuditEventStore(directory, SEGMENT_SIZE, SEGMENT_SIZE * 3, false)) {
+            appendAll(store, 1, 2000);
+
+            assertThat(store.getSegmentCount()).isLessThanOrEqualTo(4);
+            assertThat(store.getStoredEvents()).isLessThan(2000);
+            assertThat(store.findByEntity("Customer", "1")).extracting(AuditEvent::getEventId)
+                .doesNotContain("event-1");
+            assertThat(store.findBetween(START, START.plusSeconds(3000)).count()).isEqualTo(store.getStoredEvents());
+        }
+    }
+
+    private static void appendAll(AuditEventStore store, int from, int to) {
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            writes.add(store.append(AuditEvent.builder()
+                .eventId("event-" + i)
+                .entity("Customer")
+                .entityId(String.valueOf(i % 50))
+                .action("UPDATE")
+                .status(AuditStatus.SUCCESS)
+                .timestamp(START.plusSeconds(i))
+                .source("test-service")
+                .build()));
+        }
+        CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static List<String> expectedFor(int entityId, int to) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= to; i++) {
+            if (i % 50 == entityId) {
+                ids.add("event-" + i);
+            }
+        }
+        return ids;
+    }
+
+    private static List<String> entityIds(Stream<AuditEvent> events) {
+        return events.map(AuditEvent::getEventId).toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.crm_bancaire.common.audit.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsOffsetsOfAHashBeforeAndAfterWrite() throws IOException {
+        // Hash négatifs et positifs: le tri doit être non signé
+        int[] hashes = {-7, 42, Integer.MIN_VALUE, 42, Integer.MAX_VALUE, -7, 0, 42};
+        SegmentIndex.Builder builder = new SegmentIndex.Builder();
+        for (int i = 0; i < hashes.length; i++) {
+            builder.add(hashes[i], 1_000 + i, i * 100);
+        }
+        SegmentIndex active = builder.snapshot();
+        Path file = directory.resolve("segment.idx");
+        active.writeTo(file);
+        SegmentIndex written = SegmentIndex.read(file);
+
+        for (SegmentIndex index : new SegmentIndex[] {active, written}) {
+            assertThat(index.getRecordCount()).isEqualTo(hashes.length);
+            assertThat(index.offsetsFor(42)).containsExactly(100, 300, 700);
+            assertThat(index.offsetsFor(-7)).containsExactly(0, 500);
+            assertThat(index.offsetsFor(Integer.MIN_VALUE)).containsExactly(200);
+            assertThat(index.offsetsFor(Integer.MAX_VALUE)).containsExactly(400);
+            assertThat(index.offsetsFor(1)).isEmpty();
+        }
+    }
+
+    @Test
+    void startOffsetSkipsRecordsOlderThanThePeriod() throws IOException {
+        int records = SegmentIndex.TIME_INTERVAL * 4;
+        SegmentIndex.Builder builder = new SegmentIndex.Builder();
+        for (int i = 0; i < records; i++) {
+            builder.add(i, i * 10L, i * 64);
+        }
+        Path file = directory.resolve("segment.idx");
+        builder.snapshot().writeTo(file);
+        SegmentIndex index = SegmentIndex.read(file);
+
+        // Tous les enregistrements avant le point 2 ont un timestamp < 2 * TIME_INTERVAL * 10
+        long from = (SegmentIndex.TIME_INTERVAL * 2 + 5) * 10L;
+        assertThat(index.startOffset(from)).isEqualTo(SegmentIndex.TIME_INTERVAL * 2 * 64);
+        assertThat(index.startOffset(0)).isZero();
+        assertThat(index.overlaps(from, from)).isTrue();
+        assertThat(index.overlaps(records * 10L, Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void ignoresCorruptedIndexFiles() throws IOException {
+        SegmentIndex.Builder builder = new SegmentIndex.Builder();
+        builder.add(1, 1, 0);
+        Path file = directory.resolve("segment.idx");
+        builder.snapshot().writeTo(file);
+
+        byte[] content = Files.readAllBytes(file);
+        content[content.length / 2] ^= 0x10;
+        Files.write(file, content);
+
+        assertThat(SegmentIndex.read(file)).isNull();
+        assertThat(SegmentIndex.read(directory.resolve("missing.idx"))).isNull();
+    }
+}
@@ -0,0 +1,185 @@
+package com.crm_bancaire.common.audit.transaction;
+
+import com.crm_bancaire.common.audit.dto.AuditEvent;
+import com.crm_bancaire.common.audit.dto.AuditStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionalAuditBufferTest {
+
+    private final List<List<String>> published = new ArrayList<>();
+    private final List<String> discarded = new ArrayList<>();
+    private final TestTransactionManager transactionManager = new TestTransactionManager();
+
+    @Test
+    void publishesImmediatelyOutsideATransaction() {
+        TransactionalAuditBuffer buffer = buffer(RollbackPolicy.FAILED, 10);
+
+        assertThat(buffer.defer(event(1, AuditStatus.SUCCESS))).isFalse();
+        assertThat(buffer.getPendingEvents()).isZero();
+    }
+
+    @Test
+    void publishesAllEventsTogetherAfterCommit() {
+        TransactionalAuditBuffer buffer = buffer(RollbackPolicy.FAILED, 10);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(buffer.defer(event(1, AuditStatus.SUCCESS))).isTrue();
+            assertThat(buffer.defer(event(2, AuditStatus.SUCCESS))).isTrue();
+            assertThat(buffer.getPendingEvents()).isEqualTo(2);
+            assertThat(published).isEmpty();
+        });
+
+        assertThat(published).containsExactly(List.of("event-1:SUCCESS", "event-2:SUCCESS"));
+    }
+
+    @Test
+    void rollbackMarksSuccessfulEventsAsFailed() {
+        TransactionalAuditBuffer buffer = buffer(RollbackPolicy.FAILED, 10);
+        List<AuditEvent> events = List.of(event(1, AuditStatus.SUCCESS), event(2, AuditStatus.ERROR));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            events.forEach(buffer::defer);
+            status.setRollbackOnly();
+        });
+
+        assertThat(published).containsExactly(List.of("event-1:FAILED", "event-2:ERROR"));
+        assertThat(events.get(0).getErrorMessage()).isEqualTo(TransactionalAuditBuffer.ROLLBACK_MESSAGE);
+        assertThat(discarded).isEmpty();
+    }
+
+    @Test
+    void rollbackDiscardsSuccessfulEventsButKeepsFailures() {
+        TransactionalAuditBuffer buffer = buffer(RollbackPolicy.DISCARD, 10);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            buffer.defer(event(1, AuditStatus.SUCCESS));
+            buffer.defer(event(2, AuditStatus.FAILED));
+            status.setRollbackOnly();
+        });
+
+        assertThat(published).containsExactly(List.of("event-2:FAILED"));
+        assertThat(discarded).containsExactly("event-1");
+    }
+
+    @Test
+    void suspendedTransactionKeepsItsOwnEvents() {
+        TransactionalAuditBuffer buffer = buffer(RollbackPolicy.DISCARD, 10);
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(outer -> {
+            buffer.defer(event(1, AuditStatus.SUCCESS));
+            requiresNew.executeWithoutResult(inner -> {
+                assertThat(buffer.getPendingEvents()).isZero();
+                buffer.defer(event(2, AuditStatus.SUCCESS));
+            });
+            // La transaction interne est déjà commitée, l'externe retrouve sa liste
+            assertThat(published).containsExactly(List.of("event-2:SUCCESS"));
+            assertThat(buffer.getPendingEvents()).isEqualTo(1);
+            buffer.defer(event(3, AuditStatus.SUCCESS));
+            outer.setRollbackOnly();
+        });
+
+        assertThat(published).containsExactly(List.of("event-2:SUCCESS"));
+        assertThat(discarded).containsExactly("event-1", "event-3");
+    }
+
+    @Test
+    void eventsBeyondTheLimitArePublishedImmediately() {
+        TransactionalAuditBuffer buffer = buffer(RollbackPolicy.FAILED, 2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(buffer.defer(event(1, AuditStatus.SUCCESS))).isTrue();
+            assertThat(buffer.defer(event(2, AuditStatus.SUCCESS))).isTrue();
+            assertThat(buffer.defer(event(3, AuditStatus.SUCCESS))).isFalse();
+        });
+
+        assertThat(published).containsExactly(List.of("event-1:SUCCESS", "event-2:SUCCESS"));
+    }
+
+    private TransactionalAuditBuffer buffer(RollbackPolicy policy, int maxBufferedEvents) {
+        TransactionalAuditBuffer buffer = new TransactionalAuditBuffer(policy, maxBufferedEvents);
+        buffer.start(events -> published.add(events.stream()
+                .map(event -> event.getEventId() + ":" + event.getStatus()).toList()),
+            event -> discarded.add(event.getEventId()));
+        return buffer;
+    }
+
+    private static AuditEvent event(int i, AuditStatus status) {
+        return AuditEvent.builder()
+            .eventId("event-" + i)
+            .entity("Customer")
+            .entityId(String.valueOf(i))
+            .action("UPDATE")
+            .status(status)
+            .build();
+    }
+
+    /**
+     * Gestionnaire de transactions sans ressource: la transaction courante est liée au thread,
+     * ce qui suffit pour REQUIRES_NEW (suspension puis reprise).
+     */
+    private static class TestTransactionManager extends AbstractPlatformTransactionManager {
+
+        private static final Object KEY = new Object();
+
+        /**
+         * Transaction courante (liée au thread sous KEY), null si aucune
+         */
+        private static class TransactionObject {
+            private Object current;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            TransactionObject transaction = new TransactionObject();
+            transaction.current = TransactionSynchronizationManager.getResource(KEY);
+            return transaction;
+        }
+
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return ((TransactionObject) transaction).current != null;
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            ((TransactionObject) transaction).current = new Object();
+            TransactionSynchronizationManager.bindResource(KEY, ((TransactionObject) transaction).current);
+        }
+
+        @Override
+        protected Object doSuspend(Object transaction) {
+            ((TransactionObject) transaction).current = null;
+            return TransactionSynchronizationManager.unbindResource(KEY);
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+            TransactionSynchronizationManager.bindResource(KEY, suspendedResources);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doCleanupAfterCompletion(Object transaction) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+        }
+    }
+}